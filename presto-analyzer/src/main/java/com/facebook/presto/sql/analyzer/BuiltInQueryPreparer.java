@@ -78,7 +78,7 @@ public class BuiltInQueryPreparer
     @Override
     public BuiltInPreparedQuery prepareQuery(AnalyzerOptions analyzerOptions, String query, Map<String, String> preparedStatements, WarningCollector warningCollector)
     {
-        Statement wrappedStatement = sqlParser.createStatement(query, createParsingOptions(analyzerOptions));
+        Statement wrappedStatement = parseStatement(query, analyzerOptions);
         if (warningCollector.hasWarnings() && analyzerOptions.getWarningHandlingLevel() == AS_ERROR) {
             throw new PrestoException(WARNING_AS_ERROR, format("Warning handling level set to AS_ERROR. Warnings: %n %s",
                     warningCollector.getWarnings().stream()
@@ -96,7 +96,7 @@ public class BuiltInQueryPreparer
             String preparedStatementName = ((Execute) statement).getName().getValue();
             prepareSql = Optional.ofNullable(preparedStatements.get(preparedStatementName));
             String query = prepareSql.orElseThrow(() -> new PrestoException(NOT_FOUND, "Prepared statement not found: " + preparedStatementName));
-            statement = sqlParser.createStatement(query, createParsingOptions(analyzerOptions));
+            statement = parseStatement(query, analyzerOptions);
         }
 
         Optional<QualifiedObjectName> distributedProcedureName = Optional.empty();
@@ -130,6 +130,14 @@ public class BuiltInQueryPreparer
         return new BuiltInPreparedQuery(wrappedStatement, statement, parameters, formattedQuery, prepareSql, distributedProcedureName);
     }
 
+    /**
+     * Parses the given SQL text. Subclasses may override this to reuse previously parsed statements.
+     */
+    protected Statement parseStatement(String query, AnalyzerOptions analyzerOptions)
+    {
+        return sqlParser.createStatement(query, createParsingOptions(analyzerOptions));
+    }
+
     private static String getFormattedQuery(Statement statement, List<Expression> parameters)
     {
         String formattedQuery = formatSql(
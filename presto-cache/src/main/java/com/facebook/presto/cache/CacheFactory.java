@@ -42,6 +42,8 @@ public class CacheFactory
 
         switch (cacheConfig.getCacheType()) {
             case FILE_MERGE:
+            case TIERED:
+                // both read through the bound CacheManager; only the cache layout differs
                 return new FileMergeCachingFileSystem(
                         factoryUri,
                         factoryConfig,
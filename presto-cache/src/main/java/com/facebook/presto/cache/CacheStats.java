@@ -25,6 +25,13 @@ public class CacheStats
     private final AtomicLong hit = new AtomicLong();
     private final AtomicLong miss = new AtomicLong();
     private final AtomicLong quotaExceed = new AtomicLong();
+    private final AtomicLong memoryCacheHit = new AtomicLong();
+    private final AtomicLong diskCacheHit = new AtomicLong();
+    private final AtomicLong memoryCacheEviction = new AtomicLong();
+    private final AtomicLong diskCacheEviction = new AtomicLong();
+    private final AtomicLong admissionRejection = new AtomicLong();
+    private final AtomicLong memoryCacheRetainedBytes = new AtomicLong();
+    private final AtomicLong diskCacheRetainedBytes = new AtomicLong();
 
     public void incrementCacheHit()
     {
@@ -41,6 +48,41 @@ public class CacheStats
         quotaExceed.getAndIncrement();
     }
 
+    public void incrementMemoryCacheHit()
+    {
+        memoryCacheHit.getAndIncrement();
+    }
+
+    public void incrementDiskCacheHit()
+    {
+        diskCacheHit.getAndIncrement();
+    }
+
+    public void incrementMemoryCacheEviction()
+    {
+        memoryCacheEviction.getAndIncrement();
+    }
+
+    public void incrementDiskCacheEviction()
+    {
+        diskCacheEviction.getAndIncrement();
+    }
+
+    public void incrementAdmissionRejection()
+    {
+        admissionRejection.getAndIncrement();
+    }
+
+    public void addMemoryCacheRetainedBytes(long bytes)
+    {
+        memoryCacheRetainedBytes.addAndGet(bytes);
+    }
+
+    public void addDiskCacheRetainedBytes(long bytes)
+    {
+        diskCacheRetainedBytes.addAndGet(bytes);
+    }
+
     public void addInMemoryRetainedBytes(long bytes)
     {
         inMemoryRetainedBytes.addAndGet(bytes);
@@ -69,4 +111,64 @@ public class CacheStats
     {
         return quotaExceed.get();
     }
+
+    @Managed
+    public long getMemoryCacheHit()
+    {
+        return memoryCacheHit.get();
+    }
+
+    @Managed
+    public long getDiskCacheHit()
+    {
+        return diskCacheHit.get();
+    }
+
+    @Managed
+    public double getMemoryCacheHitRate()
+    {
+        return hitRate(memoryCacheHit.get());
+    }
+
+    @Managed
+    public double getDiskCacheHitRate()
+    {
+        return hitRate(diskCacheHit.get());
+    }
+
+    @Managed
+    public long getMemoryCacheEviction()
+    {
+        return memoryCacheEviction.get();
+    }
+
+    @Managed
+    public long getDiskCacheEviction()
+    {
+        return diskCacheEviction.get();
+    }
+
+    @Managed
+    public long getAdmissionRejection()
+    {
+        return admissionRejection.get();
+    }
+
+    @Managed
+    public long getMemoryCacheRetainedBytes()
+    {
+        return memoryCacheRetainedBytes.get();
+    }
+
+    @Managed
+    public long getDiskCacheRetainedBytes()
+    {
+        return diskCacheRetainedBytes.get();
+    }
+
+    private double hitRate(long tierHits)
+    {
+        long requests = hit.get() + miss.get();
+        return requests == 0 ? 0 : (double) tierHits / requests;
+    }
 }
@@ -24,12 +24,20 @@ public class FileReadRequest
     private final Path path;
     private final long offset;
     private final int length;
+    // zero when the modification time of the file is unknown
+    private final long modificationTime;
 
     public FileReadRequest(Path path, long offset, int length)
+    {
+        this(path, offset, length, 0);
+    }
+
+    public FileReadRequest(Path path, long offset, int length, long modificationTime)
     {
         this.path = requireNonNull(path, "path is null");
         this.offset = requireNonNull(offset, "offset is null");
         this.length = requireNonNull(length, "length is null");
+        this.modificationTime = modificationTime;
     }
 
     public Path getPath()
@@ -47,10 +55,15 @@ public class FileReadRequest
         return length;
     }
 
+    public long getModificationTime()
+    {
+        return modificationTime;
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hash(path, offset, length);
+        return Objects.hash(path, offset, length, modificationTime);
     }
 
     @Override
@@ -65,6 +78,7 @@ public class FileReadRequest
         FileReadRequest other = (FileReadRequest) object;
         return Objects.equals(this.path, other.path) &&
                 Objects.equals(this.offset, other.offset) &&
-                Objects.equals(this.length, other.length);
+                Objects.equals(this.length, other.length) &&
+                this.modificationTime == other.modificationTime;
     }
 }
@@ -53,7 +53,13 @@ public final class FileMergeCachingFileSystem
             throws Exception
     {
         if (hiveFileContext.isCacheable()) {
-            return new FileMergeCachingInputStream(dataTier.openFile(path, hiveFileContext), cacheManager, path, hiveFileContext.getCacheQuota(), cacheValidationEnabled);
+            return new FileMergeCachingInputStream(
+                    dataTier.openFile(path, hiveFileContext),
+                    cacheManager,
+                    path,
+                    hiveFileContext.getModificationTime(),
+                    hiveFileContext.getCacheQuota(),
+                    cacheValidationEnabled);
         }
 
         return dataTier.openFile(path, hiveFileContext);
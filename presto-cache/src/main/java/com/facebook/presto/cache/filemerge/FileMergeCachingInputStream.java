@@ -31,6 +31,7 @@ public final class FileMergeCachingInputStream
     private final FSDataInputStream inputStream;
     private final CacheManager cacheManager;
     private final Path path;
+    private final long modificationTime;
     private final CacheQuota cacheQuota;
     private final boolean cacheValidationEnabled;
 
@@ -38,6 +39,7 @@ public final class FileMergeCachingInputStream
             FSDataInputStream inputStream,
             CacheManager cacheManager,
             Path path,
+            long modificationTime,
             CacheQuota cacheQuota,
             boolean cacheValidationEnabled)
     {
@@ -45,6 +47,7 @@ public final class FileMergeCachingInputStream
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.cacheManager = requireNonNull(cacheManager, "cacheManager is null");
         this.path = requireNonNull(path, "path is null");
+        this.modificationTime = modificationTime;
         this.cacheQuota = requireNonNull(cacheQuota, "cacheQuota is null");
         this.cacheValidationEnabled = cacheValidationEnabled;
     }
@@ -60,7 +63,7 @@ public final class FileMergeCachingInputStream
     public void readFully(long position, byte[] buffer, int offset, int length)
             throws IOException
     {
-        FileReadRequest key = new FileReadRequest(path, position, length);
+        FileReadRequest key = new FileReadRequest(path, position, length, modificationTime);
         switch (cacheManager.get(key, buffer, offset, cacheQuota)) {
             case HIT:
                 break;
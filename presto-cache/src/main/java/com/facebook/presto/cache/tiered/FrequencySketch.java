@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.google.errorprone.annotations.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often a key was accessed recently,
+ * as used by the TinyLFU admission policy. All counters are halved once the number of
+ * recorded accesses reaches ten times the width, so the estimate follows changes in the workload.
+ * <p>
+ * Counter updates are not atomic. A lost increment only makes an estimate slightly low,
+ * which is acceptable for admission decisions and keeps the hot read path lock free.
+ */
+@ThreadSafe
+public class FrequencySketch
+{
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int MIN_WIDTH = 256;
+    private static final int MAX_WIDTH = 1 << 22;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final byte[] table;
+    private final int width;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    public FrequencySketch(long expectedEntries)
+    {
+        checkArgument(expectedEntries > 0, "expectedEntries must be greater than zero");
+        int entries = (int) min(max(expectedEntries, MIN_WIDTH), MAX_WIDTH);
+        this.width = highestOneBit(entries) == entries ? entries : highestOneBit(entries) << 1;
+        this.table = new byte[DEPTH * width];
+        this.sampleSize = 10 * width;
+    }
+
+    public void increment(Object key)
+    {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+            }
+        }
+
+        if (additions.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    public int frequency(Object key)
+    {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = min(frequency, table[indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private void reset()
+    {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) (table[i] >>> 1);
+        }
+        additions.set(0);
+    }
+
+    private int indexOf(int hash, int row)
+    {
+        long value = (hash + SEEDS[row]) * SEEDS[row];
+        value += value >>> 32;
+        return row * width + ((int) value & (width - 1));
+    }
+
+    private static int spread(int hash)
+    {
+        int value = hash * 0x9e3779b9;
+        return value ^ (value >>> 16);
+    }
+}
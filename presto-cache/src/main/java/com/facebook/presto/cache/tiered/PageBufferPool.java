@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Direct buffers of one cache page each. A freed buffer is handed out again instead of being
+ * left to the garbage collector, so direct memory is allocated at most once per buffer and
+ * never exceeds the capacity of the pool.
+ */
+@ThreadSafe
+public class PageBufferPool
+{
+    private final int pageSize;
+    private final int capacity;
+
+    @GuardedBy("this")
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    @GuardedBy("this")
+    private int allocatedBuffers;
+
+    public PageBufferPool(int pageSize, int capacity)
+    {
+        checkArgument(pageSize > 0, "pageSize must be greater than zero");
+        checkArgument(capacity >= 0, "capacity is negative");
+        this.pageSize = pageSize;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns an empty buffer of one page, or nothing when all buffers of the pool are in use.
+     */
+    public synchronized Optional<ByteBuffer> allocate()
+    {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            if (allocatedBuffers == capacity) {
+                return Optional.empty();
+            }
+            buffer = ByteBuffer.allocateDirect(pageSize);
+            allocatedBuffers++;
+        }
+        buffer.clear();
+        return Optional.of(buffer);
+    }
+
+    public synchronized void free(ByteBuffer buffer)
+    {
+        checkArgument(buffer.isDirect() && buffer.capacity() == pageSize, "buffer is not from this pool");
+        freeBuffers.push(buffer);
+    }
+
+    public synchronized int getAllocatedBuffers()
+    {
+        return allocatedBuffers;
+    }
+
+    public synchronized int getFreeBuffers()
+    {
+        return freeBuffers.size();
+    }
+}
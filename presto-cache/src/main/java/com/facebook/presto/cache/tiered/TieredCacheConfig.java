@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.airlift.units.MaxDataSize;
+import com.facebook.airlift.units.MinDataSize;
+import com.facebook.airlift.units.MinDuration;
+import jakarta.validation.constraints.NotNull;
+
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class TieredCacheConfig
+{
+    private DataSize pageSize = new DataSize(1, MEGABYTE);
+    private DataSize memoryCacheSize = new DataSize(2, GIGABYTE);
+    private DataSize diskCacheSize = new DataSize(100, GIGABYTE);
+    private DataSize maxInflightDiskWriteSize = new DataSize(256, MEGABYTE);
+    private boolean admissionFilterEnabled = true;
+    private boolean persistIndexEnabled;
+    private Duration indexCheckpointInterval = new Duration(5, MINUTES);
+    private boolean warmUpEnabled = true;
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("1GB")
+    public DataSize getPageSize()
+    {
+        return pageSize;
+    }
+
+    @Config("cache.tiered.page-size")
+    @ConfigDescription("Granularity at which file data is cached")
+    public TieredCacheConfig setPageSize(DataSize pageSize)
+    {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMemoryCacheSize()
+    {
+        return memoryCacheSize;
+    }
+
+    @Config("cache.tiered.memory-cache-size")
+    @ConfigDescription("Maximum size of the off-heap memory tier")
+    public TieredCacheConfig setMemoryCacheSize(DataSize memoryCacheSize)
+    {
+        this.memoryCacheSize = memoryCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getDiskCacheSize()
+    {
+        return diskCacheSize;
+    }
+
+    @Config("cache.tiered.disk-cache-size")
+    @ConfigDescription("Maximum size of the local disk tier")
+    public TieredCacheConfig setDiskCacheSize(DataSize diskCacheSize)
+    {
+        this.diskCacheSize = diskCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxInflightDiskWriteSize()
+    {
+        return maxInflightDiskWriteSize;
+    }
+
+    @Config("cache.tiered.max-inflight-disk-write-size")
+    @ConfigDescription("Maximum size of pages waiting to be written to the disk tier; pages beyond this are dropped")
+    public TieredCacheConfig setMaxInflightDiskWriteSize(DataSize maxInflightDiskWriteSize)
+    {
+        this.maxInflightDiskWriteSize = maxInflightDiskWriteSize;
+        return this;
+    }
+
+    public boolean isAdmissionFilterEnabled()
+    {
+        return admissionFilterEnabled;
+    }
+
+    @Config("cache.tiered.admission-filter-enabled")
+    @ConfigDescription("Only replace a cached page with a new one when the new page is accessed more frequently")
+    public TieredCacheConfig setAdmissionFilterEnabled(boolean admissionFilterEnabled)
+    {
+        this.admissionFilterEnabled = admissionFilterEnabled;
+        return this;
+    }
+
+    public boolean isPersistIndexEnabled()
+    {
+        return persistIndexEnabled;
+    }
+
+    @Config("cache.tiered.persist-index-enabled")
+    @ConfigDescription("Keep the disk tier and its index across restarts instead of discarding them")
+    public TieredCacheConfig setPersistIndexEnabled(boolean persistIndexEnabled)
+    {
+        this.persistIndexEnabled = persistIndexEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getIndexCheckpointInterval()
+    {
+        return indexCheckpointInterval;
+    }
+
+    @Config("cache.tiered.index-checkpoint-interval")
+    @ConfigDescription("How often the index of the disk tier is written to disk when it is persisted")
+    public TieredCacheConfig setIndexCheckpointInterval(Duration indexCheckpointInterval)
+    {
+        this.indexCheckpointInterval = indexCheckpointInterval;
+        return this;
+    }
+
+    public boolean isWarmUpEnabled()
+    {
+        return warmUpEnabled;
+    }
+
+    @Config("cache.tiered.warm-up-enabled")
+    @ConfigDescription("Load the most frequently accessed restored pages into memory after a restart")
+    public TieredCacheConfig setWarmUpEnabled(boolean warmUpEnabled)
+    {
+        this.warmUpEnabled = warmUpEnabled;
+        return this;
+    }
+}
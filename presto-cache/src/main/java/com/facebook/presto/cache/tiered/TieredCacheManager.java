@@ -0,0 +1,1097 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.cache.CacheConfig;
+import com.facebook.presto.cache.CacheManager;
+import com.facebook.presto.cache.CacheResult;
+import com.facebook.presto.cache.CacheStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.hive.CacheQuota;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.ThreadSafe;
+import io.airlift.slice.Slice;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Maps.immutableEntry;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.comparingInt;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A cache manager that keeps fixed-size pages of remote files in an off-heap memory tier
+ * backed by a larger local disk tier. Pages evicted from memory are demoted to disk, and
+ * pages hit on disk are promoted back to memory; a page lives in at most one tier, unless
+ * the index is persisted.
+ * <p>
+ * When a tier is full, a new page only replaces the least recently used page of that tier
+ * if the admission filter estimates it is accessed more often, so a single large scan
+ * cannot flush a warm cache.
+ * <p>
+ * Pages in memory are held in direct buffers of a fixed-size pool. A buffer is handed out
+ * again once its page is evicted and no longer read, so direct memory is not allocated per
+ * cached page and stays within the memory tier plus the pages waiting to be written to disk.
+ * <p>
+ * When the index is persisted, the disk tier and the access frequencies of its pages are
+ * checkpointed to a manifest, so a restarted process reuses the pages it already has and
+ * loads the most frequently accessed of them back into memory. Pages promoted to memory
+ * keep their copy on disk, so they stay in the manifest and are not written again when
+ * they are demoted, and the pages only held in memory are written to disk on shutdown
+ * before the last checkpoint. Pages are keyed by the
+ * modification time of their file as well as its path, so pages of a file that has been
+ * rewritten since are never read. Only pages of files with a known modification time are
+ * persisted.
+ */
+@ThreadSafe
+public class TieredCacheManager
+        implements CacheManager
+{
+    private static final Logger log = Logger.get(TieredCacheManager.class);
+
+    private static final String EXTENSION = ".page";
+    private static final String MANIFEST = "manifest";
+    private static final String MANIFEST_TEMPORARY = "manifest.tmp";
+    private static final int MANIFEST_VERSION = 2;
+
+    private final ExecutorService cacheFlushExecutor;
+    private final ExecutorService cacheRemovalExecutor;
+    private final ScheduledExecutorService cacheCheckpointExecutor;
+
+    // both tiers are kept in access order, so the first entry is the least recently used page
+    private final LinkedHashMap<PageKey, MemoryPage> memoryTier = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<PageKey, DiskPage> diskTier = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryTierBytes;   // guarded by memoryTier
+    private long diskTierBytes;     // guarded by diskTier
+
+    // CacheScope identifier to the number of bytes it has cached across both tiers
+    private final Map<Long, AtomicLong> cacheScopeSizeInBytes = new ConcurrentHashMap<>();
+
+    private final Optional<FrequencySketch> admissionFilter;
+
+    // holds the pages of the memory tier and the pages waiting to be written to the disk tier
+    private final PageBufferPool bufferPool;
+
+    // stats
+    private final CacheStats stats;
+
+    // config
+    private final File baseDirectory;
+    private final int pageSize;
+    private final long memoryCapacity;
+    private final long diskCapacity;
+    private final long maxInflightBytes;
+    private final boolean persistIndexEnabled;
+
+    @Inject
+    public TieredCacheManager(
+            CacheConfig cacheConfig,
+            TieredCacheConfig tieredCacheConfig,
+            CacheStats stats,
+            ExecutorService cacheFlushExecutor,
+            ExecutorService cacheRemovalExecutor,
+            ScheduledExecutorService cacheCheckpointExecutor)
+    {
+        requireNonNull(cacheConfig, "cacheConfig is null");
+        requireNonNull(tieredCacheConfig, "tieredCacheConfig is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.cacheFlushExecutor = requireNonNull(cacheFlushExecutor, "cacheFlushExecutor is null");
+        this.cacheRemovalExecutor = requireNonNull(cacheRemovalExecutor, "cacheRemovalExecutor is null");
+        this.cacheCheckpointExecutor = requireNonNull(cacheCheckpointExecutor, "cacheCheckpointExecutor is null");
+        this.baseDirectory = new File(requireNonNull(cacheConfig.getBaseDirectory(), "baseDirectory is null"));
+        this.pageSize = toIntExact(tieredCacheConfig.getPageSize().toBytes());
+        this.memoryCapacity = tieredCacheConfig.getMemoryCacheSize().toBytes();
+        this.diskCapacity = tieredCacheConfig.getDiskCacheSize().toBytes();
+        this.maxInflightBytes = tieredCacheConfig.getMaxInflightDiskWriteSize().toBytes();
+        this.persistIndexEnabled = tieredCacheConfig.isPersistIndexEnabled();
+        checkArgument(pageSize > 0, "pageSize must be greater than zero");
+        this.admissionFilter = tieredCacheConfig.isAdmissionFilterEnabled()
+                ? Optional.of(new FrequencySketch(max((memoryCapacity + diskCapacity) / pageSize, 1)))
+                : Optional.empty();
+        this.bufferPool = new PageBufferPool(pageSize, toIntExact((memoryCapacity + maxInflightBytes) / pageSize));
+
+        if (!baseDirectory.exists()) {
+            try {
+                Files.createDirectories(baseDirectory.toPath());
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "cannot create cache directory " + baseDirectory, e);
+            }
+        }
+        else {
+            List<PageKey> restored = persistIndexEnabled ? restoreDiskTier() : ImmutableList.of();
+            Set<String> restoredFiles;
+            synchronized (diskTier) {
+                restoredFiles = diskTier.values().stream()
+                        .map(page -> page.getFile().getName())
+                        .collect(toImmutableSet());
+            }
+
+            // pages written by a previous process that are not indexed can never be read
+            File[] files = baseDirectory.listFiles((directory, name) -> name.endsWith(EXTENSION) && !restoredFiles.contains(name));
+            if (files != null) {
+                cacheRemovalExecutor.submit(() -> {
+                    for (File file : files) {
+                        tryDeleteFile(file);
+                    }
+                });
+            }
+
+            if (!restored.isEmpty() && tieredCacheConfig.isWarmUpEnabled()) {
+                cacheFlushExecutor.submit(() -> warmUp(restored));
+            }
+        }
+
+        if (persistIndexEnabled) {
+            long interval = tieredCacheConfig.getIndexCheckpointInterval().toMillis();
+            cacheCheckpointExecutor.scheduleWithFixedDelay(this::tryCheckpoint, interval, interval, MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        cacheCheckpointExecutor.shutdownNow();
+        cacheFlushExecutor.shutdownNow();
+        cacheRemovalExecutor.shutdownNow();
+        if (persistIndexEnabled) {
+            // the whole cache is kept on disk for the next process
+            flushMemoryTier();
+            tryCheckpoint();
+        }
+    }
+
+    @Override
+    public CacheResult get(FileReadRequest request, byte[] buffer, int offset, CacheQuota cacheQuota)
+    {
+        if (request.getLength() <= 0) {
+            // no-op
+            stats.incrementCacheHit();
+            return CacheResult.HIT;
+        }
+
+        boolean hit = true;
+        boolean servedFromDisk = false;
+        long end = request.getOffset() + request.getLength();
+        for (long pageIndex = request.getOffset() / pageSize; pageIndex * pageSize < end; pageIndex++) {
+            PageKey key = new PageKey(request.getPath(), request.getModificationTime(), pageIndex);
+            admissionFilter.ifPresent(filter -> filter.increment(key));
+            if (!hit) {
+                // keep recording accesses to the remaining pages, they are about to be put
+                continue;
+            }
+
+            long pageStart = pageIndex * pageSize;
+            int start = toIntExact(max(request.getOffset(), pageStart) - pageStart);
+            int length = toIntExact(min(end, pageStart + pageSize) - pageStart) - start;
+            int bufferOffset = offset + toIntExact(pageStart + start - request.getOffset());
+            if (readFromMemory(key, start, length, buffer, bufferOffset)) {
+                continue;
+            }
+            if (readFromDisk(key, start, length, buffer, bufferOffset)) {
+                servedFromDisk = true;
+                continue;
+            }
+            hit = false;
+        }
+
+        if (hit) {
+            stats.incrementCacheHit();
+            if (servedFromDisk) {
+                stats.incrementDiskCacheHit();
+            }
+            else {
+                stats.incrementMemoryCacheHit();
+            }
+            return CacheResult.HIT;
+        }
+
+        if (ifExceedQuota(cacheQuota, request)) {
+            stats.incrementQuotaExceed();
+            return CacheResult.CACHE_QUOTA_EXCEED;
+        }
+
+        stats.incrementCacheMiss();
+        return CacheResult.MISS;
+    }
+
+    @Override
+    public void put(FileReadRequest request, Slice data, CacheQuota cacheQuota)
+    {
+        if (ifExceedQuota(cacheQuota, request)) {
+            return;
+        }
+
+        long end = request.getOffset() + request.getLength();
+        for (long pageIndex = request.getOffset() / pageSize; pageIndex * pageSize < end; pageIndex++) {
+            long pageStart = pageIndex * pageSize;
+            int start = toIntExact(max(request.getOffset(), pageStart) - pageStart);
+            int length = toIntExact(min(end, pageStart + pageSize) - pageStart) - start;
+            Slice bytes = data.slice(toIntExact(pageStart + start - request.getOffset()), length);
+            putPage(new PageKey(request.getPath(), request.getModificationTime(), pageIndex), start, bytes, cacheQuota.getIdentifier());
+        }
+    }
+
+    /**
+     * Writes the index of the disk tier to the manifest, from the least to the most recently
+     * used page, along with the access frequency of each page. Pages of files whose modification
+     * time is unknown are left out, as a restarted process cannot tell whether they are stale.
+     */
+    @VisibleForTesting
+    void checkpoint()
+            throws IOException
+    {
+        List<Map.Entry<PageKey, DiskPage>> pages;
+        synchronized (diskTier) {
+            pages = diskTier.entrySet().stream()
+                    .filter(entry -> entry.getKey().getModificationTime() != 0)
+                    .map(entry -> immutableEntry(entry.getKey(), entry.getValue()))
+                    .collect(toImmutableList());
+        }
+
+        File temporary = new File(baseDirectory, MANIFEST_TEMPORARY);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            output.writeInt(MANIFEST_VERSION);
+            output.writeInt(pageSize);
+            output.writeInt(pages.size());
+            for (Map.Entry<PageKey, DiskPage> entry : pages) {
+                PageKey key = entry.getKey();
+                DiskPage page = entry.getValue();
+                output.writeUTF(key.getPath().toString());
+                output.writeLong(key.getModificationTime());
+                output.writeLong(key.getPageIndex());
+                output.writeInt(page.getStart());
+                output.writeInt(page.getLength());
+                output.writeLong(page.getCacheScope());
+                output.writeUTF(page.getFile().getName());
+                output.writeByte(admissionFilter.map(filter -> filter.frequency(key)).orElse(0));
+            }
+        }
+        Files.move(temporary.toPath(), new File(baseDirectory, MANIFEST).toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    private void tryCheckpoint()
+    {
+        try {
+            checkpoint();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to write cache manifest to %s", baseDirectory);
+        }
+    }
+
+    /**
+     * Loads the disk tier from the manifest of a previous process, keeping only the pages whose
+     * file is still complete. Returns the restored pages, most frequently accessed first.
+     */
+    private List<PageKey> restoreDiskTier()
+    {
+        File manifest = new File(baseDirectory, MANIFEST);
+        if (!manifest.exists()) {
+            return ImmutableList.of();
+        }
+
+        List<ManifestEntry> entries = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(manifest)))) {
+            if (input.readInt() != MANIFEST_VERSION || input.readInt() != pageSize) {
+                // pages of a different size or of an older manifest without modification times cannot be reused
+                return ImmutableList.of();
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                PageKey key = new PageKey(new Path(input.readUTF()), input.readLong(), input.readLong());
+                int start = input.readInt();
+                int length = input.readInt();
+                long cacheScope = input.readLong();
+                File file = new File(baseDirectory, input.readUTF());
+                int frequency = input.readByte();
+                entries.add(new ManifestEntry(key, new DiskPage(start, length, file, cacheScope), frequency));
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to read cache manifest %s, discarding the cached pages", manifest);
+            return ImmutableList.of();
+        }
+
+        List<ManifestEntry> restored = new ArrayList<>();
+        synchronized (diskTier) {
+            for (ManifestEntry entry : entries) {
+                DiskPage page = entry.getPage();
+                // a page is written once under a unique name, so a file of the expected length is the page
+                if (page.getFile().length() != page.getLength() || diskTierBytes + page.getLength() > diskCapacity) {
+                    continue;
+                }
+                DiskPage previous = diskTier.put(entry.getKey(), page);
+                checkState(previous == null, "duplicate page in cache manifest %s", manifest);
+                diskTierBytes += page.getLength();
+                stats.addDiskCacheRetainedBytes(page.getLength());
+                addCacheScopeBytes(page.getCacheScope(), page.getLength());
+                restored.add(entry);
+            }
+        }
+
+        admissionFilter.ifPresent(filter -> {
+            for (ManifestEntry entry : restored) {
+                for (int i = 0; i < entry.getFrequency(); i++) {
+                    filter.increment(entry.getKey());
+                }
+            }
+        });
+        log.info("Restored %s cached pages from %s", restored.size(), manifest);
+
+        return restored.stream()
+                .sorted(comparingInt(ManifestEntry::getFrequency).reversed())
+                .map(ManifestEntry::getKey)
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Promotes the given pages to memory, in order, until memory is full. Nothing cached in
+     * memory by queries in the meantime is evicted for them.
+     */
+    private void warmUp(List<PageKey> keys)
+    {
+        for (PageKey key : keys) {
+            DiskPage page;
+            synchronized (diskTier) {
+                page = diskTier.get(key);
+            }
+            if (page == null) {
+                continue;
+            }
+
+            Optional<MemoryPage> memoryPage = allocateMemoryPage(page.getStart(), page.getLength(), page.getCacheScope());
+            if (!memoryPage.isPresent()) {
+                return;
+            }
+            try {
+                page.read(memoryPage.get().buffer(page.getStart(), page.getLength()));
+            }
+            catch (IOException e) {
+                memoryPage.get().release();
+                continue;
+            }
+
+            synchronized (memoryTier) {
+                if (memoryTierBytes + pageSize > memoryCapacity) {
+                    memoryPage.get().release();
+                    return;
+                }
+                if (memoryTier.containsKey(key)) {
+                    memoryPage.get().release();
+                    continue;
+                }
+                memoryTier.put(key, memoryPage.get());
+                memoryTierBytes += pageSize;
+                stats.addMemoryCacheRetainedBytes(pageSize);
+                addCacheScopeBytes(page.getCacheScope(), page.getLength());
+            }
+            removeFromDiskUnlessPersisted(key, memoryPage.get());
+        }
+    }
+
+    /**
+     * Moves the pages of the memory tier to the disk tier, writing the ones that have no copy
+     * on disk yet. Called on shutdown, once no more pages are written in the background.
+     */
+    private void flushMemoryTier()
+    {
+        List<Map.Entry<PageKey, MemoryPage>> pages;
+        synchronized (memoryTier) {
+            pages = memoryTier.entrySet().stream()
+                    .map(entry -> immutableEntry(entry.getKey(), entry.getValue()))
+                    .collect(toImmutableList());
+            memoryTier.clear();
+            memoryTierBytes = 0;
+        }
+
+        // from the least to the most recently used page, so the disk tier keeps the order of use
+        for (Map.Entry<PageKey, MemoryPage> entry : pages) {
+            MemoryPage page = entry.getValue();
+            releaseMemoryPage(page);
+            try {
+                if (!isOnDisk(entry.getKey(), page)) {
+                    persistPage(entry.getKey(), page);
+                }
+            }
+            finally {
+                page.release();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    PageBufferPool getBufferPool()
+    {
+        return bufferPool;
+    }
+
+    private boolean ifExceedQuota(CacheQuota cacheQuota, FileReadRequest request)
+    {
+        AtomicLong cachedBytes = cacheScopeSizeInBytes.get(cacheQuota.getIdentifier());
+        DataSize cacheSize = DataSize.succinctBytes((cachedBytes == null ? 0 : cachedBytes.get()) + request.getLength());
+        return cacheQuota.getQuota().map(quota -> cacheSize.compareTo(quota) > 0).orElse(false);
+    }
+
+    private boolean readFromMemory(PageKey key, int start, int length, byte[] buffer, int bufferOffset)
+    {
+        MemoryPage page;
+        synchronized (memoryTier) {
+            page = memoryTier.get(key);
+            if (page == null || !page.covers(start, length)) {
+                return false;
+            }
+            page.retain();
+        }
+        // the page content never changes once published, and its buffer is not reused while it is retained
+        try {
+            page.read(start, buffer, bufferOffset, length);
+        }
+        finally {
+            page.release();
+        }
+        return true;
+    }
+
+    private boolean readFromDisk(PageKey key, int start, int length, byte[] buffer, int bufferOffset)
+    {
+        DiskPage page;
+        synchronized (diskTier) {
+            page = diskTier.get(key);
+        }
+        if (page == null || !page.covers(start, length)) {
+            return false;
+        }
+
+        try {
+            Optional<MemoryPage> promoted = canAdmitToMemory(key)
+                    ? allocateMemoryPage(page.getStart(), page.getLength(), page.getCacheScope())
+                    : Optional.empty();
+            if (!promoted.isPresent()) {
+                page.read(start, buffer, bufferOffset, length);
+                return true;
+            }
+
+            // promote the whole page, it is accessed more often than what memory would evict for it
+            try {
+                page.read(promoted.get().buffer(page.getStart(), page.getLength()));
+            }
+            catch (IOException e) {
+                promoted.get().release();
+                throw e;
+            }
+            promoted.get().read(start, buffer, bufferOffset, length);
+            admitToMemory(key, promoted.get());
+            return true;
+        }
+        catch (IOException e) {
+            // there might be a chance the page has been evicted and its file deleted
+            return false;
+        }
+    }
+
+    private void putPage(PageKey key, int start, Slice bytes, long cacheScope)
+    {
+        int length = bytes.length();
+        MemoryPage memoryPage;
+        synchronized (memoryTier) {
+            memoryPage = memoryTier.get(key);
+            if (memoryPage != null) {
+                memoryPage.retain();
+            }
+        }
+        if (memoryPage != null) {
+            try {
+                if (memoryPage.covers(start, length)) {
+                    return;
+                }
+                if (memoryPage.isAdjacentOrOverlapping(start, length)) {
+                    MemoryPage merged = newMergedPage(memoryPage, start, length, cacheScope);
+                    merged.buffer(memoryPage.getStart(), memoryPage.getLength()).put(memoryPage.buffer(memoryPage.getStart(), memoryPage.getLength()));
+                    merged.buffer(start, length).put(bytes.toByteBuffer());
+                    admitToMemory(key, merged);
+                    return;
+                }
+            }
+            finally {
+                memoryPage.release();
+            }
+            admitToMemory(key, newMemoryPage(start, bytes, cacheScope));
+            return;
+        }
+
+        DiskPage diskPage;
+        synchronized (diskTier) {
+            diskPage = diskTier.get(key);
+        }
+        if (diskPage != null) {
+            if (diskPage.covers(start, length)) {
+                return;
+            }
+            if (diskPage.isAdjacentOrOverlapping(start, length)) {
+                MemoryPage merged = newMergedPage(diskPage, start, length, cacheScope);
+                try {
+                    diskPage.read(merged.buffer(diskPage.getStart(), diskPage.getLength()));
+                    merged.buffer(start, length).put(bytes.toByteBuffer());
+                    admitToMemory(key, merged);
+                    return;
+                }
+                catch (IOException e) {
+                    // the page was evicted concurrently; cache the new range only
+                    merged.release();
+                }
+            }
+        }
+        admitToMemory(key, newMemoryPage(start, bytes, cacheScope));
+    }
+
+    private Optional<MemoryPage> allocateMemoryPage(int start, int length, long cacheScope)
+    {
+        return bufferPool.allocate().map(buffer -> new MemoryPage(start, length, buffer, cacheScope, Optional.of(bufferPool)));
+    }
+
+    // the data is copied into the page given the input data could be a reusable buffer
+    private MemoryPage newMemoryPage(int start, Slice bytes, long cacheScope)
+    {
+        MemoryPage page = newMemoryPage(start, bytes.length(), cacheScope);
+        page.buffer(start, bytes.length()).put(bytes.toByteBuffer());
+        return page;
+    }
+
+    private MemoryPage newMergedPage(CachedPage cached, int start, int length, long cacheScope)
+    {
+        int mergedStart = min(cached.getStart(), start);
+        int mergedEnd = max(cached.getStart() + cached.getLength(), start + length);
+        return newMemoryPage(mergedStart, mergedEnd - mergedStart, cacheScope);
+    }
+
+    private MemoryPage newMemoryPage(int start, int length, long cacheScope)
+    {
+        // when all buffers of the pool are held by pages being read or written, the page is only written to disk
+        return allocateMemoryPage(start, length, cacheScope)
+                .orElseGet(() -> new MemoryPage(start, length, ByteBuffer.allocate(length), cacheScope, Optional.empty()));
+    }
+
+    private boolean canAdmitToMemory(PageKey key)
+    {
+        synchronized (memoryTier) {
+            long bytesToFree = memoryTierBytes + pageSize - memoryCapacity;
+            Iterator<Map.Entry<PageKey, MemoryPage>> victims = memoryTier.entrySet().iterator();
+            while (bytesToFree > 0 && victims.hasNext()) {
+                Map.Entry<PageKey, MemoryPage> victim = victims.next();
+                if (!admit(key, victim.getKey())) {
+                    return false;
+                }
+                bytesToFree -= pageSize;
+            }
+            return bytesToFree <= 0;
+        }
+    }
+
+    private void admitToMemory(PageKey key, MemoryPage page)
+    {
+        if (!page.isPooled()) {
+            writeToDisk(key, page);
+            return;
+        }
+
+        List<Map.Entry<PageKey, MemoryPage>> demoted = new ArrayList<>();
+        boolean admitted = false;
+        synchronized (memoryTier) {
+            MemoryPage previous = memoryTier.remove(key);
+            if (previous != null) {
+                memoryTierBytes -= pageSize;
+                releaseMemoryPage(previous);
+                previous.release();
+            }
+
+            // every page of the memory tier holds a whole buffer of the pool, whatever the length of its range
+            Iterator<Map.Entry<PageKey, MemoryPage>> victims = memoryTier.entrySet().iterator();
+            while (memoryTierBytes + pageSize > memoryCapacity && victims.hasNext()) {
+                Map.Entry<PageKey, MemoryPage> victim = victims.next();
+                if (!admit(key, victim.getKey())) {
+                    break;
+                }
+                victims.remove();
+                memoryTierBytes -= pageSize;
+                releaseMemoryPage(victim.getValue());
+                demoted.add(victim);
+            }
+
+            if (memoryTierBytes + pageSize <= memoryCapacity) {
+                memoryTier.put(key, page);
+                memoryTierBytes += pageSize;
+                stats.addMemoryCacheRetainedBytes(pageSize);
+                addCacheScopeBytes(page.getCacheScope(), page.getLength());
+                admitted = true;
+            }
+        }
+
+        // the references of the memory tier to the demoted pages are handed to the disk writes
+        for (Map.Entry<PageKey, MemoryPage> victim : demoted) {
+            stats.incrementMemoryCacheEviction();
+            writeToDisk(victim.getKey(), victim.getValue());
+        }
+
+        if (admitted) {
+            removeFromDiskUnlessPersisted(key, page);
+        }
+        else {
+            stats.incrementAdmissionRejection();
+            writeToDisk(key, page);
+        }
+    }
+
+    private void releaseMemoryPage(MemoryPage page)
+    {
+        stats.addMemoryCacheRetainedBytes(-pageSize);
+        addCacheScopeBytes(page.getCacheScope(), -page.getLength());
+    }
+
+    /**
+     * Writes the page to a new file of the disk tier, and releases it once it is written.
+     */
+    private void writeToDisk(PageKey key, MemoryPage page)
+    {
+        if (isOnDisk(key, page)) {
+            // a page promoted from disk while the index is persisted
+            page.release();
+            return;
+        }
+        if (stats.getInMemoryRetainedBytes() + page.getLength() >= maxInflightBytes) {
+            // cannot accept more requests; the page is dropped
+            page.release();
+            return;
+        }
+
+        stats.addInMemoryRetainedBytes(page.getLength());
+        try {
+            cacheFlushExecutor.submit(() -> {
+                try {
+                    persistPage(key, page);
+                }
+                finally {
+                    page.release();
+                    stats.addInMemoryRetainedBytes(-page.getLength());
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            // the executor has been shut down
+            page.release();
+            stats.addInMemoryRetainedBytes(-page.getLength());
+        }
+    }
+
+    private void persistPage(PageKey key, MemoryPage page)
+    {
+        File file = new File(baseDirectory, randomUUID() + EXTENSION);
+        try (FileChannel channel = FileChannel.open(file.toPath(), CREATE_NEW, WRITE)) {
+            ByteBuffer content = page.buffer(page.getStart(), page.getLength());
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "%s Fail to persist cache %s with length %s ", Thread.currentThread().getName(), file, page.getLength());
+            tryDeleteFile(file);
+            return;
+        }
+        admitToDisk(key, new DiskPage(page.getStart(), page.getLength(), file, page.getCacheScope()));
+    }
+
+    private void admitToDisk(PageKey key, DiskPage page)
+    {
+        synchronized (memoryTier) {
+            if (memoryTier.containsKey(key)) {
+                // the page was cached in memory again while it was being written
+                tryDeleteFile(page.getFile());
+                return;
+            }
+        }
+
+        List<DiskPage> removed = new ArrayList<>();
+        boolean admitted = false;
+        synchronized (diskTier) {
+            DiskPage previous = diskTier.remove(key);
+            if (previous != null) {
+                diskTierBytes -= previous.getLength();
+                removed.add(previous);
+            }
+
+            Iterator<Map.Entry<PageKey, DiskPage>> victims = diskTier.entrySet().iterator();
+            while (diskTierBytes + page.getLength() > diskCapacity && victims.hasNext()) {
+                Map.Entry<PageKey, DiskPage> victim = victims.next();
+                if (!admit(key, victim.getKey())) {
+                    break;
+                }
+                victims.remove();
+                diskTierBytes -= victim.getValue().getLength();
+                removed.add(victim.getValue());
+                stats.incrementDiskCacheEviction();
+            }
+
+            if (diskTierBytes + page.getLength() <= diskCapacity) {
+                diskTier.put(key, page);
+                diskTierBytes += page.getLength();
+                stats.addDiskCacheRetainedBytes(page.getLength());
+                addCacheScopeBytes(page.getCacheScope(), page.getLength());
+                admitted = true;
+            }
+        }
+
+        if (!admitted) {
+            stats.incrementAdmissionRejection();
+            tryDeleteFile(page.getFile());
+        }
+        deleteDiskPages(removed);
+    }
+
+    private boolean isOnDisk(PageKey key, MemoryPage page)
+    {
+        synchronized (diskTier) {
+            DiskPage diskPage = diskTier.get(key);
+            return diskPage != null && diskPage.covers(page.getStart(), page.getLength());
+        }
+    }
+
+    /**
+     * Removes the copy on disk of a page cached in memory. A page lives in one tier only, unless the
+     * index is persisted and the disk copy still holds the whole page, which is then kept so the page
+     * stays in the manifest.
+     */
+    private void removeFromDiskUnlessPersisted(PageKey key, MemoryPage page)
+    {
+        if (persistIndexEnabled && isOnDisk(key, page)) {
+            return;
+        }
+        removeFromDisk(key);
+    }
+
+    private void removeFromDisk(PageKey key)
+    {
+        DiskPage page;
+        synchronized (diskTier) {
+            page = diskTier.remove(key);
+            if (page == null) {
+                return;
+            }
+            diskTierBytes -= page.getLength();
+        }
+        deleteDiskPages(ImmutableList.of(page));
+    }
+
+    private void deleteDiskPages(List<DiskPage> pages)
+    {
+        if (pages.isEmpty()) {
+            return;
+        }
+        for (DiskPage page : pages) {
+            stats.addDiskCacheRetainedBytes(-page.getLength());
+            addCacheScopeBytes(page.getCacheScope(), -page.getLength());
+        }
+        // There is a chance of the files to be deleted are being read.
+        // We may just fail the cache hit and do it in a simple way given the chance is low.
+        try {
+            cacheRemovalExecutor.submit(() -> pages.forEach(page -> tryDeleteFile(page.getFile())));
+        }
+        catch (RuntimeException e) {
+            // the executor has been shut down
+        }
+    }
+
+    private boolean admit(PageKey candidate, PageKey victim)
+    {
+        return admissionFilter
+                .map(filter -> filter.frequency(candidate) > filter.frequency(victim))
+                .orElse(true);
+    }
+
+    private void addCacheScopeBytes(long cacheScope, long bytes)
+    {
+        cacheScopeSizeInBytes.computeIfAbsent(cacheScope, key -> new AtomicLong()).addAndGet(bytes);
+    }
+
+    private static void tryDeleteFile(File file)
+    {
+        try {
+            Files.deleteIfExists(file.toPath());
+        }
+        catch (IOException e) {
+            // ignore
+        }
+    }
+
+    @ThreadSafe
+    private static class PageKey
+    {
+        private final Path path;
+        // zero when the modification time of the file is unknown
+        private final long modificationTime;
+        private final long pageIndex;
+
+        public PageKey(Path path, long modificationTime, long pageIndex)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.modificationTime = modificationTime;
+            this.pageIndex = pageIndex;
+        }
+
+        public Path getPath()
+        {
+            return path;
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public long getPageIndex()
+        {
+            return pageIndex;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PageKey that = (PageKey) o;
+            return modificationTime == that.modificationTime && pageIndex == that.pageIndex && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, modificationTime, pageIndex);
+        }
+    }
+
+    // a contiguous range [start, start + length) of a page, relative to the beginning of the page
+    private abstract static class CachedPage
+    {
+        private final int start;
+        private final int length;
+        private final long cacheScope;
+
+        protected CachedPage(int start, int length, long cacheScope)
+        {
+            this.start = start;
+            this.length = length;
+            this.cacheScope = cacheScope;
+        }
+
+        public int getStart()
+        {
+            return start;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        public long getCacheScope()
+        {
+            return cacheScope;
+        }
+
+        public boolean covers(int start, int length)
+        {
+            return this.start <= start && start + length <= this.start + this.length;
+        }
+
+        public boolean isAdjacentOrOverlapping(int start, int length)
+        {
+            return start <= this.start + this.length && this.start <= start + length;
+        }
+    }
+
+    /**
+     * A page held in a buffer of the pool, or in a heap buffer when the pool has no free buffer.
+     * Pages of the memory tier are always held in a buffer of the pool. The memory tier, or the
+     * disk write the page is handed to, holds one reference to the page and every reader one
+     * more, and the buffer goes back to the pool once the last reference is released.
+     */
+    private static class MemoryPage
+            extends CachedPage
+    {
+        private final ByteBuffer buffer;
+        private final Optional<PageBufferPool> pool;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        public MemoryPage(int start, int length, ByteBuffer buffer, long cacheScope, Optional<PageBufferPool> pool)
+        {
+            super(start, length, cacheScope);
+            this.buffer = requireNonNull(buffer, "buffer is null");
+            this.pool = requireNonNull(pool, "pool is null");
+            checkArgument(buffer.capacity() >= length, "buffer is smaller than the page");
+        }
+
+        public boolean isPooled()
+        {
+            return pool.isPresent();
+        }
+
+        // only called for a page of the memory tier, whose reference keeps the buffer from being released
+        public void retain()
+        {
+            references.incrementAndGet();
+        }
+
+        public void release()
+        {
+            int remaining = references.decrementAndGet();
+            checkState(remaining >= 0, "page released more often than retained");
+            if (remaining == 0) {
+                pool.ifPresent(bufferPool -> bufferPool.free(buffer));
+            }
+        }
+
+        /**
+         * Returns a view of the given range of the page, relative to the beginning of the page.
+         */
+        public ByteBuffer buffer(int start, int length)
+        {
+            ByteBuffer view = buffer.duplicate();
+            view.limit(start - getStart() + length);
+            view.position(start - getStart());
+            return view;
+        }
+
+        public void read(int start, byte[] target, int offset, int length)
+        {
+            buffer(start, length).get(target, offset, length);
+        }
+    }
+
+    private static class DiskPage
+            extends CachedPage
+    {
+        private final File file;
+
+        public DiskPage(int start, int length, File file, long cacheScope)
+        {
+            super(start, length, cacheScope);
+            this.file = requireNonNull(file, "file is null");
+        }
+
+        public File getFile()
+        {
+            return file;
+        }
+
+        public void read(int start, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+                randomAccessFile.seek(start - getStart());
+                randomAccessFile.readFully(buffer, offset, length);
+            }
+        }
+
+        // reads the whole page into the remaining space of the target
+        public void read(ByteBuffer target)
+                throws IOException
+        {
+            try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+                while (target.hasRemaining()) {
+                    if (channel.read(target) < 0) {
+                        throw new EOFException("Unexpected end of cache page " + file);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class ManifestEntry
+    {
+        private final PageKey key;
+        private final DiskPage page;
+        private final int frequency;
+
+        public ManifestEntry(PageKey key, DiskPage page, int frequency)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.page = requireNonNull(page, "page is null");
+            this.frequency = frequency;
+        }
+
+        public PageKey getKey()
+        {
+            return key;
+        }
+
+        public DiskPage getPage()
+        {
+            return page;
+        }
+
+        public int getFrequency()
+        {
+            return frequency;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class TestTieredCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(TieredCacheConfig.class)
+                .setPageSize(new DataSize(1, MEGABYTE))
+                .setMemoryCacheSize(new DataSize(2, GIGABYTE))
+                .setDiskCacheSize(new DataSize(100, GIGABYTE))
+                .setMaxInflightDiskWriteSize(new DataSize(256, MEGABYTE))
+                .setAdmissionFilterEnabled(true)
+                .setPersistIndexEnabled(false)
+                .setIndexCheckpointInterval(new Duration(5, MINUTES))
+                .setWarmUpEnabled(true));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("cache.tiered.page-size", "64kB")
+                .put("cache.tiered.memory-cache-size", "512MB")
+                .put("cache.tiered.disk-cache-size", "20GB")
+                .put("cache.tiered.max-inflight-disk-write-size", "32MB")
+                .put("cache.tiered.admission-filter-enabled", "false")
+                .put("cache.tiered.persist-index-enabled", "true")
+                .put("cache.tiered.index-checkpoint-interval", "30s")
+                .put("cache.tiered.warm-up-enabled", "false")
+                .build();
+
+        TieredCacheConfig expected = new TieredCacheConfig()
+                .setPageSize(new DataSize(64, KILOBYTE))
+                .setMemoryCacheSize(new DataSize(512, MEGABYTE))
+                .setDiskCacheSize(new DataSize(20, GIGABYTE))
+                .setMaxInflightDiskWriteSize(new DataSize(32, MEGABYTE))
+                .setAdmissionFilterEnabled(false)
+                .setPersistIndexEnabled(true)
+                .setIndexCheckpointInterval(new Duration(30, SECONDS))
+                .setWarmUpEnabled(false);
+        assertFullMapping(properties, expected);
+    }
+}
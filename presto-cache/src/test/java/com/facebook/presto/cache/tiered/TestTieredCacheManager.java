@@ -0,0 +1,417 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.cache.CacheConfig;
+import com.facebook.presto.cache.CacheManager;
+import com.facebook.presto.cache.CacheStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.hive.CacheQuota;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.presto.cache.TestingCacheUtils.stressTest;
+import static com.facebook.presto.cache.TestingCacheUtils.validateBuffer;
+import static com.facebook.presto.hive.CacheQuota.NO_CACHE_CONSTRAINTS;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestTieredCacheManager
+{
+    private static final int PAGE_SIZE = (int) new DataSize(4, KILOBYTE).toBytes();
+    private static final int DATA_LENGTH = (int) new DataSize(20, KILOBYTE).toBytes();
+    private final byte[] data = new byte[DATA_LENGTH];
+
+    private URI cacheDirectory;
+    private URI fileDirectory;
+    private File dataFile;
+
+    @BeforeClass
+    public void setup()
+            throws IOException
+    {
+        new Random().nextBytes(data);
+
+        this.cacheDirectory = createTempDirectory("cache").toUri();
+        this.fileDirectory = createTempDirectory("file").toUri();
+        this.dataFile = new File(fileDirectory.getPath() + "/data");
+
+        Files.write(dataFile.toPath(), data, CREATE_NEW);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void close()
+            throws IOException
+    {
+        deleteRecursively(new File(cacheDirectory).toPath(), ALLOW_INSECURE);
+        deleteRecursively(new File(fileDirectory).toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testBasic()
+            throws IOException
+    {
+        CacheStats stats = new CacheStats();
+        CacheManager cacheManager = tieredCacheManager(stats, 5, 5, true);
+        byte[] buffer = new byte[DATA_LENGTH];
+
+        // new read
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 42, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getCacheHit(), 0);
+        validateBuffer(data, 42, buffer, 0, 100);
+
+        // within the range of the cache
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 47, buffer, 0, 90));
+        assertEquals(stats.getCacheHit(), 1);
+        assertEquals(stats.getMemoryCacheHit(), 1);
+        validateBuffer(data, 47, buffer, 0, 90);
+
+        // partially within the range of the cache
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 100, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 2);
+
+        // the adjacent ranges were merged into one
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 42, buffer, 10, 158));
+        assertEquals(stats.getCacheHit(), 2);
+        validateBuffer(data, 42, buffer, 10, 158);
+
+        // a read spanning a page boundary
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, PAGE_SIZE - 50, buffer, 0, 2 * PAGE_SIZE));
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, PAGE_SIZE - 10, buffer, 7, PAGE_SIZE + 20));
+        assertEquals(stats.getCacheHit(), 3);
+        assertEquals(stats.getMemoryCacheHit(), 3);
+        validateBuffer(data, PAGE_SIZE - 10, buffer, 7, PAGE_SIZE + 20);
+        assertEquals(stats.getDiskCacheHit(), 0);
+        assertEquals(stats.getInMemoryRetainedBytes(), 0);
+    }
+
+    @Test
+    public void testDemotionAndPromotion()
+            throws IOException
+    {
+        CacheStats stats = new CacheStats();
+        CacheManager cacheManager = tieredCacheManager(stats, 2, 5, false);
+        byte[] buffer = new byte[DATA_LENGTH];
+
+        for (int page = 0; page < 3; page++) {
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+        }
+        // the first page was moved to disk to make room for the third one
+        assertEquals(stats.getMemoryCacheEviction(), 1);
+        assertEquals(stats.getMemoryCacheRetainedBytes(), 2 * PAGE_SIZE);
+        assertEquals(stats.getDiskCacheRetainedBytes(), PAGE_SIZE);
+
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 10, buffer, 0, 100));
+        assertEquals(stats.getDiskCacheHit(), 1);
+        validateBuffer(data, 10, buffer, 0, 100);
+
+        // the page hit on disk was promoted back to memory
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 10, buffer, 0, 100));
+        assertEquals(stats.getDiskCacheHit(), 1);
+        assertEquals(stats.getMemoryCacheHit(), 1);
+        assertEquals(stats.getMemoryCacheRetainedBytes(), 2 * PAGE_SIZE);
+        assertEquals(stats.getDiskCacheRetainedBytes(), PAGE_SIZE);
+        assertEquals(stats.getMemoryCacheHitRate(), 0.2);
+        assertEquals(stats.getDiskCacheHitRate(), 0.2);
+    }
+
+    @Test
+    public void testBufferReuse()
+            throws IOException
+    {
+        CacheStats stats = new CacheStats();
+        TieredCacheManager cacheManager = (TieredCacheManager) tieredCacheManager(stats, 2, 5, false);
+        byte[] buffer = new byte[DATA_LENGTH];
+
+        PageBufferPool bufferPool = cacheManager.getBufferPool();
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, buffer, 0, 100));
+        assertEquals(bufferPool.getAllocatedBuffers(), 1);
+
+        // merging a range into a page of the memory tier frees the buffer of the replaced page
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 100, buffer, 0, 100));
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, buffer, 0, 200));
+        validateBuffer(data, 0, buffer, 0, 200);
+        assertEquals(bufferPool.getAllocatedBuffers(), 2);
+        assertEquals(bufferPool.getFreeBuffers(), 1);
+
+        // the buffers of the demoted pages are reused once they are written to disk
+        for (int page = 1; page < DATA_LENGTH / PAGE_SIZE; page++) {
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+        }
+        assertEquals(stats.getMemoryCacheEviction(), 3);
+        assertEquals(stats.getMemoryCacheRetainedBytes(), 2 * PAGE_SIZE);
+        assertEquals(bufferPool.getAllocatedBuffers(), 3);
+        assertEquals(bufferPool.getFreeBuffers(), 1);
+
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 50, buffer, 0, 100));
+        validateBuffer(data, 50, buffer, 0, 100);
+    }
+
+    @Test
+    public void testAdmissionFilter()
+            throws IOException
+    {
+        CacheStats stats = new CacheStats();
+        CacheManager cacheManager = tieredCacheManager(stats, 2, 1, true);
+        byte[] buffer = new byte[DATA_LENGTH];
+
+        // warm up two frequently read pages
+        for (int i = 0; i < 5; i++) {
+            readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, buffer, 0, 2 * PAGE_SIZE);
+        }
+        assertEquals(stats.getMemoryCacheHit(), 4);
+
+        // a scan over the rest of the file does not flush them
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 2 * PAGE_SIZE, buffer, 0, DATA_LENGTH - 2 * PAGE_SIZE));
+        assertEquals(stats.getMemoryCacheEviction(), 0);
+        assertEquals(stats.getDiskCacheEviction(), 0);
+        assertEquals(stats.getAdmissionRejection(), 5);
+
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, buffer, 0, 2 * PAGE_SIZE));
+        assertEquals(stats.getMemoryCacheHit(), 5);
+        validateBuffer(data, 0, buffer, 0, 2 * PAGE_SIZE);
+    }
+
+    @Test
+    public void testQuota()
+            throws IOException
+    {
+        CacheStats stats = new CacheStats();
+        CacheManager cacheManager = tieredCacheManager(stats, 5, 5, true);
+        byte[] buffer = new byte[DATA_LENGTH];
+
+        CacheQuota cacheQuota = new CacheQuota("test.table", Optional.of(DataSize.succinctDataSize(1, KILOBYTE)));
+        // read within the cache quota
+        assertFalse(readFully(cacheManager, cacheQuota, 42, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getQuotaExceed(), 0);
+        validateBuffer(data, 42, buffer, 0, 100);
+
+        // read beyond cache quota
+        assertFalse(readFully(cacheManager, cacheQuota, 47, buffer, 0, 9000));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getQuotaExceed(), 1);
+
+        // previous data won't be evicted if last read exceed quota
+        assertTrue(readFully(cacheManager, cacheQuota, 47, buffer, 0, 90));
+        assertEquals(stats.getCacheHit(), 1);
+        assertEquals(stats.getQuotaExceed(), 1);
+        validateBuffer(data, 47, buffer, 0, 90);
+    }
+
+    @Test
+    public void testPersistedIndex()
+            throws IOException
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        try {
+            CacheStats stats = new CacheStats();
+            TieredCacheManager cacheManager = tieredCacheManager(directory, stats, 1, 5, true, false);
+            byte[] buffer = new byte[DATA_LENGTH];
+            for (int page = 0; page < 3; page++) {
+                assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            }
+            assertEquals(stats.getDiskCacheRetainedBytes(), 2 * PAGE_SIZE);
+            cacheManager.destroy();
+
+            // the pages survive a restart, including the one that was only in memory, and one of them is loaded into memory
+            stats = new CacheStats();
+            cacheManager = tieredCacheManager(directory, stats, 1, 5, true, true);
+            assertEquals(stats.getMemoryCacheRetainedBytes(), PAGE_SIZE);
+            assertEquals(stats.getDiskCacheRetainedBytes(), 3 * PAGE_SIZE);
+            for (int page = 0; page < 3; page++) {
+                assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, page * PAGE_SIZE + 10, buffer, 0, 100));
+                validateBuffer(data, page * PAGE_SIZE + 10, buffer, 0, 100);
+            }
+            assertEquals(stats.getCacheMiss(), 0);
+            cacheManager.destroy();
+
+            // without a persisted index, a restart discards the cache
+            stats = new CacheStats();
+            cacheManager = tieredCacheManager(directory, stats, 1, 5, false, false);
+            assertEquals(stats.getDiskCacheRetainedBytes(), 0);
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            assertEquals(new File(directory).listFiles((dir, name) -> name.endsWith(".page")).length, 0);
+            cacheManager.destroy();
+        }
+        finally {
+            deleteRecursively(new File(directory).toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testPersistedIndexAfterWarmUp()
+            throws IOException
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        try {
+            CacheStats stats = new CacheStats();
+            TieredCacheManager cacheManager = tieredCacheManager(directory, stats, 2, 5, true, false);
+            byte[] buffer = new byte[DATA_LENGTH];
+            for (int page = 0; page < 4; page++) {
+                assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            }
+            cacheManager.destroy();
+
+            // restart, warm up, and restart again: the pages loaded into memory keep their copy on disk
+            for (int restart = 0; restart < 2; restart++) {
+                stats = new CacheStats();
+                cacheManager = tieredCacheManager(directory, stats, 2, 5, true, true);
+                assertEquals(stats.getMemoryCacheRetainedBytes(), 2 * PAGE_SIZE);
+                assertEquals(stats.getDiskCacheRetainedBytes(), 4 * PAGE_SIZE);
+
+                // a page promoted on a disk hit keeps its copy on disk as well
+                for (int page = 0; page < 4; page++) {
+                    assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+                    validateBuffer(data, page * PAGE_SIZE, buffer, 0, PAGE_SIZE);
+                }
+                assertEquals(stats.getDiskCacheRetainedBytes(), 4 * PAGE_SIZE);
+                cacheManager.destroy();
+                assertEquals(new File(directory).listFiles((dir, name) -> name.endsWith(".page")).length, 4);
+            }
+        }
+        finally {
+            deleteRecursively(new File(directory).toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testPersistedIndexModificationTime()
+            throws IOException
+    {
+        URI directory = createTempDirectory("cache").toUri();
+        try {
+            long modificationTime = dataFile.lastModified();
+            CacheStats stats = new CacheStats();
+            TieredCacheManager cacheManager = tieredCacheManager(directory, stats, 1, 5, true, false);
+            byte[] buffer = new byte[DATA_LENGTH];
+            for (int page = 0; page < 3; page++) {
+                assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, modificationTime, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            }
+            // pages of a file whose modification time is unknown
+            for (int page = 3; page < 5; page++) {
+                assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, page * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            }
+            assertEquals(stats.getDiskCacheRetainedBytes(), 4 * PAGE_SIZE);
+
+            // another version of a file is a different file
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, modificationTime + 1, 0, buffer, 0, PAGE_SIZE));
+            cacheManager.destroy();
+
+            // only the pages of files with a known modification time are restored
+            stats = new CacheStats();
+            cacheManager = tieredCacheManager(directory, stats, 1, 5, true, false);
+            assertEquals(stats.getDiskCacheRetainedBytes(), 3 * PAGE_SIZE);
+            assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, modificationTime, PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            validateBuffer(data, PAGE_SIZE, buffer, 0, PAGE_SIZE);
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, modificationTime + 2, 2 * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 0, 3 * PAGE_SIZE, buffer, 0, PAGE_SIZE));
+            cacheManager.destroy();
+        }
+        finally {
+            deleteRecursively(new File(directory).toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test(invocationCount = 10)
+    public void testStress()
+            throws ExecutionException, InterruptedException
+    {
+        CacheManager cacheManager = tieredCacheManager(new CacheStats(), 2, 2, true);
+
+        stressTest(data, (position, buffer, offset, length) -> readFully(cacheManager, NO_CACHE_CONSTRAINTS, position, buffer, offset, length));
+    }
+
+    private CacheManager tieredCacheManager(CacheStats stats, int memoryPages, int diskPages, boolean admissionFilterEnabled)
+    {
+        TieredCacheConfig tieredCacheConfig = new TieredCacheConfig()
+                .setPageSize(DataSize.succinctBytes(PAGE_SIZE))
+                .setMemoryCacheSize(DataSize.succinctBytes((long) memoryPages * PAGE_SIZE))
+                .setDiskCacheSize(DataSize.succinctBytes((long) diskPages * PAGE_SIZE))
+                .setAdmissionFilterEnabled(admissionFilterEnabled);
+        return new TieredCacheManager(
+                new CacheConfig().setBaseDirectory(cacheDirectory),
+                tieredCacheConfig,
+                stats,
+                newDirectExecutorService(),
+                newDirectExecutorService(),
+                newSingleThreadScheduledExecutor());
+    }
+
+    private TieredCacheManager tieredCacheManager(URI directory, CacheStats stats, int memoryPages, int diskPages, boolean persistIndexEnabled, boolean warmUpEnabled)
+    {
+        TieredCacheConfig tieredCacheConfig = new TieredCacheConfig()
+                .setPageSize(DataSize.succinctBytes(PAGE_SIZE))
+                .setMemoryCacheSize(DataSize.succinctBytes((long) memoryPages * PAGE_SIZE))
+                .setDiskCacheSize(DataSize.succinctBytes((long) diskPages * PAGE_SIZE))
+                .setPersistIndexEnabled(persistIndexEnabled)
+                .setWarmUpEnabled(warmUpEnabled);
+        return new TieredCacheManager(
+                new CacheConfig().setBaseDirectory(directory),
+                tieredCacheConfig,
+                stats,
+                newDirectExecutorService(),
+                newDirectExecutorService(),
+                newSingleThreadScheduledExecutor());
+    }
+
+    private boolean readFully(CacheManager cacheManager, CacheQuota cacheQuota, long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        return readFully(cacheManager, cacheQuota, dataFile.lastModified(), position, buffer, offset, length);
+    }
+
+    private boolean readFully(CacheManager cacheManager, CacheQuota cacheQuota, long modificationTime, long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        FileReadRequest key = new FileReadRequest(new Path(dataFile.getAbsolutePath()), position, length, modificationTime);
+        switch (cacheManager.get(key, buffer, offset, cacheQuota)) {
+            case HIT:
+                return true;
+            case MISS:
+                try (RandomAccessFile file = new RandomAccessFile(dataFile.getAbsolutePath(), "r")) {
+                    file.seek(position);
+                    file.readFully(buffer, offset, length);
+                }
+                cacheManager.put(key, wrappedBuffer(buffer, offset, length), cacheQuota);
+                return false;
+            case CACHE_QUOTA_EXCEED:
+            default:
+                return false;
+        }
+    }
+}
@@ -94,4 +94,12 @@ public class RuntimeMetricName
     public static final String METASTORE_UPDATE_PARTITION_STATISTICS_TIME_NANOS = "metastoreUpdatePartitionStatisticsTimeNanos";
     public static final String METASTORE_UPDATE_TABLE_STATISTICS_TIME_NANOS = "metastoreUpdateTableStatisticsTimeNanos";
     public static final String CHECK_ACCESS_PERMISSIONS_TIME_NANOS = "checkAccessPermissionsTimeNanos";
+    // Revocable memory an operator was asked to release by the memory revoking scheduler
+    public static final String MEMORY_REVOKING_REQUESTED_BYTES = "memoryRevokingRequestedBytes";
+    // Peak total memory predicted from previous runs of the query when it was admitted by the resource group
+    public static final String PREDICTED_PEAK_TOTAL_MEMORY_BYTES = "predictedPeakTotalMemoryBytes";
+    // Leaf stage tasks whose split progress fell behind their peers
+    public static final String STRAGGLER_TASKS_DETECTED = "stragglerTasksDetected";
+    // Splits placed on a straggler task by the node selector and moved to a healthy peer instead
+    public static final String SPLITS_DIVERTED_FROM_STRAGGLERS = "splitsDivertedFromStragglers";
 }
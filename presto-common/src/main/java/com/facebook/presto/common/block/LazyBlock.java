@@ -20,6 +20,7 @@ import org.openjdk.jol.info.ClassLayout;
 import java.util.OptionalInt;
 import java.util.function.ObjLongConsumer;
 
+import static com.facebook.presto.common.block.BlockUtil.checkArrayRange;
 import static java.util.Objects.requireNonNull;
 
 public class LazyBlock
@@ -285,6 +286,33 @@ public class LazyBlock
         return block.mayHaveNull();
     }
 
+    /**
+     * Returns whether this block is not loaded yet and its loader can decode a subset of its positions.
+     */
+    public boolean isPositionsAware()
+    {
+        return block == null && loader instanceof PositionsAwareLazyBlockLoader;
+    }
+
+    /**
+     * Returns a lazy block with the values at the given positions. If {@link #isPositionsAware()}, loading the
+     * returned block decodes only those positions and this block can no longer be loaded. Otherwise the returned
+     * block copies the positions out of this block when it is loaded.
+     */
+    public LazyBlock getLazyPositions(int[] positions, int offset, int length)
+    {
+        checkArrayRange(positions, offset, length);
+
+        if (isPositionsAware()) {
+            PositionsAwareLazyBlockLoader positionsLoader = (PositionsAwareLazyBlockLoader) loader;
+            loader = lazyBlock -> {
+                throw new IllegalStateException("Lazy block has already been loaded for a subset of its positions");
+            };
+            return new LazyBlock(length, lazyBlock -> lazyBlock.setBlock(positionsLoader.loadPositions(positions, offset, length)));
+        }
+        return new LazyBlock(length, lazyBlock -> lazyBlock.setBlock(getLoadedBlock().copyPositions(positions, offset, length)));
+    }
+
     public void setBlock(Block block)
     {
         if (this.block != null) {
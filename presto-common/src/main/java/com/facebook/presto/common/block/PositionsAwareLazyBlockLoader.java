@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.block;
+
+/**
+ * A lazy block loader that can decode a subset of the positions of its block, so that rows
+ * removed by a filter do not have to be decoded at all.
+ */
+public interface PositionsAwareLazyBlockLoader
+        extends LazyBlockLoader<LazyBlock>
+{
+    /**
+     * Decodes the values at {@code positions[offset]} to {@code positions[offset + length - 1]}, which
+     * are sorted in increasing order. The loader is consumed by this call and cannot load the full block afterwards.
+     */
+    Block loadPositions(int[] positions, int offset, int length);
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.io;
+
+import com.google.common.cache.Cache;
+import io.airlift.slice.Slice;
+import jakarta.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shared base of the caches of decompressed file data, so that repeated scans of the same files
+ * only pay for the decompression once. Every entry remembers the modification time of the file
+ * it was read from, and an entry is dropped when it is looked up for a different modification time.
+ */
+public abstract class DecompressedDataCache<K>
+{
+    private final Cache<K, CachedData> cache;
+    private final AtomicLong hitBytes = new AtomicLong();
+    private final AtomicLong missBytes = new AtomicLong();
+
+    protected DecompressedDataCache(Cache<K, CachedData> cache)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    /**
+     * Returns the number of decompressed bytes served from the cache.
+     */
+    public long getHitBytes()
+    {
+        return hitBytes.get();
+    }
+
+    /**
+     * Returns the number of decompressed bytes that were added to the cache after a miss.
+     */
+    public long getMissBytes()
+    {
+        return missBytes.get();
+    }
+
+    @Nullable
+    protected Slice get(K key, long modificationTime)
+    {
+        CachedData data = cache.getIfPresent(key);
+        if (data == null) {
+            return null;
+        }
+        if (data.getModificationTime() != modificationTime) {
+            cache.invalidate(key);
+            return null;
+        }
+        hitBytes.addAndGet(data.getSlice().length());
+        return data.getSlice();
+    }
+
+    protected void put(K key, Slice slice, long modificationTime)
+    {
+        missBytes.addAndGet(slice.length());
+        cache.put(key, new CachedData(slice, modificationTime));
+    }
+
+    public static final class CachedData
+    {
+        private final Slice slice;
+        private final long modificationTime;
+
+        public CachedData(Slice slice, long modificationTime)
+        {
+            this.slice = requireNonNull(slice, "slice is null");
+            this.modificationTime = modificationTime;
+        }
+
+        public Slice getSlice()
+        {
+            return slice;
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+    }
+}
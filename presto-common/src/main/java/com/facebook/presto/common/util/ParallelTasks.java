@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.util;
+
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+public final class ParallelTasks
+{
+    private ParallelTasks() {}
+
+    /**
+     * Runs the task for every index in {@code [0, taskCount)} and returns the results in index
+     * order. The calling thread runs tasks itself, and helpers submitted to the executor take the
+     * remaining ones, so the executor only adds parallelism and the caller is never idle while a
+     * task is waiting for a thread. All tasks are waited for, even after one of them fails, so
+     * none is still running when this method returns. The first failure is thrown, and later
+     * failures are added to it as suppressed exceptions.
+     */
+    public static <T, E extends Exception> List<T> runAll(Executor executor, int taskCount, IndexedTask<T, E> task, Class<E> exceptionType)
+            throws E
+    {
+        requireNonNull(executor, "executor is null");
+        requireNonNull(task, "task is null");
+        requireNonNull(exceptionType, "exceptionType is null");
+
+        List<ListenableFutureTask<T>> futures = new ArrayList<>(taskCount);
+        for (int index = 0; index < taskCount; index++) {
+            int taskIndex = index;
+            futures.add(ListenableFutureTask.create(() -> task.run(taskIndex)));
+        }
+
+        // each task is claimed exactly once, by the caller or by a helper; helpers that start late find nothing left
+        AtomicInteger nextTask = new AtomicInteger();
+        Runnable runTasks = () -> {
+            for (int index = nextTask.getAndIncrement(); index < taskCount; index = nextTask.getAndIncrement()) {
+                futures.get(index).run();
+            }
+        };
+        try {
+            for (int helper = 1; helper < taskCount; helper++) {
+                executor.execute(runTasks);
+            }
+        }
+        catch (RejectedExecutionException ignored) {
+            // the caller runs the tasks the helpers do not take
+        }
+        runTasks.run();
+
+        List<T> results = new ArrayList<>(taskCount);
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (ListenableFutureTask<T> future : futures) {
+            while (true) {
+                try {
+                    results.add(future.get());
+                    break;
+                }
+                catch (InterruptedException e) {
+                    // keep waiting, the tasks still use state owned by the caller
+                    interrupted = true;
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (failure == null) {
+                        failure = cause;
+                    }
+                    else if (failure != cause) {
+                        failure.addSuppressed(cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null) {
+            if (exceptionType.isInstance(failure)) {
+                throw exceptionType.cast(failure);
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new RuntimeException(failure);
+        }
+        return results;
+    }
+
+    public interface IndexedTask<T, E extends Exception>
+    {
+        T run(int index)
+                throws E;
+    }
+}
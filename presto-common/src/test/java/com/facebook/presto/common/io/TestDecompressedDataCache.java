@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.io;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestDecompressedDataCache
+{
+    @Test
+    public void testHitAndMiss()
+    {
+        TestingDecompressedDataCache cache = new TestingDecompressedDataCache(CacheBuilder.newBuilder().build());
+
+        assertNull(cache.get("a", 1));
+        assertEquals(cache.getHitBytes(), 0);
+        assertEquals(cache.getMissBytes(), 0);
+
+        cache.put("a", utf8Slice("hello"), 1);
+        assertEquals(cache.getMissBytes(), 5);
+        assertEquals(cache.get("a", 1), utf8Slice("hello"));
+        assertEquals(cache.get("a", 1), utf8Slice("hello"));
+        assertEquals(cache.getHitBytes(), 10);
+        assertNull(cache.get("b", 1));
+        assertEquals(cache.getHitBytes(), 10);
+    }
+
+    @Test
+    public void testModificationTimeChange()
+    {
+        Cache<String, DecompressedDataCache.CachedData> guavaCache = CacheBuilder.newBuilder().build();
+        TestingDecompressedDataCache cache = new TestingDecompressedDataCache(guavaCache);
+
+        cache.put("a", utf8Slice("old"), 1);
+        // an entry read for another version of the file is dropped
+        assertNull(cache.get("a", 2));
+        assertEquals(guavaCache.size(), 0);
+        assertEquals(cache.getHitBytes(), 0);
+
+        cache.put("a", utf8Slice("new"), 2);
+        assertEquals(cache.get("a", 2), utf8Slice("new"));
+        assertNull(cache.get("a", 1));
+    }
+
+    @Test
+    public void testWeightEviction()
+    {
+        Slice value = wrappedBuffer(new byte[1000]);
+        int weight = toIntExact(value.getRetainedSize());
+        // a single segment, so that the whole weight limit applies to every entry
+        Cache<String, DecompressedDataCache.CachedData> guavaCache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(weight * 2L)
+                .weigher((String key, DecompressedDataCache.CachedData data) -> toIntExact(data.getSlice().getRetainedSize()))
+                .build();
+        TestingDecompressedDataCache cache = new TestingDecompressedDataCache(guavaCache);
+
+        cache.put("a", value, 1);
+        cache.put("b", value, 1);
+        assertEquals(guavaCache.size(), 2);
+
+        // the least recently used entry makes room for the new one
+        assertEquals(cache.get("b", 1), value);
+        cache.put("c", value, 1);
+        assertEquals(guavaCache.size(), 2);
+        assertNull(cache.get("a", 1));
+        assertEquals(cache.get("b", 1), value);
+        assertEquals(cache.get("c", 1), value);
+        assertEquals(cache.getMissBytes(), 3000);
+    }
+
+    private static class TestingDecompressedDataCache
+            extends DecompressedDataCache<String>
+    {
+        public TestingDecompressedDataCache(Cache<String, CachedData> cache)
+        {
+            super(cache);
+        }
+    }
+}
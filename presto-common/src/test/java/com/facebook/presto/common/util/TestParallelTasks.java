@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.util;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.common.util.ParallelTasks.runAll;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParallelTasks
+{
+    private final ExecutorService executor = newFixedThreadPool(4);
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResultsInIndexOrder()
+            throws Exception
+    {
+        assertEquals(runAll(executor, 5, index -> index * 10, RuntimeException.class), ImmutableList.of(0, 10, 20, 30, 40));
+        assertEquals(runAll(executor, 0, index -> index, RuntimeException.class), ImmutableList.of());
+    }
+
+    @Test
+    public void testCallerRunsTasks()
+            throws Exception
+    {
+        // an executor that never runs its helpers, and one that rejects them
+        assertEquals(runAll(command -> {}, 5, index -> index * 10, RuntimeException.class), ImmutableList.of(0, 10, 20, 30, 40));
+        assertEquals(runAll(command -> {
+            throw new RejectedExecutionException();
+        }, 5, index -> index * 10, RuntimeException.class), ImmutableList.of(0, 10, 20, 30, 40));
+
+        // with busy executor threads, the caller still makes progress
+        Thread caller = Thread.currentThread();
+        AtomicInteger tasksOnCaller = new AtomicInteger();
+        runAll(command -> {}, 3, index -> {
+            if (Thread.currentThread() == caller) {
+                tasksOnCaller.incrementAndGet();
+            }
+            return index;
+        }, RuntimeException.class);
+        assertEquals(tasksOnCaller.get(), 3);
+    }
+
+    @Test
+    public void testWaitsForAllTasksAfterFailure()
+            throws Exception
+    {
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger();
+        assertThatThrownBy(() -> runAll(executor, 4, index -> {
+            if (index == 0) {
+                failed.countDown();
+                throw new IOException("task failed");
+            }
+            // the remaining tasks are still running when the first one fails
+            awaitAndSleep(failed);
+            finished.incrementAndGet();
+            return index;
+        }, IOException.class))
+                .isInstanceOf(IOException.class)
+                .hasMessage("task failed");
+        assertEquals(finished.get(), 3);
+    }
+
+    @Test
+    public void testSuppressedFailures()
+    {
+        assertThatThrownBy(() -> runAll(executor, 3, index -> {
+            throw new IllegalStateException("task " + index);
+        }, RuntimeException.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("task 0")
+                .satisfies(failure -> assertEquals(failure.getSuppressed().length, 2));
+    }
+
+    private static void awaitAndSleep(CountDownLatch latch)
+    {
+        try {
+            assertTrue(latch.await(10, SECONDS));
+            Thread.sleep(50);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -42,6 +42,8 @@ public class HiveCommonClientConfig
     private boolean parquetBatchReadOptimizationEnabled;
     private boolean parquetEnableBatchReaderVerification;
     private DataSize parquetMaxReadBlockSize = new DataSize(16, MEGABYTE);
+    private boolean parquetCoalescedReadsEnabled;
+    private DataSize parquetMaxMergeDistance = new DataSize(1, MEGABYTE);
     private boolean rangeFiltersOnSubscriptsEnabled;
     private boolean readNullMaskedParquetEncryptedValueEnabled;
     private boolean useParquetColumnNames;
@@ -249,6 +251,33 @@ public class HiveCommonClientConfig
         return this;
     }
 
+    public boolean isParquetCoalescedReadsEnabled()
+    {
+        return parquetCoalescedReadsEnabled;
+    }
+
+    @Config("hive.parquet.coalesced-reads-enabled")
+    @ConfigDescription("Fetch nearby Parquet column chunks of a row group with a single read")
+    public HiveCommonClientConfig setParquetCoalescedReadsEnabled(boolean parquetCoalescedReadsEnabled)
+    {
+        this.parquetCoalescedReadsEnabled = parquetCoalescedReadsEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getParquetMaxMergeDistance()
+    {
+        return parquetMaxMergeDistance;
+    }
+
+    @Config("hive.parquet.max-merge-distance")
+    @ConfigDescription("Maximum gap between two Parquet column chunks that are fetched with a single read")
+    public HiveCommonClientConfig setParquetMaxMergeDistance(DataSize parquetMaxMergeDistance)
+    {
+        this.parquetMaxMergeDistance = parquetMaxMergeDistance;
+        return this;
+    }
+
     public boolean isRangeFiltersOnSubscriptsEnabled()
     {
         return rangeFiltersOnSubscriptsEnabled;
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.cache.MetadataCache;
+import com.facebook.presto.hive.cache.MetadataCacheConfig;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
@@ -27,5 +29,7 @@ public class HiveCommonModule
     {
         configBinder(binder).bindConfig(HiveCommonClientConfig.class);
         binder.bind(HiveCommonSessionProperties.class).in(Scopes.SINGLETON);
+        configBinder(binder).bindConfig(MetadataCacheConfig.class);
+        binder.bind(MetadataCache.class).in(Scopes.SINGLETON);
     }
 }
@@ -60,6 +60,8 @@ public class HiveCommonSessionProperties
     private static final String ORC_ZSTD_JNI_DECOMPRESSION_ENABLED = "orc_zstd_jni_decompression_enabled";
     private static final String PARQUET_BATCH_READER_VERIFICATION_ENABLED = "parquet_batch_reader_verification_enabled";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
+    private static final String PARQUET_COALESCED_READS_ENABLED = "parquet_coalesced_reads_enabled";
+    private static final String PARQUET_MAX_MERGE_DISTANCE = "parquet_max_merge_distance";
     private static final String PARQUET_USE_COLUMN_NAMES = "parquet_use_column_names";
     public static final String READ_MASKED_VALUE_ENABLED = "read_null_masked_parquet_encrypted_value_enabled";
     public static final String AFFINITY_SCHEDULING_FILE_SECTION_SIZE = "affinity_scheduling_file_section_size";
@@ -175,6 +177,16 @@ public class HiveCommonSessionProperties
                         "Parquet: Maximum size of a block to read",
                         hiveCommonClientConfig.getParquetMaxReadBlockSize(),
                         false),
+                booleanProperty(
+                        PARQUET_COALESCED_READS_ENABLED,
+                        "Parquet: Fetch nearby column chunks of a row group with a single read",
+                        hiveCommonClientConfig.isParquetCoalescedReadsEnabled(),
+                        false),
+                dataSizeSessionProperty(
+                        PARQUET_MAX_MERGE_DISTANCE,
+                        "Parquet: Maximum size of gap between two column chunks to merge into a single read",
+                        hiveCommonClientConfig.getParquetMaxMergeDistance(),
+                        false),
                 booleanProperty(
                         PARQUET_USE_COLUMN_NAMES,
                         "Experimental: Parquet: Access Parquet columns using names from the file",
@@ -289,6 +301,16 @@ public class HiveCommonSessionProperties
         return session.getProperty(PARQUET_MAX_READ_BLOCK_SIZE, DataSize.class);
     }
 
+    public static boolean isParquetCoalescedReadsEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_COALESCED_READS_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getParquetMaxMergeDistance(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_MAX_MERGE_DISTANCE, DataSize.class);
+    }
+
     public static boolean isUseParquetColumnNames(ConnectorSession session)
     {
         return session.getProperty(PARQUET_USE_COLUMN_NAMES, Boolean.class);
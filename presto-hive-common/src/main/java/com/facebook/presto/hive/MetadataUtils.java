@@ -82,12 +82,20 @@ public final class MetadataUtils
             List<ColumnHandle> partitionColumns,
             List<HivePartition> partitions,
             Map<String, ColumnHandle> predicateColumns)
+    {
+        return getPredicate(layoutHandle, createPredicate(partitionColumns, partitions), predicateColumns);
+    }
+
+    public static TupleDomain<ColumnHandle> getPredicate(
+            BaseHiveTableLayoutHandle layoutHandle,
+            TupleDomain<ColumnHandle> partitionPredicate,
+            Map<String, ColumnHandle> predicateColumns)
     {
         TupleDomain<ColumnHandle> predicate;
         predicate = layoutHandle.getDomainPredicate()
                 .transform(subfield -> isEntireColumn(subfield) ? subfield.getRootName() : null)
                 .transform(predicateColumns::get)
-                .intersect(createPredicate(partitionColumns, partitions));
+                .intersect(partitionPredicate);
         return predicate;
     }
 
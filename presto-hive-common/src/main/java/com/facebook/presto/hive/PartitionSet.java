@@ -41,12 +41,29 @@ public class PartitionSet
         this.partitionLoader = requireNonNull(partitionLoader, "partitionLoader is null");
     }
 
+    /**
+     * Iterates the partitions. Partitions of a loader that supports streaming are streamed from the
+     * loader without being kept, so they are not all in memory at the same time. Otherwise, all
+     * partitions are loaded when the iteration starts.
+     */
     @Override
     public Iterator<HivePartition> iterator()
     {
+        if (!fullyLoaded) {
+            synchronized (this) {
+                if (!fullyLoaded && partitionLoader.supportsStreaming()) {
+                    return partitionLoader.streamPartitions();
+                }
+            }
+        }
         return new LazyIterator(this);
     }
 
+    public boolean isFullyLoaded()
+    {
+        return fullyLoaded;
+    }
+
     public List<HivePartition> getFullyLoadedPartitions()
     {
         tryFullyLoad();
@@ -86,6 +103,19 @@ public class PartitionSet
         List<HivePartition> loadPartitions();
 
         boolean isEmpty();
+
+        /**
+         * Whether the partition set iterates {@link #streamPartitions()} instead of loading and keeping all partitions.
+         */
+        default boolean supportsStreaming()
+        {
+            return false;
+        }
+
+        /**
+         * Returns a new iteration of the partitions. Loaders that do not support streaming return the loaded partitions.
+         */
+        Iterator<HivePartition> streamPartitions();
     }
 
     private static class LazyIterator
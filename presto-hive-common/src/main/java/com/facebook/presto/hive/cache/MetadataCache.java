@@ -0,0 +1,268 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.errorprone.annotations.ThreadSafe;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Managed;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A cache of file metadata, such as ORC file tails and Parquet footers, that stores entries
+ * in serialized form under a single memory budget. Each kind of metadata gets its own view
+ * through {@link #createCache}, and an entry is deserialized every time it is read. An entry is
+ * kept as a single byte array of exactly its serialized size, so the cached metadata costs the
+ * garbage collector one object per entry instead of a graph of metadata objects, and it does not
+ * take direct memory outside of the heap limits.
+ */
+@ThreadSafe
+public class MetadataCache
+{
+    // approximate size of a cache entry, its key and the header of the byte array
+    private static final int ENTRY_OVERHEAD_IN_BYTES = 120;
+
+    private final Cache<CacheKey, byte[]> cache;
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong hitBytes = new AtomicLong();
+    private final AtomicLong missBytes = new AtomicLong();
+
+    @Inject
+    public MetadataCache(MetadataCacheConfig config)
+    {
+        this(config.getMaxSize(), config.getTtlSinceLastAccess());
+    }
+
+    public MetadataCache(DataSize maxSize, Duration ttlSinceLastAccess)
+    {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Weigher<CacheKey, byte[]>) (key, value) -> value.length + ENTRY_OVERHEAD_IN_BYTES)
+                .expireAfterAccess(ttlSinceLastAccess.toMillis(), MILLISECONDS)
+                .removalListener((RemovalListener<CacheKey, byte[]>) notification -> retainedBytes.addAndGet(-notification.getValue().length))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a view of this cache for one kind of metadata. Its entries count against the
+     * budget of this cache, and they are evicted together with the entries of the other views.
+     */
+    public <K, V> Cache<K, V> createCache(String name, MetadataSerializer<V> serializer)
+    {
+        checkArgument(names.add(requireNonNull(name, "name is null")), "Metadata cache %s already exists", name);
+        return new MetadataCacheView<>(name, serializer);
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getRetainedBytes()
+    {
+        return retainedBytes.get();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getHitBytes()
+    {
+        return hitBytes.get();
+    }
+
+    @Managed
+    public long getMissBytes()
+    {
+        return missBytes.get();
+    }
+
+    private class MetadataCacheView<K, V>
+            extends AbstractCache<K, V>
+    {
+        private final String name;
+        private final MetadataSerializer<V> serializer;
+
+        public MetadataCacheView(String name, MetadataSerializer<V> serializer)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.serializer = requireNonNull(serializer, "serializer is null");
+        }
+
+        @Override
+        public V getIfPresent(Object key)
+        {
+            byte[] serialized = cache.getIfPresent(new CacheKey(name, key));
+            if (serialized == null) {
+                return null;
+            }
+            hitBytes.addAndGet(serialized.length);
+            return serializer.deserialize(wrappedBuffer(serialized));
+        }
+
+        /**
+         * Concurrent calls for the same missing key run a single load, and the other callers
+         * wait for it and read the stored entry.
+         */
+        @Override
+        public V get(K key, Callable<? extends V> loader)
+                throws ExecutionException
+        {
+            requireNonNull(loader, "loader is null");
+            // the value loaded by this call, which is returned as is instead of being read back
+            AtomicReference<V> loaded = new AtomicReference<>();
+            byte[] serialized = cache.get(new CacheKey(name, requireNonNull(key, "key is null")), () -> {
+                V value = loader.call();
+                if (value == null) {
+                    // the backing cache fails the load with InvalidCacheLoadException
+                    return null;
+                }
+                loaded.set(value);
+                return store(value);
+            });
+
+            if (loaded.get() != null) {
+                return loaded.get();
+            }
+            hitBytes.addAndGet(serialized.length);
+            return serializer.deserialize(wrappedBuffer(serialized));
+        }
+
+        @Override
+        public void put(K key, V value)
+        {
+            CacheKey cacheKey = new CacheKey(name, requireNonNull(key, "key is null"));
+            cache.put(cacheKey, store(requireNonNull(value, "value is null")));
+        }
+
+        private byte[] store(V value)
+        {
+            // copy to an array of the exact size, as the serializer may return a view of a larger buffer
+            byte[] serialized = serializer.serialize(value).getBytes();
+            missBytes.addAndGet(serialized.length);
+            retainedBytes.addAndGet(serialized.length);
+            return serialized;
+        }
+
+        @Override
+        public void invalidate(Object key)
+        {
+            cache.invalidate(new CacheKey(name, key));
+        }
+
+        @Override
+        public void invalidateAll()
+        {
+            cache.asMap().keySet().removeIf(key -> key.getName().equals(name));
+        }
+
+        @Override
+        public long size()
+        {
+            return cache.asMap().keySet().stream()
+                    .filter(key -> key.getName().equals(name))
+                    .count();
+        }
+    }
+
+    private static class CacheKey
+    {
+        private final String name;
+        private final Object key;
+
+        public CacheKey(String name, Object key)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return name.equals(that.name) && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(name, key);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("name", name)
+                    .add("key", key)
+                    .toString();
+        }
+    }
+}
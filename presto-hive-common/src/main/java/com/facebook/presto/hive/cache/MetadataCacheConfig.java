@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.airlift.units.MaxDataSize;
+import jakarta.validation.constraints.NotNull;
+
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+public class MetadataCacheConfig
+{
+    private boolean enabled;
+    private DataSize maxSize = new DataSize(1, GIGABYTE);
+    private Duration ttlSinceLastAccess = new Duration(6, HOURS);
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("hive.metadata-cache.enabled")
+    @ConfigDescription("Store the enabled ORC and Parquet metadata caches on-heap in serialized form, under one memory budget")
+    public MetadataCacheConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    @NotNull
+    @MaxDataSize("1TB")
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("hive.metadata-cache.max-size")
+    @ConfigDescription("Memory budget shared by all the metadata caches")
+    public MetadataCacheConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getTtlSinceLastAccess()
+    {
+        return ttlSinceLastAccess;
+    }
+
+    @Config("hive.metadata-cache.ttl-since-last-access")
+    @ConfigDescription("Time after which an entry that has not been accessed is evicted")
+    public MetadataCacheConfig setTtlSinceLastAccess(Duration ttlSinceLastAccess)
+    {
+        this.ttlSinceLastAccess = ttlSinceLastAccess;
+        return this;
+    }
+}
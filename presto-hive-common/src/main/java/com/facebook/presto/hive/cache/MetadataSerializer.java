@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import io.airlift.slice.Slice;
+
+/**
+ * Converts a kind of file metadata to and from the form stored in a {@link MetadataCache}.
+ */
+public interface MetadataSerializer<T>
+{
+    Slice serialize(T value);
+
+    /**
+     * The returned value may share memory with {@code serialized}, which is never modified.
+     */
+    T deserialize(Slice serialized);
+}
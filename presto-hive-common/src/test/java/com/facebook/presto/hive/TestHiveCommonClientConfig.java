@@ -35,6 +35,8 @@ public class TestHiveCommonClientConfig
                 .setNodeSelectionStrategy(NodeSelectionStrategy.valueOf("NO_PREFERENCE"))
                 .setUseParquetColumnNames(false)
                 .setParquetMaxReadBlockSize(new DataSize(16, DataSize.Unit.MEGABYTE))
+                .setParquetCoalescedReadsEnabled(false)
+                .setParquetMaxMergeDistance(new DataSize(1, DataSize.Unit.MEGABYTE))
                 .setOrcBloomFiltersEnabled(false)
                 .setOrcMaxMergeDistance(new DataSize(1, DataSize.Unit.MEGABYTE))
                 .setOrcMaxBufferSize(new DataSize(8, DataSize.Unit.MEGABYTE))
@@ -62,6 +64,8 @@ public class TestHiveCommonClientConfig
                 .put("hive.node-selection-strategy", "HARD_AFFINITY")
                 .put("hive.parquet.use-column-names", "true")
                 .put("hive.parquet.max-read-block-size", "66kB")
+                .put("hive.parquet.coalesced-reads-enabled", "true")
+                .put("hive.parquet.max-merge-distance", "256kB")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.max-merge-distance", "22kB")
                 .put("hive.orc.max-buffer-size", "44kB")
@@ -86,6 +90,8 @@ public class TestHiveCommonClientConfig
                 .setNodeSelectionStrategy(HARD_AFFINITY)
                 .setUseParquetColumnNames(true)
                 .setParquetMaxReadBlockSize(new DataSize(66, DataSize.Unit.KILOBYTE))
+                .setParquetCoalescedReadsEnabled(true)
+                .setParquetMaxMergeDistance(new DataSize(256, DataSize.Unit.KILOBYTE))
                 .setOrcBloomFiltersEnabled(true)
                 .setOrcMaxMergeDistance(new DataSize(22, DataSize.Unit.KILOBYTE))
                 .setOrcMaxBufferSize(new DataSize(44, DataSize.Unit.KILOBYTE))
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class TestMetadataCache
+{
+    private static final MetadataSerializer<String> STRING_SERIALIZER = new MetadataSerializer<String>()
+    {
+        @Override
+        public Slice serialize(String value)
+        {
+            return utf8Slice(value);
+        }
+
+        @Override
+        public String deserialize(Slice serialized)
+        {
+            return serialized.toStringUtf8();
+        }
+    };
+
+    @Test
+    public void testViews()
+    {
+        MetadataCache metadataCache = new MetadataCache(new DataSize(1, KILOBYTE), new Duration(1, HOURS));
+        Cache<String, String> first = metadataCache.createCache("first", STRING_SERIALIZER);
+        Cache<String, String> second = metadataCache.createCache("second", STRING_SERIALIZER);
+
+        first.put("key", "value");
+        assertNull(second.getIfPresent("key"));
+        assertEquals(metadataCache.getMissCount(), 1);
+
+        // every access deserializes a new copy of the stored entry
+        String value = first.getIfPresent("key");
+        assertEquals(value, "value");
+        assertNotSame(first.getIfPresent("key"), value);
+        assertEquals(metadataCache.getHitCount(), 2);
+        assertEquals(metadataCache.getHitBytes(), 10);
+        assertEquals(metadataCache.getRetainedBytes(), 5);
+
+        second.put("key", "other");
+        assertEquals(first.size(), 1);
+        assertEquals(second.size(), 1);
+        assertEquals(metadataCache.getSize(), 2);
+
+        first.invalidateAll();
+        assertNull(first.getIfPresent("key"));
+        assertEquals(second.getIfPresent("key"), "other");
+        assertEquals(metadataCache.getRetainedBytes(), 5);
+
+        second.invalidate("key");
+        assertEquals(metadataCache.getSize(), 0);
+        assertEquals(metadataCache.getRetainedBytes(), 0);
+
+        expectThrows(IllegalArgumentException.class, () -> metadataCache.createCache("first", STRING_SERIALIZER));
+    }
+
+    @Test
+    public void testSharedBudget()
+    {
+        MetadataCache metadataCache = new MetadataCache(new DataSize(1, KILOBYTE), new Duration(1, HOURS));
+        Cache<Integer, String> first = metadataCache.createCache("first", STRING_SERIALIZER);
+        Cache<Integer, String> second = metadataCache.createCache("second", STRING_SERIALIZER);
+
+        String value = new String(new char[100]).replace('\0', 'x');
+        for (int i = 0; i < 10; i++) {
+            first.put(i, value);
+            second.put(i, value);
+        }
+        assertTrue(metadataCache.getEvictionCount() > 0);
+        assertTrue(metadataCache.getRetainedBytes() <= new DataSize(1, KILOBYTE).toBytes());
+        assertEquals(metadataCache.getRetainedBytes(), metadataCache.getSize() * value.length());
+    }
+
+    @Test
+    public void testLoader()
+            throws ExecutionException
+    {
+        MetadataCache metadataCache = new MetadataCache(new DataSize(1, KILOBYTE), new Duration(1, HOURS));
+        Cache<String, String> cache = metadataCache.createCache("test", STRING_SERIALIZER);
+
+        assertEquals(cache.get("key", () -> "value"), "value");
+        assertEquals(cache.get("key", () -> "other"), "value");
+        assertEquals(metadataCache.getMissBytes(), 5);
+        assertEquals(metadataCache.getHitBytes(), 5);
+
+        expectThrows(InvalidCacheLoadException.class, () -> cache.get("null", () -> null));
+        assertNull(cache.getIfPresent("null"));
+
+        ExecutionException exception = expectThrows(ExecutionException.class, () -> cache.get("failure", () -> {
+            throw new IOException("failed");
+        }));
+        assertTrue(exception.getCause() instanceof IOException);
+        assertNull(cache.getIfPresent("failure"));
+    }
+
+    @Test(timeOut = 30_000)
+    public void testConcurrentLoads()
+            throws Exception
+    {
+        MetadataCache metadataCache = new MetadataCache(new DataSize(1, KILOBYTE), new Duration(1, HOURS));
+        Cache<String, String> cache = metadataCache.createCache("test", STRING_SERIALIZER);
+
+        int threads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return "value";
+                })));
+            }
+            // let the other callers reach the cache while the first load is blocked
+            loading.await();
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals(result.get(10, SECONDS), "value");
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(loads.get(), 1);
+        assertEquals(metadataCache.getMissBytes(), 5);
+        assertEquals(metadataCache.getRetainedBytes(), 5);
+    }
+}
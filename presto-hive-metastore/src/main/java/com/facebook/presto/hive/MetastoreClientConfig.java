@@ -73,6 +73,9 @@ public class MetastoreClientConfig
     private HiveMetastoreAuthenticationType hiveMetastoreAuthenticationType = HiveMetastoreAuthenticationType.NONE;
     private boolean deleteFilesOnTableDrop;
     private boolean invalidateMetastoreCacheProcedureEnabled;
+    private boolean requestCoalescingEnabled;
+    private int partitionFetchThreads = 8;
+    private int partitionFetchBatchSize = 100;
 
     public HostAndPort getMetastoreSocksProxy()
     {
@@ -441,4 +444,45 @@ public class MetastoreClientConfig
         this.invalidateMetastoreCacheProcedureEnabled = invalidateMetastoreCacheProcedureEnabled;
         return this;
     }
+
+    public boolean isRequestCoalescingEnabled()
+    {
+        return requestCoalescingEnabled;
+    }
+
+    @Config("hive.metastore.request-coalescing-enabled")
+    @ConfigDescription("Fetch partition batches from the metastore in parallel and share identical in-flight requests across queries")
+    public MetastoreClientConfig setRequestCoalescingEnabled(boolean requestCoalescingEnabled)
+    {
+        this.requestCoalescingEnabled = requestCoalescingEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getPartitionFetchThreads()
+    {
+        return partitionFetchThreads;
+    }
+
+    @Config("hive.metastore.partition-fetch-threads")
+    @ConfigDescription("Maximum number of partition batches fetched from the metastore concurrently")
+    public MetastoreClientConfig setPartitionFetchThreads(int partitionFetchThreads)
+    {
+        this.partitionFetchThreads = partitionFetchThreads;
+        return this;
+    }
+
+    @Min(1)
+    public int getPartitionFetchBatchSize()
+    {
+        return partitionFetchBatchSize;
+    }
+
+    @Config("hive.metastore.partition-fetch-batch-size")
+    @ConfigDescription("Number of partitions requested from the metastore in a single call when fetching partitions in parallel")
+    public MetastoreClientConfig setPartitionFetchBatchSize(int partitionFetchBatchSize)
+    {
+        this.partitionFetchBatchSize = partitionFetchBatchSize;
+        return this;
+    }
 }
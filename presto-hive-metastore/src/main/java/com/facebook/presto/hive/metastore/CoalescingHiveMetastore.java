@@ -0,0 +1,587 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.airlift.concurrent.BoundedExecutor;
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.hive.ForCoalescingHiveMetastore;
+import com.facebook.presto.hive.HiveTableHandle;
+import com.facebook.presto.hive.HiveType;
+import com.facebook.presto.hive.MetastoreClientConfig;
+import com.facebook.presto.hive.PartitionNameWithVersion;
+import com.facebook.presto.spi.constraints.TableConstraint;
+import com.facebook.presto.spi.security.PrestoPrincipal;
+import com.facebook.presto.spi.security.RoleGrant;
+import com.facebook.presto.spi.statistics.ColumnStatisticType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.ThreadSafe;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Splits large partition lookups into batches that are fetched from the delegate in parallel,
+ * and shares a single delegate call between identical requests that are in flight at the same time.
+ * Meant to sit below {@link InMemoryCachingHiveMetastore}, so concurrent cache misses for the same
+ * table do not each go to the metastore.
+ */
+@ThreadSafe
+public class CoalescingHiveMetastore
+        implements ExtendedHiveMetastore
+{
+    private final ExtendedHiveMetastore delegate;
+    private final Executor executor;
+    private final int batchSize;
+
+    private final ConcurrentMap<RequestKey, ListenableFuture<?>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private final CoalescingStats getPartitionsByNames = new CoalescingStats();
+    private final CoalescingStats getPartitionStatistics = new CoalescingStats();
+    private final CoalescingStats getPartitionNamesByFilter = new CoalescingStats();
+
+    @Inject
+    public CoalescingHiveMetastore(@ForCoalescingHiveMetastore ExtendedHiveMetastore delegate, MetastoreClientConfig metastoreClientConfig)
+    {
+        this(
+                delegate,
+                createExecutor(metastoreClientConfig.getPartitionFetchThreads()),
+                metastoreClientConfig.getPartitionFetchBatchSize());
+    }
+
+    public CoalescingHiveMetastore(ExtendedHiveMetastore delegate, Executor executor, int batchSize)
+    {
+        checkArgument(batchSize > 0, "batchSize must be greater than zero");
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.batchSize = batchSize;
+    }
+
+    private static Executor createExecutor(int threads)
+    {
+        if (threads == 1) {
+            return directExecutor();
+        }
+        return new BoundedExecutor(
+                newCachedThreadPool(daemonThreadsNamed("hive-metastore-partition-fetch-%s")),
+                threads);
+    }
+
+    @Override
+    public Map<String, Optional<Partition>> getPartitionsByNames(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionNameWithVersion> partitionNames)
+    {
+        List<ListenableFuture<Map<String, Optional<Partition>>>> futures = Lists.partition(partitionNames, batchSize).stream()
+                .map(batch -> submit(
+                        new RequestKey("getPartitionsByNames", metastoreContext, databaseName, tableName, ImmutableList.copyOf(batch)),
+                        getPartitionsByNames,
+                        () -> delegate.getPartitionsByNames(metastoreContext, databaseName, tableName, batch),
+                        partitionNames.size() > batchSize ? executor : directExecutor()))
+                .collect(toImmutableList());
+        return mergeBatches(futures);
+    }
+
+    @Override
+    public Map<String, PartitionStatistics> getPartitionStatistics(MetastoreContext metastoreContext, String databaseName, String tableName, Set<String> partitionNames)
+    {
+        List<ListenableFuture<Map<String, PartitionStatistics>>> futures = ImmutableList.copyOf(Iterables.transform(
+                Iterables.partition(partitionNames, batchSize),
+                batch -> {
+                    Set<String> names = ImmutableSet.copyOf(batch);
+                    return submit(
+                            new RequestKey("getPartitionStatistics", metastoreContext, databaseName, tableName, names),
+                            getPartitionStatistics,
+                            () -> delegate.getPartitionStatistics(metastoreContext, databaseName, tableName, names),
+                            partitionNames.size() > batchSize ? executor : directExecutor());
+                }));
+        return mergeBatches(futures);
+    }
+
+    @Override
+    public List<PartitionNameWithVersion> getPartitionNamesByFilter(MetastoreContext metastoreContext, String databaseName, String tableName, Map<Column, Domain> partitionPredicates)
+    {
+        return getFutureValue(submit(
+                new RequestKey("getPartitionNamesByFilter", metastoreContext, databaseName, tableName, ImmutableMap.copyOf(partitionPredicates)),
+                getPartitionNamesByFilter,
+                () -> delegate.getPartitionNamesByFilter(metastoreContext, databaseName, tableName, partitionPredicates),
+                directExecutor()));
+    }
+
+    /**
+     * Returns the future of an identical in-flight request if there is one, otherwise runs the
+     * loader on the given executor. The request is removed from the in-flight set before its
+     * future completes, so a later caller never observes a result loaded before it asked.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ListenableFuture<T> submit(RequestKey key, CoalescingStats stats, Supplier<T> loader, Executor loaderExecutor)
+    {
+        stats.getRequests().update(1);
+        SettableFuture<T> future = SettableFuture.create();
+        ListenableFuture<?> existing = inFlightRequests.putIfAbsent(key, future);
+        if (existing != null) {
+            stats.getCoalescedRequests().update(1);
+            return (ListenableFuture<T>) existing;
+        }
+
+        loaderExecutor.execute(() -> {
+            T value;
+            try (TimeStat.BlockTimer ignored = stats.getTime().time()) {
+                value = loader.get();
+            }
+            catch (Throwable t) {
+                stats.getTotalFailures().update(1);
+                inFlightRequests.remove(key, future);
+                future.setException(t);
+                return;
+            }
+            inFlightRequests.remove(key, future);
+            future.set(value);
+        });
+        return future;
+    }
+
+    private static <V> Map<String, V> mergeBatches(List<ListenableFuture<Map<String, V>>> futures)
+    {
+        if (futures.size() == 1) {
+            return getFutureValue(futures.get(0));
+        }
+        // partition names may repeat across batches when the caller passes duplicates
+        Map<String, V> result = new LinkedHashMap<>();
+        for (ListenableFuture<Map<String, V>> future : futures) {
+            result.putAll(getFutureValue(future));
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
+    @Managed
+    public long getInFlightRequestCount()
+    {
+        return inFlightRequests.size();
+    }
+
+    @Managed
+    @Nested
+    public CoalescingStats getGetPartitionsByNames()
+    {
+        return getPartitionsByNames;
+    }
+
+    @Managed
+    @Nested
+    public CoalescingStats getGetPartitionStatistics()
+    {
+        return getPartitionStatistics;
+    }
+
+    @Managed
+    @Nested
+    public CoalescingStats getGetPartitionNamesByFilter()
+    {
+        return getPartitionNamesByFilter;
+    }
+
+    @Override
+    public Optional<Database> getDatabase(MetastoreContext metastoreContext, String databaseName)
+    {
+        return delegate.getDatabase(metastoreContext, databaseName);
+    }
+
+    @Override
+    public List<String> getAllDatabases(MetastoreContext metastoreContext)
+    {
+        return delegate.getAllDatabases(metastoreContext);
+    }
+
+    @Override
+    public Optional<Table> getTable(MetastoreContext metastoreContext, String databaseName, String tableName)
+    {
+        return delegate.getTable(metastoreContext, databaseName, tableName);
+    }
+
+    @Override
+    public Optional<Table> getTable(MetastoreContext metastoreContext, HiveTableHandle hiveTableHandle)
+    {
+        return delegate.getTable(metastoreContext, hiveTableHandle);
+    }
+
+    @Override
+    public Set<ColumnStatisticType> getSupportedColumnStatistics(MetastoreContext metastoreContext, Type type)
+    {
+        return delegate.getSupportedColumnStatistics(metastoreContext, type);
+    }
+
+    @Override
+    public PartitionStatistics getTableStatistics(MetastoreContext metastoreContext, String databaseName, String tableName)
+    {
+        return delegate.getTableStatistics(metastoreContext, databaseName, tableName);
+    }
+
+    @Override
+    public void updateTableStatistics(MetastoreContext metastoreContext, String databaseName, String tableName, Function<PartitionStatistics, PartitionStatistics> update)
+    {
+        delegate.updateTableStatistics(metastoreContext, databaseName, tableName, update);
+    }
+
+    @Override
+    public void updatePartitionStatistics(MetastoreContext metastoreContext, String databaseName, String tableName, String partitionName, Function<PartitionStatistics, PartitionStatistics> update)
+    {
+        delegate.updatePartitionStatistics(metastoreContext, databaseName, tableName, partitionName, update);
+    }
+
+    @Override
+    public Optional<List<String>> getAllTables(MetastoreContext metastoreContext, String databaseName)
+    {
+        return delegate.getAllTables(metastoreContext, databaseName);
+    }
+
+    @Override
+    public Optional<List<String>> getAllViews(MetastoreContext metastoreContext, String databaseName)
+    {
+        return delegate.getAllViews(metastoreContext, databaseName);
+    }
+
+    @Override
+    public void createDatabase(MetastoreContext metastoreContext, Database database)
+    {
+        delegate.createDatabase(metastoreContext, database);
+    }
+
+    @Override
+    public void dropDatabase(MetastoreContext metastoreContext, String databaseName)
+    {
+        delegate.dropDatabase(metastoreContext, databaseName);
+    }
+
+    @Override
+    public void renameDatabase(MetastoreContext metastoreContext, String databaseName, String newDatabaseName)
+    {
+        delegate.renameDatabase(metastoreContext, databaseName, newDatabaseName);
+    }
+
+    @Override
+    public MetastoreOperationResult createTable(MetastoreContext metastoreContext, Table table, PrincipalPrivileges principalPrivileges, List<TableConstraint<String>> constraints)
+    {
+        return delegate.createTable(metastoreContext, table, principalPrivileges, constraints);
+    }
+
+    @Override
+    public void dropTable(MetastoreContext metastoreContext, String databaseName, String tableName, boolean deleteData)
+    {
+        delegate.dropTable(metastoreContext, databaseName, tableName, deleteData);
+    }
+
+    @Override
+    public void dropTableFromMetastore(MetastoreContext metastoreContext, String databaseName, String tableName)
+    {
+        delegate.dropTableFromMetastore(metastoreContext, databaseName, tableName);
+    }
+
+    @Override
+    public MetastoreOperationResult replaceTable(MetastoreContext metastoreContext, String databaseName, String tableName, Table newTable, PrincipalPrivileges principalPrivileges)
+    {
+        return delegate.replaceTable(metastoreContext, databaseName, tableName, newTable, principalPrivileges);
+    }
+
+    @Override
+    public MetastoreOperationResult persistTable(
+            MetastoreContext metastoreContext,
+            String databaseName,
+            String tableName,
+            Table newTable,
+            PrincipalPrivileges principalPrivileges,
+            Supplier<PartitionStatistics> update,
+            Map<String, String> additionalParameters)
+    {
+        return delegate.persistTable(metastoreContext, databaseName, tableName, newTable, principalPrivileges, update, additionalParameters);
+    }
+
+    @Override
+    public MetastoreOperationResult renameTable(MetastoreContext metastoreContext, String databaseName, String tableName, String newDatabaseName, String newTableName)
+    {
+        return delegate.renameTable(metastoreContext, databaseName, tableName, newDatabaseName, newTableName);
+    }
+
+    @Override
+    public MetastoreOperationResult addColumn(MetastoreContext metastoreContext, String databaseName, String tableName, String columnName, HiveType columnType, String columnComment)
+    {
+        return delegate.addColumn(metastoreContext, databaseName, tableName, columnName, columnType, columnComment);
+    }
+
+    @Override
+    public MetastoreOperationResult renameColumn(MetastoreContext metastoreContext, String databaseName, String tableName, String oldColumnName, String newColumnName)
+    {
+        return delegate.renameColumn(metastoreContext, databaseName, tableName, oldColumnName, newColumnName);
+    }
+
+    @Override
+    public MetastoreOperationResult dropColumn(MetastoreContext metastoreContext, String databaseName, String tableName, String columnName)
+    {
+        return delegate.dropColumn(metastoreContext, databaseName, tableName, columnName);
+    }
+
+    @Override
+    public Optional<Partition> getPartition(MetastoreContext metastoreContext, String databaseName, String tableName, List<String> partitionValues)
+    {
+        return delegate.getPartition(metastoreContext, databaseName, tableName, partitionValues);
+    }
+
+    @Override
+    public Optional<List<PartitionNameWithVersion>> getPartitionNames(MetastoreContext metastoreContext, String databaseName, String tableName)
+    {
+        return delegate.getPartitionNames(metastoreContext, databaseName, tableName);
+    }
+
+    @Override
+    public List<PartitionNameWithVersion> getPartitionNamesWithVersionByFilter(MetastoreContext metastoreContext, String databaseName, String tableName, Map<Column, Domain> partitionPredicates)
+    {
+        return delegate.getPartitionNamesWithVersionByFilter(metastoreContext, databaseName, tableName, partitionPredicates);
+    }
+
+    @Override
+    public MetastoreOperationResult addPartitions(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionWithStatistics> partitions)
+    {
+        return delegate.addPartitions(metastoreContext, databaseName, tableName, partitions);
+    }
+
+    @Override
+    public void dropPartition(MetastoreContext metastoreContext, String databaseName, String tableName, List<String> parts, boolean deleteData)
+    {
+        delegate.dropPartition(metastoreContext, databaseName, tableName, parts, deleteData);
+    }
+
+    @Override
+    public MetastoreOperationResult alterPartition(MetastoreContext metastoreContext, String databaseName, String tableName, PartitionWithStatistics partition)
+    {
+        return delegate.alterPartition(metastoreContext, databaseName, tableName, partition);
+    }
+
+    @Override
+    public void createRole(MetastoreContext metastoreContext, String role, String grantor)
+    {
+        delegate.createRole(metastoreContext, role, grantor);
+    }
+
+    @Override
+    public void dropRole(MetastoreContext metastoreContext, String role)
+    {
+        delegate.dropRole(metastoreContext, role);
+    }
+
+    @Override
+    public Set<String> listRoles(MetastoreContext metastoreContext)
+    {
+        return delegate.listRoles(metastoreContext);
+    }
+
+    @Override
+    public void grantRoles(MetastoreContext metastoreContext, Set<String> roles, Set<PrestoPrincipal> grantees, boolean withAdminOption, PrestoPrincipal grantor)
+    {
+        delegate.grantRoles(metastoreContext, roles, grantees, withAdminOption, grantor);
+    }
+
+    @Override
+    public void revokeRoles(MetastoreContext metastoreContext, Set<String> roles, Set<PrestoPrincipal> grantees, boolean adminOptionFor, PrestoPrincipal grantor)
+    {
+        delegate.revokeRoles(metastoreContext, roles, grantees, adminOptionFor, grantor);
+    }
+
+    @Override
+    public Set<RoleGrant> listRoleGrants(MetastoreContext metastoreContext, PrestoPrincipal principal)
+    {
+        return delegate.listRoleGrants(metastoreContext, principal);
+    }
+
+    @Override
+    public void grantTablePrivileges(MetastoreContext metastoreContext, String databaseName, String tableName, PrestoPrincipal grantee, Set<HivePrivilegeInfo> privileges)
+    {
+        delegate.grantTablePrivileges(metastoreContext, databaseName, tableName, grantee, privileges);
+    }
+
+    @Override
+    public void revokeTablePrivileges(MetastoreContext metastoreContext, String databaseName, String tableName, PrestoPrincipal grantee, Set<HivePrivilegeInfo> privileges)
+    {
+        delegate.revokeTablePrivileges(metastoreContext, databaseName, tableName, grantee, privileges);
+    }
+
+    @Override
+    public Set<HivePrivilegeInfo> listTablePrivileges(MetastoreContext metastoreContext, String databaseName, String tableName, PrestoPrincipal principal)
+    {
+        return delegate.listTablePrivileges(metastoreContext, databaseName, tableName, principal);
+    }
+
+    @Override
+    public void setPartitionLeases(MetastoreContext metastoreContext, String databaseName, String tableName, Map<String, String> partitionNameToLocation, Duration leaseDuration)
+    {
+        delegate.setPartitionLeases(metastoreContext, databaseName, tableName, partitionNameToLocation, leaseDuration);
+    }
+
+    @Override
+    public Optional<Long> lock(MetastoreContext metastoreContext, String databaseName, String tableName)
+    {
+        return delegate.lock(metastoreContext, databaseName, tableName);
+    }
+
+    @Override
+    public void unlock(MetastoreContext metastoreContext, long lockId)
+    {
+        delegate.unlock(metastoreContext, lockId);
+    }
+
+    @Override
+    public List<TableConstraint<String>> getTableConstraints(MetastoreContext metastoreContext, String schemaName, String tableName)
+    {
+        return delegate.getTableConstraints(metastoreContext, schemaName, tableName);
+    }
+
+    @Override
+    public int getPartitionCommitBatchSize()
+    {
+        return delegate.getPartitionCommitBatchSize();
+    }
+
+    @Override
+    public MetastoreOperationResult dropConstraint(MetastoreContext metastoreContext, String databaseName, String tableName, String constraintName)
+    {
+        return delegate.dropConstraint(metastoreContext, databaseName, tableName, constraintName);
+    }
+
+    @Override
+    public MetastoreOperationResult addConstraint(MetastoreContext metastoreContext, String databaseName, String tableName, TableConstraint<String> tableConstraint)
+    {
+        return delegate.addConstraint(metastoreContext, databaseName, tableName, tableConstraint);
+    }
+
+    public static class CoalescingStats
+    {
+        private final CounterStat requests = new CounterStat();
+        private final CounterStat coalescedRequests = new CounterStat();
+        private final CounterStat totalFailures = new CounterStat();
+        private final TimeStat time = new TimeStat(MILLISECONDS);
+
+        @Managed
+        @Nested
+        public CounterStat getRequests()
+        {
+            return requests;
+        }
+
+        @Managed
+        @Nested
+        public CounterStat getCoalescedRequests()
+        {
+            return coalescedRequests;
+        }
+
+        @Managed
+        @Nested
+        public CounterStat getTotalFailures()
+        {
+            return totalFailures;
+        }
+
+        @Managed
+        @Nested
+        public TimeStat getTime()
+        {
+            return time;
+        }
+    }
+
+    // Mirrors the cache keys of InMemoryCachingHiveMetastore: the query-scoped fields of
+    // MetastoreContext are ignored, the user only matters when impersonation is enabled.
+    private static class RequestKey
+    {
+        private final String method;
+        private final Optional<String> user;
+        private final boolean userDefinedTypeEncodingEnabled;
+        private final String databaseName;
+        private final String tableName;
+        private final Object arguments;
+
+        public RequestKey(String method, MetastoreContext metastoreContext, String databaseName, String tableName, Object arguments)
+        {
+            this.method = requireNonNull(method, "method is null");
+            this.user = metastoreContext.isImpersonationEnabled() ? Optional.of(metastoreContext.getUsername()) : Optional.empty();
+            this.userDefinedTypeEncodingEnabled = metastoreContext.isUserDefinedTypeEncodingEnabled();
+            this.databaseName = requireNonNull(databaseName, "databaseName is null");
+            this.tableName = requireNonNull(tableName, "tableName is null");
+            this.arguments = requireNonNull(arguments, "arguments is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RequestKey other = (RequestKey) o;
+            return userDefinedTypeEncodingEnabled == other.userDefinedTypeEncodingEnabled &&
+                    Objects.equals(method, other.method) &&
+                    Objects.equals(user, other.user) &&
+                    Objects.equals(databaseName, other.databaseName) &&
+                    Objects.equals(tableName, other.tableName) &&
+                    Objects.equals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(method, user, userDefinedTypeEncodingEnabled, databaseName, tableName, arguments);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("method", method)
+                    .add("user", user)
+                    .add("databaseName", databaseName)
+                    .add("tableName", tableName)
+                    .toString();
+        }
+    }
+}
@@ -15,7 +15,10 @@ package com.facebook.presto.hive.metastore.file;
 
 import com.facebook.airlift.configuration.AbstractConfigurationAwareModule;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
+import com.facebook.presto.hive.ForCoalescingHiveMetastore;
 import com.facebook.presto.hive.HiveCommonClientConfig;
+import com.facebook.presto.hive.MetastoreClientConfig;
+import com.facebook.presto.hive.metastore.CoalescingHiveMetastore;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.hive.metastore.InMemoryCachingHiveMetastore;
 import com.facebook.presto.hive.metastore.MetastoreCacheSpecProvider;
@@ -44,7 +47,16 @@ public class FileMetastoreModule
         checkArgument(buildConfigObject(HiveCommonClientConfig.class).getCatalogName() == null, "'hive.metastore.catalog.name' should not be set for file metastore");
         configBinder(binder).bindConfig(FileHiveMetastoreConfig.class);
         binder.bind(MetastoreCacheSpecProvider.class).in(Scopes.SINGLETON);
-        binder.bind(ExtendedHiveMetastore.class).annotatedWith(ForCachingHiveMetastore.class).to(FileHiveMetastore.class).in(Scopes.SINGLETON);
+        if (buildConfigObject(MetastoreClientConfig.class).isRequestCoalescingEnabled()) {
+            binder.bind(ExtendedHiveMetastore.class).annotatedWith(ForCoalescingHiveMetastore.class).to(FileHiveMetastore.class).in(Scopes.SINGLETON);
+            binder.bind(ExtendedHiveMetastore.class).annotatedWith(ForCachingHiveMetastore.class).to(CoalescingHiveMetastore.class).in(Scopes.SINGLETON);
+            binder.bind(CoalescingHiveMetastore.class).in(Scopes.SINGLETON);
+            newExporter(binder).export(CoalescingHiveMetastore.class)
+                    .as(generatedNameOf(CoalescingHiveMetastore.class, connectorId));
+        }
+        else {
+            binder.bind(ExtendedHiveMetastore.class).annotatedWith(ForCachingHiveMetastore.class).to(FileHiveMetastore.class).in(Scopes.SINGLETON);
+        }
         binder.bind(ExtendedHiveMetastore.class).to(InMemoryCachingHiveMetastore.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExtendedHiveMetastore.class)
                 .as(generatedNameOf(InMemoryCachingHiveMetastore.class, connectorId));
@@ -15,8 +15,10 @@ package com.facebook.presto.hive.metastore.thrift;
 
 import com.facebook.airlift.configuration.AbstractConfigurationAwareModule;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
+import com.facebook.presto.hive.ForCoalescingHiveMetastore;
 import com.facebook.presto.hive.ForRecordingHiveMetastore;
 import com.facebook.presto.hive.MetastoreClientConfig;
+import com.facebook.presto.hive.metastore.CoalescingHiveMetastore;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.hive.metastore.InMemoryCachingHiveMetastore;
 import com.facebook.presto.hive.metastore.MetastoreCacheSpecProvider;
@@ -50,26 +52,35 @@ public class ThriftMetastoreModule
         binder.bind(HiveMetastore.class).to(ThriftHiveMetastore.class).in(Scopes.SINGLETON);
         binder.bind(ConnectorId.class).toInstance(new ConnectorId(connectorId));
 
-        if (buildConfigObject(MetastoreClientConfig.class).getRecordingPath() != null) {
+        MetastoreClientConfig metastoreClientConfig = buildConfigObject(MetastoreClientConfig.class);
+        Class<? extends ExtendedHiveMetastore> metastoreClass = BridgingHiveMetastore.class;
+        if (metastoreClientConfig.getRecordingPath() != null) {
             binder.bind(ExtendedHiveMetastore.class)
                     .annotatedWith(ForRecordingHiveMetastore.class)
                     .to(BridgingHiveMetastore.class)
                     .in(Scopes.SINGLETON);
-            binder.bind(ExtendedHiveMetastore.class)
-                    .annotatedWith(ForCachingHiveMetastore.class)
-                    .to(RecordingHiveMetastore.class)
-                    .in(Scopes.SINGLETON);
             binder.bind(RecordingHiveMetastore.class).in(Scopes.SINGLETON);
             newExporter(binder).export(RecordingHiveMetastore.class)
                     .as(generatedNameOf(RecordingHiveMetastore.class, connectorId));
+            metastoreClass = RecordingHiveMetastore.class;
         }
-        else {
+
+        if (metastoreClientConfig.isRequestCoalescingEnabled()) {
             binder.bind(ExtendedHiveMetastore.class)
-                    .annotatedWith(ForCachingHiveMetastore.class)
-                    .to(BridgingHiveMetastore.class)
+                    .annotatedWith(ForCoalescingHiveMetastore.class)
+                    .to(metastoreClass)
                     .in(Scopes.SINGLETON);
+            binder.bind(CoalescingHiveMetastore.class).in(Scopes.SINGLETON);
+            newExporter(binder).export(CoalescingHiveMetastore.class)
+                    .as(generatedNameOf(CoalescingHiveMetastore.class, connectorId));
+            metastoreClass = CoalescingHiveMetastore.class;
         }
 
+        binder.bind(ExtendedHiveMetastore.class)
+                .annotatedWith(ForCachingHiveMetastore.class)
+                .to(metastoreClass)
+                .in(Scopes.SINGLETON);
+
         binder.bind(MetastoreCacheSpecProvider.class).in(Scopes.SINGLETON);
         binder.bind(ExtendedHiveMetastore.class).to(InMemoryCachingHiveMetastore.class).in(Scopes.SINGLETON);
         newExporter(binder).export(HiveMetastore.class)
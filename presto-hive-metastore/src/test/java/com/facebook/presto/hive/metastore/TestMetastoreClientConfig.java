@@ -58,7 +58,10 @@ public class TestMetastoreClientConfig
                 .setPartitionCacheColumnCountLimit(500)
                 .setHiveMetastoreAuthenticationType(HiveMetastoreAuthenticationType.NONE)
                 .setDeleteFilesOnTableDrop(false)
-                .setInvalidateMetastoreCacheProcedureEnabled(false));
+                .setInvalidateMetastoreCacheProcedureEnabled(false)
+                .setRequestCoalescingEnabled(false)
+                .setPartitionFetchThreads(8)
+                .setPartitionFetchBatchSize(100));
     }
 
     @Test
@@ -89,6 +92,9 @@ public class TestMetastoreClientConfig
                 .put("hive.metastore.authentication.type", "KERBEROS")
                 .put("hive.metastore.thrift.delete-files-on-table-drop", "true")
                 .put("hive.invalidate-metastore-cache-procedure-enabled", "true")
+                .put("hive.metastore.request-coalescing-enabled", "true")
+                .put("hive.metastore.partition-fetch-threads", "16")
+                .put("hive.metastore.partition-fetch-batch-size", "50")
                 .build();
 
         MetastoreClientConfig expected = new MetastoreClientConfig()
@@ -115,7 +121,10 @@ public class TestMetastoreClientConfig
                 .setPartitionCacheColumnCountLimit(50)
                 .setHiveMetastoreAuthenticationType(HiveMetastoreAuthenticationType.KERBEROS)
                 .setDeleteFilesOnTableDrop(true)
-                .setInvalidateMetastoreCacheProcedureEnabled(true);
+                .setInvalidateMetastoreCacheProcedureEnabled(true)
+                .setRequestCoalescingEnabled(true)
+                .setPartitionFetchThreads(16)
+                .setPartitionFetchBatchSize(50);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
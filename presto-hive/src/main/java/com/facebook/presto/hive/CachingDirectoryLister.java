@@ -31,6 +31,8 @@ import org.apache.hadoop.fs.Path;
 import org.openjdk.jol.info.ClassLayout;
 import org.weakref.jmx.Managed;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +58,7 @@ public class CachingDirectoryLister
     private final Cache<String, ValueHolder> cache;
     private final CachedTableChecker cachedTableChecker;
     private final DirectoryLister delegate;
+    private final Optional<PersistentDirectoryListCache> persistentCache;
 
     @Inject
     public CachingDirectoryLister(@ForCachingDirectoryLister DirectoryLister delegate, HiveClientConfig hiveClientConfig)
@@ -64,10 +67,25 @@ public class CachingDirectoryLister
                 delegate,
                 hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
                 hiveClientConfig.getFileStatusCacheMaxRetainedSize(),
-                hiveClientConfig.getFileStatusCacheTables());
+                hiveClientConfig.getFileStatusCacheTables(),
+                Optional.ofNullable(hiveClientConfig.getFileStatusCachePersistentDirectory())
+                        .map(directory -> new PersistentDirectoryListCache(
+                                Paths.get(directory),
+                                hiveClientConfig.getFileStatusCachePersistentMaxSize(),
+                                hiveClientConfig.getFileStatusCacheExpireAfterWrite())));
     }
 
     public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, DataSize maxSize, List<String> tables)
+    {
+        this(delegate, expireAfterWrite, maxSize, tables, Optional.empty());
+    }
+
+    public CachingDirectoryLister(
+            DirectoryLister delegate,
+            Duration expireAfterWrite,
+            DataSize maxSize,
+            List<String> tables,
+            Optional<PersistentDirectoryListCache> persistentCache)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         cache = CacheBuilder.newBuilder()
@@ -77,6 +95,7 @@ public class CachingDirectoryLister
                 .recordStats()
                 .build();
         this.cachedTableChecker = new CachedTableChecker(requireNonNull(tables, "tables is null"));
+        this.persistentCache = requireNonNull(persistentCache, "persistentCache is null");
     }
 
     @Override
@@ -103,16 +122,47 @@ public class CachingDirectoryLister
             }
         }
 
+        boolean enableCaching = hiveDirectoryContext.isCacheable() && cachedTableChecker.isCachedTable(table.getSchemaTableName());
+        // the directory is only checked when a listing of it is stored, so listing a new directory costs no extra call
+        long directoryModificationTime = 0;
+        if (enableCaching && persistentCache.isPresent() && persistentCache.get().contains(path.toString())) {
+            directoryModificationTime = getModificationTime(fileSystem, path);
+        }
+        if (directoryModificationTime > 0) {
+            Optional<List<HiveFileInfo>> files = persistentCache.get().get(path.toString(), directoryModificationTime);
+            if (files.isPresent()) {
+                cache.put(path.toString(), new ValueHolder(files.get()));
+                runtimeStats.addMetricValue(DIRECTORY_LISTING_CACHE_HIT, NONE, 1);
+                runtimeStats.addMetricValue(DIRECTORY_LISTING_TIME_NANOS, NANO, System.nanoTime() - startTime);
+                runtimeStats.addMetricValue(FILES_READ_COUNT, NONE, files.get().size());
+                return files.get().iterator();
+            }
+        }
+
         runtimeStats.addMetricValue(DIRECTORY_LISTING_CACHE_MISS, NONE, 1);
         Iterator<HiveFileInfo> iterator = delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
         runtimeStats.addMetricValue(DIRECTORY_LISTING_TIME_NANOS, NANO, System.nanoTime() - startTime);
-        if (hiveDirectoryContext.isCacheable() && cachedTableChecker.isCachedTable(table.getSchemaTableName())) {
-            return fileCountTrackingIterator(iterator, path, runtimeStats, true);
+        return fileCountTrackingIterator(iterator, fileSystem, path, runtimeStats, enableCaching, directoryModificationTime);
+    }
+
+    private static long getModificationTime(ExtendedFileSystem fileSystem, Path path)
+    {
+        try {
+            return fileSystem.getFileStatus(path).getModificationTime();
+        }
+        catch (IOException e) {
+            // the listing below reports the failure
+            return 0;
         }
-        return fileCountTrackingIterator(iterator, path, runtimeStats, false);
     }
 
-    private Iterator<HiveFileInfo> fileCountTrackingIterator(Iterator<HiveFileInfo> iterator, Path path, RuntimeStats runtimeStats, boolean enableCaching)
+    private Iterator<HiveFileInfo> fileCountTrackingIterator(
+            Iterator<HiveFileInfo> iterator,
+            ExtendedFileSystem fileSystem,
+            Path path,
+            RuntimeStats runtimeStats,
+            boolean enableCaching,
+            long directoryModificationTime)
     {
         return new Iterator<HiveFileInfo>()
         {
@@ -126,6 +176,12 @@ public class CachingDirectoryLister
                     runtimeStats.addMetricValue(FILES_READ_COUNT, NONE, files.size());
                     if (enableCaching) {
                         cache.put(path.toString(), new ValueHolder(files));
+                        if (persistentCache.isPresent()) {
+                            // a directory without a stored listing is only checked after listing it, so a file added
+                            // during the listing can be missed until the stored listing expires
+                            long modificationTime = directoryModificationTime > 0 ? directoryModificationTime : getModificationTime(fileSystem, path);
+                            persistentCache.get().put(path.toString(), modificationTime, files);
+                        }
                     }
                 }
                 return hasNext;
@@ -155,10 +211,12 @@ public class CachingDirectoryLister
             }
 
             ValueHolder value = cache.getIfPresent(directoryPath.get());
-            if (value == null) {
+            boolean persisted = persistentCache.map(persistent -> persistent.contains(directoryPath.get())).orElse(false);
+            if (value == null && !persisted) {
                 throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, "Given directory path is not cached : " + directoryPath);
             }
             cache.invalidate(directoryPath.get());
+            persistentCache.ifPresent(persistent -> persistent.invalidate(directoryPath.get()));
         }
         else {
             flushCache();
@@ -169,6 +227,7 @@ public class CachingDirectoryLister
     public void flushCache()
     {
         cache.invalidateAll();
+        persistentCache.ifPresent(PersistentDirectoryListCache::invalidateAll);
     }
 
     @Managed
@@ -213,6 +272,12 @@ public class CachingDirectoryLister
         return cache.size();
     }
 
+    @Managed
+    public long getPersistentSize()
+    {
+        return persistentCache.map(PersistentDirectoryListCache::size).orElse(0L);
+    }
+
     private static class ValueHolder
     {
         private static final long INSTANCE_SIZE = ClassLayout.parseClass(ValueHolder.class).instanceSize();
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import jakarta.annotation.PreDestroy;
+
+import javax.inject.Provider;
+
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+/**
+ * Provides the pool shared by the ORC and Parquet file writers for encoding columns in parallel.
+ * The pool is not bounded. Each file writer bounds its own helpers by its configured number of
+ * column writer threads and runs column tasks on its own thread as well, so the pool only adds parallelism.
+ */
+public class ColumnWriterExecutorProvider
+        implements Provider<ExecutorService>
+{
+    // idle threads time out, so the pool costs nothing while both writers are serial
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("hive-column-writer-%s"));
+
+    @Override
+    public ExecutorService get()
+    {
+        return executor;
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+}
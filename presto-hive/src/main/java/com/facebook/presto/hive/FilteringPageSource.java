@@ -236,7 +236,7 @@ public class FilteringPageSource
         return outputPositionsCount;
     }
 
-    private static boolean testNonNullPosition(Block block, int position, Type type, TupleDomainFilter filter)
+    public static boolean testNonNullPosition(Block block, int position, Type type, TupleDomainFilter filter)
     {
         if (type == BIGINT || type == INTEGER || type == SMALLINT || type == TINYINT || type == TIMESTAMP || type == DATE) {
             return filter.testLong(type.getLong(block, position));
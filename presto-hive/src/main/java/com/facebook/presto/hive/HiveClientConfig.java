@@ -37,6 +37,7 @@ import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.hive.BucketFunctionType.HIVE_COMPATIBLE;
@@ -100,6 +101,8 @@ public class HiveClientConfig
     private boolean failFastOnInsertIntoImmutablePartitionsEnabled = true;
     private InsertExistingPartitionsBehavior insertExistingPartitionsBehavior;
     private int maxPartitionsPerWriter = 100;
+    private DataSize targetMaxFileSize = new DataSize(0, BYTE);
+    private DataSize maxOpenWritersMemory = new DataSize(0, BYTE);
     private int maxOpenSortFiles = 50;
     private int writeValidationThreads = 16;
 
@@ -108,6 +111,9 @@ public class HiveClientConfig
     private DataSize textMaxLineLength = new DataSize(100, MEGABYTE);
     private boolean assumeCanonicalPartitionKeys;
     private double orcDefaultBloomFilterFpp = 0.05;
+    private int orcStripePrefetchThreads;
+    private DataSize orcMaxStripePrefetchSize = new DataSize(128, MEGABYTE);
+    private int parquetCoalescedReadThreads;
     private boolean rcfileOptimizedWriterEnabled = true;
     private boolean rcfileWriterValidate;
     private HdfsAuthenticationType hdfsAuthenticationType = HdfsAuthenticationType.NONE;
@@ -163,6 +169,8 @@ public class HiveClientConfig
     private Duration fileStatusCacheExpireAfterWrite = new Duration(0, TimeUnit.SECONDS);
     private DataSize fileStatusCacheMaxRetainedSize = new DataSize(0, KILOBYTE);
     private List<String> fileStatusCacheTables = ImmutableList.of();
+    private String fileStatusCachePersistentDirectory;
+    private DataSize fileStatusCachePersistentMaxSize = new DataSize(1, GIGABYTE);
 
     private DataSize pageFileStripeMaxSize = new DataSize(24, MEGABYTE);
     private boolean parquetDereferencePushdownEnabled;
@@ -194,6 +202,9 @@ public class HiveClientConfig
     private boolean userDefinedTypeEncodingEnabled;
 
     private boolean columnIndexFilterEnabled;
+    private boolean parquetFilterDuringDecodeEnabled;
+    private boolean parquetBloomFilterEnabled;
+    private boolean orcBatchSelectiveLoadingEnabled;
     private boolean fileSplittable = true;
     private Protocol thriftProtocol = Protocol.BINARY;
     private DataSize thriftBufferSize = new DataSize(128, BYTE);
@@ -206,6 +217,9 @@ public class HiveClientConfig
 
     private boolean parallelParsingOfPartitionValuesEnabled;
     private int maxParallelParsingConcurrency = 100;
+    private boolean streamingPartitionLoadingEnabled;
+    private boolean smallFileCoalescingEnabled;
+    private int maxFilesPerCoalescedSplit = 32;
     private boolean quickStatsEnabled;
     // Duration the initiator query of the quick stats fetch for a partition should wait for stats to be built, before failing and returning EMPTY PartitionStats
     private Duration quickStatsInlineBuildTimeout = new Duration(60, TimeUnit.SECONDS);
@@ -680,6 +694,34 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getTargetMaxFileSize()
+    {
+        return targetMaxFileSize;
+    }
+
+    @Config("hive.target-max-file-size")
+    @ConfigDescription("Size at which a writer closes its file and starts a new one for an unbucketed table. Zero means no limit")
+    public HiveClientConfig setTargetMaxFileSize(DataSize targetMaxFileSize)
+    {
+        this.targetMaxFileSize = targetMaxFileSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxOpenWritersMemory()
+    {
+        return maxOpenWritersMemory;
+    }
+
+    @Config("hive.max-open-writers-memory")
+    @ConfigDescription("Memory of the open writers of a page sink above which the least recently used writers are closed for an unbucketed table. Zero means no limit")
+    public HiveClientConfig setMaxOpenWritersMemory(DataSize maxOpenWritersMemory)
+    {
+        this.maxOpenWritersMemory = maxOpenWritersMemory;
+        return this;
+    }
+
     public int getWriteValidationThreads()
     {
         return writeValidationThreads;
@@ -732,6 +774,48 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(0)
+    public int getOrcStripePrefetchThreads()
+    {
+        return orcStripePrefetchThreads;
+    }
+
+    @Config("hive.orc.stripe-prefetch-threads")
+    @ConfigDescription("Number of threads used to read the next stripe of ORC files ahead of the selective reader, 0 disables prefetching")
+    public HiveClientConfig setOrcStripePrefetchThreads(int orcStripePrefetchThreads)
+    {
+        this.orcStripePrefetchThreads = orcStripePrefetchThreads;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcMaxStripePrefetchSize()
+    {
+        return orcMaxStripePrefetchSize;
+    }
+
+    @Config("hive.orc.max-stripe-prefetch-size")
+    @ConfigDescription("Maximum size of the streams read ahead for a single ORC stripe, larger stripes are read when they are reached")
+    public HiveClientConfig setOrcMaxStripePrefetchSize(DataSize orcMaxStripePrefetchSize)
+    {
+        this.orcMaxStripePrefetchSize = orcMaxStripePrefetchSize;
+        return this;
+    }
+
+    @Min(0)
+    public int getParquetCoalescedReadThreads()
+    {
+        return parquetCoalescedReadThreads;
+    }
+
+    @Config("hive.parquet.coalesced-read-threads")
+    @ConfigDescription("Number of threads used to issue the coalesced reads of a Parquet row group concurrently, 0 issues them from the reading thread")
+    public HiveClientConfig setParquetCoalescedReadThreads(int parquetCoalescedReadThreads)
+    {
+        this.parquetCoalescedReadThreads = parquetCoalescedReadThreads;
+        return this;
+    }
+
     @Deprecated
     public boolean isRcfileOptimizedWriterEnabled()
     {
@@ -838,6 +922,33 @@ public class HiveClientConfig
         return this;
     }
 
+    public String getFileStatusCachePersistentDirectory()
+    {
+        return fileStatusCachePersistentDirectory;
+    }
+
+    @Config("hive.file-status-cache.persistent-directory")
+    @ConfigDescription("Local directory where cached directory listings are kept across restarts. Listings are only kept in memory if not set.")
+    public HiveClientConfig setFileStatusCachePersistentDirectory(String fileStatusCachePersistentDirectory)
+    {
+        this.fileStatusCachePersistentDirectory = fileStatusCachePersistentDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFileStatusCachePersistentMaxSize()
+    {
+        return fileStatusCachePersistentMaxSize;
+    }
+
+    @Config("hive.file-status-cache.persistent-max-size")
+    @ConfigDescription("Maximum size of the directory listings kept in the persistent directory")
+    public HiveClientConfig setFileStatusCachePersistentMaxSize(DataSize fileStatusCachePersistentMaxSize)
+    {
+        this.fileStatusCachePersistentMaxSize = fileStatusCachePersistentMaxSize;
+        return this;
+    }
+
     public enum HdfsAuthenticationType
     {
         NONE,
@@ -1512,6 +1623,45 @@ public class HiveClientConfig
         return this.columnIndexFilterEnabled;
     }
 
+    @Config("hive.parquet-filter-during-decode-enabled")
+    @ConfigDescription("Evaluate predicate domains in the Parquet reader and decode later columns only for rows that pass")
+    public HiveClientConfig setParquetFilterDuringDecodeEnabled(boolean parquetFilterDuringDecodeEnabled)
+    {
+        this.parquetFilterDuringDecodeEnabled = parquetFilterDuringDecodeEnabled;
+        return this;
+    }
+
+    public boolean isParquetFilterDuringDecodeEnabled()
+    {
+        return parquetFilterDuringDecodeEnabled;
+    }
+
+    @Config("hive.parquet-bloom-filter-enabled")
+    @ConfigDescription("Skip Parquet row groups whose bloom filters rule out every value of an equality or IN predicate")
+    public HiveClientConfig setParquetBloomFilterEnabled(boolean parquetBloomFilterEnabled)
+    {
+        this.parquetBloomFilterEnabled = parquetBloomFilterEnabled;
+        return this;
+    }
+
+    public boolean isParquetBloomFilterEnabled()
+    {
+        return parquetBloomFilterEnabled;
+    }
+
+    @Config("hive.orc-batch-selective-loading-enabled")
+    @ConfigDescription("Decode lazily loaded ORC columns only for the rows that pass the filter")
+    public HiveClientConfig setOrcBatchSelectiveLoadingEnabled(boolean orcBatchSelectiveLoadingEnabled)
+    {
+        this.orcBatchSelectiveLoadingEnabled = orcBatchSelectiveLoadingEnabled;
+        return this;
+    }
+
+    public boolean isOrcBatchSelectiveLoadingEnabled()
+    {
+        return orcBatchSelectiveLoadingEnabled;
+    }
+
     @Config("hive.size-based-split-weights-enabled")
     public HiveClientConfig setSizeBasedSplitWeightsEnabled(boolean sizeBasedSplitWeightsEnabled)
     {
@@ -1780,6 +1930,46 @@ public class HiveClientConfig
         return this.maxParallelParsingConcurrency;
     }
 
+    @Config("hive.streaming-partition-loading-enabled")
+    @ConfigDescription("Prune partitions in batches while splits are loaded, instead of loading all partitions while planning")
+    public HiveClientConfig setStreamingPartitionLoadingEnabled(boolean streamingPartitionLoadingEnabled)
+    {
+        this.streamingPartitionLoadingEnabled = streamingPartitionLoadingEnabled;
+        return this;
+    }
+
+    public boolean isStreamingPartitionLoadingEnabled()
+    {
+        return this.streamingPartitionLoadingEnabled;
+    }
+
+    @Config("hive.small-file-coalescing-enabled")
+    @ConfigDescription("Pack files smaller than the split size into one split, so each small file does not become a split of its own")
+    public HiveClientConfig setSmallFileCoalescingEnabled(boolean smallFileCoalescingEnabled)
+    {
+        this.smallFileCoalescingEnabled = smallFileCoalescingEnabled;
+        return this;
+    }
+
+    public boolean isSmallFileCoalescingEnabled()
+    {
+        return this.smallFileCoalescingEnabled;
+    }
+
+    @Config("hive.max-files-per-coalesced-split")
+    @ConfigDescription("Maximum number of small files packed into one split")
+    public HiveClientConfig setMaxFilesPerCoalescedSplit(int maxFilesPerCoalescedSplit)
+    {
+        this.maxFilesPerCoalescedSplit = maxFilesPerCoalescedSplit;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxFilesPerCoalescedSplit()
+    {
+        return this.maxFilesPerCoalescedSplit;
+    }
+
     @Config("hive.skip-empty-files")
     @ConfigDescription("Enables skip of empty files avoiding output error")
     public HiveClientConfig setSkipEmptyFilesEnabled(boolean skipEmptyFiles)
@@ -19,9 +19,12 @@ import com.facebook.airlift.event.client.EventClient;
 import com.facebook.drift.codec.guice.ThriftCodecModule;
 import com.facebook.drift.codec.utils.DefaultThriftCodecsModule;
 import com.facebook.presto.cache.ForCachingFileSystem;
+import com.facebook.presto.common.io.DecompressedDataCache.CachedData;
 import com.facebook.presto.hive.HiveDwrfEncryptionProvider.ForCryptoService;
 import com.facebook.presto.hive.HiveDwrfEncryptionProvider.ForUnknown;
 import com.facebook.presto.hive.cache.HiveCachingHdfsConfiguration;
+import com.facebook.presto.hive.cache.MetadataCache;
+import com.facebook.presto.hive.cache.MetadataCacheConfig;
 import com.facebook.presto.hive.datasink.DataSinkFactory;
 import com.facebook.presto.hive.datasink.OutputStreamDataSinkFactory;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
@@ -48,6 +51,8 @@ import com.facebook.presto.hive.s3select.S3SelectRecordCursorProvider;
 import com.facebook.presto.hive.statistics.ParquetQuickStatsBuilder;
 import com.facebook.presto.hive.statistics.QuickStatsProvider;
 import com.facebook.presto.orc.CachingStripeMetadataSource;
+import com.facebook.presto.orc.DecompressedChunkCache;
+import com.facebook.presto.orc.DecompressedChunkCache.ChunkId;
 import com.facebook.presto.orc.DwrfAwareStripeMetadataSourceFactory;
 import com.facebook.presto.orc.EncryptionLibrary;
 import com.facebook.presto.orc.OrcDataSourceId;
@@ -64,7 +69,10 @@ import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.OrcFileTail;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.CachingParquetFooterSource;
 import com.facebook.presto.parquet.cache.CachingParquetMetadataSource;
+import com.facebook.presto.parquet.cache.DecompressedPageCache;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.PageId;
 import com.facebook.presto.parquet.cache.MetadataReader;
 import com.facebook.presto.parquet.cache.ParquetCacheConfig;
 import com.facebook.presto.parquet.cache.ParquetFileMetadata;
@@ -89,20 +97,27 @@ import org.weakref.jmx.MBeanExporter;
 
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static com.facebook.airlift.json.smile.SmileCodecBinder.smileCodecBinder;
+import static com.facebook.presto.hive.cache.FileMetadataSerializers.ORC_FILE_TAIL_SERIALIZER;
+import static com.facebook.presto.hive.cache.FileMetadataSerializers.ORC_SLICE_SERIALIZER;
+import static com.facebook.presto.hive.cache.FileMetadataSerializers.PARQUET_FOOTER_SERIALIZER;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableRowGroupIndices;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.weakref.jmx.ObjectNames.generatedNameOf;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
@@ -178,6 +193,7 @@ public class HiveClientModule
 
         binder.bind(FileFormatDataSourceStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FileFormatDataSourceStats.class).as(generatedNameOf(FileFormatDataSourceStats.class, connectorId));
+        newExporter(binder).export(MetadataCache.class).as(generatedNameOf(MetadataCache.class, connectorId));
 
         binder.bind(EncryptionLibrary.class).annotatedWith(ForCryptoService.class).to(UnsupportedEncryptionLibrary.class).in(Scopes.SINGLETON);
         binder.bind(EncryptionLibrary.class).annotatedWith(ForUnknown.class).to(UnsupportedEncryptionLibrary.class).in(Scopes.SINGLETON);
@@ -220,6 +236,7 @@ public class HiveClientModule
         fileWriterFactoryBinder.addBinding().to(PageFileWriterFactory.class).in(Scopes.SINGLETON);
 
         configBinder(binder).bindConfig(ParquetFileWriterConfig.class);
+        binder.bind(ExecutorService.class).annotatedWith(ForColumnWriters.class).toProvider(ColumnWriterExecutorProvider.class).in(Scopes.SINGLETON);
         fileWriterFactoryBinder.addBinding().to(ParquetFileWriterFactory.class).in(Scopes.SINGLETON);
 
         binder.bind(MetastoreCacheStats.class).to(HiveMetastoreCacheStats.class).in(Scopes.SINGLETON);
@@ -275,14 +292,52 @@ public class HiveClientModule
                                 hiveClientConfig.getMaxConcurrentZeroRowFileCreations())));
     }
 
+    @ForOrcStripePrefetch
     @Singleton
     @Provides
-    public OrcFileTailSource createOrcFileTailSource(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
+    public ExecutorService createOrcStripePrefetchExecutor(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        // threads are only started once a reader prefetches a stripe, so the pool costs nothing while prefetching is disabled
+        int threads = max(1, hiveClientConfig.getOrcStripePrefetchThreads());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                SECONDS,
+                new LinkedBlockingQueue<>(),
+                daemonThreadsNamed("hive-orc-stripe-prefetch-" + hiveClientId + "-%s"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @ForParquetCoalescedReads
+    @Singleton
+    @Provides
+    public ExecutorService createParquetCoalescedReadExecutor(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        int threads = max(1, hiveClientConfig.getParquetCoalescedReadThreads());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                SECONDS,
+                new LinkedBlockingQueue<>(),
+                daemonThreadsNamed("hive-parquet-coalesced-read-" + hiveClientId + "-%s"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Singleton
+    @Provides
+    public OrcFileTailSource createOrcFileTailSource(OrcCacheConfig orcCacheConfig, MetadataCacheConfig metadataCacheConfig, MetadataCache metadataCache, MBeanExporter exporter)
     {
         int expectedFileTailSizeInBytes = toIntExact(orcCacheConfig.getExpectedFileTailSize().toBytes());
         boolean dwrfStripeCacheEnabled = orcCacheConfig.isDwrfStripeCacheEnabled();
         OrcFileTailSource orcFileTailSource = new StorageOrcFileTailSource(expectedFileTailSizeInBytes, dwrfStripeCacheEnabled);
-        if (orcCacheConfig.isFileTailCacheEnabled()) {
+        if (orcCacheConfig.isFileTailCacheEnabled() && metadataCacheConfig.isEnabled()) {
+            orcFileTailSource = new CachingOrcFileTailSource(orcFileTailSource, metadataCache.createCache("OrcFileTail", ORC_FILE_TAIL_SERIALIZER));
+        }
+        else if (orcCacheConfig.isFileTailCacheEnabled()) {
             Cache<OrcDataSourceId, OrcFileTail> cache = CacheBuilder.newBuilder()
                     .maximumWeight(orcCacheConfig.getFileTailCacheSize().toBytes())
                     .weigher((id, tail) -> ((OrcFileTail) tail).getFooterSize() + ((OrcFileTail) tail).getMetadataSize())
@@ -298,10 +353,31 @@ public class HiveClientModule
 
     @Singleton
     @Provides
-    public StripeMetadataSourceFactory createStripeMetadataSourceFactory(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
+    public StripeMetadataSourceFactory createStripeMetadataSourceFactory(OrcCacheConfig orcCacheConfig, MetadataCacheConfig metadataCacheConfig, MetadataCache metadataCache, MBeanExporter exporter)
     {
-        StripeMetadataSource stripeMetadataSource = new StorageStripeMetadataSource();
-        if (orcCacheConfig.isStripeMetadataCacheEnabled()) {
+        Optional<DecompressedChunkCache> decompressedChunkCache = Optional.empty();
+        if (orcCacheConfig.isDecompressedChunkCacheEnabled()) {
+            Cache<ChunkId, CachedData> cache = CacheBuilder.newBuilder()
+                    .maximumWeight(orcCacheConfig.getDecompressedChunkCacheSize().toBytes())
+                    .weigher((id, chunk) -> toIntExact(((CachedData) chunk).getSlice().getRetainedSize()))
+                    .expireAfterAccess(orcCacheConfig.getDecompressedChunkCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                    .recordStats()
+                    .build();
+            DecompressedChunkCache chunkCache = new DecompressedChunkCache(cache);
+            DecompressedCacheStatsMBean cacheStatsMBean = new DecompressedCacheStatsMBean(cache, chunkCache);
+            exporter.export(generatedNameOf(DecompressedCacheStatsMBean.class, connectorId + "_OrcDecompressedChunk"), cacheStatsMBean);
+            decompressedChunkCache = Optional.of(chunkCache);
+        }
+        StripeMetadataSource stripeMetadataSource = new StorageStripeMetadataSource(decompressedChunkCache);
+        if (orcCacheConfig.isStripeMetadataCacheEnabled() && metadataCacheConfig.isEnabled()) {
+            // row group indices are kept deserialized, so they stay in their own on-heap cache
+            stripeMetadataSource = new CachingStripeMetadataSource(
+                    stripeMetadataSource,
+                    metadataCache.createCache("StripeFooter", ORC_SLICE_SERIALIZER),
+                    metadataCache.createCache("StripeStream", ORC_SLICE_SERIALIZER),
+                    createRowGroupIndexCache(orcCacheConfig, exporter));
+        }
+        else if (orcCacheConfig.isStripeMetadataCacheEnabled()) {
             Cache<StripeId, CacheableSlice> footerCache = CacheBuilder.newBuilder()
                     .maximumWeight(orcCacheConfig.getStripeFooterCacheSize().toBytes())
                     .weigher((id, footer) -> toIntExact(((CacheableSlice) footer).getSlice().getRetainedSize()))
@@ -319,18 +395,7 @@ public class HiveClientModule
             exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeFooter"), footerCacheStatsMBean);
             exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStream"), streamCacheStatsMBean);
 
-            Optional<Cache<StripeStreamId, CacheableRowGroupIndices>> rowGroupIndexCache = Optional.empty();
-            if (orcCacheConfig.isRowGroupIndexCacheEnabled()) {
-                rowGroupIndexCache = Optional.of(CacheBuilder.newBuilder()
-                        .maximumWeight(orcCacheConfig.getRowGroupIndexCacheSize().toBytes())
-                        .weigher((id, rowGroupIndices) -> toIntExact(((CacheableRowGroupIndices) rowGroupIndices).getRowGroupIndices().stream().mapToLong(RowGroupIndex::getRetainedSizeInBytes).sum()))
-                        .expireAfterAccess(orcCacheConfig.getStripeStreamCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
-                        .recordStats()
-                        .build());
-                CacheStatsMBean rowGroupIndexCacheStatsMBean = new CacheStatsMBean(rowGroupIndexCache.get());
-                exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStreamRowGroupIndex"), rowGroupIndexCacheStatsMBean);
-            }
-            stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache);
+            stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, createRowGroupIndexCache(orcCacheConfig, exporter));
         }
         StripeMetadataSourceFactory factory = StripeMetadataSourceFactory.of(stripeMetadataSource);
         if (orcCacheConfig.isDwrfStripeCacheEnabled()) {
@@ -339,12 +404,31 @@ public class HiveClientModule
         return factory;
     }
 
+    private Optional<Cache<StripeStreamId, CacheableRowGroupIndices>> createRowGroupIndexCache(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
+    {
+        if (!orcCacheConfig.isRowGroupIndexCacheEnabled()) {
+            return Optional.empty();
+        }
+        Cache<StripeStreamId, CacheableRowGroupIndices> rowGroupIndexCache = CacheBuilder.newBuilder()
+                .maximumWeight(orcCacheConfig.getRowGroupIndexCacheSize().toBytes())
+                .weigher((id, rowGroupIndices) -> toIntExact(((CacheableRowGroupIndices) rowGroupIndices).getRowGroupIndices().stream().mapToLong(RowGroupIndex::getRetainedSizeInBytes).sum()))
+                .expireAfterAccess(orcCacheConfig.getStripeStreamCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        CacheStatsMBean rowGroupIndexCacheStatsMBean = new CacheStatsMBean(rowGroupIndexCache);
+        exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStreamRowGroupIndex"), rowGroupIndexCacheStatsMBean);
+        return Optional.of(rowGroupIndexCache);
+    }
+
     @Singleton
     @Provides
-    public ParquetMetadataSource createParquetMetadataSource(ParquetCacheConfig parquetCacheConfig, MBeanExporter exporter)
+    public ParquetMetadataSource createParquetMetadataSource(ParquetCacheConfig parquetCacheConfig, MetadataCacheConfig metadataCacheConfig, MetadataCache metadataCache, MBeanExporter exporter)
     {
         ParquetMetadataSource parquetMetadataSource = new MetadataReader();
-        if (parquetCacheConfig.isMetadataCacheEnabled()) {
+        if (parquetCacheConfig.isMetadataCacheEnabled() && metadataCacheConfig.isEnabled()) {
+            parquetMetadataSource = new CachingParquetFooterSource(metadataCache.createCache("ParquetFooter", PARQUET_FOOTER_SERIALIZER));
+        }
+        else if (parquetCacheConfig.isMetadataCacheEnabled()) {
             Cache<ParquetDataSourceId, ParquetFileMetadata> cache = CacheBuilder.newBuilder()
                     .maximumWeight(parquetCacheConfig.getMetadataCacheSize().toBytes())
                     .weigher((id, metadata) -> ((ParquetFileMetadata) metadata).getMetadataSize())
@@ -358,6 +442,25 @@ public class HiveClientModule
         return parquetMetadataSource;
     }
 
+    @Singleton
+    @Provides
+    public Optional<DecompressedPageCache> createDecompressedPageCache(ParquetCacheConfig parquetCacheConfig, MBeanExporter exporter)
+    {
+        if (!parquetCacheConfig.isDecompressedPageCacheEnabled()) {
+            return Optional.empty();
+        }
+        Cache<PageId, CachedData> cache = CacheBuilder.newBuilder()
+                .maximumWeight(parquetCacheConfig.getDecompressedPageCacheSize().toBytes())
+                .weigher((id, page) -> toIntExact(((CachedData) page).getSlice().getRetainedSize()))
+                .expireAfterAccess(parquetCacheConfig.getDecompressedPageCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        DecompressedPageCache pageCache = new DecompressedPageCache(cache);
+        DecompressedCacheStatsMBean cacheStatsMBean = new DecompressedCacheStatsMBean(cache, pageCache);
+        exporter.export(generatedNameOf(DecompressedCacheStatsMBean.class, connectorId + "_ParquetDecompressedPage"), cacheStatsMBean);
+        return Optional.of(pageCache);
+    }
+
     @Singleton
     @Provides
     public QuickStatsProvider createQuickStatsProvider(
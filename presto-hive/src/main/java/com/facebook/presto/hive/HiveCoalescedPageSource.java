@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.spi.ConnectorPageSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the files of a coalesced {@link HiveSplit} back to back. The page source of
+ * each file is opened only after the previous one is finished and closed.
+ */
+public class HiveCoalescedPageSource
+        implements ConnectorPageSource
+{
+    private final Iterator<HiveSplit> splits;
+    private final Function<HiveSplit, ConnectorPageSource> pageSourceFactory;
+
+    private ConnectorPageSource current;
+    private long completedBytes;
+    private long completedPositions;
+    private long readTimeNanos;
+    private boolean closed;
+
+    public HiveCoalescedPageSource(List<HiveSplit> splits, Function<HiveSplit, ConnectorPageSource> pageSourceFactory)
+    {
+        this.splits = requireNonNull(splits, "splits is null").iterator();
+        this.pageSourceFactory = requireNonNull(pageSourceFactory, "pageSourceFactory is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes + (current == null ? 0 : current.getCompletedBytes());
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return completedPositions + (current == null ? 0 : current.getCompletedPositions());
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos + (current == null ? 0 : current.getReadTimeNanos());
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed || (current == null && !splits.hasNext());
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        while (!closed) {
+            if (current == null) {
+                if (!splits.hasNext()) {
+                    return null;
+                }
+                current = pageSourceFactory.apply(splits.next());
+            }
+
+            Page page = current.getNextPage();
+            if (page != null || !current.isFinished()) {
+                return page;
+            }
+            try {
+                closeCurrent();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        // the page sources of finished files are closed, so only the current one holds memory
+        return current == null ? 0 : current.getSystemMemoryUsage();
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return current == null ? NOT_BLOCKED : current.isBlocked();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            closeCurrent();
+        }
+    }
+
+    private void closeCurrent()
+            throws IOException
+    {
+        completedBytes += current.getCompletedBytes();
+        completedPositions += current.getCompletedPositions();
+        readTimeNanos += current.getReadTimeNanos();
+        ConnectorPageSource pageSource = current;
+        // forget the page source before closing it, so that a failed close is not retried
+        current = null;
+        pageSource.close();
+    }
+}
@@ -846,8 +846,13 @@ public class HiveMetadata
     {
         HiveTableLayoutHandle tableLayoutHandle = (HiveTableLayoutHandle) layoutHandle;
         if (tableLayoutHandle.getPartitions().isPresent()) {
+            PartitionSet partitions = tableLayoutHandle.getPartitions().get();
+            if (!partitions.isFullyLoaded()) {
+                // listing every partition of a streamed partition set would load it all into memory
+                return Optional.of(new HiveInputInfo(ImmutableList.of(), true, tableLayoutHandle.getTablePath()));
+            }
             return Optional.of(new HiveInputInfo(
-                    tableLayoutHandle.getPartitions().map(PartitionSet::getFullyLoadedPartitions).get().stream()
+                    partitions.getFullyLoadedPartitions().stream()
                             .map(hivePartition -> hivePartition.getPartitionId().getPartitionName())
                             .collect(toList()),
                     false, tableLayoutHandle.getTablePath()));
@@ -2748,16 +2753,16 @@ public class HiveMetadata
         return OptionalLong.empty();
     }
 
-    private List<HivePartition> getOrComputePartitions(HiveTableLayoutHandle layoutHandle, ConnectorSession session, ConnectorTableHandle tableHandle)
+    private Iterable<HivePartition> getOrComputePartitions(HiveTableLayoutHandle layoutHandle, ConnectorSession session, ConnectorTableHandle tableHandle)
     {
         if (layoutHandle.getPartitions().isPresent()) {
-            return layoutHandle.getPartitions().map(PartitionSet::getFullyLoadedPartitions).get();
+            return layoutHandle.getPartitions().get();
         }
         else {
             TupleDomain<ColumnHandle> partitionColumnPredicate = layoutHandle.getPartitionColumnPredicate();
             Predicate<Map<ColumnHandle, NullableValue>> predicate = convertToPredicate(partitionColumnPredicate);
             ConnectorTableLayoutResult tableLayoutResult = getTableLayoutForConstraint(session, tableHandle, new Constraint<>(partitionColumnPredicate, predicate), Optional.empty());
-            return ((HiveTableLayoutHandle) tableLayoutResult.getTableLayout().getHandle()).getPartitions().map(PartitionSet::getFullyLoadedPartitions).get();
+            return ((HiveTableLayoutHandle) tableLayoutResult.getTableLayout().getHandle()).getPartitions().get();
         }
     }
 
@@ -2879,7 +2884,7 @@ public class HiveMetadata
                                 .setRemainingPredicate(TRUE_CONSTANT)
                                 .setPredicateColumns(predicateColumns)
                                 .setPartitionColumnPredicate(hivePartitionResult.getEnforcedConstraint())
-                                .setPartitions(hivePartitionResult.getPartitions())
+                                .setPartitionSet(Optional.of(hivePartitionResult.getPartitionSet()))
                                 .setBucketHandle(hiveBucketHandle)
                                 .setBucketFilter(hivePartitionResult.getBucketFilter())
                                 .setPushdownFilterEnabled(false)
@@ -2921,9 +2926,13 @@ public class HiveMetadata
     {
         HiveTableLayoutHandle hiveLayoutHandle = (HiveTableLayoutHandle) layoutHandle;
         List<ColumnHandle> partitionColumns = ImmutableList.copyOf(hiveLayoutHandle.getPartitionColumns());
-        List<HivePartition> partitions = hiveLayoutHandle.getPartitions().map(PartitionSet::getFullyLoadedPartitions).get();
+        PartitionSet partitions = hiveLayoutHandle.getPartitions().get();
 
         Optional<DiscretePredicates> discretePredicates = getDiscretePredicates(partitionColumns, partitions);
+        // streamed partitions are only pruned while splits are loaded, so only the constraint on the partition columns is known here
+        TupleDomain<ColumnHandle> partitionPredicate = partitions.isFullyLoaded()
+                ? createPredicate(partitionColumns, partitions.getFullyLoadedPartitions())
+                : hiveLayoutHandle.getPartitionColumnPredicate();
 
         Optional<ConnectorTablePartitioning> tablePartitioning = Optional.empty();
         SchemaTableName tableName = hiveLayoutHandle.getSchemaTableName();
@@ -2981,7 +2990,7 @@ public class HiveMetadata
         if (hiveLayoutHandle.isPushdownFilterEnabled()) {
             Map<String, ColumnHandle> predicateColumns = hiveLayoutHandle.getPredicateColumns().entrySet()
                     .stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-            predicate = getPredicate(hiveLayoutHandle, partitionColumns, partitions, predicateColumns);
+            predicate = getPredicate(hiveLayoutHandle, partitionPredicate, predicateColumns);
 
             // capture subfields from domainPredicate to add to remainingPredicate
             // so those filters don't get lost
@@ -2992,7 +3001,7 @@ public class HiveMetadata
             subfieldPredicate = getSubfieldPredicate(session, hiveLayoutHandle, columnTypes, functionResolution, rowExpressionService);
         }
         else {
-            predicate = createPredicate(partitionColumns, partitions);
+            predicate = partitionPredicate;
             subfieldPredicate = TRUE_CONSTANT;
         }
 
@@ -33,6 +33,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.Slice;
+import it.unimi.dsi.fastutil.ints.IntLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
@@ -52,6 +53,8 @@ import static com.facebook.presto.hive.HiveBucketFunction.createHiveCompatibleBu
 import static com.facebook.presto.hive.HiveBucketFunction.createPrestoNativeBucketFunction;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_TOO_MANY_OPEN_PARTITIONS;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static com.facebook.presto.hive.HiveSessionProperties.getMaxOpenWritersMemory;
+import static com.facebook.presto.hive.HiveSessionProperties.getTargetMaxFileSize;
 import static com.facebook.presto.hive.HiveSessionProperties.isFileRenamingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isLegacyTimestampBucketing;
 import static com.facebook.presto.hive.HiveSessionProperties.isOptimizedPartitionUpdateSerializationEnabled;
@@ -93,9 +96,15 @@ public class HivePageSink
     private final SmileCodec<PartitionUpdate> partitionUpdateSmileCodec;
 
     private final List<HiveWriter> writers = new ArrayList<>();
+    // indexes of the open writers, from the least to the most recently used
+    private final IntLinkedOpenHashSet openWriterIndexes = new IntLinkedOpenHashSet();
+    // writers committed before the end of the write because their file reached the target size or they were idle
+    private final List<HiveWriter> closedWriters = new ArrayList<>();
 
     private final ConnectorSession session;
     private final boolean fileRenamingEnabled;
+    private final long targetMaxFileSize;
+    private final long maxOpenWritersMemory;
 
     private long writtenBytes;
     private long systemMemoryUsage;
@@ -188,6 +197,9 @@ public class HivePageSink
 
         this.session = requireNonNull(session, "session is null");
         this.fileRenamingEnabled = isFileRenamingEnabled(session);
+        // a bucketed table must have exactly one file per bucket, so its writers are never closed early
+        this.targetMaxFileSize = bucketFunction == null ? getTargetMaxFileSize(session).toBytes() : 0;
+        this.maxOpenWritersMemory = bucketFunction == null ? getMaxOpenWritersMemory(session).toBytes() : 0;
     }
 
     @Override
@@ -199,7 +211,7 @@ public class HivePageSink
     @Override
     public long getWrittenFilesCount()
     {
-        return writers.size();
+        return closedWriters.size() + openWriterIndexes.size();
     }
 
     @Override
@@ -225,10 +237,17 @@ public class HivePageSink
 
     private ListenableFuture<Collection<Slice>> doFinish()
     {
+        List<HiveWriter> committedWriters = new ArrayList<>(closedWriters);
+        for (HiveWriter writer : writers) {
+            if (writer != null) {
+                writer.commit();
+                committedWriters.add(writer);
+            }
+        }
+
         ImmutableList.Builder<PartitionUpdate> partitionUpdatesBuilder = ImmutableList.builder();
         List<Callable<Object>> verificationTasks = new ArrayList<>();
-        for (HiveWriter writer : writers) {
-            writer.commit();
+        for (HiveWriter writer : committedWriters) {
             partitionUpdatesBuilder.add(writer.getPartitionUpdate());
             writer.getVerificationTask()
                     .map(Executors::callable)
@@ -239,7 +258,8 @@ public class HivePageSink
         boolean optimizedPartitionUpdateSerializationEnabled = isOptimizedPartitionUpdateSerializationEnabled(session);
         if (optimizedPartitionUpdateSerializationEnabled) {
             // Merge multiple partition updates for a single partition into one.
-            // Multiple partition updates for a single partition are produced when writing into a bucketed table.
+            // Multiple partition updates for a single partition are produced when writing into a bucketed table,
+            // or when the writer of a partition is closed early and a new file is started for it.
             // Merged partition updates will contain multiple items in the fileWriteInfos list (one per bucket).
             // This optimization should be enabled only together with the optimized serialization (compression + binary encoding).
             // Since serialized fragments will be transmitted as Presto pages serializing a merged partition update to JSON without
@@ -261,10 +281,10 @@ public class HivePageSink
 
         List<Slice> serializedPartitionUpdates = serializedPartitionUpdatesBuilder.build();
 
-        writtenBytes = writers.stream()
+        writtenBytes = committedWriters.stream()
                 .mapToLong(HiveWriter::getWrittenBytes)
                 .sum();
-        validationCpuNanos = writers.stream()
+        validationCpuNanos = committedWriters.stream()
                 .mapToLong(HiveWriter::getValidationCpuNanos)
                 .sum();
 
@@ -295,8 +315,11 @@ public class HivePageSink
     private void doAbort()
     {
         Optional<Exception> rollbackException = Optional.empty();
-        for (HiveWriter writer : writers) {
-            // writers can contain nulls if an exception is thrown when doAppend expends the writer list
+        List<HiveWriter> allWriters = new ArrayList<>(closedWriters);
+        allWriters.addAll(writers);
+        for (HiveWriter writer : allWriters) {
+            // writers can contain nulls if an exception is thrown when doAppend expends the writer list,
+            // or if the writer of a partition was closed early and no new writer was created for it yet
             if (writer != null) {
                 try {
                     writer.rollback();
@@ -384,7 +407,39 @@ public class HivePageSink
 
             writtenBytes += (writer.getWrittenBytes() - currentWritten);
             systemMemoryUsage += (writer.getSystemMemoryUsage() - currentMemory);
+            openWriterIndexes.addAndMoveToLast(index);
+
+            if (targetMaxFileSize > 0 && writer.getWrittenBytes() >= targetMaxFileSize) {
+                closeWriter(index);
+            }
         }
+
+        if (maxOpenWritersMemory > 0) {
+            closeIdleWriters();
+        }
+    }
+
+    private void closeIdleWriters()
+    {
+        while (!openWriterIndexes.isEmpty() && (systemMemoryUsage > maxOpenWritersMemory || openWriterIndexes.size() > maxOpenWriters)) {
+            closeWriter(openWriterIndexes.firstInt());
+        }
+    }
+
+    private void closeWriter(int index)
+    {
+        HiveWriter writer = writers.get(index);
+        long currentWritten = writer.getWrittenBytes();
+        long currentMemory = writer.getSystemMemoryUsage();
+
+        writer.commit();
+
+        // the next row for this partition creates a new writer with a new file
+        writtenBytes += (writer.getWrittenBytes() - currentWritten);
+        systemMemoryUsage -= currentMemory;
+        closedWriters.add(writer);
+        writers.set(index, null);
+        openWriterIndexes.remove(index);
     }
 
     private int[] getWriterIndexes(Page page)
@@ -392,7 +447,8 @@ public class HivePageSink
         Page partitionColumns = extractColumns(page, partitionColumnsInputIndex);
         Block bucketBlock = buildBucketBlock(page);
         int[] writerIndexes = pagePartitioner.partitionPage(partitionColumns, bucketBlock);
-        if (pagePartitioner.getMaxIndex() >= maxOpenWriters) {
+        // when idle writers are closed, the limit applies to the open writers instead, and is enforced after the page is written
+        if (maxOpenWritersMemory == 0 && pagePartitioner.getMaxIndex() >= maxOpenWriters) {
             throw new PrestoException(HIVE_TOO_MANY_OPEN_PARTITIONS, format("Exceeded limit of %s open writers for partitions/buckets", maxOpenWriters));
         }
 
@@ -414,9 +470,9 @@ public class HivePageSink
             }
             HiveWriter writer = writerFactory.createWriter(partitionColumns, position, bucketNumber);
             writers.set(writerIndex, writer);
+            openWriterIndexes.add(writerIndex);
         }
         verify(writers.size() == pagePartitioner.getMaxIndex() + 1);
-        verify(!writers.contains(null));
 
         return writerIndexes;
     }
@@ -148,6 +148,11 @@ public class HivePageSourceProvider
                 .collect(toList());
 
         HiveSplit hiveSplit = (HiveSplit) split;
+        if (!hiveSplit.getAdditionalFileSplits().isEmpty()) {
+            return new HiveCoalescedPageSource(
+                    hiveSplit.toSingleFileSplits(),
+                    fileSplit -> createPageSource(transaction, session, fileSplit, layout, columns, splitContext, runtimeStats));
+        }
         Path path = new Path(hiveSplit.getFileSplit().getPath());
 
         Configuration configuration = hdfsEnvironment.getConfiguration(
@@ -23,6 +23,7 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.common.type.VarcharType;
 import com.facebook.presto.hive.HiveBucketing.HiveBucketFilter;
+import com.facebook.presto.hive.PartitionSet.PartitionLoader;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.MetastoreContext;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
@@ -35,14 +36,19 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
 import com.google.common.base.VerifyException;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -53,6 +59,7 @@ import org.weakref.jmx.Nested;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -76,6 +83,7 @@ import static com.facebook.presto.hive.HiveSessionProperties.isLegacyTimestampBu
 import static com.facebook.presto.hive.HiveSessionProperties.isOfflineDataDebugModeEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isOptimizeParsingOfPartitionValues;
 import static com.facebook.presto.hive.HiveSessionProperties.isParallelParsingOfPartitionValuesEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isStreamingPartitionLoadingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.shouldIgnoreTableBucketing;
 import static com.facebook.presto.hive.HiveUtil.getPartitionKeyColumnHandles;
 import static com.facebook.presto.hive.HiveUtil.parsePartitionValue;
@@ -89,6 +97,7 @@ import static com.facebook.presto.hive.metastore.PrestoTableType.TEMPORARY_TABLE
 import static com.facebook.presto.spi.Constraint.alwaysTrue;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.not;
+import static com.google.common.base.Suppliers.memoize;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
@@ -155,7 +164,6 @@ public class HivePartitionManager
             ConnectorSession session)
     {
         HiveTableHandle hiveTableHandle = (HiveTableHandle) tableHandle;
-        TupleDomain<ColumnHandle> effectivePredicateColumnHandles = constraint.getSummary();
 
         SchemaTableName tableName = hiveTableHandle.getSchemaTableName();
         Table table = getTable(session, metastore, hiveTableHandle, isOfflineDataDebugModeEnabled(session));
@@ -166,18 +174,11 @@ public class HivePartitionManager
                 .map(column -> typeManager.getType(column.getTypeSignature()))
                 .collect(toList());
 
-        Map<Column, Domain> effectivePredicate = createPartitionPredicates(
-                metastore,
-                session,
-                effectivePredicateColumnHandles,
-                partitionColumns,
-                assumeCanonicalPartitionKeys);
-
         if (partitionColumns.isEmpty()) {
             return ImmutableList.of(new HivePartition(tableName));
         }
         else {
-            List<PartitionNameWithVersion> partitionNames = partitionFilteringFromMetastoreEnabled ? getFilteredPartitionNames(session, metastore, hiveTableHandle, effectivePredicate) : getAllPartitionNames(session, metastore, hiveTableHandle, constraint);
+            List<PartitionNameWithVersion> partitionNames = getPartitionNames(metastore, hiveTableHandle, constraint, partitionColumns, session);
 
             if (isParallelParsingOfPartitionValuesEnabled(session) && partitionNames.size() > PARTITION_NAMES_BATCH_SIZE) {
                 List<List<PartitionNameWithVersion>> partitionNameBatches = Lists.partition(partitionNames, PARTITION_NAMES_BATCH_SIZE);
@@ -197,6 +198,25 @@ public class HivePartitionManager
         }
     }
 
+    private List<PartitionNameWithVersion> getPartitionNames(
+            SemiTransactionalHiveMetastore metastore,
+            HiveTableHandle hiveTableHandle,
+            Constraint<ColumnHandle> constraint,
+            List<HiveColumnHandle> partitionColumns,
+            ConnectorSession session)
+    {
+        if (partitionFilteringFromMetastoreEnabled) {
+            Map<Column, Domain> partitionPredicates = createPartitionPredicates(
+                    metastore,
+                    session,
+                    constraint.getSummary(),
+                    partitionColumns,
+                    assumeCanonicalPartitionKeys);
+            return getFilteredPartitionNames(session, metastore, hiveTableHandle, partitionPredicates);
+        }
+        return getAllPartitionNames(session, metastore, hiveTableHandle, constraint);
+    }
+
     private List<HivePartition> getPartitionListFromPartitionNames(
             List<PartitionNameWithVersion> partitionNames,
             SchemaTableName tableName,
@@ -314,22 +334,24 @@ public class HivePartitionManager
 
         List<HiveColumnHandle> partitionColumns = getPartitionKeyColumnHandles(table);
 
-        List<HivePartition> partitions = getPartitionsList(metastore, tableHandle, constraint, session);
-        if (partitions.size() > maxPartitionsPerScan) {
-            throw new PrestoException(HIVE_EXCEEDED_PARTITION_LIMIT, format(
-                    "Query over table '%s' can potentially read more than %s partitions",
-                    hiveTableHandle.getSchemaTableName().toString(),
-                    maxPartitionsPerScan));
-        }
-
         Optional<HiveBucketHandle> hiveBucketHandle = getBucketHandle(table, session, effectivePredicate);
         Optional<HiveBucketFilter> bucketFilter = hiveBucketHandle.flatMap(value -> getHiveBucketFilter(table, effectivePredicate, isLegacyTimestampBucketing(session)));
 
-        if (!queryUsesHiveBucketColumn(effectivePredicate)
-                && hiveBucketHandle.isPresent()
-                && queryAccessesTooManyBuckets(hiveBucketHandle.get(), bucketFilter, partitions, session)) {
-            hiveBucketHandle = Optional.empty();
-            bucketFilter = Optional.empty();
+        PartitionSet partitions;
+        if (canStreamPartitions(session, partitionColumns, hiveBucketHandle, effectivePredicate)) {
+            // the partition limit is enforced while the partitions are streamed
+            partitions = new PartitionSet(new StreamingPartitionLoader(metastore, hiveTableHandle, partitionColumns, constraint, session));
+        }
+        else {
+            List<HivePartition> partitionList = getPartitionsList(metastore, tableHandle, constraint, session);
+            checkPartitionCount(hiveTableHandle, partitionList.size());
+
+            if (isBucketingDecidedByPartitionCount(hiveBucketHandle, effectivePredicate)
+                    && queryAccessesTooManyBuckets(hiveBucketHandle.get(), bucketFilter, partitionList, session)) {
+                hiveBucketHandle = Optional.empty();
+                bucketFilter = Optional.empty();
+            }
+            partitions = new PartitionSet(partitionList);
         }
 
         if (effectivePredicate.isNone()) {
@@ -375,6 +397,43 @@ public class HivePartitionManager
                 bucketFilter);
     }
 
+    /**
+     * Partitions are streamed into split loading instead of being loaded while the query is planned,
+     * unless the table layout itself depends on them. Table statistics are computed from a separate
+     * partition list, and dynamic split sizes are estimated from the first streamed partitions, so
+     * neither of them prevents streaming.
+     */
+    private boolean canStreamPartitions(
+            ConnectorSession session,
+            List<HiveColumnHandle> partitionColumns,
+            Optional<HiveBucketHandle> hiveBucketHandle,
+            TupleDomain<ColumnHandle> effectivePredicate)
+    {
+        return isStreamingPartitionLoadingEnabled(session)
+                && !partitionColumns.isEmpty()
+                && !isBucketingDecidedByPartitionCount(hiveBucketHandle, effectivePredicate);
+    }
+
+    /**
+     * Bucketed execution is turned off for queries that do not filter on the bucket columns and would
+     * access too many buckets, which depends on the number of partitions. Such tables are not streamed,
+     * as the bucket handle is part of the layout and has to be decided while the query is planned.
+     */
+    private boolean isBucketingDecidedByPartitionCount(Optional<HiveBucketHandle> hiveBucketHandle, TupleDomain<ColumnHandle> effectivePredicate)
+    {
+        return hiveBucketHandle.isPresent() && !queryUsesHiveBucketColumn(effectivePredicate);
+    }
+
+    private void checkPartitionCount(HiveTableHandle hiveTableHandle, int partitionCount)
+    {
+        if (partitionCount > maxPartitionsPerScan) {
+            throw new PrestoException(HIVE_EXCEEDED_PARTITION_LIMIT, format(
+                    "Query over table '%s' can potentially read more than %s partitions",
+                    hiveTableHandle.getSchemaTableName().toString(),
+                    maxPartitionsPerScan));
+        }
+    }
+
     private Optional<HiveBucketHandle> getBucketHandle(
             Table table,
             ConnectorSession session,
@@ -539,4 +598,97 @@ public class HivePartitionManager
     {
         return executorServiceMBean;
     }
+
+    /**
+     * Loads the partitions of a table while they are iterated. The partition names are fetched from
+     * the metastore once, and are parsed and filtered by the constraint in batches, so the first
+     * partitions can be used while later ones are still being pruned. Partitions are iterated in
+     * descending partition name order, the order in which splits are loaded for fully loaded partitions.
+     * The partition limit is enforced as the partitions are iterated, so a query over too many
+     * partitions fails once the limit is passed, without the partition names being counted up front.
+     */
+    private class StreamingPartitionLoader
+            implements PartitionLoader
+    {
+        private final SemiTransactionalHiveMetastore metastore;
+        private final HiveTableHandle hiveTableHandle;
+        private final List<HiveColumnHandle> partitionColumns;
+        private final List<Type> partitionTypes;
+        private final Constraint<ColumnHandle> constraint;
+        private final ConnectorSession session;
+        private final Supplier<List<List<PartitionNameWithVersion>>> partitionNameBatches;
+        // shared by all iterations, so that checking whether there are partitions does not parse the first batch again
+        private final Supplier<List<HivePartition>> firstPartitionBatch;
+
+        public StreamingPartitionLoader(
+                SemiTransactionalHiveMetastore metastore,
+                HiveTableHandle hiveTableHandle,
+                List<HiveColumnHandle> partitionColumns,
+                Constraint<ColumnHandle> constraint,
+                ConnectorSession session)
+        {
+            this.metastore = requireNonNull(metastore, "metastore is null");
+            this.hiveTableHandle = requireNonNull(hiveTableHandle, "hiveTableHandle is null");
+            this.partitionColumns = ImmutableList.copyOf(requireNonNull(partitionColumns, "partitionColumns is null"));
+            this.partitionTypes = partitionColumns.stream()
+                    .map(column -> typeManager.getType(column.getTypeSignature()))
+                    .collect(toImmutableList());
+            this.constraint = requireNonNull(constraint, "constraint is null");
+            this.session = requireNonNull(session, "session is null");
+            this.partitionNameBatches = memoize(() -> Lists.partition(
+                    Ordering.natural().reverse().immutableSortedCopy(getPartitionNames(metastore, hiveTableHandle, constraint, partitionColumns, session)),
+                    PARTITION_NAMES_BATCH_SIZE));
+            this.firstPartitionBatch = memoize(() -> partitionNameBatches.get().isEmpty() ? ImmutableList.of() : getPartitionBatch(partitionNameBatches.get().get(0)));
+        }
+
+        @Override
+        public List<HivePartition> loadPartitions()
+        {
+            List<HivePartition> partitions = getPartitionsList(metastore, hiveTableHandle, constraint, session);
+            checkPartitionCount(hiveTableHandle, partitions.size());
+            return partitions;
+        }
+
+        @Override
+        public boolean supportsStreaming()
+        {
+            return true;
+        }
+
+        @Override
+        public Iterator<HivePartition> streamPartitions()
+        {
+            Iterator<HivePartition> partitions = Iterators.concat(
+                    firstPartitionBatch.get().iterator(),
+                    Iterators.concat(Iterators.transform(
+                            Iterables.skip(partitionNameBatches.get(), 1).iterator(),
+                            batch -> getPartitionBatch(batch).iterator())));
+            return new AbstractIterator<HivePartition>()
+            {
+                private int partitionCount;
+
+                @Override
+                protected HivePartition computeNext()
+                {
+                    if (!partitions.hasNext()) {
+                        return endOfData();
+                    }
+                    partitionCount++;
+                    checkPartitionCount(hiveTableHandle, partitionCount);
+                    return partitions.next();
+                }
+            };
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return !streamPartitions().hasNext();
+        }
+
+        private List<HivePartition> getPartitionBatch(List<PartitionNameWithVersion> partitionNames)
+        {
+            return getPartitionListFromPartitionNames(partitionNames, hiveTableHandle.getSchemaTableName(), partitionColumns, partitionTypes, constraint, session);
+        }
+    }
 }
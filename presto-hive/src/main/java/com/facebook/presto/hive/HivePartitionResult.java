@@ -39,7 +39,7 @@ public class HivePartitionResult
     private final List<BaseHiveColumnHandle> partitionColumns;
     private final List<Column> dataColumns;
     private final Map<String, String> tableParameters;
-    private final List<HivePartition> partitions;
+    private final PartitionSet partitions;
     private final TupleDomain<? extends ColumnHandle> effectivePredicate;
     private final TupleDomain<ColumnHandle> unenforcedConstraint;
     private final TupleDomain<ColumnHandle> enforcedConstraint;
@@ -56,6 +56,29 @@ public class HivePartitionResult
             TupleDomain<ColumnHandle> enforcedConstraint,
             Optional<HiveBucketHandle> bucketHandle,
             Optional<HiveBucketFilter> bucketFilter)
+    {
+        this(
+                partitionColumns,
+                dataColumns,
+                tableParameters,
+                new PartitionSet(requireNonNull(partitions, "partitions is null")),
+                effectivePredicate,
+                unenforcedConstraint,
+                enforcedConstraint,
+                bucketHandle,
+                bucketFilter);
+    }
+
+    public HivePartitionResult(
+            List<BaseHiveColumnHandle> partitionColumns,
+            List<Column> dataColumns,
+            Map<String, String> tableParameters,
+            PartitionSet partitions,
+            TupleDomain<? extends ColumnHandle> effectivePredicate,
+            TupleDomain<ColumnHandle> unenforcedConstraint,
+            TupleDomain<ColumnHandle> enforcedConstraint,
+            Optional<HiveBucketHandle> bucketHandle,
+            Optional<HiveBucketFilter> bucketFilter)
     {
         this.partitionColumns = requireNonNull(partitionColumns, "partitionColumns is null");
         this.dataColumns = ImmutableList.copyOf(requireNonNull(dataColumns, "dataColumns is null"));
@@ -84,6 +107,11 @@ public class HivePartitionResult
     }
 
     public List<HivePartition> getPartitions()
+    {
+        return partitions.getFullyLoadedPartitions();
+    }
+
+    public PartitionSet getPartitionSet()
     {
         return partitions;
     }
@@ -119,6 +119,9 @@ public final class HiveSessionProperties
     private static final String DWRF_WRITER_STRIPE_CACHE_ENABLED = "dwrf_writer_stripe_cache_enabled";
     private static final String DWRF_WRITER_STRIPE_CACHE_SIZE = "dwrf_writer_stripe_cache_size";
     public static final String USE_COLUMN_INDEX_FILTER = "use_column_index_filter";
+    public static final String PARQUET_FILTER_DURING_DECODE_ENABLED = "parquet_filter_during_decode_enabled";
+    public static final String PARQUET_BLOOM_FILTER_ENABLED = "parquet_bloom_filter_enabled";
+    public static final String ORC_BATCH_SELECTIVE_LOADING_ENABLED = "orc_batch_selective_loading_enabled";
     public static final String SIZE_BASED_SPLIT_WEIGHTS_ENABLED = "size_based_split_weights_enabled";
     public static final String MINIMUM_ASSIGNED_SPLIT_WEIGHT = "minimum_assigned_split_weight";
     private static final String USE_RECORD_PAGE_SOURCE_FOR_CUSTOM_SPLIT = "use_record_page_source_for_custom_split";
@@ -128,6 +131,9 @@ public final class HiveSessionProperties
     private static final String HUDI_TABLES_USE_MERGED_VIEW = "hudi_tables_use_merged_view";
     private static final String READ_TABLE_CONSTRAINTS = "read_table_constraints";
     public static final String PARALLEL_PARSING_OF_PARTITION_VALUES_ENABLED = "parallel_parsing_of_partition_values_enabled";
+    public static final String STREAMING_PARTITION_LOADING_ENABLED = "streaming_partition_loading_enabled";
+    public static final String SMALL_FILE_COALESCING_ENABLED = "small_file_coalescing_enabled";
+    public static final String MAX_FILES_PER_COALESCED_SPLIT = "max_files_per_coalesced_split";
     public static final String QUICK_STATS_ENABLED = "quick_stats_enabled";
     public static final String QUICK_STATS_INLINE_BUILD_TIMEOUT = "quick_stats_inline_build_timeout";
     public static final String QUICK_STATS_BACKGROUND_BUILD_TIMEOUT = "quick_stats_background_build_timeout";
@@ -140,6 +146,8 @@ public final class HiveSessionProperties
     public static final String NATIVE_STATS_BASED_FILTER_REORDER_DISABLED = "native_stats_based_filter_reorder_disabled";
 
     public static final String NATIVE_MAX_TARGET_FILE_SIZE = "native_max_target_file_size";
+    public static final String TARGET_MAX_FILE_SIZE = "target_max_file_size";
+    public static final String MAX_OPEN_WRITERS_MEMORY = "max_open_writers_memory";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -569,6 +577,21 @@ public final class HiveSessionProperties
                         "should use column index statistics filtering",
                         hiveClientConfig.getReadColumnIndexFilter(),
                         false),
+                booleanProperty(
+                        PARQUET_FILTER_DURING_DECODE_ENABLED,
+                        "Parquet: evaluate predicate domains in the reader and decode later columns only for rows that pass",
+                        hiveClientConfig.isParquetFilterDuringDecodeEnabled(),
+                        false),
+                booleanProperty(
+                        PARQUET_BLOOM_FILTER_ENABLED,
+                        "Parquet: skip row groups whose bloom filters rule out every value of an equality or IN predicate",
+                        hiveClientConfig.isParquetBloomFilterEnabled(),
+                        false),
+                booleanProperty(
+                        ORC_BATCH_SELECTIVE_LOADING_ENABLED,
+                        "ORC: decode lazily loaded columns only for the rows that pass the filter",
+                        hiveClientConfig.isOrcBatchSelectiveLoadingEnabled(),
+                        false),
                 booleanProperty(
                         SIZE_BASED_SPLIT_WEIGHTS_ENABLED,
                         "Enable estimating split weights based on size in bytes",
@@ -624,6 +647,21 @@ public final class HiveSessionProperties
                         "Enables parallel parsing of partition values from partition names using thread pool",
                         hiveClientConfig.isParallelParsingOfPartitionValuesEnabled(),
                         false),
+                booleanProperty(
+                        STREAMING_PARTITION_LOADING_ENABLED,
+                        "Prune partitions in batches while splits are loaded, instead of loading all partitions while planning",
+                        hiveClientConfig.isStreamingPartitionLoadingEnabled(),
+                        false),
+                booleanProperty(
+                        SMALL_FILE_COALESCING_ENABLED,
+                        "Pack files smaller than the split size into one split, so each small file does not become a split of its own",
+                        hiveClientConfig.isSmallFileCoalescingEnabled(),
+                        false),
+                integerProperty(
+                        MAX_FILES_PER_COALESCED_SPLIT,
+                        "Maximum number of small files packed into one split",
+                        hiveClientConfig.getMaxFilesPerCoalescedSplit(),
+                        false),
                 booleanProperty(
                         QUICK_STATS_ENABLED,
                         "Use quick stats to resolve stats",
@@ -683,6 +721,16 @@ public final class HiveSessionProperties
                         NATIVE_MAX_TARGET_FILE_SIZE,
                        "Native Execution only. Maximum target file size. When a file exceeds this size during writing, the writer will close the current file and start writing to a new file. Zero means no limit.",
                         new DataSize(0, DataSize.Unit.BYTE),
+                        false),
+                dataSizeSessionProperty(
+                        TARGET_MAX_FILE_SIZE,
+                        "Size at which a writer closes its file and starts a new one for an unbucketed table. Zero means no limit",
+                        hiveClientConfig.getTargetMaxFileSize(),
+                        false),
+                dataSizeSessionProperty(
+                        MAX_OPEN_WRITERS_MEMORY,
+                        "Memory of the open writers above which the least recently used writers are closed for an unbucketed table. Zero means no limit",
+                        hiveClientConfig.getMaxOpenWritersMemory(),
                         false));
     }
 
@@ -1096,6 +1144,21 @@ public final class HiveSessionProperties
         return session.getProperty(USE_COLUMN_INDEX_FILTER, Boolean.class);
     }
 
+    public static boolean isParquetFilterDuringDecodeEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_FILTER_DURING_DECODE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParquetBloomFilterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_BLOOM_FILTER_ENABLED, Boolean.class);
+    }
+
+    public static boolean isOrcBatchSelectiveLoadingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_BATCH_SELECTIVE_LOADING_ENABLED, Boolean.class);
+    }
+
     public static boolean isSizeBasedSplitWeightsEnabled(ConnectorSession session)
     {
         return session.getProperty(SIZE_BASED_SPLIT_WEIGHTS_ENABLED, Boolean.class);
@@ -1147,6 +1210,31 @@ public final class HiveSessionProperties
         return session.getProperty(PARALLEL_PARSING_OF_PARTITION_VALUES_ENABLED, Boolean.class);
     }
 
+    public static boolean isStreamingPartitionLoadingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(STREAMING_PARTITION_LOADING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isSmallFileCoalescingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(SMALL_FILE_COALESCING_ENABLED, Boolean.class);
+    }
+
+    public static int getMaxFilesPerCoalescedSplit(ConnectorSession session)
+    {
+        return session.getProperty(MAX_FILES_PER_COALESCED_SPLIT, Integer.class);
+    }
+
+    public static DataSize getTargetMaxFileSize(ConnectorSession session)
+    {
+        return session.getProperty(TARGET_MAX_FILE_SIZE, DataSize.class);
+    }
+
+    public static DataSize getMaxOpenWritersMemory(ConnectorSession session)
+    {
+        return session.getProperty(MAX_OPEN_WRITERS_MEMORY, DataSize.class);
+    }
+
     public static boolean isQuickStatsEnabled(ConnectorSession session)
     {
         return session.getProperty(QUICK_STATS_ENABLED, Boolean.class);
@@ -36,12 +36,15 @@ import java.util.Set;
 
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.SOFT_AFFINITY;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public class HiveSplit
         implements ConnectorSplit
 {
     private final HiveFileSplit fileSplit;
+    // small files of the same partition read back to back after fileSplit
+    private final List<HiveFileSplit> additionalFileSplits;
     private final Storage storage;
     private final List<HivePartitionKey> partitionKeys;
     private final List<HostAddress> addresses;
@@ -64,6 +67,7 @@ public class HiveSplit
     @JsonCreator
     public HiveSplit(
             @JsonProperty("fileSplit") HiveFileSplit fileSplit,
+            @JsonProperty("additionalFileSplits") List<HiveFileSplit> additionalFileSplits,
             @JsonProperty("database") String database,
             @JsonProperty("table") String table,
             @JsonProperty("partitionName") String partitionName,
@@ -84,6 +88,7 @@ public class HiveSplit
             @JsonProperty("rowIdPartitionComponent") Optional<byte[]> rowIdPartitionComponent)
     {
         requireNonNull(fileSplit, "fileSplit is null");
+        requireNonNull(additionalFileSplits, "additionalFileSplits is null");
         requireNonNull(database, "database is null");
         requireNonNull(table, "table is null");
         requireNonNull(partitionName, "partitionName is null");
@@ -101,6 +106,7 @@ public class HiveSplit
         requireNonNull(rowIdPartitionComponent, "rowIdPartitionComponent is null");
 
         this.fileSplit = fileSplit;
+        this.additionalFileSplits = ImmutableList.copyOf(additionalFileSplits);
         this.database = database;
         this.table = table;
         this.partitionName = partitionName;
@@ -127,6 +133,58 @@ public class HiveSplit
         return fileSplit;
     }
 
+    @JsonProperty
+    public List<HiveFileSplit> getAdditionalFileSplits()
+    {
+        return additionalFileSplits;
+    }
+
+    /**
+     * Returns one split per file, each reading a single file split of this split.
+     */
+    public List<HiveSplit> toSingleFileSplits()
+    {
+        if (additionalFileSplits.isEmpty()) {
+            return ImmutableList.of(this);
+        }
+        ImmutableList.Builder<HiveSplit> splits = ImmutableList.builder();
+        splits.add(copy(fileSplit, ImmutableList.of(), addresses, splitWeight));
+        for (HiveFileSplit additionalFileSplit : additionalFileSplits) {
+            splits.add(copy(additionalFileSplit, ImmutableList.of(), addresses, splitWeight));
+        }
+        return splits.build();
+    }
+
+    public HiveSplit withAdditionalFileSplits(List<HiveFileSplit> additionalFileSplits, List<HostAddress> addresses, SplitWeight splitWeight)
+    {
+        return copy(fileSplit, additionalFileSplits, addresses, splitWeight);
+    }
+
+    private HiveSplit copy(HiveFileSplit fileSplit, List<HiveFileSplit> additionalFileSplits, List<HostAddress> addresses, SplitWeight splitWeight)
+    {
+        return new HiveSplit(
+                fileSplit,
+                additionalFileSplits,
+                database,
+                table,
+                partitionName,
+                storage,
+                partitionKeys,
+                addresses,
+                readBucketNumber,
+                tableBucketNumber,
+                nodeSelectionStrategy,
+                partitionDataColumnCount,
+                tableToPartitionMapping,
+                bucketConversion,
+                s3SelectPushdownEnabled,
+                cacheQuotaRequirement,
+                encryptionInformation,
+                redundantColumnDomains,
+                splitWeight,
+                rowIdPartitionComponent);
+    }
+
     @JsonProperty
     public String getDatabase()
     {
@@ -262,6 +320,7 @@ public class HiveSplit
                 .put("partitionName", partitionName)
                 .put("s3SelectPushdownEnabled", s3SelectPushdownEnabled)
                 .put("cacheQuotaRequirement", cacheQuotaRequirement)
+                .put("additionalFileCount", additionalFileSplits.size())
                 .build();
     }
 
@@ -283,23 +342,35 @@ public class HiveSplit
                 .put("cacheQuotaRequirement", cacheQuotaRequirement.toString())
                 .put("readBucketNumber", readBucketNumber.toString())
                 .put("tableBucketNumber", tableBucketNumber.toString())
+                .put("additionalFileCount", Integer.toString(additionalFileSplits.size()))
                 .build();
     }
 
     @Override
     public Object getSplitIdentifier()
     {
-        return ImmutableMap.builder()
+        // the modification time tells a rewritten file apart from the file cached under the same path
+        ImmutableMap.Builder<Object, Object> identifier = ImmutableMap.builder()
                 .put("path", fileSplit.getPath())
                 .put("start", fileSplit.getStart())
                 .put("length", fileSplit.getLength())
-                .build();
+                .put("fileModifiedTime", fileSplit.getFileModifiedTime());
+        if (!additionalFileSplits.isEmpty()) {
+            identifier.put("additionalFiles", additionalFileSplits.stream()
+                    .map(additionalFileSplit -> ImmutableList.of(additionalFileSplit.getPath(), additionalFileSplit.getFileModifiedTime()))
+                    .collect(toImmutableList()));
+        }
+        return identifier.build();
     }
 
     @Override
     public OptionalLong getSplitSizeInBytes()
     {
-        return OptionalLong.of(fileSplit.getLength());
+        long length = fileSplit.getLength();
+        for (HiveFileSplit additionalFileSplit : additionalFileSplits) {
+            length += additionalFileSplit.getLength();
+        }
+        return OptionalLong.of(length);
     }
 
     @Override
@@ -310,6 +381,7 @@ public class HiveSplit
                 .addValue(fileSplit.getStart())
                 .addValue(fileSplit.getLength())
                 .addValue(fileSplit.getFileSize())
+                .addValue(additionalFileSplits.size())
                 .addValue(s3SelectPushdownEnabled)
                 .addValue(cacheQuotaRequirement)
                 .toString();
@@ -92,6 +92,7 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_TRANSACTION_NOT_FOUND;
 import static com.facebook.presto.hive.HivePartition.UNPARTITIONED_ID;
 import static com.facebook.presto.hive.HiveSessionProperties.getHiveMaxInitialSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getLeaseDuration;
+import static com.facebook.presto.hive.HiveSessionProperties.getPartitionStatisticsSampleSize;
 import static com.facebook.presto.hive.HiveSessionProperties.isDynamicSplitSizesEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isOfflineDataDebugModeEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isPartitionStatisticsBasedOptimizationEnabled;
@@ -258,13 +259,11 @@ public class HiveSplitManager
         }
 
         // get partitions
-        List<HivePartition> partitions = layout.getPartitions()
-                .map(PartitionSet::getFullyLoadedPartitions)
+        PartitionSet partitionSet = layout.getPartitions()
                 .orElseThrow(() -> new PrestoException(GENERIC_INTERNAL_ERROR, "Layout does not contain partitions"));
 
         // short circuit if we don't have any partitions
-        HivePartition partition = Iterables.getFirst(partitions, null);
-        if (partition == null) {
+        if (partitionSet.isEmpty()) {
             return new FixedSplitSource(ImmutableList.of());
         }
 
@@ -284,22 +283,40 @@ public class HiveSplitManager
             }
         }
 
-        // sort partitions
-        partitions = Ordering.natural().onResultOf(HivePartition::getPartitionId).reverse().sortedCopy(partitions);
+        double ratio = getSplitScanRatio(session, tableName, layout, metadata, partitionSet);
 
-        Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(
-                metastore,
-                table,
-                tableName,
-                partitions,
-                bucketHandle,
-                session,
-                splitSchedulingContext.getWarningCollector(),
-                layout.getRequestedColumns(),
-                layout.getPredicateColumns(),
-                layout.getDomainPredicate().getDomains());
+        Iterable<HivePartitionMetadata> hivePartitions;
+        if (partitionSet.isFullyLoaded()) {
+            // sort partitions
+            List<HivePartition> partitions = Ordering.natural().onResultOf(HivePartition::getPartitionId).reverse().sortedCopy(partitionSet.getFullyLoadedPartitions());
 
-        double ratio = getSplitScanRatio(session, tableName, layout, metadata, partitions);
+            hivePartitions = getPartitionMetadata(
+                    metastore,
+                    table,
+                    tableName,
+                    partitions,
+                    bucketHandle,
+                    session,
+                    splitSchedulingContext.getWarningCollector(),
+                    layout.getRequestedColumns(),
+                    layout.getPredicateColumns(),
+                    layout.getDomainPredicate().getDomains());
+        }
+        else {
+            // streamed partitions are pruned in batches, in descending partition name order, while the splits are loaded.
+            // They always belong to a partitioned table, and are known not to be empty, so they are not looked at here.
+            hivePartitions = getPartitionMetadataBatches(
+                    metastore,
+                    table,
+                    tableName,
+                    partitionSet,
+                    bucketHandle,
+                    session,
+                    splitSchedulingContext.getWarningCollector(),
+                    layout.getRequestedColumns(),
+                    layout.getPredicateColumns(),
+                    layout.getDomainPredicate().getDomains());
+        }
 
         HiveSplitLoader hiveSplitLoader = new BackgroundHiveSplitLoader(
                 table,
@@ -311,7 +328,7 @@ public class HiveSplitManager
                 namenodeStats,
                 directoryLister,
                 executor,
-                min(splitLoaderConcurrency, partitions.size()), // Avoid over-committing split loader concurrency
+                partitionSet.isFullyLoaded() ? min(splitLoaderConcurrency, partitionSet.getFullyLoadedPartitions().size()) : splitLoaderConcurrency, // Avoid over-committing split loader concurrency
                 recursiveDfsWalkerEnabled,
                 splitSchedulingContext.schedulerUsesHostAddresses(),
                 layout.isPartialAggregationsPushedDown());
@@ -329,11 +346,16 @@ public class HiveSplitManager
             SchemaTableName tableName,
             HiveTableLayoutHandle layout,
             TransactionalMetadata metadata,
-            List<HivePartition> partitions)
+            PartitionSet partitionSet)
     {
         if (!isDynamicSplitSizesEnabled(session)) {
             return 1.0;
         }
+        // the ratio of the data read to the data stored does not depend on the number of partitions, so it is
+        // estimated from the first partitions of a streamed partition set, instead of loading all of them
+        List<HivePartition> partitions = partitionSet.isFullyLoaded()
+                ? partitionSet.getFullyLoadedPartitions()
+                : ImmutableList.copyOf(Iterables.limit(partitionSet, getPartitionStatisticsSampleSize(session)));
         HiveTableHandle hiveTableHandle = new HiveTableHandle(tableName.getSchemaName(), tableName.getTableName());
 
         Set<HiveColumnHandle> readColumnHandles = mergeRequestedAndPredicateColumns(
@@ -463,11 +485,10 @@ public class HiveSplitManager
             return ImmutableList.of();
         }
 
-        Optional<Set<HiveColumnHandle>> allRequestedColumns = mergeRequestedAndPredicateColumns(requestedColumns, ImmutableSet.copyOf(predicateColumns.values()));
-
         if (hivePartitions.size() == 1) {
             HivePartition firstPartition = getOnlyElement(hivePartitions);
             if (firstPartition.getPartitionId().equals(UNPARTITIONED_ID)) {
+                Optional<Set<HiveColumnHandle>> allRequestedColumns = mergeRequestedAndPredicateColumns(requestedColumns, ImmutableSet.copyOf(predicateColumns.values()));
                 return ImmutableList.of(new HivePartitionMetadata(
                         firstPartition,
                         Optional.empty(),
@@ -478,6 +499,23 @@ public class HiveSplitManager
             }
         }
 
+        return getPartitionMetadataBatches(metastore, table, tableName, hivePartitions, hiveBucketHandle, session, warningCollector, requestedColumns, predicateColumns, domains);
+    }
+
+    private Iterable<HivePartitionMetadata> getPartitionMetadataBatches(
+            SemiTransactionalHiveMetastore metastore,
+            Table table,
+            SchemaTableName tableName,
+            Iterable<HivePartition> hivePartitions,
+            Optional<HiveBucketHandle> hiveBucketHandle,
+            ConnectorSession session,
+            WarningCollector warningCollector,
+            Optional<Set<HiveColumnHandle>> requestedColumns,
+            Map<String, HiveColumnHandle> predicateColumns,
+            Optional<Map<Subfield, Domain>> domains)
+    {
+        Optional<Set<HiveColumnHandle>> allRequestedColumns = mergeRequestedAndPredicateColumns(requestedColumns, ImmutableSet.copyOf(predicateColumns.values()));
+
         StorageFormat storageFormat = table.getStorage().getStorageFormat();
         Optional<HiveStorageFormat> hiveStorageFormat = getHiveStorageFormat(storageFormat);
 
@@ -1012,7 +1050,7 @@ public class HiveSplitManager
     /**
      * Partition the given list in exponentially (power of 2) increasing batch sizes starting at minBatchSize up to maxBatchSize
      */
-    private static <T> Iterable<List<T>> partitionExponentially(List<T> values, int minBatchSize, int maxBatchSize)
+    private static <T> Iterable<List<T>> partitionExponentially(Iterable<T> values, int minBatchSize, int maxBatchSize)
     {
         return () -> new AbstractIterator<List<T>>()
         {
@@ -17,12 +17,14 @@ import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.hive.InternalHiveSplit.InternalHiveBlock;
+import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.util.AsyncQueue;
 import com.facebook.presto.hive.util.AsyncQueue.BorrowResult;
 import com.facebook.presto.hive.util.SizeBasedSplitWeightProvider;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
+import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.google.common.annotations.VisibleForTesting;
@@ -39,6 +41,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -56,18 +59,29 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.getAffinitySc
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_EXCEEDED_SPLIT_BUFFERING_LIMIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILE_NOT_FOUND;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
+import static com.facebook.presto.hive.HiveSessionProperties.getMaxFilesPerCoalescedSplit;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMinimumAssignedSplitWeight;
 import static com.facebook.presto.hive.HiveSessionProperties.isSizeBasedSplitWeightsEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isSmallFileCoalescingEnabled;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.CLOSED;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.FAILED;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.INITIAL;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.NO_MORE_SPLITS;
+import static com.facebook.presto.hive.HiveStorageFormat.ALPHA;
+import static com.facebook.presto.hive.HiveStorageFormat.DWRF;
+import static com.facebook.presto.hive.HiveStorageFormat.ORC;
+import static com.facebook.presto.hive.HiveStorageFormat.PARQUET;
+import static com.facebook.presto.hive.HiveStorageFormat.RCBINARY;
+import static com.facebook.presto.hive.HiveStorageFormat.RCTEXT;
+import static com.facebook.presto.hive.HiveStorageFormat.getHiveStorageFormat;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Sets.immutableEnumSet;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.Math.max;
@@ -79,6 +93,7 @@ class HiveSplitSource
         implements ConnectorSplitSource
 {
     private static final Logger log = Logger.get(HiveSplit.class);
+    private static final Set<HiveStorageFormat> COLUMNAR_STORAGE_FORMATS = immutableEnumSet(ORC, DWRF, ALPHA, PARQUET, RCBINARY, RCTEXT);
 
     private final String queryId;
     private final String databaseName;
@@ -103,6 +118,8 @@ class HiveSplitSource
     private final HiveSplitWeightProvider splitWeightProvider;
     private final double splitScanRatio;
     private final long affinitySchedulingFileSectionSizeInBytes;
+    private final boolean coalesceSmallFiles;
+    private final int maxFilesPerCoalescedSplit;
 
     private HiveSplitSource(
             ConnectorSession session,
@@ -143,6 +160,8 @@ class HiveSplitSource
         }
         this.splitScanRatio = max(min(splitScanRatio, 1.0), 0.1);
         affinitySchedulingFileSectionSizeInBytes = getAffinitySchedulingFileSectionSize(session).toBytes();
+        this.coalesceSmallFiles = isSmallFileCoalescingEnabled(session);
+        this.maxFilesPerCoalescedSplit = getMaxFilesPerCoalescedSplit(session);
     }
 
     public static HiveSplitSource allAtOnce(
@@ -484,6 +503,7 @@ class HiveSplitSource
         ListenableFuture<List<ConnectorSplit>> future = queues.borrowBatchAsync(bucketNumber, maxSize, internalSplits -> {
             ImmutableList.Builder<InternalHiveSplit> splitsToInsertBuilder = ImmutableList.builder();
             ImmutableList.Builder<ConnectorSplit> resultBuilder = ImmutableList.builder();
+            SmallFileSplitPacker smallFileSplitPacker = new SmallFileSplitPacker(resultBuilder, splitWeightProvider, maxFilesPerCoalescedSplit);
             int removedEstimatedSizeInBytes = 0;
             for (InternalHiveSplit internalSplit : internalSplits) {
                 long maxSplitBytes = maxSplitSize.toBytes();
@@ -493,7 +513,8 @@ class HiveSplitSource
                     }
                 }
                 // Increase split size if scanned bytes per split are expected to be less.
-                maxSplitBytes = (long) (maxSplitBytes / splitScanRatio);
+                double scanRatio = getSplitScanRatio(internalSplit);
+                maxSplitBytes = (long) (maxSplitBytes / scanRatio);
                 InternalHiveBlock block = internalSplit.currentBlock();
                 long splitBytes;
                 if (internalSplit.isSplittable()) {
@@ -523,8 +544,9 @@ class HiveSplitSource
                         internalSplit.getCustomSplitInfo(),
                         internalSplit.getStart() / affinitySchedulingFileSectionSizeInBytes);
 
-                resultBuilder.add(new HiveSplit(
+                HiveSplit split = new HiveSplit(
                         fileSplit,
+                        ImmutableList.of(),
                         databaseName,
                         tableName,
                         internalSplit.getPartitionName(),
@@ -541,8 +563,15 @@ class HiveSplitSource
                         cacheQuotaRequirement,
                         internalSplit.getEncryptionInformation(),
                         internalSplit.getPartitionInfo().getRedundantColumnDomains(),
-                        splitWeightProvider.weightForSplitSizeInBytes((long) (splitBytes * splitScanRatio)),
-                        internalSplit.getPartitionInfo().getRowIdPartitionComponent()));
+                        splitWeightProvider.weightForSplitSizeInBytes((long) (splitBytes * scanRatio)),
+                        internalSplit.getPartitionInfo().getRowIdPartitionComponent());
+
+                if (coalesceSmallFiles && isSmallFile(internalSplit, splitBytes, maxSplitBytes)) {
+                    smallFileSplitPacker.add(split, internalSplit.getPartitionInfo(), maxSplitBytes, scanRatio);
+                }
+                else {
+                    resultBuilder.add(split);
+                }
 
                 internalSplit.increaseStart(splitBytes);
 
@@ -558,6 +587,7 @@ class HiveSplitSource
                     splitsToInsertBuilder.add(internalSplit);
                 }
             }
+            smallFileSplitPacker.flush();
 
             // For rewindable split source, we keep all the splits in memory.
             if (!useRewindableSplitSource) {
@@ -566,7 +596,7 @@ class HiveSplitSource
 
             List<InternalHiveSplit> splitsToInsert = splitsToInsertBuilder.build();
             List<ConnectorSplit> result = resultBuilder.build();
-            bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - result.size());
+            bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - internalSplits.size());
 
             return new AsyncQueue.BorrowResult<>(splitsToInsert, result);
         });
@@ -631,6 +661,33 @@ class HiveSplitSource
         }
     }
 
+    private static boolean isSmallFile(InternalHiveSplit internalSplit, long splitBytes, long maxSplitBytes)
+    {
+        // only whole files are packed, and only when the scheduler is free to place them on any node
+        return internalSplit.getStart() == 0 &&
+                splitBytes == internalSplit.getFileSize() &&
+                splitBytes < maxSplitBytes &&
+                internalSplit.getNodeSelectionStrategy() == NO_PREFERENCE &&
+                internalSplit.getCustomSplitInfo().isEmpty() &&
+                !internalSplit.isS3SelectPushdownEnabled();
+    }
+
+    private double getSplitScanRatio(InternalHiveSplit internalSplit)
+    {
+        if (splitScanRatio == 1.0) {
+            return 1.0;
+        }
+        // Only columnar formats skip the columns that are not read. Every byte of a file in
+        // another format is read and decoded, so splits of these files are not made larger.
+        // Split boundaries stay byte offsets: footers are not read while splits are created,
+        // and readers only read the stripes and row groups that start inside their split.
+        StorageFormat storageFormat = internalSplit.getPartitionInfo().getStorage().getStorageFormat();
+        if (getHiveStorageFormat(storageFormat).map(COLUMNAR_STORAGE_FORMATS::contains).orElse(false)) {
+            return splitScanRatio;
+        }
+        return 1.0;
+    }
+
     private static OptionalInt toBucketNumber(ConnectorPartitionHandle partitionHandle)
     {
         if (partitionHandle == NOT_PARTITIONED) {
@@ -663,6 +720,91 @@ class HiveSplitSource
         throw new PrestoException(HIVE_UNKNOWN_ERROR, throwable);
     }
 
+    /**
+     * Packs whole small files of the same partition into one split, in the order they are
+     * borrowed, until the split reaches the maximum split size or the maximum file count.
+     * Files are only packed while they share a host, and the split is placed on the hosts
+     * that hold all of its files.
+     */
+    private static class SmallFileSplitPacker
+    {
+        private final ImmutableList.Builder<ConnectorSplit> resultBuilder;
+        private final HiveSplitWeightProvider splitWeightProvider;
+        private final int maxFilesPerSplit;
+
+        private final List<HiveFileSplit> additionalFileSplits = new ArrayList<>();
+        private HiveSplit firstSplit;
+        private HiveSplitPartitionInfo partitionInfo;
+        private List<HostAddress> addresses;
+        private long packedBytes;
+        private double scanRatio;
+
+        public SmallFileSplitPacker(ImmutableList.Builder<ConnectorSplit> resultBuilder, HiveSplitWeightProvider splitWeightProvider, int maxFilesPerSplit)
+        {
+            this.resultBuilder = requireNonNull(resultBuilder, "resultBuilder is null");
+            this.splitWeightProvider = requireNonNull(splitWeightProvider, "splitWeightProvider is null");
+            this.maxFilesPerSplit = maxFilesPerSplit;
+        }
+
+        public void add(HiveSplit split, HiveSplitPartitionInfo partitionInfo, long maxSplitBytes, double scanRatio)
+        {
+            long splitBytes = split.getFileSplit().getLength();
+            if (firstSplit != null &&
+                    (this.partitionInfo != partitionInfo ||
+                            !split.getReadBucketNumber().equals(firstSplit.getReadBucketNumber()) ||
+                            !split.getTableBucketNumber().equals(firstSplit.getTableBucketNumber()) ||
+                            packedBytes + splitBytes > maxSplitBytes ||
+                            additionalFileSplits.size() + 1 >= maxFilesPerSplit ||
+                            !sharesHost(split))) {
+                flush();
+            }
+
+            if (firstSplit == null) {
+                firstSplit = split;
+                this.partitionInfo = partitionInfo;
+                this.scanRatio = scanRatio;
+                addresses = split.getAddresses();
+            }
+            else {
+                additionalFileSplits.add(split.getFileSplit());
+                addresses = addresses.stream()
+                        .filter(split.getAddresses()::contains)
+                        .collect(toImmutableList());
+            }
+            packedBytes += splitBytes;
+        }
+
+        private boolean sharesHost(HiveSplit split)
+        {
+            // files without block locations, such as files on object stores, are read equally well from any node
+            if (addresses.isEmpty()) {
+                return split.getAddresses().isEmpty();
+            }
+            return split.getAddresses().stream().anyMatch(addresses::contains);
+        }
+
+        public void flush()
+        {
+            if (firstSplit == null) {
+                return;
+            }
+            if (additionalFileSplits.isEmpty()) {
+                resultBuilder.add(firstSplit);
+            }
+            else {
+                resultBuilder.add(firstSplit.withAdditionalFileSplits(
+                        additionalFileSplits,
+                        addresses,
+                        splitWeightProvider.weightForSplitSizeInBytes((long) (packedBytes * scanRatio))));
+            }
+            additionalFileSplits.clear();
+            firstSplit = null;
+            partitionInfo = null;
+            addresses = null;
+            packedBytes = 0;
+        }
+    }
+
     interface PerBucket
     {
         ListenableFuture<?> offer(OptionalInt bucketNumber, InternalHiveSplit split);
@@ -132,7 +132,7 @@ public class HiveTableLayoutHandle
             Optional<Set<HiveColumnHandle>> requestedColumns,
             boolean partialAggregationsPushedDown,
             boolean appendRowNumberEnabled,
-            Optional<List<HivePartition>> partitions,
+            Optional<PartitionSet> partitions,
             boolean footerStatsUnreliable,
             Optional<HiveTableHandle> hiveTableHandle)
     {
@@ -142,7 +142,7 @@ public class HiveTableLayoutHandle
                 remainingPredicate,
                 pushdownFilterEnabled,
                 partitionColumnPredicate,
-                partitions.map(PartitionSet::new));
+                partitions);
 
         this.schemaTableName = requireNonNull(schemaTableName, "schemaTableName is null");
         this.tablePath = requireNonNull(tablePath, "tablePath is null");
@@ -268,8 +268,12 @@ public class HiveTableLayoutHandle
             Set<Subfield> subfields = hiveSplit.getRedundantColumnDomains().stream()
                     .map(column -> new Subfield(((HiveColumnHandle) column).getName()))
                     .collect(toImmutableSet());
+            // Partition key domains were applied when the split was generated, so the split reads the same data
+            // regardless of the partition range of the query. Dropping them lets queries over overlapping
+            // partition ranges, like daily rollups, share the cached results of the partitions they have in common.
             List<ColumnDomain<Subfield>> columnDomains = domainPredicate.getColumnDomains().get().stream()
                     .filter(columnDomain -> !subfields.contains(columnDomain.getColumn()))
+                    .filter(columnDomain -> !isPartitionKeyDomain(columnDomain.getColumn(), getPredicateColumns()))
                     .collect(toImmutableList());
             domainPredicate = TupleDomain.fromColumnDomains(Optional.of(columnDomains));
         }
@@ -298,7 +302,10 @@ public class HiveTableLayoutHandle
         // Constants are only removed from point checks, and not range checks. Example:
         // `x = 1` is equivalent to `x = 1000`
         // `x > 1` is NOT equivalent to `x > 1000`
-        TupleDomain<ColumnHandle> constraint = createPredicate(ImmutableList.copyOf(getPartitionColumns()), getPartitions().map(PartitionSet::getFullyLoadedPartitions).get());
+        PartitionSet partitions = getPartitions().get();
+        TupleDomain<ColumnHandle> constraint = partitions.isFullyLoaded()
+                ? createPredicate(ImmutableList.copyOf(getPartitionColumns()), partitions.getFullyLoadedPartitions())
+                : getPartitionColumnPredicate();
         constraint = getDomainPredicate()
                 .transform(subfield -> subfield.getPath().isEmpty() ? subfield.getRootName() : null)
                 .transform(getPredicateColumns()::get)
@@ -325,6 +332,11 @@ public class HiveTableLayoutHandle
                 .canonicalize(ignored -> false);
     }
 
+    private static boolean isPartitionKeyDomain(Subfield subfield, Map<String, HiveColumnHandle> predicateColumns)
+    {
+        return subfield.getPath().isEmpty() && predicateColumns.containsKey(subfield.getRootName()) && isPartitionKey(predicateColumns.get(subfield.getRootName()));
+    }
+
     private static boolean isPartitionKey(ColumnHandle columnHandle)
     {
         return columnHandle instanceof HiveColumnHandle && ((HiveColumnHandle) columnHandle).isPartitionKey();
@@ -361,7 +373,7 @@ public class HiveTableLayoutHandle
                 .setRequestedColumns(getRequestedColumns())
                 .setPartialAggregationsPushedDown(isPartialAggregationsPushedDown())
                 .setAppendRowNumberEnabled(isAppendRowNumberEnabled())
-                .setPartitions(getPartitions().map(PartitionSet::getFullyLoadedPartitions))
+                .setPartitionSet(getPartitions())
                 .setFooterStatsUnreliable(isFooterStatsUnreliable())
                 .setHiveTableHandle(getHiveTableHandle());
     }
@@ -391,7 +403,7 @@ public class HiveTableLayoutHandle
         private boolean appendRowNumberEnabled;
         private boolean footerStatsUnreliable;
 
-        private Optional<List<HivePartition>> partitions;
+        private Optional<PartitionSet> partitions;
         private Optional<HiveTableHandle> hiveTableHandle = Optional.empty();
 
         public Builder setSchemaTableName(SchemaTableName schemaTableName)
@@ -497,6 +509,12 @@ public class HiveTableLayoutHandle
         }
 
         public Builder setPartitions(Optional<List<HivePartition>> partitions)
+        {
+            requireNonNull(partitions, "partitions is null");
+            return setPartitionSet(partitions.map(PartitionSet::new));
+        }
+
+        public Builder setPartitionSet(Optional<PartitionSet> partitions)
         {
             requireNonNull(partitions, "partitions is null");
             this.partitions = partitions;
@@ -20,6 +20,7 @@ import com.facebook.presto.orc.DefaultOrcWriterFlushPolicy;
 import com.facebook.presto.orc.OrcWriterOptions;
 import com.facebook.presto.orc.metadata.DwrfStripeCacheMode;
 import com.facebook.presto.orc.writer.StreamLayoutFactory;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.util.OptionalInt;
@@ -55,6 +56,7 @@ public class OrcFileWriterConfig
     private boolean isStringDictionarySortingEnabled = OrcWriterOptions.DEFAULT_STRING_DICTIONARY_SORTING_ENABLED;
     private boolean isFlatMapWriterEnabled = DEFAULT_FLAT_MAP_WRITER_ENABLED;
     private boolean addHostnameToFileMetadataEnabled = true;
+    private int columnWriterThreads;
 
     public OrcWriterOptions.Builder toOrcWriterOptionsBuilder()
     {
@@ -296,6 +298,20 @@ public class OrcFileWriterConfig
         return this;
     }
 
+    @Min(0)
+    public int getColumnWriterThreads()
+    {
+        return columnWriterThreads;
+    }
+
+    @Config("hive.orc.writer.column-writer-threads")
+    @ConfigDescription("Number of pool threads that help each ORC writer encode and compress columns in parallel with its own thread. 0 writes all columns on the writer thread.")
+    public OrcFileWriterConfig setColumnWriterThreads(int columnWriterThreads)
+    {
+        this.columnWriterThreads = columnWriterThreads;
+        return this;
+    }
+
     private static StreamLayoutFactory getStreamLayoutFactory(StreamLayoutType type)
     {
         switch (type) {
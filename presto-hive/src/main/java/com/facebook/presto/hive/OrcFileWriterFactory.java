@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.concurrent.BoundedExecutor;
 import com.facebook.presto.common.io.DataSink;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
@@ -59,6 +60,8 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
@@ -143,6 +146,7 @@ public class OrcFileWriterFactory
     private final OrcWriterStats stats = new OrcWriterStats();
     private final OrcFileWriterConfig orcFileWriterConfig;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Optional<Executor> columnWriterExecutor;
 
     @Inject
     public OrcFileWriterFactory(
@@ -153,7 +157,8 @@ public class OrcFileWriterFactory
             HiveClientConfig hiveClientConfig,
             FileFormatDataSourceStats readStats,
             OrcFileWriterConfig orcFileWriterConfig,
-            HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            @ForColumnWriters ExecutorService columnWriterExecutor)
     {
         this(
                 hdfsEnvironment,
@@ -163,7 +168,10 @@ public class OrcFileWriterFactory
                 requireNonNull(hiveClientConfig, "hiveClientConfig is null").getDateTimeZone(),
                 readStats,
                 orcFileWriterConfig,
-                dwrfEncryptionProvider);
+                dwrfEncryptionProvider,
+                requireNonNull(orcFileWriterConfig, "orcFileWriterConfig is null").getColumnWriterThreads() > 0
+                        ? Optional.of(columnWriterExecutor)
+                        : Optional.empty());
     }
 
     public OrcFileWriterFactory(
@@ -175,6 +183,20 @@ public class OrcFileWriterFactory
             FileFormatDataSourceStats readStats,
             OrcFileWriterConfig orcFileWriterConfig,
             HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+    {
+        this(hdfsEnvironment, dataSinkFactory, typeManager, nodeVersion, hiveStorageTimeZone, readStats, orcFileWriterConfig, dwrfEncryptionProvider, Optional.empty());
+    }
+
+    public OrcFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            DataSinkFactory dataSinkFactory,
+            TypeManager typeManager,
+            NodeVersion nodeVersion,
+            DateTimeZone hiveStorageTimeZone,
+            FileFormatDataSourceStats readStats,
+            OrcFileWriterConfig orcFileWriterConfig,
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            Optional<Executor> columnWriterExecutor)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.dataSinkFactory = requireNonNull(dataSinkFactory, "dataSinkFactory is null");
@@ -184,6 +206,7 @@ public class OrcFileWriterFactory
         this.readStats = requireNonNull(readStats, "stats is null");
         this.orcFileWriterConfig = requireNonNull(orcFileWriterConfig, "orcFileWriterConfig is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "DwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.columnWriterExecutor = requireNonNull(columnWriterExecutor, "columnWriterExecutor is null");
     }
 
     @Managed
@@ -321,6 +344,8 @@ public class OrcFileWriterFactory
                 .withMaxFlattenedMapKeyCount(flatMapKeyLimit)
                 .withMapStatisticsEnabled(mapStatisticsEnabled)
                 .withCompressionLevel(getCompressionLevel(session))
+                // each writer gets its own share of the pool, so concurrent writers do not queue behind each other
+                .withColumnWriterExecutor(columnWriterExecutor.map(executor -> new BoundedExecutor(executor, orcFileWriterConfig.getColumnWriterThreads())))
                 .build();
     }
 
@@ -14,8 +14,10 @@
 package com.facebook.presto.hive;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import jakarta.validation.constraints.Min;
 import org.apache.parquet.hadoop.ParquetWriter;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
@@ -28,6 +30,7 @@ public class ParquetFileWriterConfig
     private DataSize blockSize = new DataSize(ParquetWriter.DEFAULT_BLOCK_SIZE, BYTE);
     private DataSize pageSize = new DataSize(ParquetWriter.DEFAULT_PAGE_SIZE, BYTE);
     private WriterVersion writerVersion = ParquetWriterOptions.DEFAULT_WRITER_VERSION;
+    private int columnWriterThreads;
 
     public DataSize getBlockSize()
     {
@@ -76,4 +79,18 @@ public class ParquetFileWriterConfig
         this.parquetOptimizedWriterEnabled = parquetOptimizedWriterEnabled;
         return this;
     }
+
+    @Min(0)
+    public int getColumnWriterThreads()
+    {
+        return columnWriterThreads;
+    }
+
+    @Config("hive.parquet.writer.column-writer-threads")
+    @ConfigDescription("Number of pool threads that help each Parquet writer encode and compress columns in parallel with its own thread. 0 writes all columns on the writer thread.")
+    public ParquetFileWriterConfig setColumnWriterThreads(int columnWriterThreads)
+    {
+        this.columnWriterThreads = columnWriterThreads;
+        return this;
+    }
 }
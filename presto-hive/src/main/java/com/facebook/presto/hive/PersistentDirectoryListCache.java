@@ -0,0 +1,403 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import static com.google.common.hash.Hashing.murmur3_128;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps directory listings in files on local disk, so they survive a restart of the server.
+ * <p>
+ * Every listing is stored with the modification time the directory had before it was listed,
+ * and is only returned when the directory still has the same modification time. Adding or
+ * removing a file changes the modification time of its directory, so checking a listing costs
+ * a single file status call instead of a full listing. Listings of directories without a
+ * modification time, as reported by some object stores, are not stored.
+ * <p>
+ * Every listing is also stored with the time it was written, and expires like the listings
+ * kept in memory, so a change that does not update the modification time of the directory
+ * is only missed until the listing expires.
+ * <p>
+ * The listings found on disk at startup are indexed, but only read when they are requested.
+ * The total size of the files is bounded, and the least recently used listings are deleted first.
+ */
+public class PersistentDirectoryListCache
+{
+    private static final Logger log = Logger.get(PersistentDirectoryListCache.class);
+
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_SUFFIX = ".listing";
+
+    private final Path directory;
+    private final long expireAfterWriteMillis;
+    private final LongSupplier currentTimeMillis;
+    private final Cache<String, ListingFile> listingFiles;
+
+    public PersistentDirectoryListCache(Path directory, DataSize maxSize, Duration expireAfterWrite)
+    {
+        this(directory, maxSize, expireAfterWrite, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    PersistentDirectoryListCache(Path directory, DataSize maxSize, Duration expireAfterWrite, LongSupplier currentTimeMillis)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.expireAfterWriteMillis = requireNonNull(expireAfterWrite, "expireAfterWrite is null").toMillis();
+        this.currentTimeMillis = requireNonNull(currentTimeMillis, "currentTimeMillis is null");
+        this.listingFiles = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Weigher<String, ListingFile>) (path, listingFile) -> toIntExact(listingFile.getSizeInBytes()))
+                .removalListener(notification -> {
+                    // a replaced listing is written to the same file, which already holds the new listing
+                    if (notification.getCause() != RemovalCause.REPLACED) {
+                        deleteFile(notification.getValue().getFile());
+                    }
+                })
+                .build();
+
+        try {
+            Files.createDirectories(directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to create directory list cache directory " + directory, e);
+        }
+        loadListingFiles();
+    }
+
+    /**
+     * Returns the stored listing of the directory if it was stored with the given modification time.
+     * A listing stored with another modification time, or written before the expiration time, is outdated, and is deleted.
+     */
+    public Optional<List<HiveFileInfo>> get(String path, long directoryModificationTime)
+    {
+        ListingFile listingFile = getListingFile(path);
+        if (listingFile == null) {
+            return Optional.empty();
+        }
+        if (listingFile.getDirectoryModificationTime() != directoryModificationTime) {
+            listingFiles.invalidate(path);
+            return Optional.empty();
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(listingFile.getFile())))) {
+            readHeader(input, listingFile.getFile());
+            return Optional.of(readFiles(input));
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to read directory listing of %s from %s", path, listingFile.getFile());
+            listingFiles.invalidate(path);
+            return Optional.empty();
+        }
+    }
+
+    public void put(String path, long directoryModificationTime, List<HiveFileInfo> files)
+    {
+        if (directoryModificationTime <= 0) {
+            return;
+        }
+
+        Path file = directory.resolve(murmur3_128().hashString(path, UTF_8) + FILE_SUFFIX);
+        Path temporaryFile = null;
+        try {
+            long writeTimeMillis = currentTimeMillis.getAsLong();
+            temporaryFile = Files.createTempFile(directory, "write-", ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(FORMAT_VERSION);
+                writeString(output, path);
+                output.writeLong(directoryModificationTime);
+                output.writeLong(writeTimeMillis);
+                writeFiles(output, files);
+            }
+            long sizeInBytes = Files.size(temporaryFile);
+            Files.move(temporaryFile, file, ATOMIC_MOVE);
+            listingFiles.put(path, new ListingFile(file, directoryModificationTime, writeTimeMillis, sizeInBytes));
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write directory listing of %s to %s", path, file);
+            if (temporaryFile != null) {
+                deleteFile(temporaryFile);
+            }
+        }
+    }
+
+    public boolean contains(String path)
+    {
+        return getListingFile(path) != null;
+    }
+
+    public void invalidate(String path)
+    {
+        listingFiles.invalidate(path);
+    }
+
+    public void invalidateAll()
+    {
+        listingFiles.invalidateAll();
+    }
+
+    public long size()
+    {
+        return listingFiles.size();
+    }
+
+    private ListingFile getListingFile(String path)
+    {
+        ListingFile listingFile = listingFiles.getIfPresent(path);
+        if (listingFile != null && isExpired(listingFile.getWriteTimeMillis())) {
+            listingFiles.invalidate(path);
+            return null;
+        }
+        return listingFile;
+    }
+
+    private boolean isExpired(long writeTimeMillis)
+    {
+        return currentTimeMillis.getAsLong() - writeTimeMillis >= expireAfterWriteMillis;
+    }
+
+    private void loadListingFiles()
+    {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (!file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                    // left over from a write that did not finish
+                    deleteFile(file);
+                    continue;
+                }
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    ListingHeader header = readHeader(input, file);
+                    if (isExpired(header.getWriteTimeMillis())) {
+                        deleteFile(file);
+                        continue;
+                    }
+                    listingFiles.put(header.getPath(), new ListingFile(file, header.getDirectoryModificationTime(), header.getWriteTimeMillis(), Files.size(file)));
+                }
+                catch (IOException | RuntimeException e) {
+                    log.warn(e, "Deleting unreadable directory listing %s", file);
+                    deleteFile(file);
+                }
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to load directory listings from %s", directory);
+        }
+    }
+
+    private static ListingHeader readHeader(DataInputStream input, Path file)
+            throws IOException
+    {
+        int version = input.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported directory listing format version " + version + " in " + file);
+        }
+        String path = readString(input);
+        long directoryModificationTime = input.readLong();
+        long writeTimeMillis = input.readLong();
+        return new ListingHeader(path, directoryModificationTime, writeTimeMillis);
+    }
+
+    private static void writeFiles(DataOutputStream output, List<HiveFileInfo> files)
+            throws IOException
+    {
+        output.writeInt(files.size());
+        for (HiveFileInfo file : files) {
+            writeString(output, file.getPath());
+            output.writeBoolean(file.isDirectory());
+            output.writeLong(file.getLength());
+            output.writeLong(file.getFileModifiedTime());
+
+            output.writeInt(file.getBlockLocations().size());
+            for (BlockLocation blockLocation : file.getBlockLocations()) {
+                output.writeInt(blockLocation.getHosts().size());
+                for (String host : blockLocation.getHosts()) {
+                    writeString(output, host);
+                }
+                output.writeLong(blockLocation.getOffset());
+                output.writeLong(blockLocation.getLength());
+            }
+
+            output.writeBoolean(file.getExtraFileInfo().isPresent());
+            if (file.getExtraFileInfo().isPresent()) {
+                byte[] extraFileInfo = file.getExtraFileInfo().get();
+                output.writeInt(extraFileInfo.length);
+                output.write(extraFileInfo);
+            }
+
+            output.writeInt(file.getCustomSplitInfo().size());
+            for (Map.Entry<String, String> entry : file.getCustomSplitInfo().entrySet()) {
+                writeString(output, entry.getKey());
+                writeString(output, entry.getValue());
+            }
+        }
+    }
+
+    private static List<HiveFileInfo> readFiles(DataInputStream input)
+            throws IOException
+    {
+        int fileCount = input.readInt();
+        ImmutableList.Builder<HiveFileInfo> files = ImmutableList.builderWithExpectedSize(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            String path = readString(input);
+            boolean directory = input.readBoolean();
+            long length = input.readLong();
+            long fileModifiedTime = input.readLong();
+
+            int blockLocationCount = input.readInt();
+            ImmutableList.Builder<BlockLocation> blockLocations = ImmutableList.builderWithExpectedSize(blockLocationCount);
+            for (int block = 0; block < blockLocationCount; block++) {
+                int hostCount = input.readInt();
+                ImmutableList.Builder<String> hosts = ImmutableList.builderWithExpectedSize(hostCount);
+                for (int host = 0; host < hostCount; host++) {
+                    hosts.add(readString(input));
+                }
+                blockLocations.add(new BlockLocation(hosts.build(), input.readLong(), input.readLong()));
+            }
+
+            Optional<byte[]> extraFileInfo = Optional.empty();
+            if (input.readBoolean()) {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                extraFileInfo = Optional.of(bytes);
+            }
+
+            int customSplitInfoCount = input.readInt();
+            ImmutableMap.Builder<String, String> customSplitInfo = ImmutableMap.builderWithExpectedSize(customSplitInfoCount);
+            for (int entry = 0; entry < customSplitInfoCount; entry++) {
+                customSplitInfo.put(readString(input), readString(input));
+            }
+
+            files.add(new HiveFileInfo(path, directory, blockLocations.build(), length, fileModifiedTime, extraFileInfo, customSplitInfo.build()));
+        }
+        return files.build();
+    }
+
+    private static void writeString(DataOutputStream output, String value)
+            throws IOException
+    {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input)
+            throws IOException
+    {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void deleteFile(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete %s", file);
+        }
+    }
+
+    private static class ListingHeader
+    {
+        private final String path;
+        private final long directoryModificationTime;
+        private final long writeTimeMillis;
+
+        public ListingHeader(String path, long directoryModificationTime, long writeTimeMillis)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.directoryModificationTime = directoryModificationTime;
+            this.writeTimeMillis = writeTimeMillis;
+        }
+
+        public String getPath()
+        {
+            return path;
+        }
+
+        public long getDirectoryModificationTime()
+        {
+            return directoryModificationTime;
+        }
+
+        public long getWriteTimeMillis()
+        {
+            return writeTimeMillis;
+        }
+    }
+
+    private static class ListingFile
+    {
+        private final Path file;
+        private final long directoryModificationTime;
+        private final long writeTimeMillis;
+        private final long sizeInBytes;
+
+        public ListingFile(Path file, long directoryModificationTime, long writeTimeMillis, long sizeInBytes)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.directoryModificationTime = directoryModificationTime;
+            this.writeTimeMillis = writeTimeMillis;
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        public Path getFile()
+        {
+            return file;
+        }
+
+        public long getDirectoryModificationTime()
+        {
+            return directoryModificationTime;
+        }
+
+        public long getWriteTimeMillis()
+        {
+            return writeTimeMillis;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.DwrfStripeCacheData;
+import com.facebook.presto.orc.metadata.DwrfStripeCacheMode;
+import com.facebook.presto.orc.metadata.OrcFileTail;
+import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
+import com.facebook.presto.parquet.cache.CachingParquetFooterSource.CacheableFooter;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+
+import java.util.Optional;
+
+/**
+ * Serialized forms of the ORC and Parquet metadata kept in a {@link MetadataCache}. Entries never
+ * outlive the process, so enums are stored by ordinal. Deserialized slices are views over the
+ * serialized entry and are not copied.
+ */
+public final class FileMetadataSerializers
+{
+    public static final MetadataSerializer<OrcFileTail> ORC_FILE_TAIL_SERIALIZER = new MetadataSerializer<OrcFileTail>()
+    {
+        @Override
+        public Slice serialize(OrcFileTail tail)
+        {
+            SliceOutput output = new DynamicSliceOutput(tail.getFooterSlice().length() + tail.getMetadataSlice().length() + 64);
+            output.writeByte(tail.getHiveWriterVersion().ordinal());
+            output.writeInt(tail.getBufferSize());
+            output.writeByte(tail.getCompressionKind().ordinal());
+            writeSlice(output, tail.getFooterSlice());
+            output.writeInt(tail.getFooterSize());
+            writeSlice(output, tail.getMetadataSlice());
+            output.writeInt(tail.getMetadataSize());
+            output.writeBoolean(tail.getDwrfStripeCacheData().isPresent());
+            if (tail.getDwrfStripeCacheData().isPresent()) {
+                DwrfStripeCacheData stripeCacheData = tail.getDwrfStripeCacheData().get();
+                writeSlice(output, stripeCacheData.getDwrfStripeCacheSlice());
+                output.writeInt(stripeCacheData.getDwrfStripeCacheSize());
+                output.writeByte(stripeCacheData.getDwrfStripeCacheMode().ordinal());
+            }
+            output.writeLong(tail.getFileModificationTime());
+            return output.slice();
+        }
+
+        @Override
+        public OrcFileTail deserialize(Slice serialized)
+        {
+            BasicSliceInput input = serialized.getInput();
+            HiveWriterVersion hiveWriterVersion = HiveWriterVersion.values()[input.readByte()];
+            int bufferSize = input.readInt();
+            CompressionKind compressionKind = CompressionKind.values()[input.readByte()];
+            Slice footerSlice = readSlice(input);
+            int footerSize = input.readInt();
+            Slice metadataSlice = readSlice(input);
+            int metadataSize = input.readInt();
+            Optional<DwrfStripeCacheData> stripeCacheData = Optional.empty();
+            if (input.readBoolean()) {
+                Slice stripeCacheSlice = readSlice(input);
+                int stripeCacheSize = input.readInt();
+                DwrfStripeCacheMode stripeCacheMode = DwrfStripeCacheMode.values()[input.readByte()];
+                stripeCacheData = Optional.of(new DwrfStripeCacheData(stripeCacheSlice, stripeCacheSize, stripeCacheMode));
+            }
+            long fileModificationTime = input.readLong();
+            return new OrcFileTail(hiveWriterVersion, bufferSize, compressionKind, footerSlice, footerSize, metadataSlice, metadataSize, stripeCacheData, fileModificationTime);
+        }
+    };
+
+    public static final MetadataSerializer<CacheableSlice> ORC_SLICE_SERIALIZER = new MetadataSerializer<CacheableSlice>()
+    {
+        @Override
+        public Slice serialize(CacheableSlice value)
+        {
+            SliceOutput output = new DynamicSliceOutput(value.getSlice().length() + Long.BYTES);
+            output.writeLong(value.getFileModificationTime());
+            output.writeBytes(value.getSlice());
+            return output.slice();
+        }
+
+        @Override
+        public CacheableSlice deserialize(Slice serialized)
+        {
+            return new CacheableSlice(serialized.slice(Long.BYTES, serialized.length() - Long.BYTES), serialized.getLong(0));
+        }
+    };
+
+    public static final MetadataSerializer<CacheableFooter> PARQUET_FOOTER_SERIALIZER = new MetadataSerializer<CacheableFooter>()
+    {
+        @Override
+        public Slice serialize(CacheableFooter value)
+        {
+            SliceOutput output = new DynamicSliceOutput(value.getFooterSlice().length() + Long.BYTES);
+            output.writeLong(value.getModificationTime());
+            output.writeBytes(value.getFooterSlice());
+            return output.slice();
+        }
+
+        @Override
+        public CacheableFooter deserialize(Slice serialized)
+        {
+            return new CacheableFooter(serialized.slice(Long.BYTES, serialized.length() - Long.BYTES), serialized.getLong(0));
+        }
+    };
+
+    private FileMetadataSerializers() {}
+
+    private static void writeSlice(SliceOutput output, Slice slice)
+    {
+        output.writeInt(slice.length());
+        output.writeBytes(slice);
+    }
+
+    private static Slice readSlice(BasicSliceInput input)
+    {
+        return input.readSlice(input.readInt());
+    }
+}
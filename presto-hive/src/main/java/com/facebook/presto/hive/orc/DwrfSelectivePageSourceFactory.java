@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.orc;
 
+import com.facebook.airlift.units.DataSize;
 import com.facebook.hive.orc.OrcSerde;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.predicate.TupleDomain;
@@ -20,6 +21,7 @@ import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcStripePrefetch;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -45,6 +47,8 @@ import org.joda.time.DateTimeZone;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveUtil.checkRowIDPartitionComponent;
@@ -65,6 +69,8 @@ public class DwrfSelectivePageSourceFactory
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Optional<Executor> stripePrefetchExecutor;
+    private final DataSize maxStripePrefetchSize;
 
     @Inject
     public DwrfSelectivePageSourceFactory(
@@ -77,7 +83,8 @@ public class DwrfSelectivePageSourceFactory
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             TupleDomainFilterCache tupleDomainFilterCache,
-            HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            @ForOrcStripePrefetch ExecutorService stripePrefetchExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -89,6 +96,9 @@ public class DwrfSelectivePageSourceFactory
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "dwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.stripePrefetchExecutor = config.getOrcStripePrefetchThreads() > 0 ? Optional.of(stripePrefetchExecutor) : Optional.empty();
+        this.maxStripePrefetchSize = config.getOrcMaxStripePrefetchSize();
     }
 
     @Override
@@ -147,6 +157,8 @@ public class DwrfSelectivePageSourceFactory
                 tupleDomainFilterCache,
                 encryptionInformation,
                 dwrfEncryptionProvider,
+                stripePrefetchExecutor,
+                maxStripePrefetchSize,
                 appendRowNumberEnabled,
                 rowIDPartitionComponent));
     }
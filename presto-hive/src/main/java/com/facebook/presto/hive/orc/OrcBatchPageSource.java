@@ -19,6 +19,7 @@ import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.LazyBlockLoader;
 import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.PositionsAwareLazyBlockLoader;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
@@ -76,6 +77,8 @@ public class OrcBatchPageSource
 
     private final RowIDCoercer coercer;
 
+    private final boolean selectiveLoadingEnabled;
+
     /**
      * @param columns an ordered list of the fields to read
      * @param rowNumberColumnIndex specifies the index of the row number column. Its value should
@@ -97,6 +100,26 @@ public class OrcBatchPageSource
             OptionalInt rowNumberColumnIndex,
             byte[] rowIDPartitionComponent,
             String rowGroupId)
+    {
+        this(recordReader, orcDataSource, columns, typeManager, systemMemoryContext, stats, runtimeStats, rowNumberColumnIndex, rowIDPartitionComponent, rowGroupId, false);
+    }
+
+    /**
+     * @param selectiveLoadingEnabled whether lazily loaded columns may decode only the
+     *      positions that survive the filter, instead of the whole batch
+     */
+    public OrcBatchPageSource(
+            OrcBatchRecordReader recordReader,
+            OrcDataSource orcDataSource,
+            List<HiveColumnHandle> columns,
+            TypeManager typeManager,
+            OrcAggregatedMemoryContext systemMemoryContext,
+            FileFormatDataSourceStats stats,
+            RuntimeStats runtimeStats,
+            OptionalInt rowNumberColumnIndex,
+            byte[] rowIDPartitionComponent,
+            String rowGroupId,
+            boolean selectiveLoadingEnabled)
     {
         this.recordReader = requireNonNull(recordReader, "recordReader is null");
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
@@ -109,6 +132,7 @@ public class OrcBatchPageSource
                         (rowNumberColumnIndex.getAsInt() >= 0 && rowNumberColumnIndex.getAsInt() < numColumns), "row number column index is incorrect");
         this.rowNumberColumnIndex = rowNumberColumnIndex;
         this.coercer = new RowIDCoercer(rowIDPartitionComponent, rowGroupId);
+        this.selectiveLoadingEnabled = selectiveLoadingEnabled;
 
         this.constantBlocks = new Block[numColumns];
         this.hiveColumnIndexes = new int[numColumns];
@@ -196,7 +220,8 @@ public class OrcBatchPageSource
                     blocks[fieldId] = constantBlocks[fieldId].getRegion(0, batchSize);
                 }
                 else {
-                    blocks[fieldId] = new LazyBlock(batchSize, new OrcBlockLoader(hiveColumnIndexes[fieldId]));
+                    OrcBlockLoader loader = selectiveLoadingEnabled ? new OrcPositionsAwareBlockLoader(hiveColumnIndexes[fieldId]) : new OrcBlockLoader(hiveColumnIndexes[fieldId]);
+                    blocks[fieldId] = new LazyBlock(batchSize, loader);
                 }
             }
             return new Page(batchSize, blocks);
@@ -282,12 +307,12 @@ public class OrcBatchPageSource
         return new LongArrayBlock(size, Optional.empty(), rowPositions);
     }
 
-    private final class OrcBlockLoader
+    private class OrcBlockLoader
             implements LazyBlockLoader<LazyBlock>
     {
-        private final int expectedBatchId = batchId;
-        private final int columnIndex;
-        private boolean loaded;
+        protected final int expectedBatchId = batchId;
+        protected final int columnIndex;
+        protected boolean loaded;
 
         public OrcBlockLoader(int columnIndex)
         {
@@ -317,4 +342,33 @@ public class OrcBatchPageSource
             loaded = true;
         }
     }
+
+    private final class OrcPositionsAwareBlockLoader
+            extends OrcBlockLoader
+            implements PositionsAwareLazyBlockLoader
+    {
+        public OrcPositionsAwareBlockLoader(int columnIndex)
+        {
+            super(columnIndex);
+        }
+
+        @Override
+        public Block loadPositions(int[] positions, int offset, int length)
+        {
+            // the column streams are consumed by a partial read, so the block cannot be loaded again
+            checkState(!loaded, "block has already been loaded");
+            checkState(batchId == expectedBatchId);
+            loaded = true;
+
+            try {
+                return recordReader.readBlock(columnIndex, positions, offset, length);
+            }
+            catch (OrcCorruptionException e) {
+                throw new PrestoException(HIVE_BAD_DATA, e);
+            }
+            catch (IOException | RuntimeException e) {
+                throw new PrestoException(HIVE_CURSOR_ERROR, format("Failed to read ORC file: %s", orcDataSource.getId()), e);
+            }
+        }
+    }
 }
@@ -64,6 +64,7 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStr
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseOrcColumnNames;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcBatchSelectiveLoadingEnabled;
 import static com.facebook.presto.hive.HiveUtil.checkRowIDPartitionComponent;
 import static com.facebook.presto.hive.HiveUtil.getPhysicalHiveColumnHandles;
 import static com.facebook.presto.hive.orc.OrcPageSourceFactoryUtils.getOrcDataSource;
@@ -251,7 +252,8 @@ public class OrcBatchPageSourceFactory
                     hiveFileContext.getStats(),
                     OptionalInt.empty(),
                     partitionID,
-                    rowGroupID);
+                    rowGroupID,
+                    isOrcBatchSelectiveLoadingEnabled(session));
         }
         catch (Exception e) {
             try {
@@ -25,11 +25,14 @@ import com.facebook.presto.orc.OrcDataSource;
 import com.facebook.presto.orc.OrcSelectiveRecordReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.PrestoException;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
 
+import static com.facebook.airlift.concurrent.MoreFutures.toCompletableFuture;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
@@ -98,7 +101,17 @@ public class OrcSelectivePageSource
     @Override
     public long getReadTimeNanos()
     {
-        return orcDataSource.getReadTimeNanos();
+        return recordReader.getReadTimeNanos();
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        ListenableFuture<?> blocked = recordReader.isBlocked();
+        if (blocked.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return toCompletableFuture(blocked);
     }
 
     @Override
@@ -28,6 +28,7 @@ import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcStripePrefetch;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -87,6 +88,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.IntStream;
@@ -139,6 +142,8 @@ public class OrcSelectivePageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
+    private final Optional<Executor> stripePrefetchExecutor;
+    private final DataSize maxStripePrefetchSize;
 
     @Inject
     public OrcSelectivePageSourceFactory(
@@ -150,7 +155,8 @@ public class OrcSelectivePageSourceFactory
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            @ForOrcStripePrefetch ExecutorService stripePrefetchExecutor)
     {
         this(
                 typeManager,
@@ -161,7 +167,9 @@ public class OrcSelectivePageSourceFactory
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
-                tupleDomainFilterCache);
+                tupleDomainFilterCache,
+                config.getOrcStripePrefetchThreads() > 0 ? Optional.of(stripePrefetchExecutor) : Optional.empty(),
+                config.getOrcMaxStripePrefetchSize());
     }
 
     public OrcSelectivePageSourceFactory(
@@ -173,7 +181,9 @@ public class OrcSelectivePageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -184,6 +194,8 @@ public class OrcSelectivePageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     @Override
@@ -241,6 +253,8 @@ public class OrcSelectivePageSourceFactory
                 tupleDomainFilterCache,
                 encryptionInformation,
                 NO_ENCRYPTION,
+                stripePrefetchExecutor,
+                maxStripePrefetchSize,
                 appendRowNumberEnabled,
                 rowIDPartitionComponent));
     }
@@ -272,6 +286,8 @@ public class OrcSelectivePageSourceFactory
             TupleDomainFilterCache tupleDomainFilterCache,
             Optional<EncryptionInformation> encryptionInformation,
             DwrfEncryptionProvider dwrfEncryptionProvider,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize,
             boolean appendRowNumberEnabled,
             Optional<byte[]> rowIDPartitionComponent)
     {
@@ -294,6 +310,8 @@ public class OrcSelectivePageSourceFactory
                 .withMaxBlockSize(maxReadBlockSize)
                 .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
                 .withAppendRowNumber(appendRowNumberEnabled || supplyRowIDs)
+                .withStripePrefetchExecutor(stripePrefetchExecutor)
+                .withMaxStripePrefetchSize(maxStripePrefetchSize)
                 .build();
         OrcAggregatedMemoryContext systemMemoryUsage = new HiveOrcAggregatedMemoryContext();
         try {
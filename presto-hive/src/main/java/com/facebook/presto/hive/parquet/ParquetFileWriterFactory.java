@@ -13,14 +13,17 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.airlift.concurrent.BoundedExecutor;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
+import com.facebook.presto.hive.ForColumnWriters;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveFileWriter;
 import com.facebook.presto.hive.HiveFileWriterFactory;
 import com.facebook.presto.hive.NodeVersion;
+import com.facebook.presto.hive.ParquetFileWriterConfig;
 import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.parquet.writer.ParquetSchemaConverter;
 import com.facebook.presto.parquet.writer.ParquetWriterOptions;
@@ -41,6 +44,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
 import static com.facebook.presto.hive.HiveSessionProperties.getParquetWriterBlockSize;
@@ -58,19 +63,27 @@ public class ParquetFileWriterFactory
 {
     private final HdfsEnvironment hdfsEnvironment;
     private final TypeManager typeManager;
+    private final Optional<Executor> columnWriterExecutor;
+    private final int columnWriterThreads;
 
     @Inject
     public ParquetFileWriterFactory(
             HdfsEnvironment hdfsEnvironment,
             TypeManager typeManager,
             NodeVersion nodeVersion,
-            HiveClientConfig hiveConfig)
+            HiveClientConfig hiveConfig,
+            ParquetFileWriterConfig parquetFileWriterConfig,
+            @ForColumnWriters ExecutorService columnWriterExecutor)
     {
         this(
                 hdfsEnvironment,
                 typeManager,
                 nodeVersion,
-                requireNonNull(hiveConfig, "hiveConfig is null").getDateTimeZone());
+                requireNonNull(hiveConfig, "hiveConfig is null").getDateTimeZone(),
+                requireNonNull(parquetFileWriterConfig, "parquetFileWriterConfig is null").getColumnWriterThreads() > 0
+                        ? Optional.of(columnWriterExecutor)
+                        : Optional.empty(),
+                parquetFileWriterConfig.getColumnWriterThreads());
     }
 
     public ParquetFileWriterFactory(
@@ -78,9 +91,22 @@ public class ParquetFileWriterFactory
             TypeManager typeManager,
             NodeVersion nodeVersion,
             DateTimeZone hiveStorageTimeZone)
+    {
+        this(hdfsEnvironment, typeManager, nodeVersion, hiveStorageTimeZone, Optional.empty(), 0);
+    }
+
+    public ParquetFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            TypeManager typeManager,
+            NodeVersion nodeVersion,
+            DateTimeZone hiveStorageTimeZone,
+            Optional<Executor> columnWriterExecutor,
+            int columnWriterThreads)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.columnWriterExecutor = requireNonNull(columnWriterExecutor, "columnWriterExecutor is null");
+        this.columnWriterThreads = columnWriterThreads;
     }
 
     @Override
@@ -105,6 +131,8 @@ public class ParquetFileWriterFactory
                 .setMaxPageSize(getParquetWriterPageSize(session))
                 .setMaxBlockSize(getParquetWriterBlockSize(session))
                 .setWriterVersion(getParquetWriterVersion(session))
+                // each writer gets its own share of the pool, so concurrent writers do not queue behind each other
+                .setColumnWriterExecutor(columnWriterExecutor.map(executor -> new BoundedExecutor(executor, columnWriterThreads)))
                 .build();
 
         CompressionCodecName compressionCodecName = getCompression(conf);
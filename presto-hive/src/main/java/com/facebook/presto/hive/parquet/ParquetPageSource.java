@@ -20,6 +20,7 @@ import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.LazyBlockLoader;
 import com.facebook.presto.common.block.LongArrayBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.ParquetCorruptionException;
@@ -31,9 +32,20 @@ import com.google.common.collect.Streams;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.Varchars.isVarcharType;
+import static com.facebook.presto.hive.FilteringPageSource.testNonNullPosition;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -56,6 +68,13 @@ public class ParquetPageSource
      */
     private final List<Boolean> rowIndexLocations;
 
+    /**
+     * Filters evaluated while reading, column by column. Columns after the first
+     * filtered column are decoded only for the positions that passed the previous filters.
+     */
+    private final List<Optional<TupleDomainFilter>> filters;
+    private final boolean hasFilters;
+
     private int batchId;
     private long completedPositions;
     private boolean closed;
@@ -79,17 +98,35 @@ public class ParquetPageSource
             List<Boolean> rowIndexLocations,
             List<String> columnNames,
             RuntimeStats runtimeStats)
+    {
+        this(parquetReader, types, fields, rowIndexLocations, nCopies(types.size(), Optional.empty()), columnNames, runtimeStats);
+    }
+
+    public ParquetPageSource(
+            ParquetReader parquetReader,
+            List<Type> types,
+            List<Optional<Field>> fields,
+            List<Boolean> rowIndexLocations,
+            List<Optional<TupleDomainFilter>> filters,
+            List<String> columnNames,
+            RuntimeStats runtimeStats)
     {
         this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.fields = ImmutableList.copyOf(requireNonNull(fields, "fields is null"));
         this.rowIndexLocations = requireNonNull(rowIndexLocations, "rowIndexLocations is null");
+        this.filters = ImmutableList.copyOf(requireNonNull(filters, "filters is null"));
+        this.hasFilters = filters.stream().anyMatch(Optional::isPresent);
         this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
         this.runtimeStats = requireNonNull(runtimeStats, "runtimeStats is null");
 
         checkArgument(
                 types.size() == rowIndexLocations.size() && types.size() == fields.size(),
                 "types, rowIndexLocations, and fields must correspond one-to-one-to-one");
+        checkArgument(filters.size() == types.size(), "types and filters must correspond one-to-one");
+        for (int i = 0; i < filters.size(); i++) {
+            checkArgument(!filters.get(i).isPresent() || (fields.get(i).isPresent() && isFilterSupported(types.get(i))), "filter is not supported for column %s", columnNames.get(i));
+        }
         Streams.forEachPair(
                 rowIndexLocations.stream(),
                 fields.stream(),
@@ -148,6 +185,10 @@ public class ParquetPageSource
 
             completedPositions += batchSize;
 
+            if (hasFilters) {
+                return getFilteredPage(batchSize);
+            }
+
             Block[] blocks = new Block[fields.size()];
             for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
                 if (isIndexColumn(fieldId)) {
@@ -169,12 +210,103 @@ public class ParquetPageSource
             closeWithSuppression(e);
             throw e;
         }
-        catch (RuntimeException e) {
+        catch (ParquetCorruptionException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException | RuntimeException e) {
             closeWithSuppression(e);
             throw new PrestoException(HIVE_CURSOR_ERROR, e);
         }
     }
 
+    private Page getFilteredPage(int batchSize)
+            throws IOException
+    {
+        int[] positions = new int[batchSize];
+        for (int position = 0; position < batchSize; position++) {
+            positions[position] = position;
+        }
+        int positionCount = batchSize;
+
+        // filtered columns are read eagerly; remember the positions each was read at
+        Block[] filteredBlocks = new Block[fields.size()];
+        int[][] filteredBlockPositions = new int[fields.size()][];
+        for (int fieldId = 0; fieldId < fields.size() && positionCount > 0; fieldId++) {
+            if (!filters.get(fieldId).isPresent()) {
+                continue;
+            }
+            Block block = parquetReader.readBlock(fields.get(fieldId).get(), positions, positionCount);
+            filteredBlocks[fieldId] = block;
+            filteredBlockPositions[fieldId] = Arrays.copyOf(positions, positionCount);
+            positionCount = filterBlock(block, types.get(fieldId), filters.get(fieldId).get(), positions, positionCount);
+        }
+
+        if (positionCount == 0) {
+            return new Page(0);
+        }
+
+        int[] selectedPositions = positionCount == batchSize ? positions : Arrays.copyOf(positions, positionCount);
+        Block[] blocks = new Block[fields.size()];
+        for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+            if (isIndexColumn(fieldId)) {
+                blocks[fieldId] = getRowIndexColumn(parquetReader.lastBatchStartRow(), selectedPositions, positionCount);
+            }
+            else if (filteredBlocks[fieldId] != null) {
+                blocks[fieldId] = selectPositions(filteredBlocks[fieldId], filteredBlockPositions[fieldId], selectedPositions);
+            }
+            else if (fields.get(fieldId).isPresent()) {
+                blocks[fieldId] = new LazyBlock(positionCount, new ParquetBlockLoader(fields.get(fieldId).get(), selectedPositions));
+            }
+            else {
+                blocks[fieldId] = RunLengthEncodedBlock.create(types.get(fieldId), null, positionCount);
+            }
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    /**
+     * Returns the values of {@code block}, which was read at {@code readPositions}, for the subset {@code selectedPositions}.
+     */
+    private static Block selectPositions(Block block, int[] readPositions, int[] selectedPositions)
+    {
+        if (readPositions.length == selectedPositions.length) {
+            return block;
+        }
+        int[] indexes = new int[selectedPositions.length];
+        int readIndex = 0;
+        for (int i = 0; i < selectedPositions.length; i++) {
+            while (readPositions[readIndex] != selectedPositions[i]) {
+                readIndex++;
+            }
+            indexes[i] = readIndex;
+        }
+        return block.getPositions(indexes, 0, indexes.length);
+    }
+
+    /**
+     * Evaluates the filter on a block that holds the values of {@code positions}, in order,
+     * and compacts {@code positions} to the ones that pass. Returns the number of passing positions.
+     */
+    private static int filterBlock(Block block, Type type, TupleDomainFilter filter, int[] positions, int positionCount)
+    {
+        int outputPositionCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            boolean passed = block.isNull(i) ? filter.testNull() : testNonNullPosition(block, i, type, filter);
+            if (passed) {
+                positions[outputPositionCount] = positions[i];
+                outputPositionCount++;
+            }
+        }
+        return outputPositionCount;
+    }
+
+    public static boolean isFilterSupported(Type type)
+    {
+        return type == BIGINT || type == INTEGER || type == SMALLINT || type == TINYINT || type == DATE ||
+                type == BOOLEAN || type == DOUBLE || type == REAL || isVarcharType(type);
+    }
+
     private void closeWithSuppression(Throwable throwable)
     {
         requireNonNull(throwable, "throwable is null");
@@ -210,11 +342,19 @@ public class ParquetPageSource
     {
         private final int expectedBatchId = batchId;
         private final Field field;
+        private final Optional<int[]> positions;
         private boolean loaded;
 
         public ParquetBlockLoader(Field field)
         {
             this.field = requireNonNull(field, "field is null");
+            this.positions = Optional.empty();
+        }
+
+        public ParquetBlockLoader(Field field, int[] positions)
+        {
+            this.field = requireNonNull(field, "field is null");
+            this.positions = Optional.of(requireNonNull(positions, "positions is null"));
         }
 
         @Override
@@ -227,7 +367,13 @@ public class ParquetPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = parquetReader.readBlock(field);
+                Block block;
+                if (positions.isPresent()) {
+                    block = parquetReader.readBlock(field, positions.get(), positions.get().length);
+                }
+                else {
+                    block = parquetReader.readBlock(field);
+                }
                 lazyBlock.setBlock(block);
             }
             catch (ParquetCorruptionException e) {
@@ -253,4 +399,13 @@ public class ParquetPageSource
         }
         return new LongArrayBlock(size, Optional.empty(), rowIndices);
     }
+
+    private static Block getRowIndexColumn(long baseIndex, int[] positions, int positionCount)
+    {
+        long[] rowIndices = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            rowIndices[i] = baseIndex + positions[i];
+        }
+        return new LongArrayBlock(positionCount, Optional.empty(), rowIndices);
+    }
 }
@@ -16,14 +16,17 @@ package com.facebook.presto.hive.parquet;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.common.type.RowType;
 import com.facebook.presto.common.type.StandardTypes;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForParquetCoalescedReads;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveBatchPageSourceFactory;
+import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
@@ -33,6 +36,7 @@ import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.ParquetDataSource;
 import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.cache.DecompressedPageCache;
 import com.facebook.presto.parquet.cache.ParquetMetadataSource;
 import com.facebook.presto.parquet.predicate.Predicate;
 import com.facebook.presto.parquet.reader.ColumnIndexFilterUtils;
@@ -73,10 +77,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.common.RuntimeUnit.BYTE;
 import static com.facebook.presto.common.RuntimeUnit.NONE;
+import static com.facebook.presto.common.predicate.TupleDomainFilterUtils.toFilter;
 import static com.facebook.presto.common.type.StandardTypes.ARRAY;
 import static com.facebook.presto.common.type.StandardTypes.BIGINT;
 import static com.facebook.presto.common.type.StandardTypes.CHAR;
@@ -96,13 +103,17 @@ import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.SYNTHESIZED;
 import static com.facebook.presto.hive.HiveColumnHandle.getPushedDownSubfield;
 import static com.facebook.presto.hive.HiveColumnHandle.isPushedDownSubfield;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getParquetMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getParquetMaxReadBlockSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getReadNullMaskedParquetEncryptedValue;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReaderVerificationEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReadsEnabled;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetCoalescedReadsEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseParquetColumnNames;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
 import static com.facebook.presto.hive.HiveSessionProperties.columnIndexFilterEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetBloomFilterEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetFilterDuringDecodeEnabled;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactoryUtils.mapToPrestoException;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -151,19 +162,53 @@ public class ParquetPageSourceFactory
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final ParquetMetadataSource parquetMetadataSource;
+    private final Optional<DecompressedPageCache> decompressedPageCache;
+    private final Optional<Executor> coalescedReadExecutor;
 
-    @Inject
     public ParquetPageSourceFactory(TypeManager typeManager,
             StandardFunctionResolution functionResolution,
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             ParquetMetadataSource parquetMetadataSource)
+    {
+        this(typeManager, functionResolution, hdfsEnvironment, stats, parquetMetadataSource, Optional.empty(), Optional.empty());
+    }
+
+    @Inject
+    public ParquetPageSourceFactory(TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            ParquetMetadataSource parquetMetadataSource,
+            Optional<DecompressedPageCache> decompressedPageCache,
+            HiveClientConfig config,
+            @ForParquetCoalescedReads ExecutorService coalescedReadExecutor)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                hdfsEnvironment,
+                stats,
+                parquetMetadataSource,
+                decompressedPageCache,
+                config.getParquetCoalescedReadThreads() > 0 ? Optional.of(coalescedReadExecutor) : Optional.empty());
+    }
+
+    public ParquetPageSourceFactory(TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            ParquetMetadataSource parquetMetadataSource,
+            Optional<DecompressedPageCache> decompressedPageCache,
+            Optional<Executor> coalescedReadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
         this.parquetMetadataSource = requireNonNull(parquetMetadataSource, "parquetMetadataSource is null");
+        this.decompressedPageCache = requireNonNull(decompressedPageCache, "decompressedPageCache is null");
+        this.coalescedReadExecutor = requireNonNull(coalescedReadExecutor, "coalescedReadExecutor is null");
     }
 
     public static ConnectorPageSource createParquetPageSource(
@@ -179,12 +224,46 @@ public class ParquetPageSourceFactory
             FileFormatDataSourceStats stats,
             HiveFileContext hiveFileContext,
             ParquetMetadataSource parquetMetadataSource)
+    {
+        return createParquetPageSource(
+                hdfsEnvironment,
+                session,
+                configuration,
+                fileSplit,
+                columns,
+                tableName,
+                typeManager,
+                functionResolution,
+                effectivePredicate,
+                stats,
+                hiveFileContext,
+                parquetMetadataSource,
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    public static ConnectorPageSource createParquetPageSource(
+            HdfsEnvironment hdfsEnvironment,
+            ConnectorSession session,
+            Configuration configuration,
+            HiveFileSplit fileSplit,
+            List<HiveColumnHandle> columns,
+            SchemaTableName tableName,
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            FileFormatDataSourceStats stats,
+            HiveFileContext hiveFileContext,
+            ParquetMetadataSource parquetMetadataSource,
+            Optional<DecompressedPageCache> decompressedPageCache,
+            Optional<Executor> coalescedReadExecutor)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
 
         String user = session.getUser();
         boolean useParquetColumnNames = isUseParquetColumnNames(session);
         boolean columnIndexFilterEnabled = columnIndexFilterEnabled(session);
+        boolean bloomFilterEnabled = isParquetBloomFilterEnabled(session);
         boolean readMaskedValue = getReadNullMaskedParquetEncryptedValue(session);
 
         ParquetDataSource dataSource = null;
@@ -238,7 +317,7 @@ public class ParquetPageSourceFactory
             ImmutableList.Builder<Long> blockStarts = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
                 Optional<ColumnIndexStore> columnIndexStore = ColumnIndexFilterUtils.getColumnIndexStore(parquetPredicate, finalDataSource, block, descriptorsByPath, columnIndexFilterEnabled);
-                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, columnIndexFilterEnabled, Optional.of(session.getWarningCollector()))) {
+                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, columnIndexFilterEnabled, bloomFilterEnabled, Optional.of(session.getWarningCollector()))) {
                     blocks.add(block);
                     blockStarts.add(nextStart);
                     blockIndexStores.add(columnIndexStore.orElse(null));
@@ -266,12 +345,18 @@ public class ParquetPageSourceFactory
                     parquetPredicate,
                     blockIndexStores,
                     columnIndexFilterEnabled,
-                    fileDecryptor);
+                    fileDecryptor,
+                    isParquetCoalescedReadsEnabled(session) ? Optional.of(getParquetMaxMergeDistance(session)) : Optional.empty(),
+                    coalescedReadExecutor,
+                    hiveFileContext.isCacheable() ? decompressedPageCache : Optional.empty(),
+                    hiveFileContext.getModificationTime());
 
             ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Optional<Field>> fieldsBuilder = ImmutableList.builder();
             ImmutableList.Builder<Boolean> rowIndexColumns = ImmutableList.builder();
+            ImmutableList.Builder<Optional<TupleDomainFilter>> filtersBuilder = ImmutableList.builder();
+            Map<String, Domain> filterDomains = getFilterDomains(session, effectivePredicate);
             for (HiveColumnHandle column : columns) {
                 checkArgument(column == PARQUET_ROW_INDEX_COLUMN || column.getColumnType() == REGULAR || column.getColumnType() == SYNTHESIZED, "column type must be REGULAR: %s", column);
 
@@ -301,13 +386,20 @@ public class ParquetPageSourceFactory
                 }
                 else if (getParquetType(type, fileSchema, useParquetColumnNames, column, tableName, path).isPresent()) {
                     String columnName = useParquetColumnNames ? name : fileSchema.getFields().get(column.getHiveColumnIndex()).getName();
-                    fieldsBuilder.add(constructField(type, lookupColumnByName(messageColumnIO, columnName)));
+                    Optional<Field> field = constructField(type, lookupColumnByName(messageColumnIO, columnName));
+                    fieldsBuilder.add(field);
+                    Domain domain = filterDomains.get(name);
+                    if (field.isPresent() && domain != null && domain.getType().equals(type) && ParquetPageSource.isFilterSupported(type)) {
+                        filtersBuilder.add(Optional.of(toFilter(domain)));
+                        continue;
+                    }
                 }
                 else {
                     fieldsBuilder.add(Optional.empty());
                 }
+                filtersBuilder.add(Optional.empty());
             }
-            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowIndexColumns.build(), namesBuilder.build(), hiveFileContext.getStats());
+            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowIndexColumns.build(), filtersBuilder.build(), namesBuilder.build(), hiveFileContext.getStats());
         }
         catch (Exception e) {
             try {
@@ -321,6 +413,25 @@ public class ParquetPageSourceFactory
         }
     }
 
+    /**
+     * Domains of regular columns that may be evaluated while reading. Rows outside these domains
+     * are removed by the query predicate anyway, so the reader may drop them early.
+     */
+    private static Map<String, Domain> getFilterDomains(ConnectorSession session, TupleDomain<HiveColumnHandle> effectivePredicate)
+    {
+        if (!isParquetFilterDuringDecodeEnabled(session) || !effectivePredicate.getDomains().isPresent()) {
+            return ImmutableMap.of();
+        }
+
+        ImmutableMap.Builder<String, Domain> filterDomains = ImmutableMap.builder();
+        effectivePredicate.getDomains().get().forEach((column, domain) -> {
+            if (column.getColumnType() == REGULAR && !domain.isAll()) {
+                filterDomains.put(column.getName(), domain);
+            }
+        });
+        return filterDomains.build();
+    }
+
     public static TupleDomain<ColumnDescriptor> getParquetTupleDomain(Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<HiveColumnHandle> effectivePredicate)
     {
         if (effectivePredicate.isNone()) {
@@ -532,6 +643,8 @@ public class ParquetPageSourceFactory
                 effectivePredicate,
                 stats,
                 hiveFileContext,
-                parquetMetadataSource));
+                parquetMetadataSource,
+                decompressedPageCache,
+                coalescedReadExecutor));
     }
 }
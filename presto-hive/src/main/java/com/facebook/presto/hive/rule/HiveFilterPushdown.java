@@ -195,7 +195,7 @@ public class HiveFilterPushdown
                                     .setRemainingPredicate(remainingExpressions.getRemainingExpression())
                                     .setPredicateColumns(predicateColumns)
                                     .setPartitionColumnPredicate(hivePartitionResult.getEnforcedConstraint())
-                                    .setPartitions(hivePartitionResult.getPartitions())
+                                    .setPartitionSet(Optional.of(hivePartitionResult.getPartitionSet()))
                                     .setBucketHandle(hivePartitionResult.getBucketHandle())
                                     .setBucketFilter(hivePartitionResult.getBucketFilter())
                                     .setPushdownFilterEnabled(true)
@@ -139,6 +139,7 @@ public class TestDynamicPruning
 
         HiveSplit split = new HiveSplit(
                 fileSplit,
+                ImmutableList.of(),
                 SCHEMA_NAME,
                 TABLE_NAME,
                 "",
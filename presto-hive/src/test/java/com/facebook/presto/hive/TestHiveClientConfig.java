@@ -30,6 +30,7 @@ import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.hive.BucketFunctionType.HIVE_COMPATIBLE;
@@ -81,10 +82,15 @@ public class TestHiveClientConfig
                 .setFailFastOnInsertIntoImmutablePartitionsEnabled(true)
                 .setSortedWritingEnabled(true)
                 .setMaxPartitionsPerWriter(100)
+                .setTargetMaxFileSize(new DataSize(0, Unit.BYTE))
+                .setMaxOpenWritersMemory(new DataSize(0, Unit.BYTE))
                 .setWriteValidationThreads(16)
                 .setTextMaxLineLength(new DataSize(100, Unit.MEGABYTE))
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcDefaultBloomFilterFpp(0.05)
+                .setOrcStripePrefetchThreads(0)
+                .setOrcMaxStripePrefetchSize(new DataSize(128, Unit.MEGABYTE))
+                .setParquetCoalescedReadThreads(0)
                 .setRcfileOptimizedWriterEnabled(true)
                 .setRcfileWriterValidate(false)
                 .setHdfsAuthenticationType(HdfsAuthenticationType.NONE)
@@ -123,6 +129,8 @@ public class TestHiveClientConfig
                 .setFileStatusCacheExpireAfterWrite(new Duration(0, TimeUnit.SECONDS))
                 .setFileStatusCacheMaxRetainedSize(new DataSize(0, KILOBYTE))
                 .setFileStatusCacheTables("")
+                .setFileStatusCachePersistentDirectory(null)
+                .setFileStatusCachePersistentMaxSize(new DataSize(1, GIGABYTE))
                 .setPageFileStripeMaxSize(new DataSize(24, Unit.MEGABYTE))
                 .setBucketFunctionTypeForExchange(HIVE_COMPATIBLE)
                 .setBucketFunctionTypeForCteMaterialization(PRESTO_NATIVE)
@@ -140,6 +148,9 @@ public class TestHiveClientConfig
                 .setMaterializedViewMissingPartitionsThreshold(100)
                 .setLooseMemoryAccountingEnabled(false)
                 .setReadColumnIndexFilter(false)
+                .setParquetFilterDuringDecodeEnabled(false)
+                .setParquetBloomFilterEnabled(false)
+                .setOrcBatchSelectiveLoadingEnabled(false)
                 .setSizeBasedSplitWeightsEnabled(true)
                 .setDynamicSplitSizesEnabled(false)
                 .setMinimumAssignedSplitWeight(0.05)
@@ -154,6 +165,9 @@ public class TestHiveClientConfig
                 .setPartitionFilteringFromMetastoreEnabled(true)
                 .setParallelParsingOfPartitionValuesEnabled(false)
                 .setMaxParallelParsingConcurrency(100)
+                .setStreamingPartitionLoadingEnabled(false)
+                .setSmallFileCoalescingEnabled(false)
+                .setMaxFilesPerCoalescedSplit(32)
                 .setQuickStatsEnabled(false)
                 .setQuickStatsInlineBuildTimeout(new Duration(60, TimeUnit.SECONDS))
                 .setQuickStatsBackgroundBuildTimeout(new Duration(0, TimeUnit.SECONDS))
@@ -205,12 +219,17 @@ public class TestHiveClientConfig
                 .put("hive.insert-overwrite-immutable-partitions-enabled", "true")
                 .put("hive.fail-fast-on-insert-into-immutable-partitions-enabled", "false")
                 .put("hive.max-partitions-per-writers", "222")
+                .put("hive.target-max-file-size", "256MB")
+                .put("hive.max-open-writers-memory", "1GB")
                 .put("hive.write-validation-threads", "11")
                 .put("hive.max-concurrent-file-renames", "100")
                 .put("hive.max-concurrent-zero-row-file-creations", "100")
                 .put("hive.assume-canonical-partition-keys", "true")
                 .put("hive.text.max-line-length", "13MB")
                 .put("hive.orc.default-bloom-filter-fpp", "0.96")
+                .put("hive.orc.stripe-prefetch-threads", "4")
+                .put("hive.orc.max-stripe-prefetch-size", "64MB")
+                .put("hive.parquet.coalesced-read-threads", "8")
                 .put("hive.rcfile-optimized-writer.enabled", "false")
                 .put("hive.rcfile.writer.validate", "true")
                 .put("hive.hdfs.authentication.type", "KERBEROS")
@@ -250,6 +269,8 @@ public class TestHiveClientConfig
                 .put("hive.file-status-cache-tables", "foo.bar1, foo.bar2")
                 .put("hive.file-status-cache.max-retained-size", "500MB")
                 .put("hive.file-status-cache-expire-time", "30m")
+                .put("hive.file-status-cache.persistent-directory", "/tmp/file-status-cache")
+                .put("hive.file-status-cache.persistent-max-size", "10GB")
                 .put("hive.pagefile.writer.stripe-max-size", "1kB")
                 .put("hive.bucket-function-type-for-exchange", "PRESTO_NATIVE")
                 .put("hive.bucket-function-type-for-cte-materialization", "HIVE_COMPATIBLE")
@@ -267,6 +288,9 @@ public class TestHiveClientConfig
                 .put("hive.verbose-runtime-stats-enabled", "true")
                 .put("hive.materialized-view-missing-partitions-threshold", "50")
                 .put("hive.parquet-column-index-filter-enabled", "true")
+                .put("hive.parquet-filter-during-decode-enabled", "true")
+                .put("hive.parquet-bloom-filter-enabled", "true")
+                .put("hive.orc-batch-selective-loading-enabled", "true")
                 .put("hive.size-based-split-weights-enabled", "false")
                 .put("hive.dynamic-split-sizes-enabled", "true")
                 .put("hive.user-defined-type-encoding-enabled", "true")
@@ -281,6 +305,9 @@ public class TestHiveClientConfig
                 .put("hive.partition-filtering-from-metastore-enabled", "false")
                 .put("hive.parallel-parsing-of-partition-values-enabled", "true")
                 .put("hive.max-parallel-parsing-concurrency", "200")
+                .put("hive.streaming-partition-loading-enabled", "true")
+                .put("hive.small-file-coalescing-enabled", "true")
+                .put("hive.max-files-per-coalesced-split", "64")
                 .put("hive.quick-stats.enabled", "true")
                 .put("hive.quick-stats.inline-build-timeout", "61s")
                 .put("hive.quick-stats.background-build-timeout", "1s")
@@ -328,12 +355,17 @@ public class TestHiveClientConfig
                 .setInsertOverwriteImmutablePartitionEnabled(true)
                 .setFailFastOnInsertIntoImmutablePartitionsEnabled(false)
                 .setMaxPartitionsPerWriter(222)
+                .setTargetMaxFileSize(new DataSize(256, Unit.MEGABYTE))
+                .setMaxOpenWritersMemory(new DataSize(1, Unit.GIGABYTE))
                 .setWriteValidationThreads(11)
                 .setDomainSocketPath("/foo")
                 .setS3FileSystemType(S3FileSystemType.EMRFS)
                 .setTextMaxLineLength(new DataSize(13, Unit.MEGABYTE))
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcDefaultBloomFilterFpp(0.96)
+                .setOrcStripePrefetchThreads(4)
+                .setOrcMaxStripePrefetchSize(new DataSize(64, Unit.MEGABYTE))
+                .setParquetCoalescedReadThreads(8)
                 .setRcfileOptimizedWriterEnabled(false)
                 .setRcfileWriterValidate(true)
                 .setHdfsAuthenticationType(HdfsAuthenticationType.KERBEROS)
@@ -373,6 +405,8 @@ public class TestHiveClientConfig
                 .setFileStatusCacheTables("foo.bar1,foo.bar2")
                 .setFileStatusCacheMaxRetainedSize((new DataSize(500, MEGABYTE)))
                 .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES))
+                .setFileStatusCachePersistentDirectory("/tmp/file-status-cache")
+                .setFileStatusCachePersistentMaxSize(new DataSize(10, GIGABYTE))
                 .setPageFileStripeMaxSize(new DataSize(1, Unit.KILOBYTE))
                 .setBucketFunctionTypeForExchange(PRESTO_NATIVE)
                 .setBucketFunctionTypeForCteMaterialization(HIVE_COMPATIBLE)
@@ -390,6 +424,9 @@ public class TestHiveClientConfig
                 .setMaterializedViewMissingPartitionsThreshold(50)
                 .setLooseMemoryAccountingEnabled(true)
                 .setReadColumnIndexFilter(true)
+                .setParquetFilterDuringDecodeEnabled(true)
+                .setParquetBloomFilterEnabled(true)
+                .setOrcBatchSelectiveLoadingEnabled(true)
                 .setSizeBasedSplitWeightsEnabled(false)
                 .setDynamicSplitSizesEnabled(true)
                 .setMinimumAssignedSplitWeight(1.0)
@@ -404,6 +441,9 @@ public class TestHiveClientConfig
                 .setPartitionFilteringFromMetastoreEnabled(false)
                 .setParallelParsingOfPartitionValuesEnabled(true)
                 .setMaxParallelParsingConcurrency(200)
+                .setStreamingPartitionLoadingEnabled(true)
+                .setSmallFileCoalescingEnabled(true)
+                .setMaxFilesPerCoalescedSplit(64)
                 .setQuickStatsEnabled(true)
                 .setQuickStatsInlineBuildTimeout(new Duration(61, TimeUnit.SECONDS))
                 .setQuickStatsBackgroundBuildTimeout(new Duration(1, TimeUnit.SECONDS))
@@ -0,0 +1,291 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.hive.metastore.Storage;
+import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.SplitWeight;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.hive.CacheQuotaRequirement.NO_CACHE_REQUIREMENT;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestHiveCoalescedPageSource
+{
+    @Test
+    public void testReadFilesInOrder()
+            throws IOException
+    {
+        Map<String, TestingPageSource> pageSources = ImmutableMap.of(
+                "/file-0", new TestingPageSource(2, 3, 100),
+                "/file-1", new TestingPageSource(0, 5, 200),
+                "/file-2", new TestingPageSource(1, 7, 300));
+        List<String> openedFiles = new ArrayList<>();
+        HiveCoalescedPageSource pageSource = new HiveCoalescedPageSource(
+                createSplits("/file-0", "/file-1", "/file-2"),
+                split -> {
+                    String path = split.getFileSplit().getPath();
+                    // each file is opened only after the previous one is closed
+                    openedFiles.forEach(openedPath -> assertTrue(pageSources.get(openedPath).isClosed()));
+                    openedFiles.add(path);
+                    return pageSources.get(path);
+                });
+
+        assertFalse(pageSource.isFinished());
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+
+        assertEquals(pageSource.getNextPage().getPositionCount(), 3);
+        assertEquals(openedFiles, ImmutableList.of("/file-0"));
+        assertEquals(pageSource.getSystemMemoryUsage(), 100);
+        assertEquals(pageSource.getNextPage().getPositionCount(), 3);
+        assertEquals(pageSource.getCompletedPositions(), 6);
+        assertEquals(pageSource.getCompletedBytes(), 6 * Long.BYTES);
+        assertEquals(pageSource.getReadTimeNanos(), 2);
+
+        // the empty second file is passed over
+        assertEquals(pageSource.getNextPage().getPositionCount(), 7);
+        assertEquals(openedFiles, ImmutableList.of("/file-0", "/file-1", "/file-2"));
+        assertTrue(pageSources.get("/file-0").isClosed());
+        assertTrue(pageSources.get("/file-1").isClosed());
+        assertFalse(pageSources.get("/file-2").isClosed());
+        assertEquals(pageSource.getSystemMemoryUsage(), 300);
+        assertFalse(pageSource.isFinished());
+
+        assertNull(pageSource.getNextPage());
+        assertTrue(pageSource.isFinished());
+        assertTrue(pageSources.get("/file-2").isClosed());
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+        assertEquals(pageSource.getCompletedPositions(), 13);
+        assertEquals(pageSource.getCompletedBytes(), 13 * Long.BYTES);
+        assertEquals(pageSource.getReadTimeNanos(), 3);
+
+        pageSource.close();
+        assertNull(pageSource.getNextPage());
+        assertEquals(pageSources.values().stream().mapToInt(TestingPageSource::getCloseCount).sum(), 3);
+    }
+
+    @Test
+    public void testCloseBeforeFinished()
+            throws IOException
+    {
+        TestingPageSource first = new TestingPageSource(2, 3, 100);
+        List<String> openedFiles = new ArrayList<>();
+        HiveCoalescedPageSource pageSource = new HiveCoalescedPageSource(
+                createSplits("/file-0", "/file-1"),
+                split -> {
+                    openedFiles.add(split.getFileSplit().getPath());
+                    return first;
+                });
+
+        assertNotNull(pageSource.getNextPage());
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+        assertEquals(first.getCloseCount(), 1);
+        assertEquals(pageSource.getCompletedPositions(), 3);
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+
+        // the remaining files are never opened
+        assertNull(pageSource.getNextPage());
+        pageSource.close();
+        assertEquals(openedFiles, ImmutableList.of("/file-0"));
+        assertEquals(first.getCloseCount(), 1);
+    }
+
+    @Test
+    public void testCloseFailureWhileReading()
+            throws IOException
+    {
+        TestingPageSource failing = new TestingPageSource(1, 3, 100).failOnClose();
+        TestingPageSource next = new TestingPageSource(1, 5, 200);
+        Iterator<TestingPageSource> pageSources = ImmutableList.of(failing, next).iterator();
+        HiveCoalescedPageSource pageSource = new HiveCoalescedPageSource(createSplits("/file-0", "/file-1"), split -> pageSources.next());
+
+        assertEquals(pageSource.getNextPage().getPositionCount(), 3);
+        assertThatThrownBy(pageSource::getNextPage)
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("close failed");
+        assertEquals(failing.getCloseCount(), 1);
+        assertEquals(pageSource.getCompletedPositions(), 3);
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+
+        // a failed close is not retried when the coalesced page source is closed
+        pageSource.close();
+        assertEquals(failing.getCloseCount(), 1);
+        assertTrue(pageSources.hasNext());
+        assertEquals(next.getCloseCount(), 0);
+    }
+
+    @Test
+    public void testCloseFailure()
+            throws IOException
+    {
+        TestingPageSource failing = new TestingPageSource(2, 3, 100).failOnClose();
+        HiveCoalescedPageSource pageSource = new HiveCoalescedPageSource(createSplits("/file-0", "/file-1"), split -> failing);
+
+        assertNotNull(pageSource.getNextPage());
+        assertThatThrownBy(pageSource::close)
+                .isInstanceOf(IOException.class)
+                .hasMessage("close failed");
+        assertEquals(failing.getCloseCount(), 1);
+        assertTrue(pageSource.isFinished());
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+
+        pageSource.close();
+        assertEquals(failing.getCloseCount(), 1);
+    }
+
+    private static List<HiveSplit> createSplits(String... paths)
+    {
+        List<HiveFileSplit> fileSplits = ImmutableList.copyOf(paths).stream()
+                .map(path -> new HiveFileSplit(path, 0, 10, 10, Instant.now().toEpochMilli(), Optional.empty(), ImmutableMap.of(), 0))
+                .collect(toImmutableList());
+        HiveSplit split = new HiveSplit(
+                fileSplits.get(0),
+                fileSplits.subList(1, fileSplits.size()),
+                "database",
+                "table",
+                "partition",
+                new Storage(
+                        StorageFormat.create("serde", "input", "output"),
+                        "location",
+                        Optional.empty(),
+                        false,
+                        ImmutableMap.of(),
+                        ImmutableMap.of()),
+                ImmutableList.of(),
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                OptionalInt.empty(),
+                NO_PREFERENCE,
+                1,
+                TableToPartitionMapping.empty(),
+                Optional.empty(),
+                false,
+                NO_CACHE_REQUIREMENT,
+                Optional.empty(),
+                ImmutableSet.of(),
+                SplitWeight.standard(),
+                Optional.empty());
+        return split.toSingleFileSplits();
+    }
+
+    private static class TestingPageSource
+            implements ConnectorPageSource
+    {
+        private final int pageCount;
+        private final int positionsPerPage;
+        private final long systemMemoryUsage;
+
+        private int pagesRead;
+        private long completedPositions;
+        private int closeCount;
+        private boolean failOnClose;
+
+        public TestingPageSource(int pageCount, int positionsPerPage, long systemMemoryUsage)
+        {
+            this.pageCount = pageCount;
+            this.positionsPerPage = positionsPerPage;
+            this.systemMemoryUsage = systemMemoryUsage;
+        }
+
+        public TestingPageSource failOnClose()
+        {
+            failOnClose = true;
+            return this;
+        }
+
+        public boolean isClosed()
+        {
+            return closeCount > 0;
+        }
+
+        public int getCloseCount()
+        {
+            return closeCount;
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return completedPositions * Long.BYTES;
+        }
+
+        @Override
+        public long getCompletedPositions()
+        {
+            return completedPositions;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return pagesRead;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return isClosed() || pagesRead == pageCount;
+        }
+
+        @Override
+        public Page getNextPage()
+        {
+            if (isFinished()) {
+                return null;
+            }
+            pagesRead++;
+            completedPositions += positionsPerPage;
+            return new Page(positionsPerPage);
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return isClosed() ? 0 : systemMemoryUsage;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            closeCount++;
+            if (failOnClose) {
+                throw new IOException("close failed");
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.GroupByHashPageIndexerFactory;
 import com.facebook.presto.cache.CacheConfig;
 import com.facebook.presto.common.Page;
@@ -41,6 +42,7 @@ import com.facebook.presto.testing.TestingNodeManager;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.io.Files;
 import io.airlift.slice.Slices;
 import io.airlift.tpch.LineItem;
@@ -55,11 +57,14 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.stream.Stream;
 
 import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DateType.DATE;
@@ -68,13 +73,17 @@ import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.createUnboundedVarcharType;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.hive.AbstractTestHiveClient.TEST_HIVE_PAGE_SINK_CONTEXT;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.PARTITION_KEY;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.CacheQuotaRequirement.NO_CACHE_REQUIREMENT;
+import static com.facebook.presto.hive.HiveColumnHandle.MAX_PARTITION_KEY_COLUMN_INDEX;
 import static com.facebook.presto.hive.HiveCompressionCodec.NONE;
 import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
 import static com.facebook.presto.hive.HiveQueryRunner.METASTORE_CONTEXT;
+import static com.facebook.presto.hive.HiveStorageFormat.PAGEFILE;
 import static com.facebook.presto.hive.HiveTestUtils.FUNCTION_AND_TYPE_MANAGER;
 import static com.facebook.presto.hive.HiveTestUtils.PAGE_SORTER;
+import static com.facebook.presto.hive.HiveTestUtils.PARTITION_UPDATE_SMILE_CODEC;
 import static com.facebook.presto.hive.HiveTestUtils.ROW_EXPRESSION_SERVICE;
 import static com.facebook.presto.hive.HiveTestUtils.createTestHdfsEnvironment;
 import static com.facebook.presto.hive.HiveTestUtils.getAllSessionProperties;
@@ -89,6 +98,7 @@ import static com.facebook.presto.hive.HiveType.HIVE_DOUBLE;
 import static com.facebook.presto.hive.HiveType.HIVE_INT;
 import static com.facebook.presto.hive.HiveType.HIVE_LONG;
 import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static com.facebook.presto.hive.HiveUtil.deserializeZstdCompressed;
 import static com.facebook.presto.hive.LocationHandle.TableType.NEW;
 import static com.facebook.presto.hive.LocationHandle.WriteMode.DIRECT_TO_TARGET_NEW_DIRECTORY;
 import static com.facebook.presto.hive.TestHiveUtil.createTestingFileHiveMetastore;
@@ -106,6 +116,7 @@ import static org.testng.Assert.assertTrue;
 public class TestHivePageSink
 {
     private static final int NUM_ROWS = 1000;
+    private static final int ROWS_PER_PARTITION = 100;
     private static final String SCHEMA_NAME = "test";
     private static final String TABLE_NAME = "test";
 
@@ -140,6 +151,133 @@ public class TestHivePageSink
         }
     }
 
+    @Test
+    public void testTargetMaxFileSize()
+            throws Exception
+    {
+        HiveClientConfig config = createPartitionedWriteConfig()
+                // each page flushes the pages buffered before it, so the written bytes grow as pages are appended
+                .setPageFileStripeMaxSize(new DataSize(1, BYTE))
+                .setTargetMaxFileSize(new DataSize(1, BYTE));
+        File tempDir = Files.createTempDir();
+        try {
+            ConnectorPageSink pageSink = createPartitionedPageSink(config, tempDir);
+            for (int i = 0; i < 10; i++) {
+                pageSink.appendPage(createPartitionedPage(1));
+            }
+            long writtenFilesCount = pageSink.getWrittenFilesCount();
+            assertGreaterThan(writtenFilesCount, 1L);
+
+            // the partition updates of the rolled files are merged into one
+            PartitionUpdate partitionUpdate = getOnlyElement(finish(pageSink));
+            assertEquals(partitionUpdate.getName(), "part=1");
+            assertEquals(partitionUpdate.getRowCount(), 10L * ROWS_PER_PARTITION);
+            assertEquals(partitionUpdate.getFileWriteInfos().size(), writtenFilesCount);
+            assertEquals(pageSink.getWrittenFilesCount(), writtenFilesCount);
+            assertEquals(listDataFiles(tempDir, "part=1").size(), writtenFilesCount);
+        }
+        finally {
+            deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testMaxOpenWritersMemory()
+            throws Exception
+    {
+        // every open writer uses more memory than the limit, so all writers are closed after each page
+        HiveClientConfig config = createPartitionedWriteConfig()
+                .setMaxOpenWritersMemory(new DataSize(1, BYTE));
+        File tempDir = Files.createTempDir();
+        try {
+            ConnectorPageSink pageSink = createPartitionedPageSink(config, tempDir);
+            pageSink.appendPage(createPartitionedPage(1, 2));
+            assertEquals(pageSink.getWrittenFilesCount(), 2);
+            pageSink.appendPage(createPartitionedPage(1, 2));
+            assertEquals(pageSink.getWrittenFilesCount(), 4);
+
+            Map<String, PartitionUpdate> partitionUpdates = Maps.uniqueIndex(finish(pageSink), PartitionUpdate::getName);
+            assertEquals(partitionUpdates.keySet(), ImmutableSet.of("part=1", "part=2"));
+            for (PartitionUpdate partitionUpdate : partitionUpdates.values()) {
+                assertEquals(partitionUpdate.getRowCount(), 2L * ROWS_PER_PARTITION);
+                assertEquals(partitionUpdate.getFileWriteInfos().size(), 2);
+                assertEquals(listDataFiles(tempDir, partitionUpdate.getName()).size(), 2);
+            }
+            assertEquals(pageSink.getWrittenFilesCount(), 4);
+        }
+        finally {
+            deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testMaxOpenWritersClosesLeastRecentlyUsed()
+            throws Exception
+    {
+        // the memory limit is never reached, so only the open writer count closes writers
+        HiveClientConfig config = createPartitionedWriteConfig()
+                .setMaxPartitionsPerWriter(2)
+                .setMaxOpenWritersMemory(new DataSize(1, GIGABYTE));
+        File tempDir = Files.createTempDir();
+        try {
+            ConnectorPageSink pageSink = createPartitionedPageSink(config, tempDir);
+            pageSink.appendPage(createPartitionedPage(1));
+            pageSink.appendPage(createPartitionedPage(2));
+            assertEquals(pageSink.getWrittenFilesCount(), 2);
+
+            // closes the writer of partition 1
+            pageSink.appendPage(createPartitionedPage(3));
+            assertEquals(pageSink.getWrittenFilesCount(), 3);
+
+            // partition 2 is used after partition 3, so reopening partition 1 closes the writer of partition 3
+            pageSink.appendPage(createPartitionedPage(2));
+            pageSink.appendPage(createPartitionedPage(1));
+            assertEquals(pageSink.getWrittenFilesCount(), 4);
+
+            // closes the writer of partition 2
+            pageSink.appendPage(createPartitionedPage(3));
+            assertEquals(pageSink.getWrittenFilesCount(), 5);
+
+            Map<String, PartitionUpdate> partitionUpdates = Maps.uniqueIndex(finish(pageSink), PartitionUpdate::getName);
+            assertEquals(partitionUpdates.get("part=1").getFileWriteInfos().size(), 2);
+            assertEquals(partitionUpdates.get("part=1").getRowCount(), 2L * ROWS_PER_PARTITION);
+            assertEquals(partitionUpdates.get("part=2").getFileWriteInfos().size(), 1);
+            assertEquals(partitionUpdates.get("part=2").getRowCount(), 2L * ROWS_PER_PARTITION);
+            assertEquals(partitionUpdates.get("part=3").getFileWriteInfos().size(), 2);
+            assertEquals(partitionUpdates.get("part=3").getRowCount(), 2L * ROWS_PER_PARTITION);
+            assertEquals(listDataFiles(tempDir, "part=1").size(), 2);
+            assertEquals(listDataFiles(tempDir, "part=2").size(), 1);
+            assertEquals(listDataFiles(tempDir, "part=3").size(), 2);
+        }
+        finally {
+            deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testAbortRollsBackClosedWriters()
+            throws Exception
+    {
+        HiveClientConfig config = createPartitionedWriteConfig()
+                .setMaxOpenWritersMemory(new DataSize(1, BYTE));
+        File tempDir = Files.createTempDir();
+        try {
+            ConnectorPageSink pageSink = createPartitionedPageSink(config, tempDir);
+            pageSink.appendPage(createPartitionedPage(1, 2));
+            pageSink.appendPage(createPartitionedPage(1));
+            assertEquals(pageSink.getWrittenFilesCount(), 3);
+            assertEquals(listDataFiles(tempDir, "part=1").size(), 2);
+            assertEquals(listDataFiles(tempDir, "part=2").size(), 1);
+
+            pageSink.abort();
+            assertEquals(listDataFiles(tempDir, "part=1").size(), 0);
+            assertEquals(listDataFiles(tempDir, "part=2").size(), 0);
+        }
+        finally {
+            deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+        }
+    }
+
     protected List<HiveStorageFormat> getSupportedHiveStorageFormats()
     {
         // CSV supports only unbounded VARCHAR type, and Alpha does not support DML yet
@@ -157,7 +295,7 @@ public class TestHivePageSink
     {
         HiveTransactionHandle transaction = new HiveTransactionHandle();
         HiveWriterStats stats = new HiveWriterStats();
-        ConnectorPageSink pageSink = createPageSink(transaction, config, metastoreClientConfig, metastore, new Path("file:///" + outputPath), stats, sortingFileWriterConfig);
+        ConnectorPageSink pageSink = createPageSink(transaction, config, metastoreClientConfig, metastore, new Path("file:///" + outputPath), stats, sortingFileWriterConfig, getColumnHandles(), ImmutableList.of());
         List<LineItemColumn> columns = getTestColumns();
         List<Type> columnTypes = columns.stream()
                 .map(LineItemColumn::getType)
@@ -246,6 +384,7 @@ public class TestHivePageSink
 
         HiveSplit split = new HiveSplit(
                 fileSplit,
+                ImmutableList.of(),
                 SCHEMA_NAME,
                 TABLE_NAME,
                 "",
@@ -309,20 +448,29 @@ public class TestHivePageSink
         return provider.createPageSource(transaction, getSession(config, new HiveCommonClientConfig()), split, tableHandle.getLayout().get(), ImmutableList.copyOf(getColumnHandles()), NON_CACHEABLE, new RuntimeStats());
     }
 
-    private static ConnectorPageSink createPageSink(HiveTransactionHandle transaction, HiveClientConfig config, MetastoreClientConfig metastoreClientConfig, ExtendedHiveMetastore metastore, Path outputPath, HiveWriterStats stats, SortingFileWriterConfig sortingFileWriterConfig)
+    private static ConnectorPageSink createPageSink(
+            HiveTransactionHandle transaction,
+            HiveClientConfig config,
+            MetastoreClientConfig metastoreClientConfig,
+            ExtendedHiveMetastore metastore,
+            Path outputPath,
+            HiveWriterStats stats,
+            SortingFileWriterConfig sortingFileWriterConfig,
+            List<HiveColumnHandle> columns,
+            List<String> partitionedBy)
     {
         LocationHandle locationHandle = new LocationHandle(outputPath, outputPath, Optional.empty(), NEW, DIRECT_TO_TARGET_NEW_DIRECTORY);
         HiveOutputTableHandle handle = new HiveOutputTableHandle(
                 SCHEMA_NAME,
                 TABLE_NAME,
-                getColumnHandles(),
+                columns,
                 new HivePageSinkMetadata(new SchemaTableName(SCHEMA_NAME, TABLE_NAME), metastore.getTable(METASTORE_CONTEXT, SCHEMA_NAME, TABLE_NAME), ImmutableMap.of()),
                 locationHandle,
                 config.getHiveStorageFormat(),
                 config.getHiveStorageFormat(),
                 config.getHiveStorageFormat(),
                 config.getCompressionCodec(),
-                ImmutableList.of(),
+                partitionedBy,
                 Optional.empty(),
                 ImmutableList.of(),
                 "test",
@@ -351,6 +499,63 @@ public class TestHivePageSink
         return provider.createPageSink(transaction, getSession(config, new HiveCommonClientConfig()), handle, TEST_HIVE_PAGE_SINK_CONTEXT);
     }
 
+    private static HiveClientConfig createPartitionedWriteConfig()
+    {
+        return new HiveClientConfig()
+                .setHiveStorageFormat(PAGEFILE)
+                .setCompressionCodec(NONE)
+                .setOptimizedPartitionUpdateSerializationEnabled(true);
+    }
+
+    private static ConnectorPageSink createPartitionedPageSink(HiveClientConfig config, File tempDir)
+    {
+        ExtendedHiveMetastore metastore = createTestingFileHiveMetastore(new File(tempDir, "metastore"));
+        Path outputPath = new Path("file:///" + new File(tempDir, "output").getAbsolutePath());
+        return createPageSink(
+                new HiveTransactionHandle(),
+                config,
+                new MetastoreClientConfig(),
+                metastore,
+                outputPath,
+                new HiveWriterStats(),
+                new SortingFileWriterConfig(),
+                getPartitionedColumnHandles(),
+                ImmutableList.of("part"));
+    }
+
+    private static List<HiveColumnHandle> getPartitionedColumnHandles()
+    {
+        return ImmutableList.of(
+                new HiveColumnHandle("value", HIVE_LONG, HIVE_LONG.getTypeSignature(), 0, REGULAR, Optional.empty(), Optional.empty()),
+                new HiveColumnHandle("part", HIVE_LONG, HIVE_LONG.getTypeSignature(), MAX_PARTITION_KEY_COLUMN_INDEX, PARTITION_KEY, Optional.empty(), Optional.empty()));
+    }
+
+    private static Page createPartitionedPage(long... partitions)
+    {
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT, BIGINT));
+        for (long partition : partitions) {
+            for (int i = 0; i < ROWS_PER_PARTITION; i++) {
+                pageBuilder.declarePosition();
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), i);
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(1), partition);
+            }
+        }
+        return pageBuilder.build();
+    }
+
+    private static List<PartitionUpdate> finish(ConnectorPageSink pageSink)
+    {
+        return getFutureValue(pageSink.finish()).stream()
+                .map(fragment -> deserializeZstdCompressed(PARTITION_UPDATE_SMILE_CODEC, fragment.getBytes()))
+                .collect(toImmutableList());
+    }
+
+    private static List<File> listDataFiles(File tempDir, String partitionName)
+    {
+        File[] files = new File(new File(tempDir, "output"), partitionName).listFiles((dir, name) -> !name.endsWith(".crc"));
+        return files == null ? ImmutableList.of() : ImmutableList.copyOf(files);
+    }
+
     private static TestingConnectorSession getSession(HiveClientConfig config, HiveCommonClientConfig hiveCommonClientConfig)
     {
         return new TestingConnectorSession(getAllSessionProperties(config, hiveCommonClientConfig));
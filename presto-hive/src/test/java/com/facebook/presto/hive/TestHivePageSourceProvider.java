@@ -140,6 +140,7 @@ public class TestHivePageSourceProvider
                 0);
         HiveSplit split = new HiveSplit(
                 fileSplit,
+                ImmutableList.of(),
                 SCHEMA_NAME,
                 TABLE_NAME,
                 PARTITION_NAME,
@@ -172,6 +173,7 @@ public class TestHivePageSourceProvider
 
         split = new HiveSplit(
                 fileSplit,
+                ImmutableList.of(),
                 SCHEMA_NAME,
                 TABLE_NAME,
                 PARTITION_NAME,
@@ -502,6 +504,7 @@ public class TestHivePageSourceProvider
 
         return new HiveSplit(
                 fileSplit,
+                ImmutableList.of(),
                 SCHEMA_NAME,
                 TABLE_NAME,
                 PARTITION_NAME,
@@ -27,6 +27,7 @@ import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -51,7 +52,9 @@ import static com.facebook.presto.hive.HiveStorageFormat.ORC;
 import static com.facebook.presto.hive.HiveType.HIVE_INT;
 import static com.facebook.presto.hive.HiveType.HIVE_STRING;
 import static com.facebook.presto.hive.metastore.StorageFormat.fromHiveStorageFormat;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.Slices.utf8Slice;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -283,4 +286,73 @@ public class TestHivePartitionManager
         HivePartitionResult result = hivePartitionManager.getPartitions(metastore, new HiveTableHandle(SCHEMA_NAME, TABLE_NAME_LARGE_PARTITIONS), constraint, session);
         assertEquals(result.getPartitions().size(), 2);
     }
+
+    @Test
+    public void testStreamingPartitions()
+    {
+        ConnectorSession session = createStreamingSession(new HiveClientConfig());
+        HivePartitionResult result = hivePartitionManager.getPartitions(metastore, new HiveTableHandle(SCHEMA_NAME, TABLE_NAME_LARGE_PARTITIONS), createPartitionConstraint(), session);
+
+        // table statistics are computed from their own partition list, so they do not turn streaming off
+        PartitionSet partitions = result.getPartitionSet();
+        assertFalse(partitions.isFullyLoaded());
+        assertFalse(partitions.isEmpty());
+        assertEquals(
+                ImmutableList.copyOf(partitions).stream()
+                        .map(partition -> partition.getPartitionId().getPartitionName())
+                        .collect(toImmutableList()),
+                ImmutableList.of("ds=2019-07-23/ts=2019-07-23:10:00:00", "ds=2019-07-23/ts=2019-07-23:01:00:00"));
+        assertFalse(partitions.isFullyLoaded());
+
+        assertEquals(result.getPartitions().size(), 2);
+        assertTrue(partitions.isFullyLoaded());
+    }
+
+    @Test
+    public void testStreamingPartitionsPartitionLimit()
+    {
+        ConnectorSession session = createStreamingSession(new HiveClientConfig());
+
+        // more partition names than the limit, but few enough matching partitions
+        HivePartitionManager partitionManager = new HivePartitionManager(new TestingTypeManager(), new HiveClientConfig().setMaxPartitionsPerScan(3));
+        HivePartitionResult result = partitionManager.getPartitions(metastore, new HiveTableHandle(SCHEMA_NAME, TABLE_NAME_LARGE_PARTITIONS), createPartitionConstraint(), session);
+        assertFalse(result.getPartitionSet().isFullyLoaded());
+        assertEquals(ImmutableList.copyOf(result.getPartitionSet()).size(), 2);
+
+        // the limit is only enforced once the partitions are iterated
+        HivePartitionManager limitedPartitionManager = new HivePartitionManager(new TestingTypeManager(), new HiveClientConfig().setMaxPartitionsPerScan(1));
+        PartitionSet partitions = limitedPartitionManager.getPartitions(metastore, new HiveTableHandle(SCHEMA_NAME, TABLE_NAME_LARGE_PARTITIONS), createPartitionConstraint(), session).getPartitionSet();
+        assertFalse(partitions.isEmpty());
+        assertThatThrownBy(() -> ImmutableList.copyOf(partitions))
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Query over table 'schema.table_large_partitions' can potentially read more than 1 partitions");
+        assertThatThrownBy(partitions::getFullyLoadedPartitions)
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Query over table 'schema.table_large_partitions' can potentially read more than 1 partitions");
+    }
+
+    private static ConnectorSession createStreamingSession(HiveClientConfig hiveClientConfig)
+    {
+        return new TestingConnectorSession(
+                new HiveSessionProperties(
+                        hiveClientConfig.setIgnoreTableBucketing(true).setStreamingPartitionLoadingEnabled(true),
+                        new OrcFileWriterConfig(),
+                        new ParquetFileWriterConfig(),
+                        new CacheConfig())
+                        .getSessionProperties());
+    }
+
+    private static Constraint<ColumnHandle> createPartitionConstraint()
+    {
+        ColumnHandle columnHandle = new HiveColumnHandle(
+                PARTITION_COLUMN.getName(),
+                PARTITION_COLUMN.getType(),
+                parseTypeSignature(StandardTypes.VARCHAR),
+                MAX_PARTITION_KEY_COLUMN_INDEX,
+                PARTITION_KEY,
+                Optional.empty(),
+                Optional.empty());
+        TupleDomain<ColumnHandle> tupleDomain = TupleDomain.withColumnDomains(ImmutableMap.of(columnHandle, Domain.singleValue(VARCHAR, utf8Slice("2019-07-23"))));
+        return new Constraint<>(TupleDomain.all(), Optional.of(convertToPredicate(tupleDomain)), Optional.of(ImmutableList.of(columnHandle)));
+    }
 }
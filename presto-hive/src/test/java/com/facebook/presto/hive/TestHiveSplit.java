@@ -91,10 +91,20 @@ public class TestHiveSplit
                 Optional.empty(),
                 customSplitInfo,
                 0);
+        HiveFileSplit additionalFileSplit = new HiveFileSplit(
+                "additional-path",
+                0,
+                12,
+                12,
+                Instant.now().toEpochMilli(),
+                Optional.empty(),
+                ImmutableMap.of(),
+                0);
 
         byte[] rowIdPartitionComponent = {(byte) 76, (byte) 58};
         HiveSplit expected = new HiveSplit(
                 fileSplit,
+                ImmutableList.of(additionalFileSplit),
                 "db",
                 "table",
                 "partitionId",
@@ -135,6 +145,7 @@ public class TestHiveSplit
         assertEquals(actual.getTable(), expected.getTable());
         assertEquals(actual.getPartitionName(), expected.getPartitionName());
         assertEquals(actual.getFileSplit(), expected.getFileSplit());
+        assertEquals(actual.getAdditionalFileSplits(), expected.getAdditionalFileSplits());
         assertEquals(actual.getStorage(), expected.getStorage());
         assertEquals(actual.getPartitionKeys(), expected.getPartitionKeys());
         assertEquals(actual.getAddresses(), expected.getAddresses());
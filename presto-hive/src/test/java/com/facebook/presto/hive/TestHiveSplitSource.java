@@ -17,10 +17,13 @@ import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
+import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
+import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -32,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -47,10 +51,15 @@ import static com.facebook.presto.hive.CacheQuotaScope.PARTITION;
 import static com.facebook.presto.hive.CacheQuotaScope.TABLE;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getAffinitySchedulingFileSectionSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxInitialSplitSize;
+import static com.facebook.presto.hive.HiveStorageFormat.ORC;
+import static com.facebook.presto.hive.HiveStorageFormat.TEXTFILE;
 import static com.facebook.presto.hive.HiveTestUtils.SESSION;
+import static com.facebook.presto.hive.HiveTestUtils.getAllSessionProperties;
+import static com.facebook.presto.hive.metastore.StorageFormat.fromHiveStorageFormat;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.SOFT_AFFINITY;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.Math.toIntExact;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -65,6 +74,7 @@ public class TestHiveSplitSource
 {
     private static final Executor EXECUTOR = Executors.newFixedThreadPool(5);
     private static final Optional<DataSize> DEFAULT_QUOTA_SIZE = Optional.of(DataSize.succinctDataSize(2, GIGABYTE));
+    private static final byte[] TEST_ROW_ID_PARTITION_COMPONENT = {9, 76, 32, 11};
 
     @Test
     public void testOutstandingSplitCount()
@@ -130,6 +140,124 @@ public class TestHiveSplitSource
         assertEquals(second.getFileSplit().getLength(), fileSize.toBytes() - halfOfSize);
     }
 
+    @Test
+    public void testSplitScanRatioAppliesToColumnarFormats()
+    {
+        DataSize initialSplitSize = getMaxInitialSplitSize(SESSION);
+        DataSize fileSize = new DataSize(initialSplitSize.toBytes() * 2, BYTE);
+
+        // a columnar split only reads the projected columns, so the split grows by the inverse of the scan ratio
+        HiveSplitSource orcSplitSource = createSplitSourceWithScanRatio(0.5);
+        orcSplitSource.addToQueue(new TestSplit(1, OptionalInt.empty(), fileSize, fromHiveStorageFormat(ORC)));
+        HiveSplit orcSplit = (HiveSplit) getSplits(orcSplitSource, 1).get(0);
+        assertEquals(orcSplit.getFileSplit().getLength(), fileSize.toBytes());
+        assertEquals(orcSplitSource.getBufferedInternalSplitCount(), 0);
+
+        // every byte of a text file is read regardless of the projected columns
+        HiveSplitSource textSplitSource = createSplitSourceWithScanRatio(0.5);
+        textSplitSource.addToQueue(new TestSplit(1, OptionalInt.empty(), fileSize, fromHiveStorageFormat(TEXTFILE)));
+        HiveSplit textSplit = (HiveSplit) getSplits(textSplitSource, 1).get(0);
+        assertEquals(textSplit.getFileSplit().getLength(), fileSize.toBytes() / 2);
+        assertEquals(textSplitSource.getBufferedInternalSplitCount(), 1);
+    }
+
+    @Test
+    public void testSmallFileCoalescing()
+    {
+        ConnectorSession session = new TestingConnectorSession(getAllSessionProperties(
+                new HiveClientConfig()
+                        .setSmallFileCoalescingEnabled(true)
+                        .setMaxFilesPerCoalescedSplit(3),
+                new HiveCommonClientConfig()));
+        HiveSplitSource hiveSplitSource = HiveSplitSource.allAtOnce(
+                session,
+                "database",
+                "table",
+                new CacheQuotaRequirement(TABLE, DEFAULT_QUOTA_SIZE),
+                10,
+                10,
+                new DataSize(1, MEGABYTE),
+                new TestingHiveSplitLoader(),
+                EXECUTOR,
+                new CounterStat(),
+                1);
+
+        HiveSplitPartitionInfo partitionInfo = createPartitionInfo(0, StorageFormat.create("serde", "input", "output"));
+        for (int i = 0; i < 7; i++) {
+            hiveSplitSource.addToQueue(new TestSplit("/file-" + i, OptionalInt.empty(), new DataSize(100, BYTE), NO_PREFERENCE, partitionInfo));
+        }
+        // a file of another partition is never packed with these files
+        hiveSplitSource.addToQueue(new TestSplit(1));
+
+        List<ConnectorSplit> splits = getSplits(hiveSplitSource, 10);
+        assertEquals(splits.size(), 4);
+        HiveSplit first = (HiveSplit) splits.get(0);
+        assertEquals(first.getFileSplit().getPath(), "/file-0");
+        assertEquals(first.getAdditionalFileSplits().stream().map(HiveFileSplit::getPath).collect(toImmutableList()), ImmutableList.of("/file-1", "/file-2"));
+        assertEquals(first.getSplitSizeInBytes(), OptionalLong.of(300));
+        assertEquals(first.toSingleFileSplits().size(), 3);
+        assertEquals(((HiveSplit) splits.get(1)).getAdditionalFileSplits().size(), 2);
+        assertEquals(((HiveSplit) splits.get(2)).getAdditionalFileSplits().size(), 0);
+        assertEquals(((HiveSplit) splits.get(3)).getAdditionalFileSplits().size(), 0);
+        assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
+    }
+
+    @Test
+    public void testSmallFileCoalescingByHost()
+    {
+        ConnectorSession session = new TestingConnectorSession(getAllSessionProperties(
+                new HiveClientConfig().setSmallFileCoalescingEnabled(true),
+                new HiveCommonClientConfig()));
+        HiveSplitSource hiveSplitSource = HiveSplitSource.allAtOnce(
+                session,
+                "database",
+                "table",
+                new CacheQuotaRequirement(TABLE, DEFAULT_QUOTA_SIZE),
+                10,
+                10,
+                new DataSize(1, MEGABYTE),
+                new TestingHiveSplitLoader(),
+                EXECUTOR,
+                new CounterStat(),
+                1);
+
+        HostAddress host1 = HostAddress.fromParts("host1", 1);
+        HostAddress host2 = HostAddress.fromParts("host2", 1);
+        HostAddress host3 = HostAddress.fromParts("host3", 1);
+        HiveSplitPartitionInfo partitionInfo = createPartitionInfo(0, StorageFormat.create("serde", "input", "output"));
+        hiveSplitSource.addToQueue(new TestSplit("/file-0", ImmutableList.of(host1, host2), partitionInfo));
+        hiveSplitSource.addToQueue(new TestSplit("/file-1", ImmutableList.of(host2, host3), partitionInfo));
+        // no host holds all three files
+        hiveSplitSource.addToQueue(new TestSplit("/file-2", ImmutableList.of(host1, host3), partitionInfo));
+        // a file without block locations is only packed with other such files
+        hiveSplitSource.addToQueue(new TestSplit("/file-3", ImmutableList.of(), partitionInfo));
+
+        List<ConnectorSplit> splits = getSplits(hiveSplitSource, 10);
+        assertEquals(splits.size(), 3);
+        HiveSplit first = (HiveSplit) splits.get(0);
+        assertEquals(first.getAdditionalFileSplits().stream().map(HiveFileSplit::getPath).collect(toImmutableList()), ImmutableList.of("/file-1"));
+        assertEquals(first.getAddresses(), ImmutableList.of(host2));
+        assertEquals(((HiveSplit) splits.get(1)).getAddresses(), ImmutableList.of(host1, host3));
+        assertEquals(((HiveSplit) splits.get(1)).getAdditionalFileSplits().size(), 0);
+        assertEquals(((HiveSplit) splits.get(2)).getAddresses(), ImmutableList.of());
+    }
+
+    private static HiveSplitSource createSplitSourceWithScanRatio(double splitScanRatio)
+    {
+        return HiveSplitSource.allAtOnce(
+                SESSION,
+                "database",
+                "table",
+                new CacheQuotaRequirement(TABLE, DEFAULT_QUOTA_SIZE),
+                10,
+                10,
+                new DataSize(1, MEGABYTE),
+                new TestingHiveSplitLoader(),
+                EXECUTOR,
+                new CounterStat(),
+                splitScanRatio);
+    }
+
     @Test
     public void testAffinitySchedulingKey()
     {
@@ -566,11 +694,29 @@ public class TestHiveSplitSource
         }
     }
 
+    private static HiveSplitPartitionInfo createPartitionInfo(int id, StorageFormat storageFormat)
+    {
+        return new HiveSplitPartitionInfo(
+                new Storage(
+                        storageFormat,
+                        "location",
+                        Optional.empty(),
+                        false,
+                        ImmutableMap.of(),
+                        ImmutableMap.of()),
+                "path",
+                ImmutableList.of(),
+                "partition-name",
+                id,
+                TableToPartitionMapping.empty(),
+                Optional.empty(),
+                ImmutableSet.of(),
+                Optional.of(TEST_ROW_ID_PARTITION_COMPONENT));
+    }
+
     private static class TestSplit
             extends InternalHiveSplit
     {
-        private static final byte[] TEST_ROW_ID_PARTITION_COMPONENT = {9, 76, 32, 11};
-
         private TestSplit(int id)
         {
             this(id, OptionalInt.empty());
@@ -586,7 +732,32 @@ public class TestHiveSplitSource
             this("/test-relative-path", id, bucketNumber, fileSize, NO_PREFERENCE);
         }
 
+        private TestSplit(int id, OptionalInt bucketNumber, DataSize fileSize, StorageFormat storageFormat)
+        {
+            this("/test-relative-path", id, bucketNumber, fileSize, NO_PREFERENCE, storageFormat);
+        }
+
         private TestSplit(String path, int id, OptionalInt bucketNumber, DataSize fileSize, NodeSelectionStrategy nodeSelectionStrategy)
+        {
+            this(path, id, bucketNumber, fileSize, nodeSelectionStrategy, StorageFormat.create("serde", "input", "output"));
+        }
+
+        private TestSplit(String path, int id, OptionalInt bucketNumber, DataSize fileSize, NodeSelectionStrategy nodeSelectionStrategy, StorageFormat storageFormat)
+        {
+            this(path, bucketNumber, fileSize, nodeSelectionStrategy, createPartitionInfo(id, storageFormat));
+        }
+
+        private TestSplit(String path, List<HostAddress> addresses, HiveSplitPartitionInfo partitionInfo)
+        {
+            this(path, OptionalInt.empty(), new DataSize(100, BYTE), NO_PREFERENCE, addresses, partitionInfo);
+        }
+
+        private TestSplit(String path, OptionalInt bucketNumber, DataSize fileSize, NodeSelectionStrategy nodeSelectionStrategy, HiveSplitPartitionInfo partitionInfo)
+        {
+            this(path, bucketNumber, fileSize, nodeSelectionStrategy, ImmutableList.of(), partitionInfo);
+        }
+
+        private TestSplit(String path, OptionalInt bucketNumber, DataSize fileSize, NodeSelectionStrategy nodeSelectionStrategy, List<HostAddress> addresses, HiveSplitPartitionInfo partitionInfo)
         {
             super(
                     path,
@@ -595,28 +766,13 @@ public class TestHiveSplitSource
                     fileSize.toBytes(),
                     fileSize.toBytes(),
                     Instant.now().toEpochMilli(),
-                    ImmutableList.of(new InternalHiveBlock(fileSize.toBytes(), ImmutableList.of())),
+                    ImmutableList.of(new InternalHiveBlock(fileSize.toBytes(), addresses)),
                     bucketNumber,
                     bucketNumber,
                     true,
                     nodeSelectionStrategy,
                     false,
-                    new HiveSplitPartitionInfo(
-                            new Storage(
-                                    StorageFormat.create("serde", "input", "output"),
-                                    "location",
-                                    Optional.empty(),
-                                    false,
-                                    ImmutableMap.of(),
-                                    ImmutableMap.of()),
-                            "path",
-                            ImmutableList.of(),
-                            "partition-name",
-                            id,
-                            TableToPartitionMapping.empty(),
-                            Optional.empty(),
-                            ImmutableSet.of(),
-                            Optional.of(TEST_ROW_ID_PARTITION_COMPONENT)),
+                    partitionInfo,
                     Optional.empty(),
                     Optional.empty(),
                     ImmutableMap.of());
@@ -14,14 +14,23 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.CharType;
 import com.facebook.presto.hive.metastore.Column;
+import com.facebook.presto.hive.metastore.Storage;
+import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.SplitWeight;
 import com.facebook.presto.spi.relation.ConstantExpression;
 import com.facebook.presto.spi.relation.RowExpression;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
@@ -29,18 +38,24 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 
 import static com.facebook.presto.common.plan.PlanCanonicalizationStrategy.CONNECTOR;
+import static com.facebook.presto.common.plan.PlanCanonicalizationStrategy.DEFAULT;
 import static com.facebook.presto.common.predicate.Domain.singleValue;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.PARTITION_KEY;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.CacheQuotaRequirement.NO_CACHE_REQUIREMENT;
 import static com.facebook.presto.hive.HiveTableLayoutHandle.canonicalizeDomainPredicate;
 import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
 public class TestHiveTableLayoutHandle
@@ -60,7 +75,7 @@ public class TestHiveTableLayoutHandle
         Optional<HiveBucketing.HiveBucketFilter> bucketFilter = Optional.empty();
         Optional<Set<HiveColumnHandle>> requestedColumns = Optional.empty();
         SchemaTableName schemaTableName = SchemaTableName.valueOf("schema.TableName");
-        Optional<List<HivePartition>> partitions = Optional.empty();
+        Optional<PartitionSet> partitions = Optional.empty();
         Optional<HiveTableHandle> hiveTableHandle = Optional.empty();
         HiveTableLayoutHandle handle = new HiveTableLayoutHandle(
                 schemaTableName,
@@ -101,7 +116,91 @@ public class TestHiveTableLayoutHandle
         assertEquals(newDomain.getDomains().get().get(new Subfield("col")), singleValue(VARCHAR, utf8Slice("id")));
     }
 
-    private HiveColumnHandle getColumnHandle(String name, boolean partitioned)
+    @Test
+    public void testSplitIdentifierIgnoresPartitionKeyDomains()
+    {
+        Map<String, HiveColumnHandle> predicateColumns = ImmutableMap.of(
+                "ds", getColumnHandle("ds", true),
+                "col", getColumnHandle("col", false));
+        HiveTableLayoutHandle lastWeek = createLayoutHandle(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        new Subfield("ds"), Domain.create(ValueSet.ofRanges(Range.range(VARCHAR, utf8Slice("2022-01-01"), true, utf8Slice("2022-01-07"), true)), false),
+                        new Subfield("col"), singleValue(VARCHAR, utf8Slice("id")))),
+                predicateColumns);
+        HiveTableLayoutHandle nextWeek = createLayoutHandle(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        new Subfield("ds"), Domain.create(ValueSet.ofRanges(Range.range(VARCHAR, utf8Slice("2022-01-02"), true, utf8Slice("2022-01-08"), true)), false),
+                        new Subfield("col"), singleValue(VARCHAR, utf8Slice("id")))),
+                predicateColumns);
+        HiveTableLayoutHandle otherColumnValue = createLayoutHandle(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        new Subfield("ds"), Domain.create(ValueSet.ofRanges(Range.range(VARCHAR, utf8Slice("2022-01-02"), true, utf8Slice("2022-01-08"), true)), false),
+                        new Subfield("col"), singleValue(VARCHAR, utf8Slice("other")))),
+                predicateColumns);
+
+        // the plans differ, but a split of a partition both queries read produces the same result
+        assertNotEquals(lastWeek.getIdentifier(Optional.empty(), DEFAULT), nextWeek.getIdentifier(Optional.empty(), DEFAULT));
+        Optional<ConnectorSplit> split = Optional.of(createSplit("ds=2022-01-03"));
+        assertEquals(lastWeek.getIdentifier(split, DEFAULT), nextWeek.getIdentifier(split, DEFAULT));
+        assertNotEquals(nextWeek.getIdentifier(split, DEFAULT), otherColumnValue.getIdentifier(split, DEFAULT));
+    }
+
+    private static HiveTableLayoutHandle createLayoutHandle(TupleDomain<Subfield> domainPredicate, Map<String, HiveColumnHandle> predicateColumns)
+    {
+        return new HiveTableLayoutHandle(
+                SchemaTableName.valueOf("schema.table"),
+                "tablePath",
+                ImmutableList.of(predicateColumns.get("ds")),
+                ImmutableList.of(new Column("col", HIVE_STRING, Optional.empty(), Optional.empty())),
+                ImmutableMap.of(),
+                domainPredicate,
+                TRUE_CONSTANT,
+                predicateColumns,
+                TupleDomain.all(),
+                Optional.empty(),
+                Optional.empty(),
+                true,
+                "layoutString",
+                Optional.empty(),
+                false,
+                false,
+                Optional.empty(),
+                false,
+                Optional.empty());
+    }
+
+    private static HiveSplit createSplit(String partitionName)
+    {
+        return new HiveSplit(
+                new HiveFileSplit("path", 0, 10, 10, 0, Optional.empty(), ImmutableMap.of(), 0),
+                ImmutableList.of(),
+                "schema",
+                "table",
+                partitionName,
+                new Storage(
+                        StorageFormat.create("serde", "input", "output"),
+                        "location",
+                        Optional.empty(),
+                        false,
+                        ImmutableMap.of(),
+                        ImmutableMap.of()),
+                ImmutableList.of(),
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                OptionalInt.empty(),
+                NO_PREFERENCE,
+                1,
+                TableToPartitionMapping.empty(),
+                Optional.empty(),
+                false,
+                NO_CACHE_REQUIREMENT,
+                Optional.empty(),
+                ImmutableSet.of(),
+                SplitWeight.standard(),
+                Optional.empty());
+    }
+
+    private static HiveColumnHandle getColumnHandle(String name, boolean partitioned)
     {
         return new HiveColumnHandle(
                 name,
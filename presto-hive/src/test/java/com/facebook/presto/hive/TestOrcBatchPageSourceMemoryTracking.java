@@ -17,6 +17,7 @@ import com.facebook.airlift.stats.Distribution;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.execution.ScheduledSplit;
@@ -99,6 +100,7 @@ import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.testing.Assertions.assertBetweenInclusive;
@@ -133,6 +135,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
 public class TestOrcBatchPageSourceMemoryTracking
@@ -243,6 +246,64 @@ public class TestOrcBatchPageSourceMemoryTracking
         pageSource.close();
     }
 
+    @Test
+    public void testPositionsAwareLoading()
+            throws Exception
+    {
+        ConnectorSession session = new TestingConnectorSession(getAllSessionProperties(
+                new HiveClientConfig().setOrcBatchSelectiveLoadingEnabled(true),
+                new HiveCommonClientConfig()));
+        ConnectorPageSource fullPageSource = testPreparer.newPageSource();
+        ConnectorPageSource positionsPageSource = testPreparer.newPageSource(new FileFormatDataSourceStats(), session);
+
+        int totalRows = 0;
+        int pageCount = 0;
+        while (totalRows < NUM_ROWS) {
+            Page fullPage = fullPageSource.getNextPage();
+            Page positionsPage = positionsPageSource.getNextPage();
+            assertNotNull(fullPage);
+            assertNotNull(positionsPage);
+            assertEquals(positionsPage.getPositionCount(), fullPage.getPositionCount());
+            int positionCount = fullPage.getPositionCount();
+
+            // alternate between empty, single last position, sparse and full selections
+            int[] positions;
+            switch (pageCount % 4) {
+                case 0:
+                    positions = new int[0];
+                    break;
+                case 1:
+                    positions = new int[] {positionCount - 1};
+                    break;
+                case 2:
+                    positions = IntStream.range(0, positionCount).filter(position -> position % 3 == 0).toArray();
+                    break;
+                default:
+                    positions = IntStream.range(0, positionCount).toArray();
+            }
+
+            LazyBlock lazyBlock = (LazyBlock) positionsPage.getBlock(1);
+            assertTrue(lazyBlock.isPositionsAware());
+            Block actual = lazyBlock.getLazyPositions(positions, 0, positions.length).getLoadedBlock();
+            Block expected = fullPage.getBlock(1).getLoadedBlock().copyPositions(positions, 0, positions.length);
+            assertEquals(actual.getPositionCount(), expected.getPositionCount());
+            for (int position = 0; position < expected.getPositionCount(); position++) {
+                assertEquals(createUnboundedVarcharType().getSlice(actual, position), createUnboundedVarcharType().getSlice(expected, position));
+            }
+            // the column streams were consumed by the partial read
+            assertThrows(IllegalStateException.class, lazyBlock::getLoadedBlock);
+
+            totalRows += positionCount;
+            pageCount++;
+        }
+
+        assertNull(fullPageSource.getNextPage());
+        assertNull(positionsPageSource.getNextPage());
+        assertTrue(positionsPageSource.isFinished());
+        fullPageSource.close();
+        positionsPageSource.close();
+    }
+
     @Test(dataProvider = "rowCount")
     public void testMaxReadBytes(int rowCount)
             throws Exception
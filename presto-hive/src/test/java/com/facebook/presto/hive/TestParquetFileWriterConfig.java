@@ -36,7 +36,8 @@ public class TestParquetFileWriterConfig
                 .setParquetOptimizedWriterEnabled(false)
                 .setBlockSize(new DataSize(ParquetWriter.DEFAULT_BLOCK_SIZE, BYTE))
                 .setPageSize(new DataSize(ParquetWriter.DEFAULT_PAGE_SIZE, BYTE))
-                .setWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0));
+                .setWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
+                .setColumnWriterThreads(0));
     }
 
     @Test
@@ -47,13 +48,15 @@ public class TestParquetFileWriterConfig
                 .put("hive.parquet.writer.block-size", "234MB")
                 .put("hive.parquet.writer.page-size", "11MB")
                 .put("hive.parquet.writer.version", "PARQUET_2_0")
+                .put("hive.parquet.writer.column-writer-threads", "8")
                 .build();
 
         ParquetFileWriterConfig expected = new ParquetFileWriterConfig()
                 .setParquetOptimizedWriterEnabled(true)
                 .setBlockSize(new DataSize(234, MEGABYTE))
                 .setPageSize(new DataSize(11, MEGABYTE))
-                .setWriterVersion(ParquetProperties.WriterVersion.PARQUET_2_0);
+                .setWriterVersion(ParquetProperties.WriterVersion.PARQUET_2_0)
+                .setColumnWriterThreads(8);
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPersistentDirectoryListCache
+{
+    private static final List<HiveFileInfo> FILES = ImmutableList.of(
+            new HiveFileInfo(
+                    "hdfs://namenode/warehouse/table/ds=2020-01-01/file1",
+                    false,
+                    ImmutableList.of(new BlockLocation(ImmutableList.of("host1", "host2"), 0, 100), new BlockLocation(ImmutableList.of("host3"), 100, 20)),
+                    120,
+                    1000,
+                    Optional.of("extra".getBytes(UTF_8)),
+                    ImmutableMap.of("key", "value")),
+            new HiveFileInfo(
+                    "hdfs://namenode/warehouse/table/ds=2020-01-01/subdirectory",
+                    true,
+                    ImmutableList.of(),
+                    0,
+                    2000,
+                    Optional.empty(),
+                    ImmutableMap.of()));
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("directory-list-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testSurvivesRestart()
+    {
+        String path = "hdfs://namenode/warehouse/table/ds=2020-01-01";
+        PersistentDirectoryListCache cache = createCache(new DataSize(1, MEGABYTE));
+        cache.put(path, 3000, FILES);
+        assertListing(cache.get(path, 3000), FILES);
+
+        PersistentDirectoryListCache restarted = createCache(new DataSize(1, MEGABYTE));
+        assertTrue(restarted.contains(path));
+        assertListing(restarted.get(path, 3000), FILES);
+    }
+
+    @Test
+    public void testModifiedDirectory()
+    {
+        String path = "hdfs://namenode/warehouse/table/ds=2020-01-01";
+        PersistentDirectoryListCache cache = createCache(new DataSize(1, MEGABYTE));
+        cache.put(path, 3000, FILES);
+
+        assertFalse(cache.get(path, 4000).isPresent());
+        assertFalse(cache.contains(path));
+        assertFalse(createCache(new DataSize(1, MEGABYTE)).contains(path));
+    }
+
+    @Test
+    public void testUnknownModificationTime()
+    {
+        String path = "s3://bucket/warehouse/table/ds=2020-01-01";
+        PersistentDirectoryListCache cache = createCache(new DataSize(1, MEGABYTE));
+        cache.put(path, 0, FILES);
+        assertFalse(cache.contains(path));
+    }
+
+    @Test
+    public void testExpiration()
+    {
+        String path = "hdfs://namenode/warehouse/table/ds=2020-01-01";
+        AtomicLong currentTimeMillis = new AtomicLong(1_000_000);
+        Duration expireAfterWrite = new Duration(10, MINUTES);
+        PersistentDirectoryListCache cache = new PersistentDirectoryListCache(directory, new DataSize(1, MEGABYTE), expireAfterWrite, currentTimeMillis::get);
+        cache.put(path, 3000, FILES);
+
+        currentTimeMillis.addAndGet(expireAfterWrite.toMillis() - 1);
+        assertListing(cache.get(path, 3000), FILES);
+        assertTrue(new PersistentDirectoryListCache(directory, new DataSize(1, MEGABYTE), expireAfterWrite, currentTimeMillis::get).contains(path));
+
+        currentTimeMillis.incrementAndGet();
+        assertFalse(new PersistentDirectoryListCache(directory, new DataSize(1, MEGABYTE), expireAfterWrite, currentTimeMillis::get).contains(path));
+        assertFalse(cache.get(path, 3000).isPresent());
+        assertFalse(cache.contains(path));
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        PersistentDirectoryListCache cache = createCache(new DataSize(2, KILOBYTE));
+        for (int i = 0; i < 100; i++) {
+            cache.put("hdfs://namenode/warehouse/table/ds=" + i, 3000, FILES);
+        }
+        assertTrue(cache.size() < 100);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(files.count(), cache.size());
+        }
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        String path = "hdfs://namenode/warehouse/table/ds=2020-01-01";
+        PersistentDirectoryListCache cache = createCache(new DataSize(1, MEGABYTE));
+        cache.put(path, 3000, FILES);
+        cache.invalidate(path);
+        assertFalse(cache.get(path, 3000).isPresent());
+
+        cache.put(path, 3000, FILES);
+        cache.invalidateAll();
+        assertFalse(createCache(new DataSize(1, MEGABYTE)).contains(path));
+    }
+
+    private PersistentDirectoryListCache createCache(DataSize maxSize)
+    {
+        return new PersistentDirectoryListCache(directory, maxSize, new Duration(1, DAYS));
+    }
+
+    private static void assertListing(Optional<List<HiveFileInfo>> actual, List<HiveFileInfo> expected)
+    {
+        assertTrue(actual.isPresent());
+        assertEquals(actual.get(), expected);
+        for (int i = 0; i < expected.size(); i++) {
+            HiveFileInfo actualFile = actual.get().get(i);
+            HiveFileInfo expectedFile = expected.get(i);
+            assertEquals(actualFile.isDirectory(), expectedFile.isDirectory());
+            assertEquals(actualFile.getFileModifiedTime(), expectedFile.getFileModifiedTime());
+            assertEquals(actualFile.getExtraFileInfo().map(bytes -> new String(bytes, UTF_8)), expectedFile.getExtraFileInfo().map(bytes -> new String(bytes, UTF_8)));
+            assertEquals(actualFile.getCustomSplitInfo(), expectedFile.getCustomSplitInfo());
+        }
+    }
+}
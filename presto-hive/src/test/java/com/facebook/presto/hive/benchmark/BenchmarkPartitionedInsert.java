@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+/**
+ * Benchmarks an INSERT into a table with 10k partitions, comparing a writer per partition
+ * per task against shuffling by the partition columns, and against additionally rolling
+ * files at a target size and closing idle writers once the open writers use too much memory.
+ *
+ * <p>Run via:
+ * <pre>
+ * mvn test -pl presto-hive \
+ *   -Dtest=BenchmarkPartitionedInsert \
+ *   -DfailIfNoTests=false
+ * </pre>
+ */
+public final class BenchmarkPartitionedInsert
+{
+    private static final String CREATE_TABLE =
+            "CREATE TABLE partitioned_insert_target (" +
+            "  orderkey BIGINT, custkey BIGINT, totalprice DOUBLE, comment VARCHAR, part BIGINT) " +
+            "WITH (partitioned_by = ARRAY['part'])";
+
+    private static final String QUERY =
+            "INSERT INTO partitioned_insert_target " +
+            "SELECT orderkey, custkey, totalprice, comment, (orderkey * 4 + x) % 10000 " +
+            "FROM orders " +
+            "CROSS JOIN UNNEST(ARRAY[0,1,2,3]) AS t(x)";
+
+    @Test
+    public void benchmark()
+            throws Exception
+    {
+        try (HiveDistributedBenchmarkRunner runner =
+                     new HiveDistributedBenchmarkRunner(1, 3, ImmutableMap.of("hive.max-partitions-per-writers", "10000"))) {
+            runner.getQueryRunner().execute(CREATE_TABLE);
+
+            runner.addScenario("baseline", builder -> {
+                builder.setCatalogSessionProperty("hive", "shuffle_partitioned_columns_for_table_write", "false");
+            });
+
+            runner.addScenario("shuffle_partition_columns", builder -> {
+                builder.setCatalogSessionProperty("hive", "shuffle_partitioned_columns_for_table_write", "true");
+            });
+
+            runner.addScenario("shuffle_and_close_idle_writers", builder -> {
+                builder.setCatalogSessionProperty("hive", "shuffle_partitioned_columns_for_table_write", "true");
+                builder.setCatalogSessionProperty("hive", "target_max_file_size", "1MB");
+                builder.setCatalogSessionProperty("hive", "max_open_writers_memory", "64MB");
+            });
+
+            runner.runWithVerification(QUERY);
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        new BenchmarkPartitionedInsert().benchmark();
+    }
+}
@@ -17,9 +17,11 @@ import com.facebook.presto.Session;
 import com.facebook.presto.hive.HiveQueryRunner;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.QueryRunner;
+import com.google.common.collect.ImmutableMap;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static io.airlift.tpch.TpchTable.getTables;
 import static java.util.Objects.requireNonNull;
@@ -49,10 +51,16 @@ public class HiveDistributedBenchmarkRunner
 
     public HiveDistributedBenchmarkRunner(int warmupIterations, int measuredIterations)
             throws Exception
+    {
+        this(warmupIterations, measuredIterations, ImmutableMap.of());
+    }
+
+    public HiveDistributedBenchmarkRunner(int warmupIterations, int measuredIterations, Map<String, String> extraHiveProperties)
+            throws Exception
     {
         this.warmupIterations = warmupIterations;
         this.measuredIterations = measuredIterations;
-        this.queryRunner = HiveQueryRunner.createQueryRunner(getTables());
+        this.queryRunner = HiveQueryRunner.createQueryRunner(getTables(), ImmutableMap.of(), "sql-standard", extraHiveProperties, Optional.empty());
     }
 
     public void addScenario(String name, SessionConfigurator configurator)
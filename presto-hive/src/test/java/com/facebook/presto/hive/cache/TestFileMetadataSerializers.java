@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
+import com.facebook.presto.orc.metadata.DwrfStripeCacheData;
+import com.facebook.presto.orc.metadata.OrcFileTail;
+import com.facebook.presto.parquet.cache.CachingParquetFooterSource.CacheableFooter;
+import com.google.common.cache.Cache;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.presto.hive.cache.FileMetadataSerializers.ORC_FILE_TAIL_SERIALIZER;
+import static com.facebook.presto.hive.cache.FileMetadataSerializers.ORC_SLICE_SERIALIZER;
+import static com.facebook.presto.hive.cache.FileMetadataSerializers.PARQUET_FOOTER_SERIALIZER;
+import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZSTD;
+import static com.facebook.presto.orc.metadata.DwrfStripeCacheMode.INDEX_AND_FOOTER;
+import static com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion.ORC_HIVE_8732;
+import static com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion.ORIGINAL;
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestFileMetadataSerializers
+{
+    @Test
+    public void testOrcFileTail()
+    {
+        OrcFileTail tail = new OrcFileTail(ORC_HIVE_8732, 262144, ZSTD, utf8Slice("footer"), 6, utf8Slice("stripe metadata"), 15, Optional.empty(), 1234);
+        OrcFileTail actual = ORC_FILE_TAIL_SERIALIZER.deserialize(ORC_FILE_TAIL_SERIALIZER.serialize(tail));
+        assertOrcFileTailEquals(actual, tail);
+        assertFalse(actual.getDwrfStripeCacheData().isPresent());
+
+        // empty slices round-trip as well
+        tail = new OrcFileTail(ORIGINAL, 0, NONE, EMPTY_SLICE, 0, EMPTY_SLICE, 0, Optional.empty(), 0);
+        assertOrcFileTailEquals(ORC_FILE_TAIL_SERIALIZER.deserialize(ORC_FILE_TAIL_SERIALIZER.serialize(tail)), tail);
+    }
+
+    @Test
+    public void testOrcFileTailWithDwrfStripeCache()
+    {
+        DwrfStripeCacheData stripeCacheData = new DwrfStripeCacheData(utf8Slice("stripe indexes and footers"), 26, INDEX_AND_FOOTER);
+        OrcFileTail tail = new OrcFileTail(ORC_HIVE_8732, 65536, ZSTD, utf8Slice("footer"), 6, EMPTY_SLICE, 0, Optional.of(stripeCacheData), 5678);
+        assertOrcFileTailEquals(ORC_FILE_TAIL_SERIALIZER.deserialize(ORC_FILE_TAIL_SERIALIZER.serialize(tail)), tail);
+    }
+
+    @Test
+    public void testOrcSlice()
+    {
+        CacheableSlice slice = new CacheableSlice(utf8Slice("stripe footer"), 1234);
+        CacheableSlice actual = ORC_SLICE_SERIALIZER.deserialize(ORC_SLICE_SERIALIZER.serialize(slice));
+        assertEquals(actual.getSlice(), slice.getSlice());
+        assertEquals(actual.getFileModificationTime(), slice.getFileModificationTime());
+
+        actual = ORC_SLICE_SERIALIZER.deserialize(ORC_SLICE_SERIALIZER.serialize(new CacheableSlice(EMPTY_SLICE, 0)));
+        assertEquals(actual.getSlice(), EMPTY_SLICE);
+        assertEquals(actual.getFileModificationTime(), 0);
+    }
+
+    @Test
+    public void testParquetFooter()
+    {
+        CacheableFooter footer = new CacheableFooter(utf8Slice("parquet footer"), 1234);
+        CacheableFooter actual = PARQUET_FOOTER_SERIALIZER.deserialize(PARQUET_FOOTER_SERIALIZER.serialize(footer));
+        assertEquals(actual.getFooterSlice(), footer.getFooterSlice());
+        assertEquals(actual.getModificationTime(), footer.getModificationTime());
+    }
+
+    @Test
+    public void testMetadataCacheView()
+    {
+        MetadataCache metadataCache = new MetadataCache(new DataSize(1, KILOBYTE), new Duration(1, HOURS));
+        Cache<String, OrcFileTail> cache = metadataCache.createCache("orcFileTail", ORC_FILE_TAIL_SERIALIZER);
+        DwrfStripeCacheData stripeCacheData = new DwrfStripeCacheData(utf8Slice("stripe indexes and footers"), 26, INDEX_AND_FOOTER);
+        OrcFileTail tail = new OrcFileTail(ORC_HIVE_8732, 65536, ZSTD, utf8Slice("footer"), 6, utf8Slice("stripe metadata"), 15, Optional.of(stripeCacheData), 5678);
+
+        cache.put("file.orc", tail);
+        assertOrcFileTailEquals(cache.getIfPresent("file.orc"), tail);
+    }
+
+    private static void assertOrcFileTailEquals(OrcFileTail actual, OrcFileTail expected)
+    {
+        assertEquals(actual.getHiveWriterVersion(), expected.getHiveWriterVersion());
+        assertEquals(actual.getBufferSize(), expected.getBufferSize());
+        assertEquals(actual.getCompressionKind(), expected.getCompressionKind());
+        assertEquals(actual.getFooterSlice(), expected.getFooterSlice());
+        assertEquals(actual.getFooterSize(), expected.getFooterSize());
+        assertEquals(actual.getMetadataSlice(), expected.getMetadataSlice());
+        assertEquals(actual.getMetadataSize(), expected.getMetadataSize());
+        assertEquals(actual.getFileModificationTime(), expected.getFileModificationTime());
+        assertEquals(actual.getDwrfStripeCacheData().isPresent(), expected.getDwrfStripeCacheData().isPresent());
+        if (expected.getDwrfStripeCacheData().isPresent()) {
+            DwrfStripeCacheData actualStripeCache = actual.getDwrfStripeCacheData().get();
+            DwrfStripeCacheData expectedStripeCache = expected.getDwrfStripeCacheData().get();
+            assertEquals(actualStripeCache.getDwrfStripeCacheSlice(), expectedStripeCache.getDwrfStripeCacheSlice());
+            assertEquals(actualStripeCache.getDwrfStripeCacheSize(), expectedStripeCache.getDwrfStripeCacheSize());
+            assertEquals(actualStripeCache.getDwrfStripeCacheMode(), expectedStripeCache.getDwrfStripeCacheMode());
+        }
+    }
+}
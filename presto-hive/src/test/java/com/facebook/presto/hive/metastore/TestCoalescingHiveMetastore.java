@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.hive.HiveColumnConverterProvider;
+import com.facebook.presto.hive.PartitionNameWithVersion;
+import com.facebook.presto.hive.metastore.file.FileHiveMetastore;
+import com.facebook.presto.spi.WarningCollector;
+import com.facebook.presto.spi.security.PrincipalType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.hive.HiveStorageFormat.ORC;
+import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static com.facebook.presto.hive.HiveType.HIVE_INT;
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static com.facebook.presto.hive.metastore.PrestoTableType.EXTERNAL_TABLE;
+import static com.facebook.presto.hive.metastore.StorageFormat.fromHiveStorageFormat;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestCoalescingHiveMetastore
+{
+    private static final String DATABASE = "test_database";
+    private static final String TABLE = "test_table";
+    private static final MetastoreContext METASTORE_CONTEXT = new MetastoreContext("test_user", "test_queryId", Optional.empty(), emptySet(), Optional.empty(), Optional.empty(), false, HiveColumnConverterProvider.DEFAULT_COLUMN_CONVERTER_PROVIDER, WarningCollector.NOOP, new RuntimeStats());
+    private static final MetastoreContext OTHER_QUERY_METASTORE_CONTEXT = new MetastoreContext("test_user", "other_queryId", Optional.empty(), emptySet(), Optional.empty(), Optional.empty(), false, HiveColumnConverterProvider.DEFAULT_COLUMN_CONVERTER_PROVIDER, WarningCollector.NOOP, new RuntimeStats());
+    private static final List<PartitionNameWithVersion> PARTITION_NAMES = ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).stream()
+            .map(value -> new PartitionNameWithVersion("ds=" + value, Optional.empty()))
+            .collect(toImmutableList());
+
+    private File tempDir;
+    private CountingFileHiveMetastore fileMetastore;
+    private ListeningExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDir = createTempDirectory("metastore").toFile();
+        fileMetastore = new CountingFileHiveMetastore(new File(tempDir, "metastore"));
+        executor = listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-coalescing-metastore-%s")));
+
+        fileMetastore.createDatabase(METASTORE_CONTEXT, Database.builder()
+                .setDatabaseName(DATABASE)
+                .setOwnerName("public")
+                .setOwnerType(PrincipalType.ROLE)
+                .build());
+        String tableLocation = new File(tempDir, TABLE).toURI().toString();
+        Table table = Table.builder()
+                .setDatabaseName(DATABASE)
+                .setTableName(TABLE)
+                .setTableType(EXTERNAL_TABLE)
+                .setOwner("public")
+                .setDataColumns(ImmutableList.of(new Column("value", HIVE_INT, Optional.empty(), Optional.empty())))
+                .setPartitionColumns(ImmutableList.of(new Column("ds", HIVE_STRING, Optional.empty(), Optional.empty())))
+                .setParameters(ImmutableMap.of("EXTERNAL", "TRUE"))
+                .withStorage(storage -> storage.setStorageFormat(fromHiveStorageFormat(ORC)).setLocation(tableLocation))
+                .build();
+        fileMetastore.createTable(METASTORE_CONTEXT, table, new PrincipalPrivileges(ImmutableMultimap.of(), ImmutableMultimap.of()), ImmutableList.of());
+
+        List<PartitionWithStatistics> partitions = PARTITION_NAMES.stream()
+                .map(PartitionNameWithVersion::getPartitionName)
+                .map(partitionName -> new PartitionWithStatistics(
+                        Partition.builder()
+                                .setDatabaseName(DATABASE)
+                                .setTableName(TABLE)
+                                .setValues(MetastoreUtil.extractPartitionValues(partitionName))
+                                .setColumns(table.getDataColumns())
+                                .withStorage(storage -> storage.setStorageFormat(fromHiveStorageFormat(ORC)).setLocation(tableLocation + "/" + partitionName))
+                                .setCreateTime(0)
+                                .build(),
+                        partitionName,
+                        PartitionStatistics.empty()))
+                .collect(toImmutableList());
+        fileMetastore.addPartitions(METASTORE_CONTEXT, DATABASE, TABLE, partitions);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        executor.shutdownNow();
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testGetPartitionsByNamesInBatches()
+    {
+        CoalescingHiveMetastore metastore = new CoalescingHiveMetastore(fileMetastore, executor, 3);
+        int callsBefore = fileMetastore.getPartitionsByNamesCalls.get();
+
+        Map<String, Optional<Partition>> partitions = metastore.getPartitionsByNames(METASTORE_CONTEXT, DATABASE, TABLE, PARTITION_NAMES);
+
+        assertEquals(partitions.size(), PARTITION_NAMES.size());
+        for (PartitionNameWithVersion partitionName : PARTITION_NAMES) {
+            assertTrue(partitions.get(partitionName.getPartitionName()).isPresent(), partitionName.getPartitionName());
+        }
+        assertEquals(fileMetastore.getPartitionsByNamesCalls.get() - callsBefore, 4);
+        assertEquals(metastore.getGetPartitionsByNames().getRequests().getTotalCount(), 4);
+        assertEquals(metastore.getGetPartitionsByNames().getCoalescedRequests().getTotalCount(), 0);
+        assertEquals(metastore.getInFlightRequestCount(), 0);
+    }
+
+    @Test
+    public void testGetPartitionStatisticsInBatches()
+    {
+        CoalescingHiveMetastore metastore = new CoalescingHiveMetastore(fileMetastore, executor, 4);
+        ImmutableSet<String> partitionNames = PARTITION_NAMES.stream()
+                .map(PartitionNameWithVersion::getPartitionName)
+                .collect(toImmutableSet());
+
+        Map<String, PartitionStatistics> statistics = metastore.getPartitionStatistics(METASTORE_CONTEXT, DATABASE, TABLE, partitionNames);
+
+        assertEquals(statistics.keySet(), partitionNames);
+        assertEquals(metastore.getGetPartitionStatistics().getRequests().getTotalCount(), 3);
+    }
+
+    @Test(timeOut = 60_000)
+    public void testIdenticalRequestsAreCoalesced()
+            throws Exception
+    {
+        CoalescingHiveMetastore metastore = new CoalescingHiveMetastore(fileMetastore, directExecutor(), PARTITION_NAMES.size());
+        int callsBefore = fileMetastore.getPartitionsByNamesCalls.get();
+        CountDownLatch release = new CountDownLatch(1);
+        fileMetastore.release = release;
+        try {
+            ListenableFuture<Map<String, Optional<Partition>>> first = executor.submit(() -> metastore.getPartitionsByNames(METASTORE_CONTEXT, DATABASE, TABLE, PARTITION_NAMES));
+            // a different query for the same partitions shares the in-flight call
+            ListenableFuture<Map<String, Optional<Partition>>> second = executor.submit(() -> metastore.getPartitionsByNames(OTHER_QUERY_METASTORE_CONTEXT, DATABASE, TABLE, PARTITION_NAMES));
+            while (metastore.getGetPartitionsByNames().getCoalescedRequests().getTotalCount() < 1) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertEquals(first.get(), second.get());
+            assertEquals(first.get().size(), PARTITION_NAMES.size());
+        }
+        finally {
+            release.countDown();
+            fileMetastore.release = new CountDownLatch(0);
+        }
+
+        assertEquals(fileMetastore.getPartitionsByNamesCalls.get() - callsBefore, 1);
+        assertEquals(metastore.getGetPartitionsByNames().getRequests().getTotalCount(), 2);
+        assertEquals(metastore.getInFlightRequestCount(), 0);
+
+        // once the first call completed, a new request goes to the metastore again
+        metastore.getPartitionsByNames(METASTORE_CONTEXT, DATABASE, TABLE, PARTITION_NAMES);
+        assertEquals(fileMetastore.getPartitionsByNamesCalls.get() - callsBefore, 2);
+    }
+
+    private static class CountingFileHiveMetastore
+            extends FileHiveMetastore
+    {
+        private final AtomicInteger getPartitionsByNamesCalls = new AtomicInteger();
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        public CountingFileHiveMetastore(File catalogDirectory)
+        {
+            super(HDFS_ENVIRONMENT, catalogDirectory.toURI().toString(), "test");
+        }
+
+        @Override
+        public Map<String, Optional<Partition>> getPartitionsByNames(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionNameWithVersion> partitionNames)
+        {
+            getPartitionsByNamesCalls.incrementAndGet();
+            awaitUninterruptibly(release);
+            return super.getPartitionsByNames(metastoreContext, databaseName, tableName, partitionNames);
+        }
+    }
+}
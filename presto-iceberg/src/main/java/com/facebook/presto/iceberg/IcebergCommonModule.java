@@ -20,9 +20,11 @@ import com.facebook.presto.cache.CacheStats;
 import com.facebook.presto.cache.ForCachingFileSystem;
 import com.facebook.presto.cache.filemerge.FileMergeCacheConfig;
 import com.facebook.presto.hive.CacheStatsMBean;
+import com.facebook.presto.hive.ColumnWriterExecutorProvider;
 import com.facebook.presto.hive.DynamicConfigurationProvider;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
+import com.facebook.presto.hive.ForColumnWriters;
 import com.facebook.presto.hive.ForMetastoreHdfsEnvironment;
 import com.facebook.presto.hive.HdfsConfiguration;
 import com.facebook.presto.hive.HdfsConfigurationInitializer;
@@ -167,6 +169,7 @@ public class IcebergCommonModule
         binder.bind(ConnectorPageSourceProvider.class).to(IcebergPageSourceProvider.class).in(Scopes.SINGLETON);
         binder.bind(DataSinkFactory.class).to(OutputStreamDataSinkFactory.class).in(Scopes.SINGLETON);
         binder.bind(OrcFileWriterFactory.class).in(Scopes.SINGLETON);
+        binder.bind(ExecutorService.class).annotatedWith(ForColumnWriters.class).toProvider(ColumnWriterExecutorProvider.class).in(Scopes.SINGLETON);
         binder.bind(SortParameters.class).in(Scopes.SINGLETON);
         binder.bind(ConnectorPageSinkProvider.class).to(IcebergPageSinkProvider.class).in(Scopes.SINGLETON);
         binder.bind(ConnectorNodePartitioningProvider.class).to(HiveNodePartitioningProvider.class).in(Scopes.SINGLETON);
@@ -40,6 +40,7 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.util.Base64;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -192,6 +193,13 @@ public class IcebergPartitionLoader
         return ImmutableList.copyOf(partitions);
     }
 
+    @Override
+    public Iterator<HivePartition> streamPartitions()
+    {
+        // the partitions are collected from all files of the table scan, so they cannot be handed out before the scan is planned
+        return loadPartitions().iterator();
+    }
+
     @Override
     public synchronized boolean isEmpty()
     {
@@ -271,6 +271,7 @@ public final class SystemSessionProperties
     public static final String JOINS_NOT_NULL_INFERENCE_STRATEGY = "joins_not_null_inference_strategy";
     public static final String RESOURCE_AWARE_SCHEDULING_STRATEGY = "resource_aware_scheduling_strategy";
     public static final String SCHEDULE_SPLITS_BASED_ON_TASK_LOAD = "schedule_splits_based_on_task_load";
+    public static final String STRAGGLER_SPLIT_DIVERSION_ENABLED = "straggler_split_diversion_enabled";
     public static final String HEAP_DUMP_ON_EXCEEDED_MEMORY_LIMIT_ENABLED = "heap_dump_on_exceeded_memory_limit_enabled";
     public static final String EXCEEDED_MEMORY_LIMIT_HEAP_DUMP_FILE_DIRECTORY = "exceeded_memory_limit_heap_dump_file_directory";
     public static final String DISTRIBUTED_TRACING_MODE = "distributed_tracing_mode";
@@ -1613,6 +1614,11 @@ public final class SystemSessionProperties
                         "Schedule splits based on task load, rather than on the node load.",
                         nodeSchedulerConfig.isScheduleSplitsBasedOnTaskLoad(),
                         false),
+                booleanProperty(
+                        STRAGGLER_SPLIT_DIVERSION_ENABLED,
+                        "Move new leaf splits away from tasks whose split progress lags behind the other tasks of the stage",
+                        nodeSchedulerConfig.isStragglerSplitDiversionEnabled(),
+                        false),
                 stringProperty(
                         ANALYZER_TYPE,
                         "Analyzer type to use.",
@@ -3347,6 +3353,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SCHEDULE_SPLITS_BASED_ON_TASK_LOAD, Boolean.class);
     }
 
+    public static boolean isStragglerSplitDiversionEnabled(Session session)
+    {
+        return session.getSystemProperty(STRAGGLER_SPLIT_DIVERSION_ENABLED, Boolean.class);
+    }
+
     public static String getAnalyzerType(Session session)
     {
         return session.getSystemProperty(ANALYZER_TYPE, String.class);
@@ -14,16 +14,91 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.memory.TraversingQueryContextVisitor;
+import com.facebook.presto.memory.VoidTraversingQueryContextVisitor;
+import com.facebook.presto.operator.HashAggregationOperator;
+import com.facebook.presto.operator.HashBuilderOperator;
 import com.facebook.presto.operator.OperatorContext;
+import com.facebook.presto.operator.OrderByOperator;
 import com.facebook.presto.operator.TaskContext;
+import com.facebook.presto.operator.TopNRowNumberOperator;
+import com.facebook.presto.operator.WindowOperator;
+import com.google.common.collect.ImmutableMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.Comparator.reverseOrder;
 
 public class MemoryRevokingSchedulerUtils
 {
+    // Relative cost of spilling one byte and reading it back. Aggregations and top-N have to
+    // merge sorted spill files when unspilling, while a join build or a sort only reads them back.
+    private static final Map<String, Double> SPILL_COST_PER_BYTE = ImmutableMap.<String, Double>builder()
+            .put(HashBuilderOperator.class.getSimpleName(), 1.0)
+            .put(OrderByOperator.class.getSimpleName(), 1.0)
+            .put(WindowOperator.class.getSimpleName(), 1.5)
+            .put(HashAggregationOperator.class.getSimpleName(), 2.0)
+            .put(TopNRowNumberOperator.class.getSimpleName(), 2.0)
+            .build();
+    private static final double DEFAULT_SPILL_COST_PER_BYTE = 1.5;
+    // An operator that has all of its input is about to release its memory anyway, and spilling it
+    // now means writing and reading back everything it has built
+    private static final double FINISHING_OPERATOR_COST_MULTIPLIER = 4.0;
+    // An operator whose driver is blocked on it is not using its memory, so it is cheap to spill
+    private static final double BLOCKED_OPERATOR_COST_MULTIPLIER = 0.5;
+
     private MemoryRevokingSchedulerUtils() {}
 
+    /**
+     * Returns the operators of the given tasks that hold revocable memory and are not being revoked yet,
+     * ordered from the cheapest to spill per revoked byte to the most expensive. Operators with the same
+     * cost are ordered by decreasing revocable memory, so that fewer operators have to spill.
+     */
+    public static List<OperatorContext> getRevocableOperatorsBySpillCost(Collection<TaskContext> taskContexts)
+    {
+        List<OperatorContext> operatorContexts = new ArrayList<>();
+        VoidTraversingQueryContextVisitor<Void> visitor = new VoidTraversingQueryContextVisitor<Void>()
+        {
+            @Override
+            public Void visitOperatorContext(OperatorContext operatorContext, Void context)
+            {
+                if (operatorContext.getReservedRevocableBytes() > 0 && !operatorContext.isMemoryRevokingRequested()) {
+                    operatorContexts.add(operatorContext);
+                }
+                return null;
+            }
+        };
+        for (TaskContext taskContext : taskContexts) {
+            taskContext.accept(visitor, null);
+        }
+        // Snapshot the costs and sizes, as they can change while sorting
+        Map<OperatorContext, Double> costs = new IdentityHashMap<>();
+        Map<OperatorContext, Long> revocableBytes = new IdentityHashMap<>();
+        for (OperatorContext operatorContext : operatorContexts) {
+            costs.put(operatorContext, getSpillCostPerRevocableByte(operatorContext));
+            revocableBytes.put(operatorContext, operatorContext.getReservedRevocableBytes());
+        }
+        operatorContexts.sort(comparingDouble((OperatorContext operatorContext) -> costs.get(operatorContext))
+                .thenComparing(operatorContext -> revocableBytes.get(operatorContext), reverseOrder()));
+        return operatorContexts;
+    }
+
+    private static double getSpillCostPerRevocableByte(OperatorContext operatorContext)
+    {
+        double cost = SPILL_COST_PER_BYTE.getOrDefault(operatorContext.getOperatorType(), DEFAULT_SPILL_COST_PER_BYTE);
+        if (operatorContext.isFinishing()) {
+            cost *= FINISHING_OPERATOR_COST_MULTIPLIER;
+        }
+        else if (operatorContext.isBlocked()) {
+            cost *= BLOCKED_OPERATOR_COST_MULTIPLIER;
+        }
+        return cost;
+    }
+
     public static long getMemoryAlreadyBeingRevoked(Collection<TaskContext> taskContexts, long targetRevokingLimit)
     {
         TraversingQueryContextVisitor<Void, Long> visitor = new TraversingQueryContextVisitor<Void, Long>()
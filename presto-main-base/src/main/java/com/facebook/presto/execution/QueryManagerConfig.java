@@ -106,6 +106,10 @@ public class QueryManagerConfig
 
     private int minRunningQueriesForPacing = 30;
 
+    private boolean memoryAwareAdmissionEnabled;
+
+    private int memoryAwareAdmissionMaxHistoryEntries = 10_000;
+
     @Min(1)
     public int getScheduleSplitBatchSize()
     {
@@ -799,6 +803,33 @@ public class QueryManagerConfig
         return this;
     }
 
+    public boolean isMemoryAwareAdmissionEnabled()
+    {
+        return memoryAwareAdmissionEnabled;
+    }
+
+    @Config("query-manager.memory-aware-admission.enabled")
+    @ConfigDescription("Hold queued queries when their predicted peak memory, based on previous runs of the same query, would not fit in the general pool")
+    public QueryManagerConfig setMemoryAwareAdmissionEnabled(boolean memoryAwareAdmissionEnabled)
+    {
+        this.memoryAwareAdmissionEnabled = memoryAwareAdmissionEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getMemoryAwareAdmissionMaxHistoryEntries()
+    {
+        return memoryAwareAdmissionMaxHistoryEntries;
+    }
+
+    @Config("query-manager.memory-aware-admission.max-history-entries")
+    @ConfigDescription("Maximum number of distinct queries for which observed peak memory is remembered for admission control")
+    public QueryManagerConfig setMemoryAwareAdmissionMaxHistoryEntries(int memoryAwareAdmissionMaxHistoryEntries)
+    {
+        this.memoryAwareAdmissionMaxHistoryEntries = memoryAwareAdmissionMaxHistoryEntries;
+        return this;
+    }
+
     public enum ExchangeMaterializationStrategy
     {
         NONE,
@@ -585,6 +585,16 @@ public final class SqlStageExecution
         stateMachine.recordSchedulerBlockedTime(reason, nanos);
     }
 
+    public void recordStragglerTasksDetected(int count)
+    {
+        stateMachine.recordStragglerTasksDetected(count);
+    }
+
+    public void recordSplitsDivertedFromStragglers(int count)
+    {
+        stateMachine.recordSplitsDivertedFromStragglers(count);
+    }
+
     private static Split createRemoteSplitFor(TaskId taskId, URI remoteSourceTaskLocation, TaskId remoteSourceTaskId)
     {
         // Fetch the results from the buffer assigned to the task based on id
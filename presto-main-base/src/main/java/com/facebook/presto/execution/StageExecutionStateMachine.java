@@ -46,6 +46,8 @@ import static com.facebook.presto.common.RuntimeMetricName.SCAN_STAGE_SCHEDULER_
 import static com.facebook.presto.common.RuntimeMetricName.SCHEDULER_BLOCKED_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.SCHEDULER_CPU_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.SCHEDULER_WALL_TIME_NANOS;
+import static com.facebook.presto.common.RuntimeMetricName.SPLITS_DIVERTED_FROM_STRAGGLERS;
+import static com.facebook.presto.common.RuntimeMetricName.STRAGGLER_TASKS_DETECTED;
 import static com.facebook.presto.common.RuntimeMetricName.TASK_PLAN_SERIALIZED_CPU_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.TASK_START_WAIT_FOR_EVENT_LOOP;
 import static com.facebook.presto.common.RuntimeMetricName.TASK_UPDATE_DELIVERED_WALL_TIME_NANOS;
@@ -428,6 +430,16 @@ public class StageExecutionStateMachine
         runtimeStats.addMetricValue(SCAN_STAGE_SCHEDULER_BLOCKED_TIME_NANOS + "-" + reason, NANO, max(nanos, 0));
     }
 
+    public void recordStragglerTasksDetected(int count)
+    {
+        runtimeStats.addMetricValue(STRAGGLER_TASKS_DETECTED, NONE, count);
+    }
+
+    public void recordSplitsDivertedFromStragglers(int count)
+    {
+        runtimeStats.addMetricValue(SPLITS_DIVERTED_FROM_STRAGGLERS, NONE, count);
+    }
+
     @Override
     public void recordTaskUpdateDeliveredTime(long nanos)
     {
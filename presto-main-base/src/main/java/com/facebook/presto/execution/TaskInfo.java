@@ -185,4 +185,9 @@ public class TaskInfo
     {
         return new TaskInfo(taskId, newTaskStatus, lastHeartbeatInMillis, outputBuffers, noMoreSplits, stats, needsPlan, nodeId);
     }
+
+    public TaskInfo withStats(TaskStats newStats)
+    {
+        return new TaskInfo(taskId, taskStatus, lastHeartbeatInMillis, outputBuffers, noMoreSplits, newStats, needsPlan, nodeId);
+    }
 }
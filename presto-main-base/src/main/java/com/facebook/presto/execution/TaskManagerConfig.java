@@ -73,6 +73,7 @@ public class TaskManagerConfig
     private Duration infoRefreshMaxWait = new Duration(0, TimeUnit.SECONDS);
 
     private Duration infoUpdateInterval = new Duration(3, TimeUnit.SECONDS);
+    private Duration infoDetailUpdateInterval = new Duration(0, TimeUnit.SECONDS);
 
     private int writerCount = 1;
     private Integer partitionedWriterCount;
@@ -144,6 +145,21 @@ public class TaskManagerConfig
         return this;
     }
 
+    @NotNull
+    public Duration getInfoDetailUpdateInterval()
+    {
+        return infoDetailUpdateInterval;
+    }
+
+    @Config("task.info-detail-update-interval")
+    @ConfigDescription("When set to non-zero, running task info updates carry only task level stats, " +
+            "and pipeline and operator stats are refreshed at most once per this interval and when the task finishes")
+    public TaskManagerConfig setInfoDetailUpdateInterval(Duration infoDetailUpdateInterval)
+    {
+        this.infoDetailUpdateInterval = infoDetailUpdateInterval;
+        return this;
+    }
+
     @NotNull
     public Duration getInfoRefreshMaxWait()
     {
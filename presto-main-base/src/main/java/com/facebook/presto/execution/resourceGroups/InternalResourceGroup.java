@@ -743,8 +743,9 @@ public class InternalResourceGroup
                 boolean startQuery = immediateStartCandidate;
                 if (immediateStartCandidate) {
                     // Check for coordinator overload (task limit exceeded or denied admission)
-                    //isTaskLimitExceeded MUST be checked before tryAcquireAdmissionSlot, or else admission slots will be acquired but not started
+                    //isTaskLimitExceeded and canAdmit MUST be checked before tryAcquireAdmissionSlot, or else admission slots will be acquired but not started
                     boolean coordOverloaded = ((RootInternalResourceGroup) root).isTaskLimitExceeded()
+                            || !((RootInternalResourceGroup) root).canAdmitByMemory(query)
                             || !queryPacingContext.tryAcquireAdmissionSlot();
                     if (coordOverloaded) {
                         startQuery = false;
@@ -826,6 +827,7 @@ public class InternalResourceGroup
             updateEligibility();
             // Increment global running query counter for pacing
             queryPacingContext.onQueryStarted();
+            ((RootInternalResourceGroup) root).getQueryMemoryAdmissionContext().onQueryStarted(query);
             executor.execute(query::startWaitingForResources);
             group = this;
             long lastRunningQueryStartTimeMillis = currentTimeMillis();
@@ -861,6 +863,7 @@ public class InternalResourceGroup
                 }
                 // Decrement global running query counter for pacing
                 queryPacingContext.onQueryFinished();
+                ((RootInternalResourceGroup) root).getQueryMemoryAdmissionContext().onQueryFinished(query);
             }
             else {
                 queuedQueries.remove(query);
@@ -935,6 +938,10 @@ public class InternalResourceGroup
 
             ManagedQueryExecution query = queuedQueries.peek();
             if (query != null) {
+                // The query stays at the head of the queue until its predicted memory fits in the cluster
+                if (!((RootInternalResourceGroup) root).canAdmitByMemory(query)) {
+                    return false;
+                }
                 if (!queryPacingContext.tryAcquireAdmissionSlot()) {
                     return false;
                 }
@@ -1164,6 +1171,7 @@ public class InternalResourceGroup
             extends InternalResourceGroup
     {
         private AtomicBoolean taskLimitExceeded = new AtomicBoolean();
+        private final QueryMemoryAdmissionContext queryMemoryAdmissionContext;
 
         public RootInternalResourceGroup(
                 String name,
@@ -1174,6 +1182,28 @@ public class InternalResourceGroup
                 InternalNodeManager nodeManager,
                 ClusterResourceChecker clusterResourceChecker,
                 QueryPacingContext queryPacingContext)
+        {
+            this(name,
+                    jmxExportListener,
+                    executor,
+                    additionalRuntimeInfo,
+                    shouldWaitForResourceManagerUpdate,
+                    nodeManager,
+                    clusterResourceChecker,
+                    queryPacingContext,
+                    QueryMemoryAdmissionContext.NOOP);
+        }
+
+        public RootInternalResourceGroup(
+                String name,
+                BiConsumer<InternalResourceGroup, Boolean> jmxExportListener,
+                Executor executor,
+                Function<ResourceGroupId, Optional<ResourceGroupRuntimeInfo>> additionalRuntimeInfo,
+                Predicate<InternalResourceGroup> shouldWaitForResourceManagerUpdate,
+                InternalNodeManager nodeManager,
+                ClusterResourceChecker clusterResourceChecker,
+                QueryPacingContext queryPacingContext,
+                QueryMemoryAdmissionContext queryMemoryAdmissionContext)
         {
             super(Optional.empty(),
                     name,
@@ -1185,6 +1215,7 @@ public class InternalResourceGroup
                     nodeManager,
                     clusterResourceChecker,
                     queryPacingContext);
+            this.queryMemoryAdmissionContext = requireNonNull(queryMemoryAdmissionContext, "queryMemoryAdmissionContext is null");
         }
 
         public synchronized void updateEligibilityRecursively(InternalResourceGroup group)
@@ -1220,5 +1251,20 @@ public class InternalResourceGroup
         {
             return taskLimitExceeded.get();
         }
+
+        private QueryMemoryAdmissionContext getQueryMemoryAdmissionContext()
+        {
+            return queryMemoryAdmissionContext;
+        }
+
+        // The caller keeps the query queued when this returns false
+        private boolean canAdmitByMemory(ManagedQueryExecution query)
+        {
+            if (queryMemoryAdmissionContext.canAdmit(query)) {
+                return true;
+            }
+            queryMemoryAdmissionContext.onQueryHeld(query);
+            return false;
+        }
     }
 }
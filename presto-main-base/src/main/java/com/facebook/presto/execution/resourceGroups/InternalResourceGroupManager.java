@@ -45,6 +45,7 @@ import jakarta.inject.Inject;
 import org.weakref.jmx.JmxException;
 import org.weakref.jmx.MBeanExporter;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 import org.weakref.jmx.ObjectNames;
 
 import java.io.File;
@@ -68,6 +69,7 @@ import java.util.function.Supplier;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.execution.resourceGroups.LegacyResourceGroupConfigurationManager.HARD_CONCURRENCY_LIMIT;
 import static com.facebook.presto.execution.resourceGroups.LegacyResourceGroupConfigurationManager.MAX_QUEUED_QUERIES;
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
 import static com.facebook.presto.spi.StandardErrorCode.MISSING_RESOURCE_GROUP_SELECTOR;
 import static com.facebook.presto.spi.StandardErrorCode.SERVER_STARTING_UP;
 import static com.facebook.presto.util.PropertiesUtil.loadProperties;
@@ -129,6 +131,8 @@ public final class InternalResourceGroupManager<C>
     private AtomicBoolean isConfigurationManagerLoaded;
     private final ClusterResourceChecker clusterResourceChecker;
     private final QueryPacingContext queryPacingContext;
+    private final QueryMemoryPredictor queryMemoryPredictor;
+    private final QueryMemoryAdmissionContext queryMemoryAdmissionContext;
 
     @Inject
     public InternalResourceGroupManager(
@@ -161,6 +165,14 @@ public final class InternalResourceGroupManager<C>
         this.queryAdmissionIntervalNanos = (maxQueryAdmissionsPerSecond == Integer.MAX_VALUE)
             ? 0L
             : 1_000_000_000L / maxQueryAdmissionsPerSecond;
+        this.queryMemoryPredictor = new QueryMemoryPredictor(queryManagerConfig.getMemoryAwareAdmissionMaxHistoryEntries());
+        if (queryManagerConfig.isMemoryAwareAdmissionEnabled()) {
+            memoryPoolManager.addChangeListener(GENERAL_POOL, queryMemoryPredictor::updateGeneralPool);
+            this.queryMemoryAdmissionContext = queryMemoryPredictor;
+        }
+        else {
+            this.queryMemoryAdmissionContext = QueryMemoryAdmissionContext.NOOP;
+        }
         this.queryPacingContext = new QueryPacingContext()
         {
             @Override
@@ -522,7 +534,8 @@ public final class InternalResourceGroupManager<C>
                             rg -> false,
                             nodeManager,
                             clusterResourceChecker,
-                            queryPacingContext);
+                            queryPacingContext,
+                            queryMemoryAdmissionContext);
                 }
                 else {
                     root = new RootInternalResourceGroup(
@@ -537,7 +550,8 @@ public final class InternalResourceGroupManager<C>
                                     concurrencyThreshold),
                             nodeManager,
                             clusterResourceChecker,
-                            queryPacingContext);
+                            queryPacingContext,
+                            queryMemoryAdmissionContext);
                 }
                 group = root;
                 rootGroups.add(root);
@@ -617,6 +631,13 @@ public final class InternalResourceGroupManager<C>
         return lastSchedulingCycleRunTimeMs.get() == 0L ? lastSchedulingCycleRunTimeMs.get() : currentTimeMillis() - lastSchedulingCycleRunTimeMs.get();
     }
 
+    @Managed
+    @Nested
+    public QueryMemoryPredictor getQueryMemoryPredictor()
+    {
+        return queryMemoryPredictor;
+    }
+
     @Managed
     public int getMaxQueryAdmissionsPerSecond()
     {
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.resourceGroups;
+
+import com.facebook.presto.execution.ManagedQueryExecution;
+
+/**
+ * Context for memory-aware query admission. Shared by all resource groups so that
+ * admission decisions account for the predicted memory of every running query,
+ * not just the ones in a single group.
+ */
+public interface QueryMemoryAdmissionContext
+{
+    /**
+     * A no-op implementation that admits every query.
+     */
+    QueryMemoryAdmissionContext NOOP = new QueryMemoryAdmissionContext()
+    {
+        @Override
+        public boolean canAdmit(ManagedQueryExecution query)
+        {
+            return true;
+        }
+
+        @Override
+        public void onQueryHeld(ManagedQueryExecution query)
+        {
+        }
+
+        @Override
+        public void onQueryStarted(ManagedQueryExecution query)
+        {
+        }
+
+        @Override
+        public void onQueryFinished(ManagedQueryExecution query)
+        {
+        }
+    };
+
+    /**
+     * Checks whether the predicted peak memory of the query fits in the cluster.
+     * Must not have side effects, as the query may stay queued after this call.
+     *
+     * @return true if query can be admitted, false if it should stay queued
+     */
+    boolean canAdmit(ManagedQueryExecution query);
+
+    /**
+     * Called when a query stays queued because {@link #canAdmit} returned false.
+     * May be called again for the same query on later scheduling passes.
+     */
+    void onQueryHeld(ManagedQueryExecution query);
+
+    /**
+     * Called when a query starts running. The predicted memory of the query is reserved until it finishes.
+     */
+    void onQueryStarted(ManagedQueryExecution query);
+
+    /**
+     * Called when a running query finishes (success or failure). Releases the predicted memory and records the observed peak.
+     */
+    void onQueryFinished(ManagedQueryExecution query);
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.resourceGroups;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.ManagedQueryExecution;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.errorprone.annotations.ThreadSafe;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.common.RuntimeMetricName.PREDICTED_PEAK_TOTAL_MEMORY_BYTES;
+import static com.facebook.presto.common.RuntimeUnit.BYTE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.sha256;
+import static com.google.common.math.LongMath.saturatedAdd;
+import static java.lang.Boolean.TRUE;
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Predicts the peak total memory of a query from the observed peak of previous runs of the
+ * same query, and holds queries in the queue while the predicted cluster reservation would
+ * exceed the general pool.
+ * <p>
+ * Admission happens before a query is planned, so the canonical plan hash used by history
+ * based optimization is not available yet. Queries are instead identified by their text and
+ * default catalog and schema, which is stable for the repeated queries this is aimed at.
+ */
+@ThreadSafe
+public class QueryMemoryPredictor
+        implements QueryMemoryAdmissionContext
+{
+    private final Cache<HashCode, Long> peakMemoryHistory;
+    // Queued queries are checked on every scheduling cycle, so avoid rehashing their text each time
+    private final Cache<ManagedQueryExecution, HashCode> fingerprints = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+    // Queued queries are held on every scheduling cycle until they fit, so remember which ones were already counted as denied
+    private final Cache<ManagedQueryExecution, Boolean> heldQueries = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+    private final Map<ManagedQueryExecution, Long> runningQueryPredictions = new ConcurrentHashMap<>();
+    private final AtomicLong generalPoolMaxBytes = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong generalPoolReservedBytes = new AtomicLong();
+
+    private final CounterStat predictionHits = new CounterStat();
+    private final CounterStat predictionMisses = new CounterStat();
+    private final CounterStat admissionsDenied = new CounterStat();
+
+    public QueryMemoryPredictor(int maxHistoryEntries)
+    {
+        checkArgument(maxHistoryEntries > 0, "maxHistoryEntries must be positive");
+        this.peakMemoryHistory = CacheBuilder.newBuilder()
+                .maximumSize(maxHistoryEntries)
+                .build();
+    }
+
+    public void updateGeneralPool(MemoryPoolInfo poolInfo)
+    {
+        generalPoolMaxBytes.set(poolInfo.getMaxBytes());
+        generalPoolReservedBytes.set(poolInfo.getReservedBytes() + poolInfo.getReservedRevocableBytes());
+    }
+
+    @Override
+    public boolean canAdmit(ManagedQueryExecution query)
+    {
+        long predictedBytes = predictPeakMemoryBytes(query);
+        // Always let a query run on an otherwise idle cluster, even if it is predicted to exceed the pool
+        if (predictedBytes == 0 || runningQueryPredictions.isEmpty()) {
+            return true;
+        }
+        long projectedBytes = saturatedAdd(saturatedAdd(generalPoolReservedBytes.get(), getOutstandingPredictedBytes()), predictedBytes);
+        return projectedBytes <= generalPoolMaxBytes.get();
+    }
+
+    @Override
+    public void onQueryHeld(ManagedQueryExecution query)
+    {
+        if (heldQueries.asMap().putIfAbsent(query, TRUE) == null) {
+            admissionsDenied.update(1);
+        }
+    }
+
+    @Override
+    public void onQueryStarted(ManagedQueryExecution query)
+    {
+        heldQueries.invalidate(query);
+        long predictedBytes = predictPeakMemoryBytes(query);
+        if (predictedBytes > 0) {
+            predictionHits.update(1);
+            query.getSession().getRuntimeStats().addMetricValue(PREDICTED_PEAK_TOTAL_MEMORY_BYTES, BYTE, predictedBytes);
+        }
+        else {
+            predictionMisses.update(1);
+        }
+        runningQueryPredictions.put(query, predictedBytes);
+    }
+
+    @Override
+    public void onQueryFinished(ManagedQueryExecution query)
+    {
+        if (runningQueryPredictions.remove(query) == null) {
+            return;
+        }
+        recordPeakMemory(query, query.getBasicQueryInfo().getQueryStats().getPeakTotalMemoryReservation().toBytes());
+    }
+
+    @VisibleForTesting
+    void recordPeakMemory(ManagedQueryExecution query, long peakMemoryBytes)
+    {
+        if (peakMemoryBytes <= 0) {
+            return;
+        }
+        HashCode fingerprint = fingerprint(query);
+        Long previousBytes = peakMemoryHistory.getIfPresent(fingerprint);
+        // Grow the prediction immediately, but shrink it slowly, so that a single light run does not admit a burst of heavy ones
+        long predictedBytes = previousBytes == null ? peakMemoryBytes : max(peakMemoryBytes, previousBytes - (previousBytes - peakMemoryBytes) / 2);
+        peakMemoryHistory.put(fingerprint, predictedBytes);
+    }
+
+    @VisibleForTesting
+    long predictPeakMemoryBytes(ManagedQueryExecution query)
+    {
+        Long predictedBytes = peakMemoryHistory.getIfPresent(fingerprint(query));
+        return predictedBytes == null ? 0 : predictedBytes;
+    }
+
+    /**
+     * Memory that running queries are predicted to reserve on top of what they hold right now.
+     */
+    private long getOutstandingPredictedBytes()
+    {
+        long outstandingBytes = 0;
+        for (Map.Entry<ManagedQueryExecution, Long> entry : runningQueryPredictions.entrySet()) {
+            outstandingBytes = saturatedAdd(outstandingBytes, max(entry.getValue() - entry.getKey().getTotalMemoryReservationInBytes(), 0));
+        }
+        return outstandingBytes;
+    }
+
+    private HashCode fingerprint(ManagedQueryExecution query)
+    {
+        HashCode fingerprint = fingerprints.getIfPresent(query);
+        if (fingerprint == null) {
+            fingerprint = computeFingerprint(query);
+            fingerprints.put(query, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static HashCode computeFingerprint(ManagedQueryExecution query)
+    {
+        Session session = query.getSession();
+        return sha256().newHasher()
+                .putString(session.getCatalog().orElse(""), UTF_8)
+                .putByte((byte) 0)
+                .putString(session.getSchema().orElse(""), UTF_8)
+                .putByte((byte) 0)
+                .putString(query.getBasicQueryInfo().getQuery(), UTF_8)
+                .hash();
+    }
+
+    @Managed
+    public long getOutstandingPredictedMemoryBytes()
+    {
+        return getOutstandingPredictedBytes();
+    }
+
+    @Managed
+    public long getHistorySize()
+    {
+        return peakMemoryHistory.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPredictionHits()
+    {
+        return predictionHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPredictionMisses()
+    {
+        return predictionMisses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getAdmissionsDenied()
+    {
+        return admissionsDenied;
+    }
+}
@@ -188,6 +188,11 @@ public class NodeScheduler
         return counters.build();
     }
 
+    public long getMaxPendingSplitsWeightPerTask()
+    {
+        return maxPendingSplitsWeightPerTask;
+    }
+
     public NodeSelector createNodeSelector(Session session, ConnectorId connectorId)
     {
         return createNodeSelector(session, connectorId, Integer.MAX_VALUE, Optional.empty());
@@ -42,6 +42,7 @@ public class NodeSchedulerConfig
     private int minVirtualNodeCount = 1000;
     private ResourceAwareSchedulingStrategy resourceAwareSchedulingStrategy = ResourceAwareSchedulingStrategy.RANDOM;
     private int maxPreferredNodes = 2;
+    private boolean stragglerSplitDiversionEnabled;
 
     @NotNull
     public String getNetworkTopology()
@@ -202,6 +203,19 @@ public class NodeSchedulerConfig
         return this;
     }
 
+    public boolean isStragglerSplitDiversionEnabled()
+    {
+        return stragglerSplitDiversionEnabled;
+    }
+
+    @Config("node-scheduler.straggler-split-diversion-enabled")
+    @ConfigDescription("Move new leaf splits away from tasks whose split progress lags behind the other tasks of the stage")
+    public NodeSchedulerConfig setStragglerSplitDiversionEnabled(boolean stragglerSplitDiversionEnabled)
+    {
+        this.stragglerSplitDiversionEnabled = stragglerSplitDiversionEnabled;
+        return this;
+    }
+
     public enum ResourceAwareSchedulingStrategy
     {
         RANDOM,
@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.execution.RemoteTask;
+import com.facebook.presto.execution.SqlStageExecution;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.metadata.InternalNode;
+import com.facebook.presto.metadata.Split;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.facebook.presto.execution.scheduler.NodeScheduler.canAssignSplitBasedOnWeight;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.HARD_AFFINITY;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps new splits of a leaf stage away from tasks that fall behind the other tasks of the stage.
+ * <p>
+ * A task is a straggler when the fraction of its assigned splits that it has completed is less than
+ * half of the median fraction across the stage. Splits that the underlying policy places on a straggler
+ * are moved to the least loaded healthy task whose split queue has room for them, unless the split is
+ * pinned to its node.
+ */
+public class StragglerAwareSplitPlacementPolicy
+        implements SplitPlacementPolicy
+{
+    private static final int MIN_ASSIGNED_SPLITS = 4;
+    private static final int MIN_PEER_TASKS = 3;
+    private static final double STRAGGLER_PROGRESS_RATIO = 0.5;
+
+    private final SplitPlacementPolicy delegate;
+    private final SqlStageExecution stage;
+    private final long maxPendingSplitsWeightPerTask;
+
+    private final Map<String, Integer> assignedSplitsByNode = new HashMap<>();
+    private final Set<TaskId> detectedStragglers = new HashSet<>();
+
+    public StragglerAwareSplitPlacementPolicy(SplitPlacementPolicy delegate, SqlStageExecution stage, long maxPendingSplitsWeightPerTask)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.stage = requireNonNull(stage, "stage is null");
+        this.maxPendingSplitsWeightPerTask = maxPendingSplitsWeightPerTask;
+    }
+
+    @Override
+    public SplitPlacementResult computeAssignments(Set<Split> splits)
+    {
+        SplitPlacementResult result = delegate.computeAssignments(splits);
+        Multimap<InternalNode, Split> assignments = result.getAssignments();
+
+        Map<String, RemoteTask> tasksByNode = new HashMap<>();
+        for (RemoteTask task : stage.getAllTasks()) {
+            tasksByNode.put(task.getNodeId(), task);
+        }
+        Set<String> stragglers = findStragglers(tasksByNode);
+        if (assignments.keySet().stream().anyMatch(node -> stragglers.contains(node.getNodeIdentifier()))) {
+            assignments = divertFromStragglers(assignments, stragglers, tasksByNode);
+        }
+
+        for (Entry<InternalNode, Collection<Split>> entry : assignments.asMap().entrySet()) {
+            assignedSplitsByNode.merge(entry.getKey().getNodeIdentifier(), entry.getValue().size(), Integer::sum);
+        }
+        return new SplitPlacementResult(result.getBlocked(), assignments);
+    }
+
+    @Override
+    public void lockDownNodes()
+    {
+        delegate.lockDownNodes();
+    }
+
+    @Override
+    public List<InternalNode> getActiveNodes()
+    {
+        return delegate.getActiveNodes();
+    }
+
+    private Set<String> findStragglers(Map<String, RemoteTask> tasksByNode)
+    {
+        Map<String, Double> progressByNode = new HashMap<>();
+        for (Entry<String, RemoteTask> entry : tasksByNode.entrySet()) {
+            int assigned = assignedSplitsByNode.getOrDefault(entry.getKey(), 0);
+            if (assigned < MIN_ASSIGNED_SPLITS || entry.getValue().getTaskStatus().getState().isDone()) {
+                continue;
+            }
+            int outstanding = entry.getValue().getPartitionedSplitsInfo().getCount();
+            progressByNode.put(entry.getKey(), max(assigned - outstanding, 0) / (double) assigned);
+        }
+        if (progressByNode.size() < MIN_PEER_TASKS) {
+            return ImmutableSet.of();
+        }
+
+        List<Double> progress = new ArrayList<>(progressByNode.values());
+        Collections.sort(progress);
+        double threshold = progress.get(progress.size() / 2) * STRAGGLER_PROGRESS_RATIO;
+
+        ImmutableSet.Builder<String> stragglers = ImmutableSet.builder();
+        int newStragglers = 0;
+        for (Entry<String, Double> entry : progressByNode.entrySet()) {
+            if (entry.getValue() < threshold) {
+                RemoteTask task = tasksByNode.get(entry.getKey());
+                stragglers.add(entry.getKey());
+                if (detectedStragglers.add(task.getTaskId())) {
+                    newStragglers++;
+                }
+            }
+        }
+        if (newStragglers > 0) {
+            stage.recordStragglerTasksDetected(newStragglers);
+        }
+        return stragglers.build();
+    }
+
+    private Multimap<InternalNode, Split> divertFromStragglers(Multimap<InternalNode, Split> assignments, Set<String> stragglers, Map<String, RemoteTask> tasksByNode)
+    {
+        Map<InternalNode, Integer> healthyNodeLoad = new HashMap<>();
+        Map<InternalNode, Long> healthyNodeQueuedWeight = new HashMap<>();
+        for (InternalNode node : delegate.getActiveNodes()) {
+            RemoteTask task = tasksByNode.get(node.getNodeIdentifier());
+            if (task != null && !stragglers.contains(node.getNodeIdentifier()) && !task.getTaskStatus().getState().isDone()) {
+                Collection<Split> assigned = assignments.get(node);
+                healthyNodeLoad.put(node, task.getPartitionedSplitsInfo().getCount() + assigned.size());
+                healthyNodeQueuedWeight.put(node, task.getQueuedPartitionedSplitsInfo().getWeightSum() + assigned.stream()
+                        .mapToLong(split -> split.getSplitWeight().getRawValue())
+                        .sum());
+            }
+        }
+        if (healthyNodeLoad.isEmpty()) {
+            return assignments;
+        }
+
+        Multimap<InternalNode, Split> result = HashMultimap.create();
+        int diverted = 0;
+        for (Entry<InternalNode, Split> entry : assignments.entries()) {
+            InternalNode node = entry.getKey();
+            Split split = entry.getValue();
+            if (!stragglers.contains(node.getNodeIdentifier()) || split.getNodeSelectionStrategy() == HARD_AFFINITY) {
+                result.put(node, split);
+                continue;
+            }
+
+            // the healthy node must have room in its split queue, as the node selector would require
+            InternalNode target = healthyNodeLoad.entrySet().stream()
+                    .filter(candidate -> canAssignSplitBasedOnWeight(healthyNodeQueuedWeight.get(candidate.getKey()), maxPendingSplitsWeightPerTask, split.getSplitWeight()))
+                    .min(Entry.comparingByValue())
+                    .map(Entry::getKey)
+                    .orElse(null);
+            // only move the split if it is expected to start sooner on the healthy node
+            if (target == null || healthyNodeLoad.get(target) >= tasksByNode.get(node.getNodeIdentifier()).getPartitionedSplitsInfo().getCount()) {
+                result.put(node, split);
+                continue;
+            }
+            result.put(target, split);
+            healthyNodeLoad.merge(target, 1, Integer::sum);
+            healthyNodeQueuedWeight.merge(target, split.getSplitWeight().getRawValue(), Long::sum);
+            diverted++;
+        }
+        if (diverted > 0) {
+            stage.recordSplitsDivertedFromStragglers(diverted);
+        }
+        return result;
+    }
+}
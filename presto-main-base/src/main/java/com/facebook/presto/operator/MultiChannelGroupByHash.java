@@ -63,7 +63,6 @@ public class MultiChannelGroupByHash
 
     private final PagesHashStrategy hashStrategy;
     private final List<ObjectArrayList<Block>> channelBuilders;
-    private final Optional<Integer> inputHashChannel;
     private final HashGenerator hashGenerator;
     private final OptionalInt precomputedHashChannel;
     private final boolean processDictionary;
@@ -103,10 +102,10 @@ public class MultiChannelGroupByHash
 
         requireNonNull(joinCompiler, "joinCompiler is null");
         requireNonNull(hashChannels, "hashChannels is null");
+        requireNonNull(inputHashChannel, "inputHashChannel is null");
         checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
         checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
 
-        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
         this.types = inputHashChannel.isPresent() ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : this.hashTypes;
         this.channels = hashChannels.clone();
 
@@ -481,16 +480,22 @@ public class MultiChannelGroupByHash
         return maxFill;
     }
 
-    private void updateDictionaryLookBack(Block dictionary)
+    private void updateDictionaryLookBack(Block dictionary, int positionCount)
     {
         if (dictionaryLookBack == null || dictionaryLookBack.getDictionary() != dictionary) {
-            dictionaryLookBack = new DictionaryLookBack(dictionary);
+            // A look back table for a dictionary larger than the page only pays off if the dictionary is reused by later pages.
+            // Use the previous dictionary as the predictor, like DictionaryAwarePageProjection does.
+            boolean enabled = dictionaryLookBack == null ||
+                    dictionary.getPositionCount() <= positionCount ||
+                    dictionaryLookBack.getUsageCount() >= dictionaryLookBack.getDictionary().getPositionCount();
+            dictionaryLookBack = new DictionaryLookBack(dictionary, enabled);
         }
+        dictionaryLookBack.addUsage(positionCount);
     }
 
-    // For a page that contains DictionaryBlocks, create a new page in which
-    // the dictionaries from the DictionaryBlocks are extracted into the corresponding channels
-    // From Page(DictionaryBlock1, DictionaryBlock2) create new page with Page(dictionary1, dictionary2)
+    // For a page whose group by channel is a DictionaryBlock, create a new page in which
+    // the dictionary is extracted into that channel. The precomputed hash, if any, is still
+    // read from the input page, so the hash channel does not need to share the dictionary.
     private Page createPageWithExtractedDictionary(Page page)
     {
         Block[] blocks = new Block[page.getChannelCount()];
@@ -499,35 +504,18 @@ public class MultiChannelGroupByHash
         // extract data dictionary
         blocks[channels[0]] = dictionary;
 
-        // extract hash dictionary
-        if (inputHashChannel.isPresent()) {
-            blocks[inputHashChannel.get()] = ((DictionaryBlock) page.getBlock(inputHashChannel.get())).getDictionary();
-        }
-
         return new Page(dictionary.getPositionCount(), blocks);
     }
 
+    // Must be called exactly once per input page, since it records the usage of the dictionary
     private boolean canProcessDictionary(Page page)
     {
         if (!this.processDictionary || channels.length > 1 || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
             return false;
         }
 
-        if (inputHashChannel.isPresent()) {
-            Block inputHashBlock = page.getBlock(inputHashChannel.get());
-            DictionaryBlock inputDataBlock = (DictionaryBlock) page.getBlock(channels[0]);
-
-            if (!(inputHashBlock instanceof DictionaryBlock)) {
-                // data channel is dictionary encoded but hash channel is not
-                return false;
-            }
-            if (!((DictionaryBlock) inputHashBlock).getDictionarySourceId().equals(inputDataBlock.getDictionarySourceId())) {
-                // dictionarySourceIds of data block and hash block do not match
-                return false;
-            }
-        }
-
-        return true;
+        updateDictionaryLookBack(((DictionaryBlock) page.getBlock(channels[0])).getDictionary(), page.getPositionCount());
+        return dictionaryLookBack.isEnabled();
     }
 
     private boolean isRunLengthEncoded(Page page)
@@ -540,13 +528,14 @@ public class MultiChannelGroupByHash
         return true;
     }
 
-    private int getGroupId(HashGenerator hashGenerator, Page page, int positionInDictionary)
+    private int getGroupId(HashGenerator hashGenerator, Page page, int position, Page dictionaryPage, int positionInDictionary)
     {
         if (dictionaryLookBack.isProcessed(positionInDictionary)) {
             return dictionaryLookBack.getGroupId(positionInDictionary);
         }
 
-        int groupId = putIfAbsent(positionInDictionary, page, hashGenerator.hashPosition(positionInDictionary, page));
+        // the hash of a row equals the hash of its dictionary entry
+        int groupId = putIfAbsent(positionInDictionary, dictionaryPage, hashGenerator.hashPosition(position, page));
         dictionaryLookBack.setProcessed(positionInDictionary, groupId);
         return groupId;
     }
@@ -555,12 +544,18 @@ public class MultiChannelGroupByHash
     {
         private final Block dictionary;
         private final int[] processed;
+        private long usageCount;
 
-        public DictionaryLookBack(Block dictionary)
+        public DictionaryLookBack(Block dictionary, boolean enabled)
         {
             this.dictionary = dictionary;
-            this.processed = new int[dictionary.getPositionCount()];
-            Arrays.fill(processed, -1);
+            if (enabled) {
+                this.processed = new int[dictionary.getPositionCount()];
+                Arrays.fill(processed, -1);
+            }
+            else {
+                this.processed = null;
+            }
         }
 
         public Block getDictionary()
@@ -568,6 +563,21 @@ public class MultiChannelGroupByHash
             return dictionary;
         }
 
+        public boolean isEnabled()
+        {
+            return processed != null;
+        }
+
+        public long getUsageCount()
+        {
+            return usageCount;
+        }
+
+        public void addUsage(int positionCount)
+        {
+            usageCount += positionCount;
+        }
+
         public int getGroupId(int position)
         {
             return processed[position];
@@ -636,10 +646,9 @@ public class MultiChannelGroupByHash
 
         public AddDictionaryPageWork(Page page)
         {
-            verify(canProcessDictionary(page), "invalid call to addDictionaryPage");
             this.page = requireNonNull(page, "page is null");
             this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
-            updateDictionaryLookBack(dictionaryBlock.getDictionary());
+            verify(dictionaryLookBack.isEnabled() && dictionaryLookBack.getDictionary() == dictionaryBlock.getDictionary(), "invalid call to addDictionaryPage");
             this.dictionaryPage = createPageWithExtractedDictionary(page);
         }
 
@@ -659,7 +668,7 @@ public class MultiChannelGroupByHash
             // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
             while (lastPosition < positionCount && !needRehash()) {
                 int positionInDictionary = dictionaryBlock.getId(lastPosition);
-                getGroupId(hashGenerator, dictionaryPage, positionInDictionary);
+                getGroupId(hashGenerator, page, lastPosition, dictionaryPage, positionInDictionary);
                 lastPosition++;
             }
             return lastPosition == positionCount;
@@ -776,10 +785,9 @@ public class MultiChannelGroupByHash
         public GetDictionaryGroupIdsWork(Page page)
         {
             this.page = requireNonNull(page, "page is null");
-            verify(canProcessDictionary(page), "invalid call to processDictionary");
-
             this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
-            updateDictionaryLookBack(dictionaryBlock.getDictionary());
+            verify(dictionaryLookBack.isEnabled() && dictionaryLookBack.getDictionary() == dictionaryBlock.getDictionary(), "invalid call to processDictionary");
+
             this.dictionaryPage = createPageWithExtractedDictionary(page);
 
             // we know the exact size required for the block
@@ -803,7 +811,7 @@ public class MultiChannelGroupByHash
             // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
             while (lastPosition < positionCount && !needRehash()) {
                 int positionInDictionary = dictionaryBlock.getId(lastPosition);
-                int groupId = getGroupId(hashGenerator, dictionaryPage, positionInDictionary);
+                int groupId = getGroupId(hashGenerator, page, lastPosition, dictionaryPage, positionInDictionary);
                 BIGINT.writeLong(blockBuilder, groupId);
                 lastPosition++;
             }
@@ -40,6 +40,8 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static com.facebook.airlift.units.Duration.succinctNanos;
+import static com.facebook.presto.common.RuntimeMetricName.MEMORY_REVOKING_REQUESTED_BYTES;
+import static com.facebook.presto.common.RuntimeUnit.BYTE;
 import static com.facebook.presto.operator.BlockedReason.WAITING_FOR_MEMORY;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -281,6 +283,22 @@ public class OperatorContext
         operationTimer.recordOperationComplete(finishTiming);
     }
 
+    /**
+     * Returns true while the driver is blocked on this operator.
+     */
+    public boolean isBlocked()
+    {
+        return blockedMonitor.get() != null;
+    }
+
+    /**
+     * Returns true once the operator has been told that no more input will arrive.
+     */
+    public boolean isFinishing()
+    {
+        return finishTiming.getCalls() > 0;
+    }
+
     public ListenableFuture<?> isWaitingForMemory()
     {
         return memoryFuture.get();
@@ -444,6 +462,9 @@ public class OperatorContext
                 listener = memoryRevocationRequestListener;
             }
         }
+        if (revokedMemory > 0) {
+            runtimeStats.addMetricValue(MEMORY_REVOKING_REQUESTED_BYTES, BYTE, revokedMemory);
+        }
         if (listener != null) {
             runListener(listener);
         }
@@ -20,6 +20,7 @@ import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.LazyBlockLoader;
+import com.facebook.presto.common.block.PositionsAwareLazyBlockLoader;
 import com.facebook.presto.common.function.SqlFunctionProperties;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
@@ -318,10 +319,10 @@ public class ScanFilterAndProjectOperator
         return result;
     }
 
-    private final class RecordingLazyBlockLoader
+    private class RecordingLazyBlockLoader
             implements LazyBlockLoader<LazyBlock>
     {
-        private LazyBlock delegateLazyBlock;
+        protected LazyBlock delegateLazyBlock;
 
         private RecordingLazyBlockLoader(LazyBlock delegateLazyBlock)
         {
@@ -340,6 +341,27 @@ public class ScanFilterAndProjectOperator
         }
     }
 
+    private final class RecordingPositionsAwareLazyBlockLoader
+            extends RecordingLazyBlockLoader
+            implements PositionsAwareLazyBlockLoader
+    {
+        private RecordingPositionsAwareLazyBlockLoader(LazyBlock delegateLazyBlock)
+        {
+            super(delegateLazyBlock);
+        }
+
+        @Override
+        public Block loadPositions(int[] positions, int offset, int length)
+        {
+            checkState(delegateLazyBlock != null, "delegateLazyBlock already loaded");
+            Block loadedBlock = delegateLazyBlock.getLazyPositions(positions, offset, length).getLoadedBlock();
+            delegateLazyBlock = null;
+            // Position count already recorded for lazy blocks, input bytes are not
+            recordInputStats();
+            return loadedBlock;
+        }
+    }
+
     private void recordCursorInputStats(long positionCount)
     {
         checkState(cursor != null, "cursor is null");
@@ -385,7 +407,10 @@ public class ScanFilterAndProjectOperator
                 if (blocks == null) {
                     blocks = copyOfPageBlocks(page);
                 }
-                blocks[i] = new LazyBlock(page.getPositionCount(), new RecordingLazyBlockLoader((LazyBlock) block));
+                LazyBlock lazyBlock = (LazyBlock) block;
+                // keep positions aware blocks positions aware, so that filtered out rows are not decoded
+                LazyBlockLoader<LazyBlock> loader = lazyBlock.isPositionsAware() ? new RecordingPositionsAwareLazyBlockLoader(lazyBlock) : new RecordingLazyBlockLoader(lazyBlock);
+                blocks[i] = new LazyBlock(page.getPositionCount(), loader);
             }
             else {
                 blockSizeSum += block.getSizeInBytes();
@@ -733,6 +733,11 @@ public class TaskStats
     }
 
     public TaskStats summarize()
+    {
+        return withPipelines(ImmutableList.of());
+    }
+
+    public TaskStats withPipelines(List<PipelineStats> pipelines)
     {
         return new TaskStats(
                 createTimeInMillis,
@@ -782,7 +787,7 @@ public class TaskStats
                 physicalWrittenDataSizeInBytes,
                 fullGcCount,
                 fullGcTimeInMillis,
-                ImmutableList.of(),
+                pipelines,
                 runtimeStats);
     }
 
@@ -136,6 +136,11 @@ public class PageProcessor
             }
 
             if (selectedPositions.size() != page.getPositionCount()) {
+                if (selectedPositions.isList() && hasPositionsAwareBlock(page)) {
+                    // decode only the selected rows of the columns that support it, and project from the compacted page
+                    Page selectedPage = getLazyPositions(page, selectedPositions);
+                    return WorkProcessor.create(new ProjectSelectedPositions(properties, yieldSignal, memoryContext, selectedPage, positionsRange(0, selectedPositions.size())));
+                }
                 return WorkProcessor.create(new ProjectSelectedPositions(properties, yieldSignal, memoryContext, page, selectedPositions));
             }
         }
@@ -147,6 +152,33 @@ public class PageProcessor
         return WorkProcessor.create(new ProjectSelectedPositions(properties, yieldSignal, memoryContext, page, positionsRange(0, page.getPositionCount())));
     }
 
+    private static boolean hasPositionsAwareBlock(Page page)
+    {
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock && ((LazyBlock) block).isPositionsAware()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Page getLazyPositions(Page page, SelectedPositions selectedPositions)
+    {
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock) {
+                blocks[channel] = ((LazyBlock) block).getLazyPositions(selectedPositions.getPositions(), selectedPositions.getOffset(), selectedPositions.size());
+            }
+            else {
+                // copy lazily, since the channel may not be referenced by any projection
+                blocks[channel] = new LazyBlock(selectedPositions.size(), lazyBlock -> lazyBlock.setBlock(block.copyPositions(selectedPositions.getPositions(), selectedPositions.getOffset(), selectedPositions.size())));
+            }
+        }
+        return new Page(selectedPositions.size(), blocks);
+    }
+
     private class ProjectSelectedPositions
             implements WorkProcessor.Process<Page>
     {
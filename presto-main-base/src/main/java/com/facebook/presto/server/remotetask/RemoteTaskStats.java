@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.server.remotetask;
 
+import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.stats.DistributionStat;
 import com.facebook.presto.server.SimpleHttpResponseHandlerStats;
 import org.weakref.jmx.Flatten;
@@ -29,6 +30,7 @@ public class RemoteTaskStats
     private final IncrementalAverage statusRoundTripMillis = new IncrementalAverage();
     private final DistributionStat updateWithPlanSize = new DistributionStat();
     private final DistributionStat updateWithoutPlanSize = new DistributionStat();
+    private final CounterStat infoDetailDeferred = new CounterStat();
 
     public void statusRoundTripMillis(long roundTripMillis)
     {
@@ -40,6 +42,11 @@ public class RemoteTaskStats
         infoRoundTripMillis.add(roundTripMillis);
     }
 
+    public void infoDetailDeferred()
+    {
+        infoDetailDeferred.update(1);
+    }
+
     public void updateRoundTripMillis(long roundTripMillis)
     {
         updateRoundTripMillis.add(roundTripMillis);
@@ -98,6 +105,13 @@ public class RemoteTaskStats
         return infoRoundTripMillis.getCount();
     }
 
+    @Managed
+    @Nested
+    public CounterStat getInfoDetailDeferred()
+    {
+        return infoDetailDeferred;
+    }
+
     @Managed
     @Nested
     public DistributionStat getUpdateWithPlanSize()
@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.analyzer;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.presto.spi.PrestoWarning;
+import com.facebook.presto.spi.analyzer.AnalyzerOptions;
+import com.facebook.presto.spi.procedure.ProcedureRegistry;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.facebook.presto.spi.StandardWarningCode.PARSER_WARNING;
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Query preparer that caches parsed statements keyed by query text, so that
+ * repeated queries (e.g. dashboards) skip the parser. Statement trees are
+ * immutable and carry no session or transaction state, so they can be shared
+ * between queries. Statements whose parse produced warnings are not cached,
+ * as those warnings must be reported for every query.
+ */
+public class CachingBuiltInQueryPreparer
+        extends BuiltInQueryPreparer
+{
+    private final SqlParser sqlParser;
+    private final Optional<Cache<StatementCacheKey, CachedStatement>> statementCache;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat parseTimeSavedNanos = new CounterStat();
+
+    @Inject
+    public CachingBuiltInQueryPreparer(SqlParser sqlParser, ProcedureRegistry procedureRegistry, FeaturesConfig featuresConfig)
+    {
+        this(sqlParser, procedureRegistry, requireNonNull(featuresConfig, "featuresConfig is null").getParsedStatementCacheSize());
+    }
+
+    public CachingBuiltInQueryPreparer(SqlParser sqlParser, ProcedureRegistry procedureRegistry, int maximumSize)
+    {
+        super(sqlParser, procedureRegistry);
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+        if (maximumSize > 0) {
+            this.statementCache = Optional.of(CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .build());
+        }
+        else {
+            this.statementCache = Optional.empty();
+        }
+    }
+
+    @Override
+    protected Statement parseStatement(String query, AnalyzerOptions analyzerOptions)
+    {
+        if (!statementCache.isPresent()) {
+            return super.parseStatement(query, analyzerOptions);
+        }
+
+        StatementCacheKey key = new StatementCacheKey(query, analyzerOptions.isParseDecimalLiteralsAsDouble() ? AS_DOUBLE : AS_DECIMAL);
+        CachedStatement cached = statementCache.get().getIfPresent(key);
+        if (cached != null) {
+            hits.update(1);
+            parseTimeSavedNanos.update(cached.getParseNanos());
+            return cached.getStatement();
+        }
+        misses.update(1);
+
+        AtomicBoolean hasWarnings = new AtomicBoolean();
+        ParsingOptions parsingOptions = ParsingOptions.builder()
+                .setDecimalLiteralTreatment(key.getDecimalLiteralTreatment())
+                .setWarningConsumer(warning -> {
+                    hasWarnings.set(true);
+                    analyzerOptions.getWarningCollector().add(new PrestoWarning(PARSER_WARNING, warning.getMessage()));
+                })
+                .build();
+        long start = nanoTime();
+        Statement statement = sqlParser.createStatement(query, parsingOptions);
+        if (!hasWarnings.get()) {
+            statementCache.get().put(key, new CachedStatement(statement, nanoTime() - start));
+        }
+        return statement;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getParseTimeSavedNanos()
+    {
+        return parseTimeSavedNanos;
+    }
+
+    @Managed
+    public long getCachedStatementCount()
+    {
+        return statementCache.map(Cache::size).orElse(0L);
+    }
+
+    @Managed
+    public long getParseTimeSavedMillis()
+    {
+        return NANOSECONDS.toMillis(parseTimeSavedNanos.getTotalCount());
+    }
+
+    private static class StatementCacheKey
+    {
+        private final String query;
+        private final DecimalLiteralTreatment decimalLiteralTreatment;
+
+        public StatementCacheKey(String query, DecimalLiteralTreatment decimalLiteralTreatment)
+        {
+            this.query = requireNonNull(query, "query is null");
+            this.decimalLiteralTreatment = requireNonNull(decimalLiteralTreatment, "decimalLiteralTreatment is null");
+        }
+
+        public DecimalLiteralTreatment getDecimalLiteralTreatment()
+        {
+            return decimalLiteralTreatment;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            StatementCacheKey that = (StatementCacheKey) o;
+            return query.equals(that.query) && decimalLiteralTreatment == that.decimalLiteralTreatment;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(query, decimalLiteralTreatment);
+        }
+    }
+
+    private static class CachedStatement
+    {
+        private final Statement statement;
+        private final long parseNanos;
+
+        public CachedStatement(Statement statement, long parseNanos)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.parseNanos = parseNanos;
+        }
+
+        public Statement getStatement()
+        {
+            return statement;
+        }
+
+        public long getParseNanos()
+        {
+            return parseNanos;
+        }
+    }
+}
@@ -354,6 +354,7 @@ public class FeaturesConfig
 
     private boolean builtInSidecarFunctionsEnabled;
     private String tryFunctionCatchableErrors = "";
+    private int parsedStatementCacheSize;
 
     public enum PartitioningPrecisionStrategy
     {
@@ -424,6 +425,7 @@ public class FeaturesConfig
     {
         ORDER_BY_CREATE_TIME, // When spilling is triggered, revoke tasks in order of oldest to newest
         ORDER_BY_REVOCABLE_BYTES, // When spilling is triggered, revoke tasks by most allocated revocable memory to least allocated revocable memory
+        ORDER_BY_SPILL_COST, // When spilling is triggered, revoke operators across tasks by lowest to highest estimated spill cost per revocable byte
         PER_TASK_MEMORY_THRESHOLD, // Spill any task after it reaches the per task memory threshold defined by experimental.spiller.max-revocable-task-memory
     }
 
@@ -3642,4 +3644,18 @@ public class FeaturesConfig
         this.tryFunctionCatchableErrors = tryFunctionCatchableErrors;
         return this;
     }
+
+    @Min(0)
+    public int getParsedStatementCacheSize()
+    {
+        return parsedStatementCacheSize;
+    }
+
+    @Config("parsed-statement-cache-size")
+    @ConfigDescription("Maximum number of parsed statements cached on the coordinator, keyed by query text. 0 disables the cache")
+    public FeaturesConfig setParsedStatementCacheSize(int parsedStatementCacheSize)
+    {
+        this.parsedStatementCacheSize = parsedStatementCacheSize;
+        return this;
+    }
 }
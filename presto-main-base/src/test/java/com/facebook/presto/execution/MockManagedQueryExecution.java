@@ -55,6 +55,7 @@ public class MockManagedQueryExecution
     private Throwable failureCause;
     private Optional<ResourceGroupQueryLimits> resourceGroupQueryLimits = Optional.empty();
     private final ResourceGroupId resourceGroupId;
+    private String query = "SELECT 1";
 
     public MockManagedQueryExecution(long memoryUsage)
     {
@@ -81,6 +82,12 @@ public class MockManagedQueryExecution
         this.resourceGroupId = resourceGroupId;
     }
 
+    public MockManagedQueryExecution setQuery(String query)
+    {
+        this.query = query;
+        return this;
+    }
+
     public void complete()
     {
         state = FINISHED;
@@ -121,7 +128,7 @@ public class MockManagedQueryExecution
                 new MemoryPoolId("test"),
                 !state.isDone(),
                 URI.create("http://test"),
-                "SELECT 1",
+                query,
                 new BasicQueryStats(
                         1L,
                         2L,
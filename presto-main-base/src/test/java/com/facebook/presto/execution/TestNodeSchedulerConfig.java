@@ -43,7 +43,8 @@ public class TestNodeSchedulerConfig
                 .setNodeSelectionHashStrategy(MODULAR_HASHING)
                 .setMinVirtualNodeCount(1000)
                 .setResourceAwareSchedulingStrategy(RANDOM)
-                .setMaxPreferredNodes(2));
+                .setMaxPreferredNodes(2)
+                .setStragglerSplitDiversionEnabled(false));
     }
 
     @Test
@@ -62,6 +63,7 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.consistent-hashing-min-virtual-node-count", "2000")
                 .put("experimental.resource-aware-scheduling-strategy", "TTL")
                 .put("node-scheduler.max-preferred-nodes", "5")
+                .put("node-scheduler.straggler-split-diversion-enabled", "true")
                 .build();
 
         NodeSchedulerConfig expected = new NodeSchedulerConfig()
@@ -76,7 +78,8 @@ public class TestNodeSchedulerConfig
                 .setNodeSelectionHashStrategy(CONSISTENT_HASHING)
                 .setMinVirtualNodeCount(2000)
                 .setResourceAwareSchedulingStrategy(TTL)
-                .setMaxPreferredNodes(5);
+                .setMaxPreferredNodes(5)
+                .setStragglerSplitDiversionEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -87,7 +87,9 @@ public class TestQueryManagerConfig
                 .setEnableWorkerIsolation(false)
                 .setMinColumnarEncodingChannelsToPreferRowWiseEncoding(1000)
                 .setMaxQueryAdmissionsPerSecond(Integer.MAX_VALUE)
-                .setMinRunningQueriesForPacing(30));
+                .setMinRunningQueriesForPacing(30)
+                .setMemoryAwareAdmissionEnabled(false)
+                .setMemoryAwareAdmissionMaxHistoryEntries(10_000));
     }
 
     @Test
@@ -145,6 +147,8 @@ public class TestQueryManagerConfig
                 .put("min-columnar-encoding-channels-to-prefer-row-wise-encoding", "123")
                 .put("query-manager.query-pacing.max-queries-per-second", "10")
                 .put("query-manager.query-pacing.min-running-queries", "5")
+                .put("query-manager.memory-aware-admission.enabled", "true")
+                .put("query-manager.memory-aware-admission.max-history-entries", "500")
                 .build();
 
         QueryManagerConfig expected = new QueryManagerConfig()
@@ -199,7 +203,9 @@ public class TestQueryManagerConfig
                 .setEnableWorkerIsolation(true)
                 .setMinColumnarEncodingChannelsToPreferRowWiseEncoding(123)
                 .setMaxQueryAdmissionsPerSecond(10)
-                .setMinRunningQueriesForPacing(5);
+                .setMinRunningQueriesForPacing(5)
+                .setMemoryAwareAdmissionEnabled(true)
+                .setMemoryAwareAdmissionMaxHistoryEntries(500);
         ConfigAssertions.assertFullMapping(properties, expected);
     }
 }
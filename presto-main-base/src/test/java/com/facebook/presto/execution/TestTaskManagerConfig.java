@@ -42,6 +42,7 @@ public class TestTaskManagerConfig
                 .setSplitConcurrencyAdjustmentInterval(new Duration(100, TimeUnit.MILLISECONDS))
                 .setStatusRefreshMaxWait(new Duration(1, SECONDS))
                 .setInfoUpdateInterval(new Duration(3, SECONDS))
+                .setInfoDetailUpdateInterval(new Duration(0, SECONDS))
                 .setInfoRefreshMaxWait(new Duration(0, SECONDS))
                 .setPerOperatorCpuTimerEnabled(true)
                 .setTaskCpuTimerEnabled(true)
@@ -91,6 +92,7 @@ public class TestTaskManagerConfig
                 .put("task.split-concurrency-adjustment-interval", "1s")
                 .put("task.status-refresh-max-wait", "2s")
                 .put("task.info-update-interval", "2s")
+                .put("task.info-detail-update-interval", "30s")
                 .put("experimental.task.info-update-refresh-max-wait", "3s")
                 .put("task.per-operator-cpu-timer-enabled", "false")
                 .put("task.cpu-timer-enabled", "false")
@@ -137,6 +139,7 @@ public class TestTaskManagerConfig
                 .setSplitConcurrencyAdjustmentInterval(new Duration(1, SECONDS))
                 .setStatusRefreshMaxWait(new Duration(2, SECONDS))
                 .setInfoUpdateInterval(new Duration(2, SECONDS))
+                .setInfoDetailUpdateInterval(new Duration(30, SECONDS))
                 .setInfoRefreshMaxWait(new Duration(3, SECONDS))
                 .setPerOperatorCpuTimerEnabled(false)
                 .setTaskCpuTimerEnabled(false)
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.resourceGroups;
+
+import com.facebook.presto.execution.MockManagedQueryExecution;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.common.RuntimeMetricName.PREDICTED_PEAK_TOTAL_MEMORY_BYTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryMemoryPredictor
+{
+    @Test
+    public void testPredictionGrowsImmediatelyAndShrinksSlowly()
+    {
+        QueryMemoryPredictor predictor = new QueryMemoryPredictor(100);
+        MockManagedQueryExecution query = new MockManagedQueryExecution(0).setQuery("SELECT * FROM orders");
+        assertEquals(predictor.predictPeakMemoryBytes(query), 0);
+
+        predictor.recordPeakMemory(query, 1_000);
+        assertEquals(predictor.predictPeakMemoryBytes(query), 1_000);
+
+        predictor.recordPeakMemory(query, 4_000);
+        assertEquals(predictor.predictPeakMemoryBytes(query), 4_000);
+
+        predictor.recordPeakMemory(query, 2_000);
+        assertEquals(predictor.predictPeakMemoryBytes(query), 3_000);
+
+        // queries without an observed peak do not change the prediction
+        predictor.recordPeakMemory(query, 0);
+        assertEquals(predictor.predictPeakMemoryBytes(query), 3_000);
+
+        // a different query text has its own history
+        assertEquals(predictor.predictPeakMemoryBytes(new MockManagedQueryExecution(0).setQuery("SELECT * FROM lineitem")), 0);
+        // a new execution of the same query text shares it
+        assertEquals(predictor.predictPeakMemoryBytes(new MockManagedQueryExecution(0).setQuery("SELECT * FROM orders")), 3_000);
+    }
+
+    @Test
+    public void testAdmission()
+    {
+        QueryMemoryPredictor predictor = new QueryMemoryPredictor(100);
+        predictor.updateGeneralPool(memoryPool(10_000, 1_000));
+
+        MockManagedQueryExecution running = new MockManagedQueryExecution(2_000).setQuery("SELECT * FROM orders");
+        MockManagedQueryExecution queued = new MockManagedQueryExecution(0).setQuery("SELECT * FROM lineitem");
+
+        // nothing is known about the query yet
+        assertTrue(predictor.canAdmit(queued));
+
+        predictor.recordPeakMemory(running, 5_000);
+        predictor.recordPeakMemory(queued, 5_000);
+        // an idle cluster always admits
+        assertTrue(predictor.canAdmit(queued));
+
+        predictor.onQueryStarted(running);
+        assertEquals(running.getSession().getRuntimeStats().getMetric(PREDICTED_PEAK_TOTAL_MEMORY_BYTES).getSum(), 5_000);
+        // 1000 reserved + 3000 still expected from the running query + 5000 predicted fits
+        assertTrue(predictor.canAdmit(queued));
+        assertEquals(predictor.getOutstandingPredictedMemoryBytes(), 3_000);
+
+        predictor.updateGeneralPool(memoryPool(10_000, 3_000));
+        assertFalse(predictor.canAdmit(queued));
+        // checking admission has no side effects
+        assertFalse(predictor.canAdmit(queued));
+        assertEquals(predictor.getAdmissionsDenied().getTotalCount(), 0);
+
+        // a query held on several scheduling passes is counted as denied once
+        predictor.onQueryHeld(queued);
+        predictor.onQueryHeld(queued);
+        assertEquals(predictor.getAdmissionsDenied().getTotalCount(), 1);
+
+        predictor.onQueryFinished(running);
+        assertTrue(predictor.canAdmit(queued));
+        assertEquals(predictor.getOutstandingPredictedMemoryBytes(), 0);
+    }
+
+    private static MemoryPoolInfo memoryPool(long maxBytes, long reservedBytes)
+    {
+        return new MemoryPoolInfo(maxBytes, reservedBytes, 0, ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of());
+    }
+}
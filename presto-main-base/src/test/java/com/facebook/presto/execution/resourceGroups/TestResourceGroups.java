@@ -26,6 +26,8 @@ import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.server.QueryStateInfo;
 import com.facebook.presto.server.ResourceGroupInfo;
 import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.math3.distribution.BinomialDistribution;
 import org.testng.annotations.Test;
@@ -1309,4 +1311,47 @@ public class TestResourceGroups
         root.processQueuedQueries();
         assertEquals(query2.getState(), RUNNING);
     }
+
+    // Tests that a queued query is held while its predicted memory does not fit next to the running queries
+    @Test(timeOut = 10_000)
+    public void testPredictedMemoryHoldsQueuedQuery()
+    {
+        QueryMemoryPredictor predictor = new QueryMemoryPredictor(100);
+        predictor.updateGeneralPool(new MemoryPoolInfo(10_000, 0, 0, ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of()));
+        RootInternalResourceGroup root = new RootInternalResourceGroup(
+                "root",
+                (group, export) -> {},
+                directExecutor(),
+                ignored -> Optional.empty(),
+                rg -> false,
+                createNodeManager(),
+                createClusterResourceChecker(),
+                QueryPacingContext.NOOP,
+                predictor);
+        root.setSoftMemoryLimit(new DataSize(1, GIGABYTE));
+        root.setMaxQueuedQueries(10);
+        root.setHardConcurrencyLimit(10);
+
+        MockManagedQueryExecution query1 = new MockManagedQueryExecution(0).setQuery("SELECT * FROM orders");
+        MockManagedQueryExecution query2 = new MockManagedQueryExecution(0).setQuery("SELECT * FROM lineitem");
+        predictor.recordPeakMemory(query1, 6_000);
+        predictor.recordPeakMemory(query2, 6_000);
+
+        query1.startWaitingForPrerequisites();
+        root.run(query1);
+        assertEquals(query1.getState(), RUNNING);
+
+        query2.startWaitingForPrerequisites();
+        root.run(query2);
+        assertEquals(query2.getState(), QUEUED);
+
+        root.processQueuedQueries();
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), QUEUED);
+        assertEquals(predictor.getAdmissionsDenied().getTotalCount(), 1);
+
+        query1.complete();
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+    }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution.scheduler;
 
 import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.cost.StatsAndCosts;
 import com.facebook.presto.dispatcher.NoOpQueryManager;
@@ -32,12 +33,15 @@ import com.facebook.presto.failureDetector.NoOpFailureDetector;
 import com.facebook.presto.metadata.InMemoryNodeManager;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.InternalNodeManager;
+import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ConnectorId;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.FixedSplitSource;
+import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.SplitWeight;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.facebook.presto.spi.plan.JoinNode;
@@ -64,6 +68,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -72,6 +77,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -79,6 +85,8 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.RuntimeMetricName.SPLITS_DIVERTED_FROM_STRAGGLERS;
+import static com.facebook.presto.common.RuntimeMetricName.STRAGGLER_TASKS_DETECTED;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
 import static com.facebook.presto.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
@@ -86,16 +94,20 @@ import static com.facebook.presto.execution.scheduler.SourcePartitionedScheduler
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.HARD_AFFINITY;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.SOFT_AFFINITY;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Type.GATHER;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.Integer.min;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -433,6 +445,55 @@ public class TestSourcePartitionedScheduler
         secondStage.abort();
     }
 
+    @Test
+    public void testStragglerSplitDiversion()
+    {
+        NodeTaskMap nodeTaskMap = new NodeTaskMap(finalizerService);
+        SubPlan plan = createPlan();
+        SqlStageExecution stage = createSqlStageExecution(plan, nodeTaskMap);
+        // each healthy task accepts one more queued split
+        SplitPlacementPolicy placementPolicy = new StragglerAwareSplitPlacementPolicy(createPlacementPolicy(stage, nodeManager, nodeTaskMap), stage, SplitWeight.rawValueForStandardSplitCount(1));
+
+        // Schedule 30 splits - each node gets 10 splits
+        SplitSource splitSource = new ConnectorAwareSplitSource(CONNECTOR_ID, TestingTransactionHandle.create(), createFixedSplitSource(30, TestingSplit::createRemoteSplit));
+        StageScheduler scheduler = newSourcePartitionedSchedulerAsStageScheduler(stage, TABLE_SCAN_NODE_ID, splitSource, placementPolicy, 200, new CTEMaterializationTracker());
+        ScheduleResult scheduleResult = scheduler.schedule();
+        assertEffectivelyFinished(scheduleResult, scheduler);
+        assertEquals(stage.getAllTasks().size(), 3);
+
+        // all tasks but the one on other3 finish their splits
+        MockRemoteTask stragglerTask = null;
+        for (RemoteTask remoteTask : stage.getAllTasks()) {
+            if (remoteTask.getNodeId().equals("other3")) {
+                stragglerTask = (MockRemoteTask) remoteTask;
+            }
+            else {
+                ((MockRemoteTask) remoteTask).finishSplits(10);
+            }
+        }
+        assertNotNull(stragglerTask);
+
+        // splits preferring the straggler are moved to the healthy nodes while their queues have room, splits pinned to it are not
+        Set<Split> splits = ImmutableSet.of(
+                createSplit(new TestingSplit(SOFT_AFFINITY, ImmutableList.of(HostAddress.fromString("127.0.0.1:13")))),
+                createSplit(new TestingSplit(SOFT_AFFINITY, ImmutableList.of(HostAddress.fromString("127.0.0.1:13")))),
+                createSplit(new TestingSplit(SOFT_AFFINITY, ImmutableList.of(HostAddress.fromString("127.0.0.1:13")))),
+                createSplit(new TestingSplit(HARD_AFFINITY, ImmutableList.of(HostAddress.fromString("127.0.0.1:13")))));
+        Multimap<InternalNode, Split> assignments = placementPolicy.computeAssignments(splits).getAssignments();
+        assertEquals(assignments.size(), 4);
+        assertEquals(assignments.entries().stream()
+                .filter(entry -> entry.getKey().getNodeIdentifier().equals("other3"))
+                .map(entry -> entry.getValue().getNodeSelectionStrategy())
+                .sorted()
+                .collect(toImmutableList()), ImmutableList.of(HARD_AFFINITY, SOFT_AFFINITY));
+
+        RuntimeStats runtimeStats = stage.getStageExecutionInfo().getStats().getRuntimeStats();
+        assertEquals(runtimeStats.getMetric(STRAGGLER_TASKS_DETECTED).getSum(), 1);
+        assertEquals(runtimeStats.getMetric(SPLITS_DIVERTED_FROM_STRAGGLERS).getSum(), 2);
+
+        stage.abort();
+    }
+
     private static void assertPartitionedSplitCount(SqlStageExecution stage, int expectedPartitionedSplitCount)
     {
         assertEquals(stage.getAllTasks().stream().mapToInt(remoteTask -> remoteTask.getPartitionedSplitsInfo().getCount()).sum(), expectedPartitionedSplitCount);
@@ -459,6 +520,13 @@ public class TestSourcePartitionedScheduler
             InternalNodeManager nodeManager,
             NodeTaskMap nodeTaskMap,
             int splitBatchSize)
+    {
+        SplitSource splitSource = new ConnectorAwareSplitSource(CONNECTOR_ID, TestingTransactionHandle.create(), connectorSplitSource);
+        SplitPlacementPolicy placementPolicy = createPlacementPolicy(stage, nodeManager, nodeTaskMap);
+        return newSourcePartitionedSchedulerAsStageScheduler(stage, TABLE_SCAN_NODE_ID, splitSource, placementPolicy, splitBatchSize, new CTEMaterializationTracker());
+    }
+
+    private static SplitPlacementPolicy createPlacementPolicy(SqlStageExecution stage, InternalNodeManager nodeManager, NodeTaskMap nodeTaskMap)
     {
         NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
                 .setIncludeCoordinator(false)
@@ -473,9 +541,12 @@ public class TestSourcePartitionedScheduler
                 new ThrowingNodeTtlFetcherManager(),
                 new NoOpQueryManager(),
                 new SimpleTtlNodeSelectorConfig());
-        SplitSource splitSource = new ConnectorAwareSplitSource(CONNECTOR_ID, TestingTransactionHandle.create(), connectorSplitSource);
-        SplitPlacementPolicy placementPolicy = new DynamicSplitPlacementPolicy(nodeScheduler.createNodeSelector(TestingSession.testSessionBuilder().build(), splitSource.getConnectorId()), stage::getAllTasks);
-        return newSourcePartitionedSchedulerAsStageScheduler(stage, TABLE_SCAN_NODE_ID, splitSource, placementPolicy, splitBatchSize, new CTEMaterializationTracker());
+        return new DynamicSplitPlacementPolicy(nodeScheduler.createNodeSelector(TestingSession.testSessionBuilder().build(), CONNECTOR_ID), stage::getAllTasks);
+    }
+
+    private static Split createSplit(ConnectorSplit connectorSplit)
+    {
+        return new Split(CONNECTOR_ID, TestingTransactionHandle.create(), connectorSplit);
     }
 
     private static SubPlan createPlan()
@@ -45,6 +45,7 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.UpdateMemory.NOOP;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
 import static com.google.common.math.DoubleMath.log2;
 import static org.testng.Assert.assertEquals;
@@ -137,6 +138,40 @@ public class TestGroupByHash
         }
     }
 
+    @Test
+    public void testDictionaryWithFlatHashChannel()
+    {
+        GroupByHash dictionaryGroupByHash = createGroupByHash(ImmutableList.of(VARCHAR), new int[] {0}, Optional.of(1), 100, true, JOIN_COMPILER, NOOP);
+        GroupByHash flatGroupByHash = createGroupByHash(ImmutableList.of(VARCHAR), new int[] {0}, Optional.of(1), 100, false, JOIN_COMPILER, NOOP);
+
+        // two dictionary instances with the same values, so the second page of each shares the look back table
+        for (Block dictionary : ImmutableList.of(createStringSequenceBlock(0, 10), createStringSequenceBlock(0, 10))) {
+            for (int pageIndex = 0; pageIndex < 2; pageIndex++) {
+                int[] ids = new int[100];
+                for (int position = 0; position < ids.length; position++) {
+                    ids[position] = (position * 7 + pageIndex) % dictionary.getPositionCount();
+                }
+                Block valuesBlock = new DictionaryBlock(dictionary, ids);
+                // the precomputed hash is not dictionary encoded, as it is when the hash is projected separately
+                Block hashBlock = getHashBlock(ImmutableList.of(VARCHAR), valuesBlock);
+                Page page = new Page(valuesBlock, hashBlock);
+
+                Work<GroupByIdBlock> dictionaryWork = dictionaryGroupByHash.getGroupIds(page);
+                assertTrue(dictionaryWork.process());
+                Work<GroupByIdBlock> flatWork = flatGroupByHash.getGroupIds(page);
+                assertTrue(flatWork.process());
+
+                GroupByIdBlock dictionaryGroupIds = dictionaryWork.getResult();
+                GroupByIdBlock flatGroupIds = flatWork.getResult();
+                assertEquals(dictionaryGroupIds.getGroupCount(), flatGroupIds.getGroupCount());
+                for (int position = 0; position < ids.length; position++) {
+                    assertEquals(dictionaryGroupIds.getGroupId(position), flatGroupIds.getGroupId(position));
+                }
+            }
+        }
+        assertEquals(dictionaryGroupByHash.getGroupCount(), 10);
+    }
+
     @Test
     public void testTypes()
     {
@@ -20,6 +20,7 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.LazyBlockLoader;
+import com.facebook.presto.common.block.PositionsAwareLazyBlockLoader;
 import com.facebook.presto.execution.ScheduledSplit;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.metadata.Metadata;
@@ -51,6 +52,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -83,6 +85,7 @@ import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -298,6 +301,65 @@ public class TestScanFilterAndProjectOperator
         assertEquals(operator.getOperatorContext().getOperatorStats().getInputPositions(), expected.getRowCount());
     }
 
+    @Test
+    public void testPageSourcePositionsAwareLazyBlock()
+    {
+        // Tests that a lazy block which can decode a subset of its positions only decodes the rows selected by the filter
+        int[] keys = new int[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i % 3;
+        }
+        Block valueBlock = BlockAssertions.createLongSequenceBlock(0, 100);
+        PositionsRecordingLazyBlockLoader valueLoader = new PositionsRecordingLazyBlockLoader(valueBlock);
+        Page input = new Page(100, BlockAssertions.createLongsBlock(keys), new LazyBlock(100, valueLoader));
+
+        DriverContext driverContext = newDriverContext();
+        RowExpression filter = call(
+                EQUAL.name(),
+                createTestMetadataManager().getFunctionAndTypeManager().resolveOperator(EQUAL, fromTypes(BIGINT, BIGINT)),
+                BOOLEAN,
+                field(0, BIGINT),
+                constant(0L, BIGINT));
+        List<RowExpression> projections = ImmutableList.of(field(1, BIGINT));
+        Supplier<CursorProcessor> cursorProcessor = expressionCompiler.compileCursorProcessor(driverContext.getSession().getSqlFunctionProperties(), Optional.of(filter), projections, "key");
+        Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(driverContext.getSession().getSqlFunctionProperties(), Optional.of(filter), projections);
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                new PlanNodeId("0"),
+                (session, split, table, columns, runtimeStats) -> new SinglePagePageSource(input),
+                cursorProcessor,
+                pageProcessor,
+                TESTING_TABLE_HANDLE,
+                ImmutableList.of(),
+                ImmutableList.of(BIGINT),
+                Optional.empty(),
+                new DataSize(0, BYTE),
+                0);
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(
+                new ScheduledSplit(
+                        0,
+                        operator.getSourceId(),
+                        new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit())));
+        operator.noMoreSplits();
+
+        List<Page> actual = toPages(operator);
+
+        int[] selectedPositions = new int[34];
+        for (int i = 0; i < selectedPositions.length; i++) {
+            selectedPositions[i] = i * 3;
+        }
+        assertFalse(valueLoader.isFullyLoaded());
+        assertEquals(valueLoader.getLoadedPositions(), selectedPositions);
+        Page expected = new Page(valueBlock.copyPositions(selectedPositions, 0, selectedPositions.length));
+        assertEquals(
+                toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT), actual),
+                toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT), ImmutableList.of(expected)));
+    }
+
     @Test
     public void testRecordCursorSource()
     {
@@ -652,4 +714,42 @@ public class TestScanFilterAndProjectOperator
             }
         }
     }
+
+    private static class PositionsRecordingLazyBlockLoader
+            implements PositionsAwareLazyBlockLoader
+    {
+        private final Block block;
+        private boolean fullyLoaded;
+        private int[] loadedPositions;
+
+        public PositionsRecordingLazyBlockLoader(Block block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public void load(LazyBlock lazyBlock)
+        {
+            fullyLoaded = true;
+            lazyBlock.setBlock(block);
+        }
+
+        @Override
+        public Block loadPositions(int[] positions, int offset, int length)
+        {
+            checkState(loadedPositions == null, "positions already loaded");
+            loadedPositions = Arrays.copyOfRange(positions, offset, offset + length);
+            return block.copyPositions(positions, offset, length);
+        }
+
+        public boolean isFullyLoaded()
+        {
+            return fullyLoaded;
+        }
+
+        public int[] getLoadedPositions()
+        {
+            return loadedPositions;
+        }
+    }
 }
@@ -19,6 +19,7 @@ import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.block.PositionsAwareLazyBlockLoader;
 import com.facebook.presto.common.block.VariableWidthBlock;
 import com.facebook.presto.common.function.SqlFunctionProperties;
 import com.facebook.presto.common.type.ArrayType;
@@ -232,6 +233,43 @@ public class TestPageProcessor
         assertEquals(outputPages.size(), 0);
     }
 
+    @Test
+    public void testSelectedPositionsLazyLoad()
+    {
+        int[] positions = IntStream.range(0, 50).map(position -> position * 2).toArray();
+        PageProcessor pageProcessor = new PageProcessor(
+                Optional.of(new TestingPageFilter(positionsList(positions, 0, positions.length))),
+                ImmutableList.of(createInputPageProjectionWithOutputs(1, BIGINT, 0)),
+                OptionalInt.of(MAX_BATCH_SIZE));
+
+        // if channel 1 is fully loaded, test will fail
+        Block values = createLongSequenceBlock(100, 200);
+        int[] loadedPositionCount = new int[1];
+        Page inputPage = new Page(createLongSequenceBlock(0, 100), new LazyBlock(100, new PositionsAwareLazyBlockLoader()
+        {
+            @Override
+            public Block loadPositions(int[] selectedPositions, int offset, int length)
+            {
+                loadedPositionCount[0] += length;
+                return values.copyPositions(selectedPositions, offset, length);
+            }
+
+            @Override
+            public void load(LazyBlock lazyBlock)
+            {
+                throw new AssertionError("Lazy block should only be loaded for the selected positions");
+            }
+        }));
+
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(PageProcessor.class.getSimpleName());
+        Iterator<Optional<Page>> output = pageProcessor.process(SESSION.getSqlFunctionProperties(), new DriverYieldSignal(), memoryContext, inputPage);
+
+        List<Optional<Page>> outputPages = ImmutableList.copyOf(output);
+        assertEquals(outputPages.size(), 1);
+        assertPageEquals(ImmutableList.of(BIGINT), outputPages.get(0).orElse(null), new Page(values.copyPositions(positions, 0, positions.length)));
+        assertEquals(loadedPositionCount[0], positions.length);
+    }
+
     @Test
     public void testProjectLazyLoad()
     {
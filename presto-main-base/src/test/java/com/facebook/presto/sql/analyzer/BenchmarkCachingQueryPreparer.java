@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.analyzer;
+
+import com.facebook.presto.spi.analyzer.AnalyzerOptions;
+import com.facebook.presto.sql.analyzer.BuiltInQueryPreparer.BuiltInPreparedQuery;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.testing.TestProcedureRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import io.airlift.tpch.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.openjdk.jmh.runner.options.WarmupMode;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Fork(1)
+@Measurement(iterations = 20)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkCachingQueryPreparer
+{
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Benchmark)
+    public static class BenchmarkData
+    {
+        @Param({"0", "1000"})
+        private int parsedStatementCacheSize = 1000;
+
+        private CachingBuiltInQueryPreparer queryPreparer;
+        private AnalyzerOptions analyzerOptions;
+        private List<String> queries;
+
+        @Setup
+        public void setup()
+        {
+            queryPreparer = new CachingBuiltInQueryPreparer(new SqlParser(), new TestProcedureRegistry(), parsedStatementCacheSize);
+            analyzerOptions = AnalyzerOptions.builder().build();
+            queries = IntStream.rangeClosed(1, 22)
+                    .boxed()
+                    .filter(i -> i != 15) // q15 has two queries in it
+                    .map(i -> readResource(String.format("/io/airlift/tpch/queries/q%d.sql", i)))
+                    .collect(toImmutableList());
+        }
+
+        public String readResource(String resource)
+        {
+            try {
+                URL resourceUrl = Customer.class.getResource(resource);
+                return Resources.toString(resourceUrl, StandardCharsets.UTF_8);
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<BuiltInPreparedQuery> prepareQueries(BenchmarkData benchmarkData)
+    {
+        return benchmarkData.queries.stream()
+                .map(query -> benchmarkData.queryPreparer.prepareQuery(
+                        benchmarkData.analyzerOptions,
+                        query,
+                        ImmutableMap.of(),
+                        benchmarkData.analyzerOptions.getWarningCollector()))
+                .collect(toImmutableList());
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        new BenchmarkCachingQueryPreparer().prepareQueries(data);
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .warmupMode(WarmupMode.BULK)
+                .include(".*" + BenchmarkCachingQueryPreparer.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
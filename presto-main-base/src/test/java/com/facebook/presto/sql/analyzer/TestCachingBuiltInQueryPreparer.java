@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.analyzer;
+
+import com.facebook.presto.execution.warnings.DefaultWarningCollector;
+import com.facebook.presto.execution.warnings.WarningCollectorConfig;
+import com.facebook.presto.spi.WarningCollector;
+import com.facebook.presto.spi.analyzer.AnalyzerOptions;
+import com.facebook.presto.sql.analyzer.BuiltInQueryPreparer.BuiltInPreparedQuery;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import com.facebook.presto.testing.TestProcedureRegistry;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.common.WarningHandlingLevel.NORMAL;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestCachingBuiltInQueryPreparer
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+    private static final AnalyzerOptions ANALYZER_OPTIONS = AnalyzerOptions.builder().build();
+
+    @Test
+    public void testRepeatedQueryIsParsedOnce()
+    {
+        CachingBuiltInQueryPreparer queryPreparer = new CachingBuiltInQueryPreparer(SQL_PARSER, new TestProcedureRegistry(), 10);
+
+        Statement first = prepare(queryPreparer, ANALYZER_OPTIONS, "SELECT * FROM foo WHERE x = 1");
+        Statement second = prepare(queryPreparer, ANALYZER_OPTIONS, "SELECT * FROM foo WHERE x = 1");
+        assertSame(second, first);
+        assertEquals(queryPreparer.getHits().getTotalCount(), 1);
+        assertEquals(queryPreparer.getMisses().getTotalCount(), 1);
+        assertEquals(queryPreparer.getCachedStatementCount(), 1);
+
+        Statement other = prepare(queryPreparer, ANALYZER_OPTIONS, "SELECT * FROM foo WHERE x = 2");
+        assertNotSame(other, first);
+        assertEquals(queryPreparer.getMisses().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testDecimalLiteralTreatmentIsPartOfKey()
+    {
+        CachingBuiltInQueryPreparer queryPreparer = new CachingBuiltInQueryPreparer(SQL_PARSER, new TestProcedureRegistry(), 10);
+        AnalyzerOptions asDouble = AnalyzerOptions.builder()
+                .setParseDecimalLiteralsAsDouble(true)
+                .build();
+
+        Statement asDecimalStatement = prepare(queryPreparer, ANALYZER_OPTIONS, "SELECT 1.5");
+        Statement asDoubleStatement = prepare(queryPreparer, asDouble, "SELECT 1.5");
+        assertNotSame(asDoubleStatement, asDecimalStatement);
+        assertEquals(queryPreparer.getHits().getTotalCount(), 0);
+        assertEquals(queryPreparer.getCachedStatementCount(), 2);
+    }
+
+    @Test
+    public void testStatementsWithParsingWarningsAreNotCached()
+    {
+        CachingBuiltInQueryPreparer queryPreparer = new CachingBuiltInQueryPreparer(SQL_PARSER, new TestProcedureRegistry(), 10);
+        String query = "SELECT * FROM foo WHERE a = 1 OR b = 2 AND c = 3";
+
+        for (int i = 0; i < 2; i++) {
+            WarningCollector warningCollector = new DefaultWarningCollector(new WarningCollectorConfig(), NORMAL);
+            AnalyzerOptions analyzerOptions = AnalyzerOptions.builder()
+                    .setWarningCollector(warningCollector)
+                    .build();
+            prepare(queryPreparer, analyzerOptions, query);
+            assertTrue(warningCollector.hasWarnings());
+        }
+        assertEquals(queryPreparer.getHits().getTotalCount(), 0);
+        assertEquals(queryPreparer.getCachedStatementCount(), 0);
+    }
+
+    @Test
+    public void testCacheDisabled()
+    {
+        CachingBuiltInQueryPreparer queryPreparer = new CachingBuiltInQueryPreparer(SQL_PARSER, new TestProcedureRegistry(), 0);
+
+        Statement first = prepare(queryPreparer, ANALYZER_OPTIONS, "SELECT * FROM foo");
+        Statement second = prepare(queryPreparer, ANALYZER_OPTIONS, "SELECT * FROM foo");
+        assertNotSame(second, first);
+        assertEquals(queryPreparer.getHits().getTotalCount(), 0);
+        assertEquals(queryPreparer.getCachedStatementCount(), 0);
+    }
+
+    private static Statement prepare(CachingBuiltInQueryPreparer queryPreparer, AnalyzerOptions analyzerOptions, String query)
+    {
+        BuiltInPreparedQuery preparedQuery = queryPreparer.prepareQuery(analyzerOptions, query, ImmutableMap.of(), analyzerOptions.getWarningCollector());
+        return preparedQuery.getWrappedStatement();
+    }
+}
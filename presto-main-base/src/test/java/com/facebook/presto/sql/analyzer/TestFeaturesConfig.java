@@ -305,7 +305,8 @@ public class TestFeaturesConfig
                 .setSkipPushdownThroughExchangeForRemoteProjection(false)
                 .setUseConnectorProvidedSerializationCodecs(false)
                 .setRemoteFunctionNamesForFixedParallelism("")
-                .setRemoteFunctionFixedParallelismTaskCount(10));
+                .setRemoteFunctionFixedParallelismTaskCount(10)
+                .setParsedStatementCacheSize(0));
     }
 
     @Test
@@ -555,6 +556,7 @@ public class TestFeaturesConfig
                 .put("use-connector-provided-serialization-codecs", "true")
                 .put("optimizer.remote-function-names-for-fixed-parallelism", "remote_.*")
                 .put("optimizer.remote-function-fixed-parallelism-task-count", "100")
+                .put("parsed-statement-cache-size", "1000")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -802,7 +804,8 @@ public class TestFeaturesConfig
                 .setUseConnectorProvidedSerializationCodecs(true)
                 .setRemoteFunctionNamesForFixedParallelism("remote_.*")
                 .setPushPartialAggregationThroughJoin(true)
-                .setRemoteFunctionFixedParallelismTaskCount(100);
+                .setRemoteFunctionFixedParallelismTaskCount(100)
+                .setParsedStatementCacheSize(1000);
         assertFullMapping(properties, expected);
     }
 
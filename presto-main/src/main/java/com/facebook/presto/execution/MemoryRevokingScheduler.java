@@ -48,7 +48,9 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.Threads.threadsNamed;
+import static com.facebook.presto.execution.MemoryRevokingSchedulerUtils.getRevocableOperatorsBySpillCost;
 import static com.facebook.presto.execution.MemoryRevokingUtils.getMemoryPools;
+import static com.facebook.presto.sql.analyzer.FeaturesConfig.TaskSpillingStrategy.ORDER_BY_SPILL_COST;
 import static com.facebook.presto.sql.analyzer.FeaturesConfig.TaskSpillingStrategy.PER_TASK_MEMORY_THRESHOLD;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
@@ -209,6 +211,10 @@ public class MemoryRevokingScheduler
         AtomicLong remainingBytesToRevoke = new AtomicLong(queryTotalMemory - maxTotalMemory);
         Collection<TaskContext> queryTaskContexts = queryTaskContextsMap.values();
         remainingBytesToRevoke.addAndGet(-MemoryRevokingSchedulerUtils.getMemoryAlreadyBeingRevoked(queryTaskContexts, remainingBytesToRevoke.get()));
+        if (spillingStrategy == ORDER_BY_SPILL_COST) {
+            requestRevokingBySpillCost(queryTaskContexts, remainingBytesToRevoke.get());
+            return;
+        }
         for (TaskContext taskContext : queryTaskContexts) {
             if (remainingBytesToRevoke.get() <= 0) {
                 break;
@@ -312,6 +318,16 @@ public class MemoryRevokingScheduler
             }
         };
 
+        if (spillingStrategy == ORDER_BY_SPILL_COST) {
+            List<TaskContext> taskContexts = sqlTasks.stream()
+                    .map(SqlTask::getTaskContext)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(toImmutableList());
+            requestRevokingBySpillCost(taskContexts, remainingBytesToRevoke);
+            return;
+        }
+
         // Sort the tasks into their traversal order
         log.debug("Ordering by %s", spillingStrategy);
         sortTasksToTraversalOrder(sqlTasks, spillingStrategy);
@@ -329,6 +345,20 @@ public class MemoryRevokingScheduler
         }
     }
 
+    private static void requestRevokingBySpillCost(Collection<TaskContext> taskContexts, long remainingBytesToRevoke)
+    {
+        for (OperatorContext operatorContext : getRevocableOperatorsBySpillCost(taskContexts)) {
+            if (remainingBytesToRevoke <= 0) {
+                return;
+            }
+            long revokedBytes = operatorContext.requestMemoryRevoking();
+            if (revokedBytes > 0) {
+                remainingBytesToRevoke -= revokedBytes;
+                log.debug("taskId=%s, operatorType=%s: requested revoking %s; remaining %s", operatorContext.getDriverContext().getTaskId(), operatorContext.getOperatorType(), revokedBytes, remainingBytesToRevoke);
+            }
+        }
+    }
+
     private static void sortTasksToTraversalOrder(ArrayList<SqlTask> sqlTasks, TaskSpillingStrategy spillingStrategy)
     {
         switch (spillingStrategy) {
@@ -343,6 +373,8 @@ public class MemoryRevokingScheduler
                 }
                 sqlTasks.sort(Ordering.natural().reverse().onResultOf(task -> task == null ? 0L : taskRevocableReservations.getOrDefault(task.getTaskId(), 0L)));
                 break;
+            case ORDER_BY_SPILL_COST:
+                throw new IllegalArgumentException("spilling strategy ORDER_BY_SPILL_COST orders operators rather than tasks");
             case PER_TASK_MEMORY_THRESHOLD:
                 throw new IllegalArgumentException("spilling strategy cannot be PER_TASK_MEMORY_THRESHOLD in MemoryRevokingScheduler");
             default:
@@ -214,6 +214,7 @@ import com.facebook.presto.sql.analyzer.BuiltInAnalyzerProvider;
 import com.facebook.presto.sql.analyzer.BuiltInQueryAnalyzer;
 import com.facebook.presto.sql.analyzer.BuiltInQueryPreparer;
 import com.facebook.presto.sql.analyzer.BuiltInQueryPreparerProvider;
+import com.facebook.presto.sql.analyzer.CachingBuiltInQueryPreparer;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.analyzer.FeaturesConfig.SingleStreamSpillerChoice;
 import com.facebook.presto.sql.analyzer.ForMetadataExtractor;
@@ -369,7 +370,9 @@ public class ServerMainModule
         newExporter(binder).export(MetadataExtractorMBean.class).as(generatedNameOf(MetadataExtractor.class));
 
         // analyzer
-        binder.bind(BuiltInQueryPreparer.class).in(Scopes.SINGLETON);
+        binder.bind(CachingBuiltInQueryPreparer.class).in(Scopes.SINGLETON);
+        binder.bind(BuiltInQueryPreparer.class).to(CachingBuiltInQueryPreparer.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(CachingBuiltInQueryPreparer.class).as(generatedNameOf(BuiltInQueryPreparer.class));
         binder.bind(BuiltInQueryPreparerProvider.class).in(Scopes.SINGLETON);
         binder.bind(QueryPreparerProviderManager.class).in(Scopes.SINGLETON);
         newOptionalBinder(binder, QueryExplainer.class);
@@ -88,6 +88,7 @@ public class HttpRemoteTaskFactory
     private final HandleResolver handleResolver;
 
     private final Duration taskInfoUpdateInterval;
+    private final Duration taskInfoDetailUpdateInterval;
     private final ExecutorService coreExecutor;
     private final Executor executor;
     private final ThreadPoolExecutorMBean executorMBean;
@@ -135,6 +136,7 @@ public class HttpRemoteTaskFactory
         this.maxErrorDuration = config.getRemoteTaskMaxErrorDuration();
         this.taskStatusRefreshMaxWait = taskConfig.getStatusRefreshMaxWait();
         this.taskInfoUpdateInterval = taskConfig.getInfoUpdateInterval();
+        this.taskInfoDetailUpdateInterval = taskConfig.getInfoDetailUpdateInterval();
         this.taskInfoRefreshMaxWait = taskConfig.getInfoRefreshMaxWait();
         this.handleResolver = handleResolver;
 
@@ -257,6 +259,7 @@ public class HttpRemoteTaskFactory
                 taskStatusRefreshMaxWait,
                 taskInfoRefreshMaxWait,
                 taskInfoUpdateInterval,
+                taskInfoDetailUpdateInterval,
                 summarizeTaskInfo,
                 taskStatusCodec,
                 taskInfoCodec,
@@ -253,6 +253,7 @@ public final class HttpRemoteTaskWithEventLoop
             Duration taskStatusRefreshMaxWait,
             Duration taskInfoRefreshMaxWait,
             Duration taskInfoUpdateInterval,
+            Duration taskInfoDetailUpdateInterval,
             boolean summarizeTaskInfo,
             Codec<TaskStatus> taskStatusCodec,
             Codec<TaskInfo> taskInfoCodec,
@@ -291,6 +292,7 @@ public final class HttpRemoteTaskWithEventLoop
                 taskStatusRefreshMaxWait,
                 taskInfoRefreshMaxWait,
                 taskInfoUpdateInterval,
+                taskInfoDetailUpdateInterval,
                 summarizeTaskInfo,
                 taskStatusCodec,
                 taskInfoCodec,
@@ -332,6 +334,7 @@ public final class HttpRemoteTaskWithEventLoop
             Duration taskStatusRefreshMaxWait,
             Duration taskInfoRefreshMaxWait,
             Duration taskInfoUpdateInterval,
+            Duration taskInfoDetailUpdateInterval,
             boolean summarizeTaskInfo,
             Codec<TaskStatus> taskStatusCodec,
             Codec<TaskInfo> taskInfoCodec,
@@ -373,6 +376,7 @@ public final class HttpRemoteTaskWithEventLoop
         requireNonNull(maxErrorDuration, "maxErrorDuration is null");
         requireNonNull(stats, "stats is null");
         requireNonNull(taskInfoRefreshMaxWait, "taskInfoRefreshMaxWait is null");
+        requireNonNull(taskInfoDetailUpdateInterval, "taskInfoDetailUpdateInterval is null");
         requireNonNull(tableWriteInfo, "tableWriteInfo is null");
         requireNonNull(metadataManager, "metadataManager is null");
         requireNonNull(queryManager, "queryManager is null");
@@ -465,6 +469,7 @@ public final class HttpRemoteTaskWithEventLoop
                 httpClient,
                 taskInfoUpdateInterval,
                 taskInfoRefreshMaxWait,
+                taskInfoDetailUpdateInterval,
                 taskInfoCodec,
                 maxErrorDuration,
                 summarizeTaskInfo,
@@ -77,6 +77,12 @@ public class TaskInfoFetcherWithEventLoop
     private final Duration taskInfoRefreshMaxWait;
     private long lastUpdateNanos;
 
+    // when non-zero, pipeline and operator stats are fetched at most once per interval while the task is running
+    private final long detailUpdateIntervalMillis;
+    private boolean detailUpdateRequired = true;
+    private long lastDetailUpdateNanos;
+    private boolean currentRequestDetailDeferred;
+
     private final EventLoop taskEventLoop;
     private final HttpClient httpClient;
     private final RequestErrorTracker errorTracker;
@@ -104,6 +110,7 @@ public class TaskInfoFetcherWithEventLoop
             HttpClient httpClient,
             Duration updateInterval,
             Duration taskInfoRefreshMaxWait,
+            Duration taskInfoDetailUpdateInterval,
             Codec<TaskInfo> taskInfoCodec,
             Duration maxErrorDuration,
             boolean summarizeTaskInfo,
@@ -127,6 +134,7 @@ public class TaskInfoFetcherWithEventLoop
 
         this.updateIntervalMillis = requireNonNull(updateInterval, "updateInterval is null").toMillis();
         this.taskInfoRefreshMaxWait = requireNonNull(taskInfoRefreshMaxWait, "taskInfoRefreshMaxWait is null");
+        this.detailUpdateIntervalMillis = requireNonNull(taskInfoDetailUpdateInterval, "taskInfoDetailUpdateInterval is null").toMillis();
         this.errorTracker = taskRequestErrorTracker(taskId, initialTask.getTaskStatus().getSelf(), maxErrorDuration, taskEventLoop, "getting info for task");
 
         this.summarizeTaskInfo = summarizeTaskInfo;
@@ -244,8 +252,10 @@ public class TaskInfoFetcherWithEventLoop
             return;
         }
 
+        // skip the pipeline and operator stats of a running task unless they are due for a refresh
+        currentRequestDetailDeferred = !summarizeTaskInfo && !isDetailUpdateDue();
         HttpUriBuilder httpUriBuilder = uriBuilderFrom(taskStatus.getSelf());
-        URI uri = summarizeTaskInfo ? httpUriBuilder.addParameter("summarize").build() : httpUriBuilder.build();
+        URI uri = summarizeTaskInfo || currentRequestDetailDeferred ? httpUriBuilder.addParameter("summarize").build() : httpUriBuilder.build();
         Request.Builder requestBuilder = setContentTypeHeaders(isBinaryTransportEnabled, prepareGet());
 
         ResponseHandler responseHandler;
@@ -315,6 +325,22 @@ public class TaskInfoFetcherWithEventLoop
         startNanos = this.currentRequestStartNanos;
         updateStats(startNanos);
         errorTracker.requestSucceeded();
+
+        if (currentRequestDetailDeferred) {
+            stats.infoDetailDeferred();
+            if (newValue.getTaskStatus().getState().isDone()) {
+                // the final task info must carry complete pipeline and operator stats, so fetch it again in full
+                detailUpdateRequired = true;
+                sendNextRequest();
+                return;
+            }
+            // keep the pipeline stats of the last full update until the next detail refresh
+            newValue = newValue.withStats(newValue.getStats().withPipelines(getTaskInfo().getStats().getPipelines()));
+        }
+        else {
+            detailUpdateRequired = false;
+            lastDetailUpdateNanos = System.nanoTime();
+        }
         updateTaskInfo(newValue);
     }
 
@@ -347,6 +373,11 @@ public class TaskInfoFetcherWithEventLoop
         onFail.accept(cause);
     }
 
+    private boolean isDetailUpdateDue()
+    {
+        return detailUpdateIntervalMillis == 0 || detailUpdateRequired || nanosSince(lastDetailUpdateNanos).toMillis() >= detailUpdateIntervalMillis;
+    }
+
     private void updateStats(long currentRequestStartNanos)
     {
         verify(taskEventLoop.inEventLoop());
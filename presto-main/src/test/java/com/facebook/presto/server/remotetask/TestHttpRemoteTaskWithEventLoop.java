@@ -144,10 +144,12 @@ import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 public class TestHttpRemoteTaskWithEventLoop
@@ -245,6 +247,34 @@ public class TestHttpRemoteTaskWithEventLoop
         assertTrue(httpRemoteTaskFactory.getTaskUpdateRequestSize() > 0);
     }
 
+    @Test(timeOut = 50000)
+    public void testDeferredTaskInfoDetail()
+            throws Exception
+    {
+        AtomicLong lastActivityNanos = new AtomicLong(System.nanoTime());
+        TestingTaskResource testingTaskResource = new TestingTaskResource(lastActivityNanos, FailureScenario.NO_FAILURE);
+        TaskManagerConfig taskManagerConfig = new TaskManagerConfig()
+                .setStatusRefreshMaxWait(TASK_MANAGER_CONFIG.getStatusRefreshMaxWait())
+                .setInfoUpdateInterval(TASK_MANAGER_CONFIG.getInfoUpdateInterval())
+                .setInfoDetailUpdateInterval(new Duration(1, HOURS));
+
+        HttpRemoteTaskFactory httpRemoteTaskFactory = createHttpRemoteTaskFactory(testingTaskResource, false, new InternalCommunicationConfig(), taskManagerConfig);
+
+        RemoteTask remoteTask = createRemoteTask(httpRemoteTaskFactory, false);
+
+        testingTaskResource.setInitialTaskInfo(remoteTask.getTaskInfo());
+        remoteTask.start();
+
+        // only the first task info request fetches the pipeline stats
+        poll(() -> testingTaskResource.getSummarizedTaskInfoRequests() >= 2);
+        assertEquals(testingTaskResource.getFullTaskInfoRequests(), 1);
+
+        remoteTask.cancel();
+        waitUntilTaskFinish(remoteTask);
+
+        httpRemoteTaskFactory.stop();
+    }
+
     @Test(timeOut = 50000)
     public void testHTTPRemoteBadTaskSize()
             throws Exception
@@ -343,6 +373,11 @@ public class TestHttpRemoteTaskWithEventLoop
     }
 
     private RemoteTask createRemoteTask(HttpRemoteTaskFactory httpRemoteTaskFactory)
+    {
+        return createRemoteTask(httpRemoteTaskFactory, true);
+    }
+
+    private RemoteTask createRemoteTask(HttpRemoteTaskFactory httpRemoteTaskFactory, boolean summarizeTaskInfo)
     {
         return httpRemoteTaskFactory.createRemoteTask(
                 TEST_SESSION,
@@ -352,7 +387,7 @@ public class TestHttpRemoteTaskWithEventLoop
                 ImmutableMultimap.of(),
                 createInitialEmptyOutputBuffers(OutputBuffers.BufferType.BROADCAST),
                 new NodeTaskMap.NodeStatsTracker(i -> {}, i -> {}, (age, i) -> {}),
-                true,
+                summarizeTaskInfo,
                 new TableWriteInfo(Optional.empty(), Optional.empty()),
                 SchedulerStatsTracker.NOOP);
     }
@@ -366,6 +401,16 @@ public class TestHttpRemoteTaskWithEventLoop
 
     private static HttpRemoteTaskFactory createHttpRemoteTaskFactory(TestingTaskResource testingTaskResource, boolean useThriftEncoding, InternalCommunicationConfig internalCommunicationConfig)
             throws Exception
+    {
+        return createHttpRemoteTaskFactory(testingTaskResource, useThriftEncoding, internalCommunicationConfig, TASK_MANAGER_CONFIG);
+    }
+
+    private static HttpRemoteTaskFactory createHttpRemoteTaskFactory(
+            TestingTaskResource testingTaskResource,
+            boolean useThriftEncoding,
+            InternalCommunicationConfig internalCommunicationConfig,
+            TaskManagerConfig taskManagerConfig)
+            throws Exception
     {
         Bootstrap app = new Bootstrap(
                 new JsonModule(),
@@ -445,7 +490,7 @@ public class TestHttpRemoteTaskWithEventLoop
                         testingTaskResource.setHttpClient(testingHttpClient);
                         return new HttpRemoteTaskFactory(
                                 new QueryManagerConfig(),
-                                TASK_MANAGER_CONFIG,
+                                taskManagerConfig,
                                 testingHttpClient,
                                 new TestSqlTaskManager.MockLocationFactory(),
                                 taskStatusJsonCodec,
@@ -529,6 +574,8 @@ public class TestHttpRemoteTaskWithEventLoop
         private long taskInstanceIdMostSignificantBits = INITIAL_TASK_INSTANCE_ID.getMostSignificantBits();
 
         private long statusFetchCounter;
+        private int fullTaskInfoRequests;
+        private int summarizedTaskInfoRequests;
 
         public TestingTaskResource(AtomicLong lastActivityNanos, FailureScenario failureScenario)
         {
@@ -551,9 +598,25 @@ public class TestHttpRemoteTaskWithEventLoop
                 @Context UriInfo uriInfo)
         {
             lastActivityNanos.set(System.nanoTime());
+            if (uriInfo.getQueryParameters().containsKey("summarize")) {
+                summarizedTaskInfoRequests++;
+            }
+            else {
+                fullTaskInfoRequests++;
+            }
             return buildTaskInfo();
         }
 
+        public synchronized int getFullTaskInfoRequests()
+        {
+            return fullTaskInfoRequests;
+        }
+
+        public synchronized int getSummarizedTaskInfoRequests()
+        {
+            return summarizedTaskInfoRequests;
+        }
+
         Map<PlanNodeId, TaskSource> taskSourceMap = new HashMap<>();
         private TaskUpdateRequest lastTaskUpdateRequest;
 
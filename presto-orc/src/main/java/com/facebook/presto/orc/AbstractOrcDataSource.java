@@ -28,6 +28,7 @@ import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.orc.OrcDataSourceUtils.getDiskRangeSlice;
@@ -46,8 +47,8 @@ public abstract class AbstractOrcDataSource
     private final DataSize maxBufferSize;
     private final DataSize streamBufferSize;
     private final boolean lazyReadSmallRanges;
-    private long readTimeNanos;
-    private long readBytes;
+    private final AtomicLong readTimeNanos = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
 
     public AbstractOrcDataSource(OrcDataSourceId id, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize, boolean lazyReadSmallRanges)
     {
@@ -74,13 +75,13 @@ public abstract class AbstractOrcDataSource
     @Override
     public final long getReadBytes()
     {
-        return readBytes;
+        return readBytes.get();
     }
 
     @Override
     public final long getReadTimeNanos()
     {
-        return readTimeNanos;
+        return readTimeNanos.get();
     }
 
     @Override
@@ -104,8 +105,8 @@ public abstract class AbstractOrcDataSource
 
         readInternal(position, buffer, bufferOffset, bufferLength);
 
-        readTimeNanos += System.nanoTime() - start;
-        readBytes += bufferLength;
+        readTimeNanos.addAndGet(System.nanoTime() - start);
+        readBytes.addAndGet(bufferLength);
     }
 
     @Override
@@ -36,6 +36,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.joda.time.DateTimeZone;
@@ -54,6 +55,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.AbstractOrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
@@ -62,6 +64,7 @@ import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges
 import static com.facebook.presto.orc.OrcReader.BATCH_SIZE_GROWTH_FACTOR;
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcWriteValidation.WriteChecksumBuilder.createWriteChecksumBuilder;
+import static com.facebook.presto.orc.StripePrefetcher.NOT_BLOCKED;
 import static com.facebook.presto.orc.metadata.OrcType.OrcTypeKind.STRUCT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
@@ -97,6 +100,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
 
     private final List<StripeInformation> stripes;
     private final StripeReader stripeReader;
+    private final Optional<StripePrefetcher> stripePrefetcher;
     private int currentStripe = -1;
     private OrcAggregatedMemoryContext currentStripeSystemMemoryContext;
     private Optional<DwrfEncryptionInfo> dwrfEncryptionInfo = Optional.empty();
@@ -148,6 +152,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             DataSize maxMergeDistance,
             DataSize tinyStripeThreshold,
             DataSize maxBlockSize,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize,
             Map<String, Slice> userMetadata,
             OrcAggregatedMemoryContext systemMemoryUsage,
             Optional<OrcWriteValidation> writeValidation,
@@ -171,6 +177,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
         requireNonNull(userMetadata, "userMetadata is null");
         requireNonNull(systemMemoryUsage, "systemMemoryUsage is null");
+        requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
 
         this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
         this.writeChecksumBuilder = writeValidation.map(validation -> createWriteChecksumBuilder(includedColumns));
@@ -231,6 +239,17 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         this.stripeFilePositions = stripeFilePositions.build();
 
         orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, tinyStripeThreshold, systemMemoryUsage);
+        // tiny stripes are already read together, and the streams of encrypted columns
+        // can only be located once the stripe footer is decrypted
+        Optional<PrefetchingOrcDataSource> prefetchingDataSource = Optional.empty();
+        if (stripePrefetchExecutor.isPresent() && !this.stripes.isEmpty() && !(orcDataSource instanceof CachingOrcDataSource) && dwrfEncryptionGroupMap.isEmpty()) {
+            prefetchingDataSource = Optional.of(new PrefetchingOrcDataSource(
+                    orcDataSource,
+                    stripePrefetchExecutor.get(),
+                    systemMemoryUsage.newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName()),
+                    runtimeStats));
+            orcDataSource = prefetchingDataSource.get();
+        }
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
 
@@ -266,6 +285,9 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
                 fileIntrospector,
                 fileModificationTime);
 
+        this.stripePrefetcher = prefetchingDataSource.map(dataSource -> new StripePrefetcher(dataSource, stripeReader, maxMergeDistance, maxStripePrefetchSize));
+        stripePrefetcher.ifPresent(prefetcher -> prefetcher.start(this.stripes.get(0)));
+
         this.streamReaders = requireNonNull(streamReaders, "streamReaders is null");
         for (int columnId = 0; columnId < root.getFieldCount(); columnId++) {
             if (includedColumns.containsKey(columnId)) {
@@ -499,6 +521,28 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         return splitLength;
     }
 
+    /**
+     * Returns a future that completes when the reader can move on to the next stripe
+     * without waiting on storage. The reader is only blocked when the next stripe is
+     * being prefetched and the current stripe has been read completely.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!stripePrefetcher.isPresent() || rowGroups == null || rowGroups.hasNext() || nextRowInGroup < currentGroupRowCount) {
+            return NOT_BLOCKED;
+        }
+        return stripePrefetcher.get().isBlocked();
+    }
+
+    /**
+     * Returns the time spent reading from storage, including the time spent waiting
+     * for prefetched stripes but not the time spent prefetching them in the background.
+     */
+    public long getReadTimeNanos()
+    {
+        return orcDataSource.getReadTimeNanos();
+    }
+
     @Override
     public void close()
             throws IOException
@@ -601,6 +645,9 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     protected int prepareNextBatch()
             throws IOException
     {
+        // start prefetching the streams of the next stripe as soon as its footer is available
+        stripePrefetcher.ifPresent(StripePrefetcher::update);
+
         // update position for current row group (advancing resets them)
         filePosition += currentBatchSize;
         currentPosition += currentBatchSize;
@@ -670,6 +717,14 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
 
         SharedBuffer sharedDecompressionBuffer = new SharedBuffer(currentStripeSystemMemoryContext.newOrcLocalMemoryContext("sharedDecompressionBuffer"));
         Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext, dwrfEncryptionInfo, sharedDecompressionBuffer);
+        if (stripePrefetcher.isPresent()) {
+            if (currentStripe + 1 < stripes.size()) {
+                stripePrefetcher.get().start(stripes.get(currentStripe + 1));
+            }
+            else {
+                stripePrefetcher.get().finish();
+            }
+        }
         if (stripe != null) {
             for (StreamReader column : streamReaders) {
                 if (column != null) {
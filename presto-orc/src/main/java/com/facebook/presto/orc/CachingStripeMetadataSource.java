@@ -171,6 +171,12 @@ public class CachingStripeMetadataSource
         return rowGroupIndices;
     }
 
+    @Override
+    public Optional<DecompressedChunkCache> getDecompressedChunkCache()
+    {
+        return delegate.getDecompressedChunkCache();
+    }
+
     private static boolean isCachedStream(StreamKind streamKind)
     {
         // BLOOM_FILTER and ROW_INDEX are on the critical path to generate a stripe. Other stream kinds could be lazily read.
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.common.io.DecompressedDataCache;
+import com.facebook.presto.orc.DecompressedChunkCache.ChunkId;
+import com.facebook.presto.orc.StripeReader.StripeStreamId;
+import com.google.common.cache.Cache;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import jakarta.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the decompressed compression chunks of ORC data streams. A chunk is identified by its
+ * stream and by its offset in the compressed stream, which keeps stream checkpoints valid on a
+ * cache hit.
+ */
+public class DecompressedChunkCache
+        extends DecompressedDataCache<ChunkId>
+{
+    public DecompressedChunkCache(Cache<ChunkId, CachedData> cache)
+    {
+        super(cache);
+    }
+
+    public StreamChunks getStreamChunks(StripeStreamId stripeStreamId, long fileModificationTime)
+    {
+        return new StreamChunks(stripeStreamId, fileModificationTime);
+    }
+
+    public final class StreamChunks
+    {
+        private final StripeStreamId stripeStreamId;
+        private final long fileModificationTime;
+
+        private StreamChunks(StripeStreamId stripeStreamId, long fileModificationTime)
+        {
+            this.stripeStreamId = requireNonNull(stripeStreamId, "stripeStreamId is null");
+            this.fileModificationTime = fileModificationTime;
+        }
+
+        @Nullable
+        public Slice get(int compressedOffset)
+        {
+            return DecompressedChunkCache.this.get(new ChunkId(stripeStreamId, compressedOffset), fileModificationTime);
+        }
+
+        public void put(int compressedOffset, byte[] chunk, int length)
+        {
+            // the reader reuses its buffer for the next chunk, so the cache keeps its own copy
+            Slice slice = Slices.wrappedBuffer(Arrays.copyOf(chunk, length));
+            DecompressedChunkCache.this.put(new ChunkId(stripeStreamId, compressedOffset), slice, fileModificationTime);
+        }
+    }
+
+    public static class ChunkId
+    {
+        private final StripeStreamId stripeStreamId;
+        private final int compressedOffset;
+
+        public ChunkId(StripeStreamId stripeStreamId, int compressedOffset)
+        {
+            this.stripeStreamId = requireNonNull(stripeStreamId, "stripeStreamId is null");
+            this.compressedOffset = compressedOffset;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ChunkId other = (ChunkId) o;
+            return compressedOffset == other.compressedOffset &&
+                    Objects.equals(stripeStreamId, other.stripeStreamId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(stripeStreamId, compressedOffset);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("stripeStreamId", stripeStreamId)
+                    .add("compressedOffset", compressedOffset)
+                    .toString();
+        }
+    }
+}
@@ -15,10 +15,14 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static java.lang.String.format;
 
 public class FileOrcDataSource
         extends AbstractOrcDataSource
@@ -43,7 +47,12 @@ public class FileOrcDataSource
     protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException
     {
-        input.seek(position);
-        input.readFully(buffer, bufferOffset, bufferLength);
+        // positional reads do not move the file pointer, so they can run concurrently
+        ByteBuffer target = ByteBuffer.wrap(buffer, bufferOffset, bufferLength);
+        while (target.hasRemaining()) {
+            if (input.getChannel().read(target, position + target.position() - bufferOffset) < 0) {
+                throw new EOFException(format("Reached end of %s at position %s", getId(), position + target.position() - bufferOffset));
+            }
+        }
     }
 }
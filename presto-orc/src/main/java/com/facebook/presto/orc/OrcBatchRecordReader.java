@@ -101,6 +101,8 @@ public class OrcBatchRecordReader
                 options.getMaxMergeDistance(),
                 options.getTinyStripeThreshold(),
                 options.getMaxBlockSize(),
+                options.getStripePrefetchExecutor(),
+                options.getMaxStripePrefetchSize(),
                 userMetadata,
                 systemMemoryUsage,
                 writeValidation,
@@ -139,6 +141,18 @@ public class OrcBatchRecordReader
         return block;
     }
 
+    /**
+     * Reads only the given positions of the current batch for a column. The
+     * positions must be sorted in ascending order.
+     */
+    public Block readBlock(int columnIndex, int[] positions, int offset, int length)
+            throws IOException
+    {
+        Block block = getStreamReaders()[columnIndex].readBlock(positions, offset, length);
+        updateMaxCombinedBytesPerRow(columnIndex, block);
+        return block;
+    }
+
     private void validateWritePageChecksum(int batchSize)
             throws IOException
     {
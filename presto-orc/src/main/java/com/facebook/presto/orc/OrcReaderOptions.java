@@ -15,13 +15,18 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
 public class OrcReaderOptions
 {
     private static final DataSize DEFAULT_MAX_SLICE_SIZE = new DataSize(1, GIGABYTE);
+    private static final DataSize DEFAULT_MAX_STRIPE_PREFETCH_SIZE = new DataSize(128, MEGABYTE);
     private final DataSize maxMergeDistance;
     private final DataSize tinyStripeThreshold;
     private final DataSize maxBlockSize;
@@ -39,6 +44,11 @@ public class OrcReaderOptions
      */
     private final boolean readMapStatistics;
 
+    // if present, the record readers prefetch the next stripe on this executor
+    private final Optional<Executor> stripePrefetchExecutor;
+    // stripes whose included streams are larger than this value are not prefetched
+    private final DataSize maxStripePrefetchSize;
+
     private OrcReaderOptions(
             DataSize maxMergeDistance,
             DataSize tinyStripeThreshold,
@@ -48,7 +58,9 @@ public class OrcReaderOptions
             boolean appendRowNumber,
             boolean readMapStatistics,
             DataSize maxSliceSize,
-            boolean resetAllReaders)
+            boolean resetAllReaders,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
@@ -59,6 +71,8 @@ public class OrcReaderOptions
         this.readMapStatistics = readMapStatistics;
         this.maxSliceSize = maxSliceSize;
         this.resetAllReaders = resetAllReaders;
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -106,6 +120,16 @@ public class OrcReaderOptions
         return resetAllReaders;
     }
 
+    public Optional<Executor> getStripePrefetchExecutor()
+    {
+        return stripePrefetchExecutor;
+    }
+
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return maxStripePrefetchSize;
+    }
+
     @Override
     public String toString()
     {
@@ -119,6 +143,8 @@ public class OrcReaderOptions
                 .add("readMapStatistics", readMapStatistics)
                 .add("maxSliceSize", maxSliceSize)
                 .add("resetAllReaders", resetAllReaders)
+                .add("stripePrefetchEnabled", stripePrefetchExecutor.isPresent())
+                .add("maxStripePrefetchSize", maxStripePrefetchSize)
                 .toString();
     }
 
@@ -138,6 +164,8 @@ public class OrcReaderOptions
         private boolean readMapStatistics;
         private DataSize maxSliceSize = DEFAULT_MAX_SLICE_SIZE;
         private boolean resetAllReaders;
+        private Optional<Executor> stripePrefetchExecutor = Optional.empty();
+        private DataSize maxStripePrefetchSize = DEFAULT_MAX_STRIPE_PREFETCH_SIZE;
 
         private Builder() {}
 
@@ -195,6 +223,18 @@ public class OrcReaderOptions
             return this;
         }
 
+        public Builder withStripePrefetchExecutor(Optional<Executor> stripePrefetchExecutor)
+        {
+            this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+            return this;
+        }
+
+        public Builder withMaxStripePrefetchSize(DataSize maxStripePrefetchSize)
+        {
+            this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
+            return this;
+        }
+
         public OrcReaderOptions build()
         {
             return new OrcReaderOptions(
@@ -206,7 +246,9 @@ public class OrcReaderOptions
                     appendRowNumber,
                     readMapStatistics,
                     maxSliceSize,
-                    resetAllReaders);
+                    resetAllReaders,
+                    stripePrefetchExecutor,
+                    maxStripePrefetchSize);
         }
     }
 }
@@ -15,6 +15,9 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
@@ -27,6 +30,8 @@ public class OrcRecordReaderOptions
     private final boolean appendRowNumber;
     private final long maxSliceSize;
     private final boolean resetAllReaders;
+    private final Optional<Executor> stripePrefetchExecutor;
+    private final DataSize maxStripePrefetchSize;
 
     public OrcRecordReaderOptions(OrcReaderOptions options)
     {
@@ -36,7 +41,9 @@ public class OrcRecordReaderOptions
                 options.mapNullKeysEnabled(),
                 options.appendRowNumber(),
                 options.getMaxSliceSize(),
-                options.isResetAllReaders());
+                options.isResetAllReaders(),
+                options.getStripePrefetchExecutor(),
+                options.getMaxStripePrefetchSize());
     }
 
     public OrcRecordReaderOptions(
@@ -46,7 +53,9 @@ public class OrcRecordReaderOptions
             boolean mapNullKeysEnabled,
             boolean appendRowNumber,
             DataSize maxSliceSize,
-            boolean resetAllReaders)
+            boolean resetAllReaders,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
@@ -57,6 +66,8 @@ public class OrcRecordReaderOptions
         checkArgument(maxSliceSize.toBytes() > 0, "maxSliceSize must be positive");
         this.maxSliceSize = maxSliceSize.toBytes();
         this.resetAllReaders = resetAllReaders;
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -93,4 +104,14 @@ public class OrcRecordReaderOptions
     {
         return resetAllReaders;
     }
+
+    public Optional<Executor> getStripePrefetchExecutor()
+    {
+        return stripePrefetchExecutor;
+    }
+
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return maxStripePrefetchSize;
+    }
 }
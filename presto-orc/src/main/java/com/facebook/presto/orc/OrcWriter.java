@@ -15,6 +15,7 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.io.DataOutput;
 import com.facebook.presto.common.io.DataSink;
 import com.facebook.presto.common.type.Type;
@@ -41,6 +42,7 @@ import com.facebook.presto.orc.stream.StreamDataOutput;
 import com.facebook.presto.orc.writer.ColumnWriter;
 import com.facebook.presto.orc.writer.CompressionBufferPool;
 import com.facebook.presto.orc.writer.CompressionBufferPool.LastUsedCompressionBufferPool;
+import com.facebook.presto.orc.writer.CompressionBufferPool.SharedCompressionBufferPool;
 import com.facebook.presto.orc.writer.DictionaryColumnWriter;
 import com.facebook.presto.orc.writer.StreamLayout;
 import com.google.common.annotations.VisibleForTesting;
@@ -71,12 +73,14 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.common.io.DataOutput.createDataOutput;
+import static com.facebook.presto.common.util.ParallelTasks.runAll;
 import static com.facebook.presto.orc.DwrfEncryptionInfo.UNENCRYPTED;
 import static com.facebook.presto.orc.DwrfEncryptionInfo.createNodeToGroupMap;
 import static com.facebook.presto.orc.FlushReason.CLOSED;
@@ -141,6 +145,7 @@ public class OrcWriter
     @Nullable
     private final OrcWriteValidation.OrcWriteValidationBuilder validationBuilder;
     private final CompressionBufferPool compressionBufferPool;
+    private final Optional<Executor> columnWriterExecutor;
 
     private int stripeRowCount;
     private int rowGroupRowCount;
@@ -210,7 +215,11 @@ public class OrcWriter
         this.dataSink = requireNonNull(dataSink, "dataSink is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.orcEncoding = requireNonNull(orcEncoding, "orcEncoding is null");
-        this.compressionBufferPool = new LastUsedCompressionBufferPool();
+        // column writers share encryptors, so encrypted files are always written on the calling thread
+        this.columnWriterExecutor = requireNonNull(encryption, "encryption is null").isPresent() ? Optional.empty() : options.getColumnWriterExecutor();
+        this.compressionBufferPool = columnWriterExecutor.isPresent()
+                ? new SharedCompressionBufferPool(Runtime.getRuntime().availableProcessors())
+                : new LastUsedCompressionBufferPool();
 
         requireNonNull(columnNames, "columnNames is null");
         requireNonNull(inputOrcTypes, "inputOrcTypes is null");
@@ -443,10 +452,25 @@ public class OrcWriter
 
         // write chunks
         bufferedBytes = 0;
-        for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
-            ColumnWriter writer = columnWriters.get(channel);
-            stripeRawSize += writer.writeBlock(chunk.getBlock(channel));
-            bufferedBytes += writer.getBufferedBytes();
+        if (columnWriterExecutor.isPresent() && chunk.getChannelCount() > 1) {
+            // lazy blocks must be loaded on the calling thread
+            Block[] blocks = new Block[chunk.getChannelCount()];
+            for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
+                blocks[channel] = chunk.getBlock(channel).getLoadedBlock();
+            }
+            stripeRawSize += runAll(columnWriterExecutor.get(), columnWriters.size(), channel -> columnWriters.get(channel).writeBlock(blocks[channel]), RuntimeException.class).stream()
+                    .mapToLong(Long::longValue)
+                    .sum();
+            for (ColumnWriter writer : columnWriters) {
+                bufferedBytes += writer.getBufferedBytes();
+            }
+        }
+        else {
+            for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
+                ColumnWriter writer = columnWriters.get(channel);
+                stripeRawSize += writer.writeBlock(chunk.getBlock(channel));
+                bufferedBytes += writer.getBufferedBytes();
+            }
         }
 
         // update stats
@@ -529,7 +553,15 @@ public class OrcWriter
             dictionaryCompressionOptimizer.finalOptimize(bufferedBytes);
         }
 
-        columnWriters.forEach(ColumnWriter::close);
+        if (columnWriterExecutor.isPresent() && columnWriters.size() > 1) {
+            runAll(columnWriterExecutor.get(), columnWriters.size(), channel -> {
+                columnWriters.get(channel).close();
+                return null;
+            }, RuntimeException.class);
+        }
+        else {
+            columnWriters.forEach(ColumnWriter::close);
+        }
     }
 
     /**
@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableSet;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
@@ -77,6 +78,7 @@ public class OrcWriterOptions
     private final int maxFlattenedMapKeyCount;
     private final boolean resetOutputBuffer;
     private final boolean lazyOutputBuffer;
+    private final Optional<Executor> columnWriterExecutor;
 
     /**
      * Contains indexes of columns (not nodes!) for which writer should use flattened encoding, e.g. flat maps.
@@ -106,7 +108,8 @@ public class OrcWriterOptions
             boolean mapStatisticsEnabled,
             int maxFlattenedMapKeyCount,
             boolean resetOutputBuffer,
-            boolean lazyOutputBuffer)
+            boolean lazyOutputBuffer,
+            Optional<Executor> columnWriterExecutor)
     {
         requireNonNull(flushPolicy, "flushPolicy is null");
         checkArgument(rowGroupMaxRowCount >= 1, "rowGroupMaxRowCount must be at least 1");
@@ -122,6 +125,7 @@ public class OrcWriterOptions
         requireNonNull(dwrfWriterOptions, "dwrfWriterOptions is null");
         requireNonNull(flattenedColumns, "flattenedColumns is null");
         checkArgument(maxFlattenedMapKeyCount > 0, "maxFlattenedMapKeyCount must be positive: %s", maxFlattenedMapKeyCount);
+        requireNonNull(columnWriterExecutor, "columnWriterExecutor is null");
 
         this.flushPolicy = flushPolicy;
         this.rowGroupMaxRowCount = rowGroupMaxRowCount;
@@ -146,6 +150,7 @@ public class OrcWriterOptions
         this.maxFlattenedMapKeyCount = maxFlattenedMapKeyCount;
         this.resetOutputBuffer = resetOutputBuffer;
         this.lazyOutputBuffer = lazyOutputBuffer;
+        this.columnWriterExecutor = columnWriterExecutor;
     }
 
     public OrcWriterFlushPolicy getFlushPolicy()
@@ -263,6 +268,15 @@ public class OrcWriterOptions
         return lazyOutputBuffer;
     }
 
+    /**
+     * Executor on which the columns of unencrypted files are encoded and compressed in parallel.
+     * When empty, all columns are written on the calling thread.
+     */
+    public Optional<Executor> getColumnWriterExecutor()
+    {
+        return columnWriterExecutor;
+    }
+
     @Override
     public String toString()
     {
@@ -288,6 +302,7 @@ public class OrcWriterOptions
                 .add("maxFlattenedMapKeyCount", maxFlattenedMapKeyCount)
                 .add("resetOutputBuffer", resetOutputBuffer)
                 .add("lazyOutputBuffer", lazyOutputBuffer)
+                .add("columnWriterExecutor", columnWriterExecutor.isPresent())
                 .toString();
     }
 
@@ -328,6 +343,7 @@ public class OrcWriterOptions
         private int maxFlattenedMapKeyCount = DEFAULT_MAX_FLATTENED_MAP_KEY_COUNT;
         private boolean resetOutputBuffer = DEFAULT_RESET_OUTPUT_BUFFER;
         private boolean lazyOutputBuffer = DEFAULT_LAZY_OUTPUT_BUFFER;
+        private Optional<Executor> columnWriterExecutor = Optional.empty();
 
         public Builder withFlushPolicy(OrcWriterFlushPolicy flushPolicy)
         {
@@ -481,6 +497,12 @@ public class OrcWriterOptions
             return this;
         }
 
+        public Builder withColumnWriterExecutor(Optional<Executor> columnWriterExecutor)
+        {
+            this.columnWriterExecutor = requireNonNull(columnWriterExecutor, "columnWriterExecutor is null");
+            return this;
+        }
+
         public OrcWriterOptions build()
         {
             Optional<DwrfStripeCacheOptions> dwrfWriterOptions;
@@ -514,7 +536,8 @@ public class OrcWriterOptions
                     mapStatisticsEnabled,
                     maxFlattenedMapKeyCount,
                     resetOutputBuffer,
-                    lazyOutputBuffer);
+                    lazyOutputBuffer,
+                    columnWriterExecutor);
         }
     }
 }
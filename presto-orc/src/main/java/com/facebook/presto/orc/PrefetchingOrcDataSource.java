@@ -0,0 +1,369 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.RuntimeUnit;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.Slice;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.orc.OrcDataSourceUtils.getDiskRangeSlice;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads ranges of the file ahead of time on an executor. Reads that fall entirely
+ * within a prefetched range are served from memory, waiting for the range if it is
+ * still being read; all other reads go to the underlying data source.
+ * <p>
+ * Background reads run concurrently with the reads of the reader thread, so the
+ * underlying data source must support concurrent positional reads. The lock of this
+ * class only guards the bookkeeping of the reads in flight, which lets {@link #close()}
+ * wait for them before closing the underlying data source.
+ * <p>
+ * A prefetched range is charged to the memory context until it is released, or until
+ * it is handed out as the input of a stream. The stream accounts for the input from
+ * then on, so the range is not charged twice.
+ */
+public class PrefetchingOrcDataSource
+        implements OrcDataSource
+{
+    private final OrcDataSource dataSource;
+    private final Executor executor;
+    private final OrcLocalMemoryContext systemMemoryContext;
+    private final RuntimeStats runtimeStats;
+
+    private final List<Prefetch> prefetches = new ArrayList<>();
+    private final AtomicLong prefetchReadTimeNanos = new AtomicLong();
+    private long waitTimeNanos;
+
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private int activeReads;
+
+    public PrefetchingOrcDataSource(OrcDataSource dataSource, Executor executor, OrcLocalMemoryContext systemMemoryContext, RuntimeStats runtimeStats)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+        this.runtimeStats = requireNonNull(runtimeStats, "runtimeStats is null");
+    }
+
+    @Override
+    public OrcDataSourceId getId()
+    {
+        return dataSource.getId();
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return dataSource.getReadBytes();
+    }
+
+    /**
+     * Returns the time the reader spent on reads, which includes the time spent
+     * waiting for prefetched ranges but not the time spent reading them in the background.
+     */
+    @Override
+    public long getReadTimeNanos()
+    {
+        return dataSource.getReadTimeNanos() - prefetchReadTimeNanos.get() + waitTimeNanos;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return dataSource.getSize();
+    }
+
+    /**
+     * Starts reading the ranges in the background. The ranges are read in the given
+     * order, and are expected to be merged already.
+     *
+     * @return a future that completes when all of the ranges are in memory
+     */
+    public ListenableFuture<?> prefetch(Collection<DiskRange> diskRanges)
+    {
+        synchronized (this) {
+            checkState(!closed, "data source is closed");
+        }
+        List<DiskRange> ranges = ImmutableList.copyOf(diskRanges);
+        ListenableFutureTask<Map<DiskRange, byte[]>> task = ListenableFutureTask.create(() -> readRanges(ranges));
+        prefetches.add(new Prefetch(ranges, task));
+        updateMemoryUsage();
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Drops the prefetched ranges that end at or before the offset.
+     */
+    public void release(long offset)
+    {
+        Iterator<Prefetch> iterator = prefetches.iterator();
+        while (iterator.hasNext()) {
+            Prefetch prefetch = iterator.next();
+            prefetch.release(offset);
+            if (prefetch.isEmpty()) {
+                prefetch.getBuffers().cancel(false);
+                iterator.remove();
+            }
+        }
+        updateMemoryUsage();
+    }
+
+    private Map<DiskRange, byte[]> readRanges(List<DiskRange> ranges)
+            throws IOException
+    {
+        ImmutableMap.Builder<DiskRange, byte[]> buffers = ImmutableMap.builder();
+        for (DiskRange range : ranges) {
+            byte[] buffer = new byte[range.getLength()];
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("Data source was closed while prefetching " + dataSource.getId());
+                }
+                activeReads++;
+            }
+            long start = System.nanoTime();
+            try {
+                dataSource.readFully(range.getOffset(), buffer);
+            }
+            finally {
+                prefetchReadTimeNanos.addAndGet(System.nanoTime() - start);
+                synchronized (this) {
+                    activeReads--;
+                    if (activeReads == 0) {
+                        notifyAll();
+                    }
+                }
+            }
+            buffers.put(range, buffer);
+        }
+        return buffers.build();
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int bufferOffset, int length)
+            throws IOException
+    {
+        Optional<Slice> prefetched = getPrefetchedSlice(new DiskRange(position, length), false);
+        if (prefetched.isPresent()) {
+            prefetched.get().getBytes(0, buffer, bufferOffset, length);
+            return;
+        }
+        dataSource.readFully(position, buffer, bufferOffset, length);
+    }
+
+    @Override
+    public <K> Map<K, OrcDataSourceInput> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<K, OrcDataSourceInput> inputs = ImmutableMap.builder();
+        Map<K, DiskRange> remainingRanges = new LinkedHashMap<>();
+        for (Map.Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            Optional<Slice> prefetched = getPrefetchedSlice(diskRange, true);
+            if (prefetched.isPresent()) {
+                inputs.put(entry.getKey(), new OrcDataSourceInput(prefetched.get().getInput(), diskRange.getLength()));
+            }
+            else {
+                remainingRanges.put(entry.getKey(), diskRange);
+            }
+        }
+        if (!remainingRanges.isEmpty()) {
+            inputs.putAll(dataSource.readFully(remainingRanges));
+        }
+        updateMemoryUsage();
+        return inputs.build();
+    }
+
+    /**
+     * Returns the prefetched data of the range, if the range was prefetched and the read succeeded.
+     *
+     * @param handOut whether the caller keeps the returned slice and accounts for its memory
+     */
+    private Optional<Slice> getPrefetchedSlice(DiskRange diskRange, boolean handOut)
+    {
+        for (Prefetch prefetch : prefetches) {
+            Optional<DiskRange> range = prefetch.getContainingRange(diskRange);
+            if (range.isPresent()) {
+                Optional<Slice> slice = waitForBuffers(prefetch).map(buffers -> getDiskRangeSlice(diskRange, buffers));
+                if (slice.isPresent() && handOut) {
+                    prefetch.handOut(range.get());
+                }
+                return slice;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Map<DiskRange, byte[]>> waitForBuffers(Prefetch prefetch)
+    {
+        ListenableFuture<Map<DiskRange, byte[]>> buffers = prefetch.getBuffers();
+        long start = System.nanoTime();
+        boolean waited = !buffers.isDone();
+        try {
+            return Optional.of(getUninterruptibly(buffers));
+        }
+        catch (ExecutionException | CancellationException e) {
+            // the range is read again from the data source, which reports the failure if it persists
+            prefetches.remove(prefetch);
+            updateMemoryUsage();
+            return Optional.empty();
+        }
+        finally {
+            if (waited) {
+                long elapsed = System.nanoTime() - start;
+                waitTimeNanos += elapsed;
+                runtimeStats.addMetricValue("OrcStripePrefetchWaitTimeNanos", RuntimeUnit.NANO, elapsed);
+            }
+        }
+    }
+
+    private void updateMemoryUsage()
+    {
+        long bytes = 0;
+        for (Prefetch prefetch : prefetches) {
+            bytes += prefetch.getChargedBytes();
+        }
+        systemMemoryContext.setBytes(bytes);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (Prefetch prefetch : prefetches) {
+            prefetch.getBuffers().cancel(false);
+        }
+        prefetches.clear();
+        systemMemoryContext.close();
+        awaitActiveReads();
+        dataSource.close();
+    }
+
+    private synchronized void awaitActiveReads()
+    {
+        boolean interrupted = false;
+        while (activeReads > 0) {
+            try {
+                wait();
+            }
+            catch (InterruptedException e) {
+                // the underlying data source must not be closed under a running read
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return dataSource.toString();
+    }
+
+    private static class Prefetch
+    {
+        private final List<DiskRange> ranges;
+        private final ListenableFuture<Map<DiskRange, byte[]>> buffers;
+        // ranges whose data has been handed out to a stream, which accounts for it
+        private final Set<DiskRange> handedOutRanges = new HashSet<>();
+
+        public Prefetch(List<DiskRange> ranges, ListenableFuture<Map<DiskRange, byte[]>> buffers)
+        {
+            this.ranges = new ArrayList<>(requireNonNull(ranges, "ranges is null"));
+            this.buffers = requireNonNull(buffers, "buffers is null");
+        }
+
+        public Optional<DiskRange> getContainingRange(DiskRange diskRange)
+        {
+            for (DiskRange range : ranges) {
+                if (range.contains(diskRange)) {
+                    return Optional.of(range);
+                }
+            }
+            return Optional.empty();
+        }
+
+        public ListenableFuture<Map<DiskRange, byte[]>> getBuffers()
+        {
+            return buffers;
+        }
+
+        public void handOut(DiskRange range)
+        {
+            handedOutRanges.add(range);
+        }
+
+        public void release(long offset)
+        {
+            ranges.removeIf(range -> range.getEnd() <= offset);
+            handedOutRanges.removeIf(range -> range.getEnd() <= offset);
+        }
+
+        public boolean isEmpty()
+        {
+            return ranges.isEmpty();
+        }
+
+        public long getChargedBytes()
+        {
+            long bytes = 0;
+            for (DiskRange range : ranges) {
+                if (!handedOutRanges.contains(range)) {
+                    bytes += range.getLength();
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -27,10 +27,25 @@ import io.airlift.slice.Slices;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
 
 public class StorageStripeMetadataSource
         implements StripeMetadataSource
 {
+    private final Optional<DecompressedChunkCache> decompressedChunkCache;
+
+    public StorageStripeMetadataSource()
+    {
+        this(Optional.empty());
+    }
+
+    public StorageStripeMetadataSource(Optional<DecompressedChunkCache> decompressedChunkCache)
+    {
+        this.decompressedChunkCache = requireNonNull(decompressedChunkCache, "decompressedChunkCache is null");
+    }
+
     @Override
     public Slice getStripeFooterSlice(OrcDataSource orcDataSource, StripeId stripeId, long footerOffset, int footerLength, boolean cacheable, long fileModificationTime)
             throws IOException
@@ -74,4 +89,10 @@ public class StorageStripeMetadataSource
     {
         return metadataReader.readRowIndexes(hiveWriterVersion, inputStream, bloomFilters);
     }
+
+    @Override
+    public Optional<DecompressedChunkCache> getDecompressedChunkCache()
+    {
+        return decompressedChunkCache;
+    }
 }
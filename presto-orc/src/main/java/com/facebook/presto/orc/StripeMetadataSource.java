@@ -25,6 +25,7 @@ import io.airlift.slice.Slice;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -52,12 +53,21 @@ public interface StripeMetadataSource
             long fileModificationTime)
             throws IOException;
 
+    /**
+     * Returns the cache that the data streams read through this source may use for their
+     * decompressed chunks.
+     */
+    default Optional<DecompressedChunkCache> getDecompressedChunkCache()
+    {
+        return Optional.empty();
+    }
+
     class CacheableSlice
     {
         private final Slice slice;
         private final long fileModificationTime;
 
-        CacheableSlice(Slice slice, long fileModificationTime)
+        public CacheableSlice(Slice slice, long fileModificationTime)
         {
             this.slice = requireNonNull(slice, "slice is null");
             this.fileModificationTime = fileModificationTime;
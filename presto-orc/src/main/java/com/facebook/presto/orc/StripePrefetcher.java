@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.Futures.immediateVoidFuture;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the next stripe of a record reader ahead of time. The stripe footer is
+ * prefetched first. Once it is in memory, the footer is parsed on the reader thread,
+ * because decompressors are not thread safe, and the streams of the included
+ * columns are prefetched next.
+ */
+class StripePrefetcher
+{
+    static final ListenableFuture<?> NOT_BLOCKED = immediateVoidFuture();
+
+    private final PrefetchingOrcDataSource dataSource;
+    private final StripeReader stripeReader;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxPrefetchSize;
+
+    // the stripe being prefetched, or null if there is nothing to prefetch
+    private StripeInformation stripe;
+    private ListenableFuture<?> footerFuture = NOT_BLOCKED;
+    // null until the footer of the stripe has been parsed
+    private ListenableFuture<?> streamsFuture;
+
+    public StripePrefetcher(PrefetchingOrcDataSource dataSource, StripeReader stripeReader, DataSize maxMergeDistance, DataSize maxPrefetchSize)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.stripeReader = requireNonNull(stripeReader, "stripeReader is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxPrefetchSize = requireNonNull(maxPrefetchSize, "maxPrefetchSize is null");
+    }
+
+    /**
+     * Starts prefetching the stripe. The data prefetched for earlier stripes is dropped,
+     * since the streams of those stripes already account for the buffers they hold.
+     */
+    public void start(StripeInformation stripe)
+    {
+        dataSource.release(stripe.getOffset());
+        this.stripe = stripe;
+        long footerOffset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
+        footerFuture = dataSource.prefetch(ImmutableList.of(new DiskRange(footerOffset, toIntExact(stripe.getFooterLength()))));
+        streamsFuture = null;
+    }
+
+    /**
+     * Drops the prefetched data once the reader has read the last stripe.
+     */
+    public void finish()
+    {
+        dataSource.release(Long.MAX_VALUE);
+        stripe = null;
+    }
+
+    /**
+     * Starts prefetching the streams of the stripe if its footer is in memory.
+     */
+    public void update()
+    {
+        if (stripe == null || streamsFuture != null || !footerFuture.isDone()) {
+            return;
+        }
+
+        List<DiskRange> diskRanges;
+        try {
+            getDone(footerFuture);
+            diskRanges = stripeReader.getIncludedStreamDiskRanges(stripe);
+        }
+        catch (ExecutionException | CancellationException | IOException e) {
+            // the stripe is read without prefetching, which reports the failure if it persists
+            stripe = null;
+            return;
+        }
+
+        long totalLength = 0;
+        for (DiskRange diskRange : diskRanges) {
+            totalLength += diskRange.getLength();
+        }
+        if (diskRanges.isEmpty() || totalLength > maxPrefetchSize.toBytes()) {
+            stripe = null;
+            return;
+        }
+        streamsFuture = dataSource.prefetch(mergeAdjacentDiskRanges(diskRanges, maxMergeDistance, maxPrefetchSize));
+    }
+
+    /**
+     * Returns a future that completes when the reader can read the stripe without waiting on storage.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        update();
+        if (stripe == null) {
+            return NOT_BLOCKED;
+        }
+        if (streamsFuture == null) {
+            return footerFuture;
+        }
+        return streamsFuture;
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.orc.DecompressedChunkCache.StreamChunks;
 import com.facebook.presto.orc.checkpoint.InvalidCheckpointException;
 import com.facebook.presto.orc.checkpoint.StreamCheckpoint;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
@@ -61,6 +62,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 
+import static com.facebook.presto.orc.NoopOrcAggregatedMemoryContext.NOOP_ORC_AGGREGATED_MEMORY_CONTEXT;
 import static com.facebook.presto.orc.NoopOrcLocalMemoryContext.NOOP_ORC_LOCAL_MEMORY_CONTEXT;
 import static com.facebook.presto.orc.checkpoint.Checkpoints.getDictionaryStreamCheckpoint;
 import static com.facebook.presto.orc.checkpoint.Checkpoints.getStreamCheckpoints;
@@ -68,6 +70,7 @@ import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY_V2;
 import static com.facebook.presto.orc.metadata.DwrfMetadataReader.toStripeEncryptionGroup;
 import static com.facebook.presto.orc.metadata.OrcType.OrcTypeKind.STRUCT;
+import static com.facebook.presto.orc.metadata.Stream.StreamArea.DATA;
 import static com.facebook.presto.orc.metadata.Stream.StreamArea.INDEX;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
@@ -352,10 +355,16 @@ public class StripeReader
         Map<StreamId, OrcDataSourceInput> streamsData = stripeMetadataSource.getInputs(orcDataSource, stripeId, diskRanges, cacheable, fileModificationTime);
 
         // transform streams to OrcInputStream
+        Optional<DecompressedChunkCache> decompressedChunkCache = stripeMetadataSource.getDecompressedChunkCache();
         ImmutableMap.Builder<StreamId, OrcInputStream> streamsBuilder = ImmutableMap.builder();
         for (Entry<StreamId, OrcDataSourceInput> entry : streamsData.entrySet()) {
             OrcDataSourceInput sourceInput = entry.getValue();
             Optional<DwrfDataEncryptor> dwrfDecryptor = createDwrfDecryptor(entry.getKey(), decryptors);
+            Optional<StreamChunks> decompressedChunks = Optional.empty();
+            // only plaintext data streams go through the shared cache, index streams have caches of their own
+            if (cacheable && decompressedChunkCache.isPresent() && decompressor.isPresent() && !dwrfDecryptor.isPresent() && entry.getKey().getStreamKind().getStreamArea() == DATA) {
+                decompressedChunks = Optional.of(decompressedChunkCache.get().getStreamChunks(new StripeStreamId(stripeId, entry.getKey()), fileModificationTime));
+            }
             streamsBuilder.put(entry.getKey(), new OrcInputStream(
                     orcDataSource.getId(),
                     sharedDecompressionBuffer,
@@ -363,7 +372,8 @@ public class StripeReader
                     decompressor,
                     dwrfDecryptor,
                     systemMemoryUsage,
-                    sourceInput.getRetainedSizeInBytes()));
+                    sourceInput.getRetainedSizeInBytes(),
+                    decompressedChunks));
         }
         return streamsBuilder.build();
     }
@@ -501,6 +511,28 @@ public class StripeReader
         }
     }
 
+    /**
+     * Returns the file ranges of the plaintext streams of the included columns.
+     */
+    public List<DiskRange> getIncludedStreamDiskRanges(StripeInformation stripe)
+            throws IOException
+    {
+        StripeId stripeId = new StripeId(orcDataSource.getId(), stripe.getOffset());
+        StripeFooter stripeFooter = readStripeFooter(stripeId, stripe, NOOP_ORC_AGGREGATED_MEMORY_CONTEXT);
+
+        Map<StreamId, Stream> includedStreams = new HashMap<>();
+        addIncludedStreams(stripeFooter.getColumnEncodings(), stripeFooter.getStreams(), includedStreams);
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        for (Entry<StreamId, DiskRange> entry : getDiskRanges(ImmutableList.of(stripeFooter.getStreams())).entrySet()) {
+            if (includedStreams.containsKey(entry.getKey())) {
+                DiskRange diskRange = entry.getValue();
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        return diskRanges.build();
+    }
+
     static boolean isIndexStream(Stream stream)
     {
         return stream.getStreamKind().getStreamArea() == INDEX;
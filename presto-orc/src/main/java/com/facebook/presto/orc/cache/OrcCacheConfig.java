@@ -41,6 +41,10 @@ public class OrcCacheConfig
     private DataSize rowGroupIndexCacheSize = new DataSize(0, BYTE);
     private Duration rowGroupIndexCacheTtlSinceLastAccess = new Duration(0, SECONDS);
 
+    private boolean decompressedChunkCacheEnabled;
+    private DataSize decompressedChunkCacheSize = new DataSize(0, BYTE);
+    private Duration decompressedChunkCacheTtlSinceLastAccess = new Duration(0, SECONDS);
+
     private boolean dwrfStripeCacheEnabled = true;
     private DataSize expectedFileTailSize = new DataSize(EXPECTED_FOOTER_SIZE_IN_BYTES, BYTE);
 
@@ -194,6 +198,47 @@ public class OrcCacheConfig
         return this;
     }
 
+    public boolean isDecompressedChunkCacheEnabled()
+    {
+        return decompressedChunkCacheEnabled;
+    }
+
+    @Config("orc.decompressed-chunk-cache-enabled")
+    @ConfigDescription("Enable cache for decompressed chunks of data streams")
+    public OrcCacheConfig setDecompressedChunkCacheEnabled(boolean decompressedChunkCacheEnabled)
+    {
+        this.decompressedChunkCacheEnabled = decompressedChunkCacheEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getDecompressedChunkCacheSize()
+    {
+        return decompressedChunkCacheSize;
+    }
+
+    @Config("orc.decompressed-chunk-cache-size")
+    @ConfigDescription("Size of the decompressed data stream chunk cache")
+    public OrcCacheConfig setDecompressedChunkCacheSize(DataSize decompressedChunkCacheSize)
+    {
+        this.decompressedChunkCacheSize = decompressedChunkCacheSize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getDecompressedChunkCacheTtlSinceLastAccess()
+    {
+        return decompressedChunkCacheTtlSinceLastAccess;
+    }
+
+    @Config("orc.decompressed-chunk-cache-ttl-since-last-access")
+    @ConfigDescription("Time-to-live for decompressed data stream chunk cache entry after last access")
+    public OrcCacheConfig setDecompressedChunkCacheTtlSinceLastAccess(Duration decompressedChunkCacheTtlSinceLastAccess)
+    {
+        this.decompressedChunkCacheTtlSinceLastAccess = decompressedChunkCacheTtlSinceLastAccess;
+        return this;
+    }
+
     public boolean isDwrfStripeCacheEnabled()
     {
         return dwrfStripeCacheEnabled;
@@ -23,5 +23,16 @@ public interface BatchStreamReader
     Block readBlock()
             throws IOException;
 
+    /**
+     * Reads only the given positions of the next batch, which are sorted in
+     * ascending order and relative to the start of the batch. Readers that can
+     * skip unselected values without decoding them should override this.
+     */
+    default Block readBlock(int[] positions, int offset, int length)
+            throws IOException
+    {
+        return readBlock().copyPositions(positions, offset, length);
+    }
+
     void prepareNextRead(int batchSize);
 }
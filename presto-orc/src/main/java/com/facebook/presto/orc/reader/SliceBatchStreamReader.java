@@ -74,6 +74,13 @@ public class SliceBatchStreamReader
         return currentReader.readBlock();
     }
 
+    @Override
+    public Block readBlock(int[] positions, int offset, int length)
+            throws IOException
+    {
+        return currentReader.readBlock(positions, offset, length);
+    }
+
     @Override
     public void prepareNextRead(int batchSize)
     {
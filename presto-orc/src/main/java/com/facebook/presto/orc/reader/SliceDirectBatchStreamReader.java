@@ -99,29 +99,7 @@ public class SliceDirectBatchStreamReader
     public Block readBlock()
             throws IOException
     {
-        if (!rowGroupOpen) {
-            openRowGroup();
-        }
-
-        if (readOffset > 0) {
-            if (presentStream != null) {
-                // skip ahead the present bit reader, but count the set bits
-                // and use this as the skip size for the length reader
-                readOffset = presentStream.countBitsSet(readOffset);
-            }
-            if (readOffset > 0) {
-                if (lengthStream == null) {
-                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
-                }
-                long dataSkipSize = lengthStream.sum(readOffset);
-                if (dataSkipSize > 0) {
-                    if (dataStream == null) {
-                        throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
-                    }
-                    dataStream.skip(dataSkipSize);
-                }
-            }
-        }
+        seekToNextBatch();
 
         if (lengthStream == null) {
             if (presentStream == null) {
@@ -177,14 +155,7 @@ public class SliceDirectBatchStreamReader
         if (totalLength == 0) {
             return new VariableWidthBlock(currentBatchSize, EMPTY_SLICE, offsetVector, Optional.ofNullable(isNullVector));
         }
-        if (totalLength > maxSliceSize) {
-            throw new GenericInternalException(
-                    format("Values in column \"%s\" are too large to process for Presto. Requested to read [%s] bytes, when max allowed is [%s] bytes [%s]",
-                            streamDescriptor.getFieldName(),
-                            totalLength,
-                            maxSliceSize,
-                            streamDescriptor.getOrcDataSourceId()));
-        }
+        verifyTotalLength(totalLength);
         if (dataStream == null) {
             throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is missing");
         }
@@ -230,9 +201,158 @@ public class SliceDirectBatchStreamReader
         return new VariableWidthBlock(currentBatchSize, slice, offsetVector, Optional.ofNullable(isNullVector));
     }
 
+    @Override
+    public Block readBlock(int[] positions, int offset, int length)
+            throws IOException
+    {
+        seekToNextBatch();
+
+        int batchSize = nextBatchSize;
+        readOffset = 0;
+        nextBatchSize = 0;
+
+        if (lengthStream == null) {
+            if (presentStream == null) {
+                throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is null but present stream is missing");
+            }
+            presentStream.skip(batchSize);
+            return readAllNullsBlock(length);
+        }
+
+        boolean[] isNullVector = null;
+        int[] lengthVector = new int[batchSize];
+        if (presentStream == null) {
+            lengthStream.next(lengthVector, batchSize);
+        }
+        else {
+            isNullVector = new boolean[batchSize];
+            int nullCount = presentStream.getUnsetBits(batchSize, isNullVector);
+            if (nullCount == batchSize) {
+                return readAllNullsBlock(length);
+            }
+
+            if (nullCount == 0) {
+                isNullVector = null;
+                lengthStream.next(lengthVector, batchSize);
+            }
+            else {
+                lengthStream.next(lengthVector, batchSize - nullCount);
+                unpackLengthNulls(lengthVector, isNullVector, batchSize - nullCount);
+            }
+        }
+
+        long batchLength = 0;
+        for (int i = 0; i < batchSize; i++) {
+            batchLength += lengthVector[i];
+        }
+        long totalLength = 0;
+        for (int i = offset; i < offset + length; i++) {
+            totalLength += lengthVector[positions[i]];
+        }
+        verifyTotalLength(totalLength);
+        if (batchLength > 0 && dataStream == null) {
+            throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is missing");
+        }
+
+        byte[] data = new byte[toIntExact(totalLength)];
+        Slice slice = Slices.wrappedBuffer(data);
+        int[] offsetVector = new int[length + 1];
+        boolean[] selectedIsNull = isNullVector == null ? null : new boolean[length];
+
+        // the bytes of rows that are not selected are skipped, in a single call per gap between selected rows
+        long skipSize = 0;
+        int nextRow = 0;
+        for (int i = 0; i < length; i++) {
+            int position = positions[offset + i];
+            for (; nextRow < position; nextRow++) {
+                skipSize += lengthVector[nextRow];
+            }
+            nextRow = position + 1;
+
+            int valueOffset = offsetVector[i];
+            int valueLength = lengthVector[position];
+            if (isNullVector != null && isNullVector[position]) {
+                checkState(valueLength == 0, "Corruption in slice direct stream: length is non-zero for null entry");
+                selectedIsNull[i] = true;
+                offsetVector[i + 1] = valueOffset;
+                continue;
+            }
+
+            if (valueLength > 0) {
+                if (skipSize > 0) {
+                    dataStream.skip(skipSize);
+                    skipSize = 0;
+                }
+                dataStream.next(data, valueOffset, valueOffset + valueLength);
+            }
+
+            if (maxCodePointCount < 0) {
+                offsetVector[i + 1] = valueOffset + valueLength;
+            }
+            else {
+                int truncatedLength = computeTruncatedLength(slice, valueOffset, valueLength, maxCodePointCount, isCharType);
+                verify(truncatedLength >= 0);
+                offsetVector[i + 1] = valueOffset + truncatedLength;
+            }
+        }
+        for (; nextRow < batchSize; nextRow++) {
+            skipSize += lengthVector[nextRow];
+        }
+        if (skipSize > 0) {
+            dataStream.skip(skipSize);
+        }
+
+        return new VariableWidthBlock(length, slice, offsetVector, Optional.ofNullable(selectedIsNull));
+    }
+
+    private void seekToNextBatch()
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        if (readOffset > 0) {
+            if (presentStream != null) {
+                // skip ahead the present bit reader, but count the set bits
+                // and use this as the skip size for the length reader
+                readOffset = presentStream.countBitsSet(readOffset);
+            }
+            if (readOffset > 0) {
+                if (lengthStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
+                }
+                long dataSkipSize = lengthStream.sum(readOffset);
+                if (dataSkipSize > 0) {
+                    if (dataStream == null) {
+                        throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
+                    }
+                    dataStream.skip(dataSkipSize);
+                }
+            }
+        }
+    }
+
+    private void verifyTotalLength(long totalLength)
+    {
+        if (totalLength > maxSliceSize) {
+            throw new GenericInternalException(
+                    format("Values in column \"%s\" are too large to process for Presto. Requested to read [%s] bytes, when max allowed is [%s] bytes [%s]",
+                            streamDescriptor.getFieldName(),
+                            totalLength,
+                            maxSliceSize,
+                            streamDescriptor.getOrcDataSourceId()));
+        }
+    }
+
     private RunLengthEncodedBlock readAllNullsBlock()
     {
-        return new RunLengthEncodedBlock(new VariableWidthBlock(1, EMPTY_SLICE, new int[2], Optional.of(new boolean[] {true})), nextBatchSize);
+        return readAllNullsBlock(nextBatchSize);
+    }
+
+    private static RunLengthEncodedBlock readAllNullsBlock(int positionCount)
+    {
+        return new RunLengthEncodedBlock(new VariableWidthBlock(1, EMPTY_SLICE, new int[2], Optional.of(new boolean[] {true})), positionCount);
     }
 
     private void openRowGroup()
@@ -80,30 +80,31 @@ public final class LongBitPacker
         }
     }
 
-    private static void unpackGeneric(long[] buffer, int offset, int len, int bitSize, InputStream input)
+    private void unpackGeneric(long[] buffer, int offset, int len, int bitSize, InputStream input)
             throws IOException
     {
-        int bitsLeft = 0;
-        int current = 0;
-
-        for (int i = offset; i < (offset + len); i++) {
-            long result = 0;
-            int bitsLeftToRead = bitSize;
-            while (bitsLeftToRead > bitsLeft) {
-                result <<= bitsLeft;
-                result |= current & ((1 << bitsLeft) - 1);
-                bitsLeftToRead -= bitsLeft;
-                current = input.read();
-                bitsLeft = 8;
-            }
+        int blockReadableBytes = (len * bitSize + 7) / 8;
+        for (int i = 0; i < blockReadableBytes; ) {
+            i += input.read(tmp, i, blockReadableBytes - i);
+        }
 
-            // handle the left over bits
-            if (bitsLeftToRead > 0) {
-                result <<= bitsLeftToRead;
-                bitsLeft -= bitsLeftToRead;
-                result |= (current >> bitsLeft) & ((1 << bitsLeftToRead) - 1);
+        // Each value is extracted from the big-endian 64-bit word starting at the byte that holds
+        // its first bit. Bits past the end of the value are shifted out, so stale bytes after the
+        // block are never observed.
+        int valueShift = SIZE_OF_LONG * 8 - bitSize;
+        int bitOffset = 0;
+        for (int i = offset; i < offset + len; i++) {
+            int byteIndex = bitOffset >>> 3;
+            int bitShift = bitOffset & 7;
+            // It's safe to read 8-bytes at a time and shift, because slice is a view over tmp,
+            // which has 8 bytes of buffer space for every position
+            long value = (Long.reverseBytes(getLongUnchecked(slice, byteIndex)) << bitShift) >>> valueShift;
+            if (bitShift + bitSize > 64) {
+                // the value spills into a ninth byte, which only happens for widths above 56
+                value |= (0xFFL & tmp[byteIndex + SIZE_OF_LONG]) >>> (72 - bitShift - bitSize);
             }
-            buffer[i] = result;
+            buffer[i] = value;
+            bitOffset += bitSize;
         }
     }
 
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc.stream;
 
+import com.facebook.presto.orc.DecompressedChunkCache.StreamChunks;
 import com.facebook.presto.orc.DwrfDataEncryptor;
 import com.facebook.presto.orc.OrcAggregatedMemoryContext;
 import com.facebook.presto.orc.OrcCorruptionException;
@@ -22,6 +23,7 @@ import com.facebook.presto.orc.OrcLocalMemoryContext;
 import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
 import io.airlift.slice.ByteArrays;
 import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slice;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.io.IOException;
@@ -61,6 +63,7 @@ public final class OrcInputStream
     private final Optional<OrcDecompressor> decompressor;
     private final Optional<DwrfDataEncryptor> dwrfDecryptor;
     private final OrcLocalMemoryContext memoryUsage;
+    private final Optional<StreamChunks> decompressedChunks;
     // Temporary memory for reading a float or double at buffer boundary.
     private final byte[] temporaryBuffer = new byte[SIZE_OF_DOUBLE];
 
@@ -79,6 +82,22 @@ public final class OrcInputStream
             Optional<DwrfDataEncryptor> dwrfDecryptor,
             OrcAggregatedMemoryContext systemMemoryContext,
             long sliceInputRetainedSizeInBytes)
+    {
+        this(orcDataSourceId, sharedDecompressionBuffer, sliceInput, decompressor, dwrfDecryptor, systemMemoryContext, sliceInputRetainedSizeInBytes, Optional.empty());
+    }
+
+    /**
+     * @param decompressedChunks when present, decompressed chunks are looked up in and added to this cache
+     */
+    public OrcInputStream(
+            OrcDataSourceId orcDataSourceId,
+            SharedBuffer sharedDecompressionBuffer,
+            FixedLengthSliceInput sliceInput,
+            Optional<OrcDecompressor> decompressor,
+            Optional<DwrfDataEncryptor> dwrfDecryptor,
+            OrcAggregatedMemoryContext systemMemoryContext,
+            long sliceInputRetainedSizeInBytes,
+            Optional<StreamChunks> decompressedChunks)
     {
         this.orcDataSourceId = requireNonNull(orcDataSourceId, "orcDataSource is null");
         this.sharedDecompressionBuffer = requireNonNull(sharedDecompressionBuffer, "sharedDecompressionBuffer is null");
@@ -87,6 +106,7 @@ public final class OrcInputStream
 
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
         this.dwrfDecryptor = requireNonNull(dwrfDecryptor, "dwrfDecryptor is null");
+        this.decompressedChunks = requireNonNull(decompressedChunks, "decompressedChunks is null");
 
         // memory reserved in the systemMemoryContext is never release and instead it is
         // expected that the context itself will be destroyed at the end of the read
@@ -476,7 +496,7 @@ public final class OrcInputStream
             }
             position = 0;
         }
-        else {
+        else if (!readCachedChunk(chunkLength)) {
             sharedDecompressionBuffer.ensureCapacity(chunkLength);
             byte[] compressedBuffer = sharedDecompressionBuffer.get();
             int readCompressed = compressedSliceInput.read(compressedBuffer, 0, chunkLength);
@@ -487,11 +507,31 @@ public final class OrcInputStream
 
             length = decompressor.get().decompress(compressedBuffer, 0, readCompressed, createDecompressorOutputBufferAdapter());
             position = 0;
+            if (decompressedChunks.isPresent()) {
+                decompressedChunks.get().put(currentCompressedBlockOffset, buffer, length);
+            }
         }
         uncompressedOffset = position;
         memoryUsage.setBytes(getRetainedSizeInBytes());
     }
 
+    private boolean readCachedChunk(int chunkLength)
+    {
+        if (!decompressedChunks.isPresent()) {
+            return false;
+        }
+        Slice chunk = decompressedChunks.get().get(currentCompressedBlockOffset);
+        if (chunk == null) {
+            return false;
+        }
+        compressedSliceInput.skip(chunkLength);
+        buffer = ensureCapacity(buffer, chunk.length());
+        chunk.getBytes(0, buffer, 0, chunk.length());
+        length = chunk.length();
+        position = 0;
+        return true;
+    }
+
     public long getRetainedSizeInBytes()
     {
         return INSTANCE_SIZE +
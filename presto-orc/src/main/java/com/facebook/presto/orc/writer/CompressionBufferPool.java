@@ -14,8 +14,13 @@
 package com.facebook.presto.orc.writer;
 
 import com.facebook.airlift.concurrent.NotThreadSafe;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.ArrayDeque;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static java.util.Objects.requireNonNull;
 
@@ -58,4 +63,57 @@ public interface CompressionBufferPool
             return INSTANCE_SIZE + sizeOf(lastUsed);
         }
     }
+
+    /**
+     * Pool that can be shared by column writers running on different threads.
+     * At most {@code maxBuffers} returned buffers are kept for reuse.
+     */
+    @ThreadSafe
+    class SharedCompressionBufferPool
+            implements CompressionBufferPool
+    {
+        private static final int INSTANCE_SIZE = ClassLayout.parseClass(SharedCompressionBufferPool.class).instanceSize();
+
+        private final int maxBuffers;
+        @GuardedBy("this")
+        private final ArrayDeque<byte[]> buffers = new ArrayDeque<>();
+        @GuardedBy("this")
+        private long buffersRetainedBytes;
+
+        public SharedCompressionBufferPool(int maxBuffers)
+        {
+            checkArgument(maxBuffers > 0, "maxBuffers must be positive");
+            this.maxBuffers = maxBuffers;
+        }
+
+        @Override
+        public synchronized byte[] checkOut(int length)
+        {
+            byte[] buffer = buffers.pollLast();
+            if (buffer == null) {
+                return new byte[length];
+            }
+            buffersRetainedBytes -= sizeOf(buffer);
+            if (buffer.length < length) {
+                return new byte[length];
+            }
+            return buffer;
+        }
+
+        @Override
+        public synchronized void checkIn(byte[] buffer)
+        {
+            requireNonNull(buffer, "buffer is null");
+            if (buffers.size() < maxBuffers) {
+                buffers.addLast(buffer);
+                buffersRetainedBytes += sizeOf(buffer);
+            }
+        }
+
+        @Override
+        public synchronized long getRetainedBytes()
+        {
+            return INSTANCE_SIZE + buffersRetainedBytes;
+        }
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.io.OutputStreamDataSink;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
+import static com.facebook.presto.orc.NoOpOrcWriterStats.NOOP_WRITER_STATS;
+import static com.facebook.presto.orc.OrcEncoding.DWRF;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcWriteValidation.OrcWriteValidationMode.BOTH;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZSTD;
+import static com.google.common.io.ByteStreams.nullOutputStream;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compares writing a wide ZSTD compressed table on the calling thread with
+ * encoding and compressing its columns on a column writer executor.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 1000, timeUnit = MILLISECONDS)
+@Measurement(iterations = 20, time = 1000, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkParallelOrcWriter
+{
+    private static final int SEED = 0;
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(BenchmarkParallelOrcWriter.class.getName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public void write(BenchmarkData data)
+            throws IOException
+    {
+        OrcWriterOptions orcWriterOptions = OrcWriterOptions.builder()
+                .withColumnWriterExecutor(data.executor.map(executor -> executor))
+                .build();
+
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamDataSink(nullOutputStream()),
+                data.columnNames,
+                data.types,
+                DWRF,
+                ZSTD,
+                Optional.empty(),
+                NO_ENCRYPTION,
+                orcWriterOptions,
+                ImmutableMap.of(),
+                HIVE_STORAGE_TIME_ZONE,
+                false,
+                BOTH,
+                NOOP_WRITER_STATS);
+
+        for (Page page : data.pages) {
+            writer.write(page);
+        }
+
+        writer.close();
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param("200")
+        private int columnCount = 200;
+
+        @Param("10000")
+        private int positionsPerPage = 10000;
+
+        @Param("10")
+        private int pageCount = 10;
+
+        // 0 writes all columns on the calling thread
+        @Param({"0", "4", "8"})
+        private int columnWriterThreads;
+
+        private List<String> columnNames;
+        private List<Type> types;
+        private List<Page> pages;
+        private Optional<ExecutorService> executor;
+
+        @Setup
+        public void setup()
+        {
+            Random random = new Random(SEED);
+
+            ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+            ImmutableList.Builder<Type> types = ImmutableList.builder();
+            for (int column = 0; column < columnCount; column++) {
+                columnNames.add("col" + column);
+                switch (column % 3) {
+                    case 0:
+                        types.add(BIGINT);
+                        break;
+                    case 1:
+                        types.add(DOUBLE);
+                        break;
+                    default:
+                        types.add(VARCHAR);
+                }
+            }
+            this.columnNames = columnNames.build();
+            this.types = types.build();
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int page = 0; page < pageCount; page++) {
+                Block[] blocks = new Block[columnCount];
+                for (int column = 0; column < columnCount; column++) {
+                    Type type = this.types.get(column);
+                    BlockBuilder blockBuilder = type.createBlockBuilder(null, positionsPerPage);
+                    for (int position = 0; position < positionsPerPage; position++) {
+                        if (type == BIGINT) {
+                            BIGINT.writeLong(blockBuilder, random.nextInt(1_000_000));
+                        }
+                        else if (type == DOUBLE) {
+                            DOUBLE.writeDouble(blockBuilder, random.nextDouble());
+                        }
+                        else {
+                            VARCHAR.writeString(blockBuilder, "value_" + random.nextInt(100_000));
+                        }
+                    }
+                    blocks[column] = blockBuilder.build();
+                }
+                pages.add(new Page(blocks));
+            }
+            this.pages = pages.build();
+
+            if (columnWriterThreads > 0) {
+                executor = Optional.of(newFixedThreadPool(columnWriterThreads, daemonThreadsNamed("benchmark-orc-column-writer-%s")));
+            }
+            else {
+                executor = Optional.empty();
+            }
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.ifPresent(ExecutorService::shutdownNow);
+        }
+    }
+}
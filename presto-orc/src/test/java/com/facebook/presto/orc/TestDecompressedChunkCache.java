@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.io.DecompressedDataCache.CachedData;
+import com.facebook.presto.orc.DecompressedChunkCache.ChunkId;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumnPresto;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static java.lang.Math.toIntExact;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDecompressedChunkCache
+{
+    private static final int ROW_COUNT = 100_000;
+
+    @Test
+    public void testHitMissAndModificationTime()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            List<Long> values = writeTestFile(tempFile);
+            Cache<ChunkId, CachedData> cache = CacheBuilder.newBuilder().build();
+            DecompressedChunkCache chunkCache = new DecompressedChunkCache(cache);
+
+            // the first scan decompresses every chunk and fills the cache
+            assertEquals(readValues(tempFile, chunkCache, true, 1), values);
+            long missBytes = chunkCache.getMissBytes();
+            assertTrue(missBytes > 0);
+            assertEquals(chunkCache.getHitBytes(), 0);
+            long cachedChunks = cache.size();
+            assertTrue(cachedChunks > 0);
+
+            // the second scan is served from the cache
+            assertEquals(readValues(tempFile, chunkCache, true, 1), values);
+            assertEquals(chunkCache.getMissBytes(), missBytes);
+            assertEquals(chunkCache.getHitBytes(), missBytes);
+
+            // a new version of the file does not see the chunks of the old one
+            assertEquals(readValues(tempFile, chunkCache, true, 2), values);
+            assertEquals(chunkCache.getHitBytes(), missBytes);
+            assertEquals(chunkCache.getMissBytes(), 2 * missBytes);
+            assertEquals(cache.size(), cachedChunks);
+        }
+    }
+
+    @Test
+    public void testNonCacheableFile()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            List<Long> values = writeTestFile(tempFile);
+            Cache<ChunkId, CachedData> cache = CacheBuilder.newBuilder().build();
+            DecompressedChunkCache chunkCache = new DecompressedChunkCache(cache);
+
+            assertEquals(readValues(tempFile, chunkCache, false, 1), values);
+            assertEquals(readValues(tempFile, chunkCache, false, 1), values);
+            assertEquals(cache.size(), 0);
+            assertEquals(chunkCache.getMissBytes(), 0);
+            assertEquals(chunkCache.getHitBytes(), 0);
+        }
+    }
+
+    @Test
+    public void testWeightEviction()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            List<Long> values = writeTestFile(tempFile);
+            // room for about two of the 256kB compression chunks
+            long maxWeight = 600 * 1024;
+            Cache<ChunkId, CachedData> cache = CacheBuilder.newBuilder()
+                    .concurrencyLevel(1)
+                    .maximumWeight(maxWeight)
+                    .weigher((ChunkId id, CachedData chunk) -> toIntExact(chunk.getSlice().getRetainedSize()))
+                    .build();
+            DecompressedChunkCache chunkCache = new DecompressedChunkCache(cache);
+
+            // evicted chunks are decompressed again, and the values stay correct
+            assertEquals(readValues(tempFile, chunkCache, true, 1), values);
+            assertEquals(readValues(tempFile, chunkCache, true, 1), values);
+            assertTrue(chunkCache.getMissBytes() > maxWeight);
+            assertTrue(cache.asMap().values().stream().mapToLong(chunk -> chunk.getSlice().getRetainedSize()).sum() <= maxWeight);
+        }
+    }
+
+    private static List<Long> writeTestFile(TempFile tempFile)
+            throws Exception
+    {
+        // random values do not compress, so the data stream spans several compression chunks
+        Random random = new Random(42);
+        List<Long> values = LongStream.range(0, ROW_COUNT).map(value -> random.nextLong()).boxed().collect(Collectors.toList());
+        writeOrcColumnPresto(tempFile.getFile(), ORC_12, ZLIB, BIGINT, values);
+        return values;
+    }
+
+    private static List<Long> readValues(TempFile tempFile, DecompressedChunkCache chunkCache, boolean cacheable, long modificationTime)
+            throws Exception
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        try (OrcBatchRecordReader reader = createCustomOrcRecordReader(
+                tempFile,
+                ORC,
+                OrcPredicate.TRUE,
+                ImmutableList.of(BIGINT),
+                MAX_BATCH_SIZE,
+                new StorageOrcFileTailSource(),
+                new StorageStripeMetadataSource(Optional.of(chunkCache)),
+                cacheable,
+                ImmutableMap.of(),
+                false,
+                modificationTime)) {
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                Block block = reader.readBlock(0);
+                for (int position = 0; position < batchSize; position++) {
+                    values.add(BIGINT.getLong(block, position));
+                }
+            }
+        }
+        return values.build();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.common.type.VarcharType.createVarcharType;
+import static com.facebook.presto.orc.NoOpOrcWriterStats.NOOP_WRITER_STATS;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
+import static com.facebook.presto.orc.OrcTester.createOrcWriter;
+import static com.facebook.presto.orc.OrcTester.getStripes;
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT_V2;
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcBatchReadPositions
+{
+    private static final int ROW_COUNT = 5_000;
+    private static final int ROW_GROUP_MAX_ROW_COUNT = 100;
+
+    @Test
+    public void testSliceDirectReadPositions()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeSliceDirectFile(tempFile.getFile());
+
+            for (Type type : ImmutableList.of(VARCHAR, createVarcharType(3))) {
+                assertReadPositions(tempFile, type, (filePosition, batchSize) -> IntStream.range(0, batchSize).toArray());
+                assertReadPositions(tempFile, type, (filePosition, batchSize) -> IntStream.range(0, batchSize).filter(position -> position % 3 == 1).toArray());
+                assertReadPositions(tempFile, type, (filePosition, batchSize) -> new int[0]);
+                assertReadPositions(tempFile, type, (filePosition, batchSize) -> new int[] {batchSize - 1});
+                // the rows on both sides of every row group boundary in the batch
+                assertReadPositions(tempFile, type, (filePosition, batchSize) -> IntStream.range(0, batchSize)
+                        .filter(position -> {
+                            long rowInGroup = (filePosition + position) % ROW_GROUP_MAX_ROW_COUNT;
+                            return rowInGroup == 0 || rowInGroup == ROW_GROUP_MAX_ROW_COUNT - 1;
+                        })
+                        .toArray());
+                // a different selection for every batch, so that each read must leave the streams where the next batch starts
+                assertReadPositions(tempFile, type, (filePosition, batchSize) -> {
+                    switch ((int) (filePosition % 4)) {
+                        case 0:
+                            return new int[0];
+                        case 1:
+                            return new int[] {batchSize - 1};
+                        case 2:
+                            return IntStream.range(0, batchSize).filter(position -> position % 2 == 0).toArray();
+                        default:
+                            return IntStream.range(0, batchSize).toArray();
+                    }
+                });
+            }
+        }
+    }
+
+    private static void assertReadPositions(TempFile tempFile, Type type, PositionsSelector selector)
+            throws Exception
+    {
+        try (OrcBatchRecordReader fullReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, type, INITIAL_BATCH_SIZE, false, false);
+                OrcBatchRecordReader positionsReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, type, INITIAL_BATCH_SIZE, false, false)) {
+            int rows = 0;
+            while (true) {
+                int batchSize = fullReader.nextBatch();
+                assertEquals(positionsReader.nextBatch(), batchSize);
+                if (batchSize <= 0) {
+                    break;
+                }
+                assertEquals(positionsReader.getFilePosition(), fullReader.getFilePosition());
+
+                int[] positions = selector.select(fullReader.getFilePosition(), batchSize);
+                // pad the positions in front, to check that the offset is honored
+                int[] paddedPositions = new int[positions.length + 1];
+                System.arraycopy(positions, 0, paddedPositions, 1, positions.length);
+
+                Block expected = fullReader.readBlock(0).copyPositions(positions, 0, positions.length);
+                Block actual = positionsReader.readBlock(0, paddedPositions, 1, positions.length);
+                assertBlockEquals(type, actual, expected, "batch at file position " + fullReader.getFilePosition() + ", positions " + Arrays.toString(positions));
+                rows += batchSize;
+            }
+            assertEquals(rows, ROW_COUNT);
+        }
+    }
+
+    private static void assertBlockEquals(Type type, Block actual, Block expected, String message)
+    {
+        assertEquals(actual.getPositionCount(), expected.getPositionCount(), message);
+        for (int position = 0; position < expected.getPositionCount(); position++) {
+            assertEquals(actual.isNull(position), expected.isNull(position), message);
+            if (!expected.isNull(position)) {
+                assertEquals(type.getSlice(actual, position), type.getSlice(expected, position), message);
+            }
+        }
+    }
+
+    private static void writeSliceDirectFile(File file)
+            throws Exception
+    {
+        OrcWriterOptions writerOptions = OrcWriterOptions.builder()
+                .withRowGroupMaxRowCount(ROW_GROUP_MAX_ROW_COUNT)
+                .withStringDictionaryEncodingEnabled(false)
+                .build();
+        OrcWriter writer = createOrcWriter(file, ORC, SNAPPY, Optional.empty(), ImmutableList.of(VARCHAR), writerOptions, NOOP_WRITER_STATS);
+
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            if (i % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else if (i % 11 == 0) {
+                VARCHAR.writeSlice(blockBuilder, utf8Slice(""));
+            }
+            else {
+                // multi-byte characters, so that truncation to a bounded varchar cuts on code points
+                VARCHAR.writeSlice(blockBuilder, utf8Slice(i + "\u00e4\u00f6\u00fc".substring(0, i % 4)));
+            }
+        }
+        writer.write(new Page(blockBuilder.build()));
+        writer.close();
+
+        List<StripeFooter> stripes = getStripes(file, ORC);
+        assertTrue(stripes.stream().allMatch(stripe -> stripe.getColumnEncodings().get(1).getColumnEncodingKind() == DIRECT_V2));
+    }
+
+    private interface PositionsSelector
+    {
+        int[] select(long filePosition, int batchSize);
+    }
+}
@@ -46,6 +46,9 @@ public class TestOrcCacheConfig
                 .setRowGroupIndexCacheEnabled(false)
                 .setRowGroupIndexCacheSize(new DataSize(0, BYTE))
                 .setRowGroupIndexCacheTtlSinceLastAccess(new Duration(0, SECONDS))
+                .setDecompressedChunkCacheEnabled(false)
+                .setDecompressedChunkCacheSize(new DataSize(0, BYTE))
+                .setDecompressedChunkCacheTtlSinceLastAccess(new Duration(0, SECONDS))
                 .setDwrfStripeCacheEnabled(true)
                 .setExpectedFileTailSize(new DataSize(EXPECTED_FOOTER_SIZE_IN_BYTES, BYTE)));
     }
@@ -65,6 +68,9 @@ public class TestOrcCacheConfig
                 .put("orc.row-group-index-cache-enabled", "true")
                 .put("orc.row-group-index-cache-size", "4GB")
                 .put("orc.row-group-index-cache-ttl-since-last-access", "5m")
+                .put("orc.decompressed-chunk-cache-enabled", "true")
+                .put("orc.decompressed-chunk-cache-size", "6GB")
+                .put("orc.decompressed-chunk-cache-ttl-since-last-access", "15m")
                 .put("orc.dwrf-stripe-cache-enabled", "false")
                 .put("orc.expected-file-tail-size", "8MB")
                 .build();
@@ -81,6 +87,9 @@ public class TestOrcCacheConfig
                 .setRowGroupIndexCacheEnabled(true)
                 .setRowGroupIndexCacheSize(new DataSize(4, GIGABYTE))
                 .setRowGroupIndexCacheTtlSinceLastAccess(new Duration(5, MINUTES))
+                .setDecompressedChunkCacheEnabled(true)
+                .setDecompressedChunkCacheSize(new DataSize(6, GIGABYTE))
+                .setDecompressedChunkCacheTtlSinceLastAccess(new Duration(15, MINUTES))
                 .setDwrfStripeCacheEnabled(false)
                 .setExpectedFileTailSize(new DataSize(8, MEGABYTE));
 
@@ -20,6 +20,7 @@ import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.io.DataOutput;
 import com.facebook.presto.common.io.DataSink;
 import com.facebook.presto.common.io.OutputStreamDataSink;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.orc.OrcWriteValidation.OrcWriteValidationMode;
 import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.Stream;
@@ -33,6 +34,7 @@ import io.airlift.slice.Slices;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Comparator;
@@ -41,12 +43,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
 import static com.facebook.presto.orc.NoOpOrcWriterStats.NOOP_WRITER_STATS;
@@ -59,6 +65,7 @@ import static com.facebook.presto.orc.TestingOrcPredicate.ORC_STRIPE_SIZE;
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZSTD;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 
@@ -179,6 +186,75 @@ public class TestOrcWriter
         }
     }
 
+    @Test(dataProvider = "compressionLevels")
+    public void testParallelColumnWriters(OrcEncoding encoding, CompressionKind kind, OptionalInt level)
+            throws IOException
+    {
+        ExecutorService executor = newFixedThreadPool(4, daemonThreadsNamed("test-orc-column-writer-%s"));
+        try {
+            byte[] serial = writeColumns(encoding, kind, level, Optional.empty());
+            byte[] parallel = writeColumns(encoding, kind, level, Optional.of(executor));
+            assertEquals(parallel, serial);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] writeColumns(OrcEncoding encoding, CompressionKind kind, OptionalInt level, Optional<Executor> columnWriterExecutor)
+            throws IOException
+    {
+        OrcWriterOptions orcWriterOptions = OrcWriterOptions.builder()
+                .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder()
+                        .withStripeMinSize(new DataSize(0, MEGABYTE))
+                        .withStripeMaxSize(new DataSize(32, MEGABYTE))
+                        .withStripeMaxRowCount(ORC_STRIPE_SIZE)
+                        .build())
+                .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                .withCompressionLevel(level)
+                .withColumnWriterExecutor(columnWriterExecutor)
+                .build();
+        int columnCount = 20;
+        int entries = 30_000;
+        ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+        ImmutableList.Builder<Type> types = ImmutableList.builder();
+        Block[] blocks = new Block[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            columnNames.add("test" + column);
+            Type type = column % 2 == 0 ? BIGINT : VARCHAR;
+            types.add(type);
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, entries);
+            for (int i = 0; i < entries; i++) {
+                if (type == BIGINT) {
+                    BIGINT.writeLong(blockBuilder, (long) i * column);
+                }
+                else {
+                    VARCHAR.writeString(blockBuilder, String.valueOf(i % (column * 100)));
+                }
+            }
+            blocks[column] = blockBuilder.build();
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamDataSink(output),
+                columnNames.build(),
+                types.build(),
+                encoding,
+                kind,
+                Optional.empty(),
+                NO_ENCRYPTION,
+                orcWriterOptions,
+                ImmutableMap.of(),
+                HIVE_STORAGE_TIME_ZONE,
+                true,
+                OrcWriteValidationMode.BOTH,
+                NOOP_WRITER_STATS);
+        writer.write(new Page(blocks));
+        writer.close();
+        return output.toByteArray();
+    }
+
     @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Dummy exception from mocked instance")
     public void testVerifyNoIllegalStateException()
             throws IOException
@@ -23,11 +23,13 @@ import org.testng.annotations.Test;
 
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.orc.metadata.DwrfStripeCacheMode.INDEX_AND_FOOTER;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.Math.toIntExact;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -67,6 +69,7 @@ public class TestOrcWriterOptions
         assertEquals(options.getFlattenedColumns(), ImmutableSet.of());
         assertFalse(options.isMapStatisticsEnabled());
         assertEquals(options.getMaxFlattenedMapKeyCount(), 25000);
+        assertEquals(options.getColumnWriterExecutor(), Optional.empty());
     }
 
     @Test
@@ -90,6 +93,7 @@ public class TestOrcWriterOptions
         int preserveDirectEncodingStripeCount = 10;
         boolean mapStatisticsEnabled = true;
         int maxFlattenedMapKeyCount = 27;
+        Executor columnWriterExecutor = directExecutor();
 
         OrcWriterOptions.Builder builder = OrcWriterOptions.builder()
                 .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder()
@@ -112,7 +116,8 @@ public class TestOrcWriterOptions
                 .withPreserveDirectEncodingStripeCount(preserveDirectEncodingStripeCount)
                 .withFlattenedColumns(ImmutableSet.of(4, 3))
                 .withMapStatisticsEnabled(mapStatisticsEnabled)
-                .withMaxFlattenedMapKeyCount(maxFlattenedMapKeyCount);
+                .withMaxFlattenedMapKeyCount(maxFlattenedMapKeyCount)
+                .withColumnWriterExecutor(Optional.of(columnWriterExecutor));
 
         OrcWriterOptions options = builder.build();
 
@@ -136,6 +141,7 @@ public class TestOrcWriterOptions
         assertEquals(options.getFlattenedColumns(), ImmutableSet.of(4, 3));
         assertEquals(options.isMapStatisticsEnabled(), mapStatisticsEnabled);
         assertEquals(options.getMaxFlattenedMapKeyCount(), maxFlattenedMapKeyCount);
+        assertEquals(options.getColumnWriterExecutor(), Optional.of(columnWriterExecutor));
     }
 
     @Test
@@ -199,7 +205,8 @@ public class TestOrcWriterOptions
                 "stringDictionarySortingEnabled=true, stringDictionaryEncodingEnabled=true, " +
                 "dwrfWriterOptions=Optional[DwrfStripeCacheOptions{stripeCacheMode=INDEX_AND_FOOTER, stripeCacheMaxSize=4MB}], " +
                 "ignoreDictionaryRowGroupSizes=false, preserveDirectEncodingStripeCount=0, flattenedColumns=[4], mapStatisticsEnabled=true, " +
-                "maxFlattenedMapKeyCount=27, resetOutputBuffer=false, lazyOutputBuffer=false}";
+                "maxFlattenedMapKeyCount=27, resetOutputBuffer=false, lazyOutputBuffer=false, " +
+                "columnWriterExecutor=false}";
         assertEquals(expectedString, writerOptions.toString());
     }
 }
@@ -0,0 +1,347 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.io.OutputStreamDataSink;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
+import static com.facebook.presto.orc.NoOpOrcWriterStats.NOOP_WRITER_STATS;
+import static com.facebook.presto.orc.NoopOrcAggregatedMemoryContext.NOOP_ORC_AGGREGATED_MEMORY_CONTEXT;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcWriteValidation.OrcWriteValidationMode.BOTH;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPrefetchingOrcDataSource
+{
+    private static final int STRIPE_COUNT = 4;
+    private static final int ROWS_PER_STRIPE = 1000;
+
+    private TempFile tempFile;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        executor = newSingleThreadExecutor(daemonThreadsNamed("test-stripe-prefetch-%s"));
+        tempFile = new TempFile();
+
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamDataSink(new FileOutputStream(tempFile.getFile())),
+                ImmutableList.of("test"),
+                ImmutableList.of(BIGINT),
+                ORC,
+                ZLIB,
+                Optional.empty(),
+                NO_ENCRYPTION,
+                OrcWriterOptions.builder()
+                        .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder().withStripeMaxRowCount(ROWS_PER_STRIPE).build())
+                        .build(),
+                ImmutableMap.of(),
+                HIVE_STORAGE_TIME_ZONE,
+                true,
+                BOTH,
+                NOOP_WRITER_STATS);
+        for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, ROWS_PER_STRIPE);
+            for (int row = 0; row < ROWS_PER_STRIPE; row++) {
+                BIGINT.writeLong(blockBuilder, stripe * ROWS_PER_STRIPE + row);
+            }
+            writer.write(new Page(blockBuilder.build()));
+        }
+        writer.close();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        tempFile.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPrefetch()
+            throws IOException
+    {
+        TestingOrcDataSource testingOrcDataSource = new TestingOrcDataSource(NoopOrcDataSource.INSTANCE);
+        TestingHiveOrcAggregatedMemoryContext systemMemoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        PrefetchingOrcDataSource prefetchingOrcDataSource = new PrefetchingOrcDataSource(
+                testingOrcDataSource,
+                directExecutor(),
+                systemMemoryContext.newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName()),
+                new RuntimeStats());
+
+        ListenableFuture<?> future = prefetchingOrcDataSource.prefetch(ImmutableList.of(new DiskRange(0, 100), new DiskRange(200, 50)));
+        assertTrue(future.isDone());
+        assertEquals(testingOrcDataSource.getReadRanges(), ImmutableList.of(new DiskRange(0, 100), new DiskRange(200, 50)));
+        assertEquals(systemMemoryContext.getBytes(), 150);
+
+        // reads within a prefetched range are served from memory
+        prefetchingOrcDataSource.readFully(10, new byte[20]);
+        assertEquals(systemMemoryContext.getBytes(), 150);
+        Map<String, OrcDataSourceInput> inputs = prefetchingOrcDataSource.readFully(ImmutableMap.of("stream", new DiskRange(210, 40)));
+        assertEquals(inputs.get("stream").getInput().length(), 40);
+        assertEquals(testingOrcDataSource.getReadCount(), 2);
+        // the stream accounts for the range it was handed, so the range is no longer charged here
+        assertEquals(systemMemoryContext.getBytes(), 100);
+
+        // reads that are not fully prefetched go to the data source
+        prefetchingOrcDataSource.readFully(90, new byte[20]);
+        assertEquals(testingOrcDataSource.getReadCount(), 3);
+        assertEquals(testingOrcDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(90, 20)));
+
+        prefetchingOrcDataSource.release(100);
+        assertEquals(systemMemoryContext.getBytes(), 0);
+        prefetchingOrcDataSource.readFully(10, new byte[20]);
+        assertEquals(testingOrcDataSource.getReadCount(), 4);
+        prefetchingOrcDataSource.readFully(220, new byte[20]);
+        assertEquals(testingOrcDataSource.getReadCount(), 4);
+
+        prefetchingOrcDataSource.release(Long.MAX_VALUE);
+        assertEquals(systemMemoryContext.getBytes(), 0);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testReadDuringPrefetch()
+            throws Exception
+    {
+        BlockingOrcDataSource blockingOrcDataSource = new BlockingOrcDataSource(100);
+        PrefetchingOrcDataSource prefetchingOrcDataSource = new PrefetchingOrcDataSource(
+                blockingOrcDataSource,
+                executor,
+                new TestingHiveOrcAggregatedMemoryContext().newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName()),
+                new RuntimeStats());
+
+        ListenableFuture<?> future = prefetchingOrcDataSource.prefetch(ImmutableList.of(new DiskRange(100, 50)));
+        blockingOrcDataSource.awaitBlockedRead();
+
+        // the reader is not held up by the read in the background
+        prefetchingOrcDataSource.readFully(0, new byte[50]);
+        assertFalse(future.isDone());
+
+        blockingOrcDataSource.unblock();
+        getFutureValue(future);
+        prefetchingOrcDataSource.close();
+        assertTrue(blockingOrcDataSource.isClosed());
+    }
+
+    @Test(timeOut = 30_000)
+    public void testCloseWaitsForPrefetch()
+            throws Exception
+    {
+        BlockingOrcDataSource blockingOrcDataSource = new BlockingOrcDataSource(100);
+        PrefetchingOrcDataSource prefetchingOrcDataSource = new PrefetchingOrcDataSource(
+                blockingOrcDataSource,
+                executor,
+                new TestingHiveOrcAggregatedMemoryContext().newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName()),
+                new RuntimeStats());
+
+        prefetchingOrcDataSource.prefetch(ImmutableList.of(new DiskRange(100, 50)));
+        blockingOrcDataSource.awaitBlockedRead();
+
+        ExecutorService closeExecutor = newSingleThreadExecutor(daemonThreadsNamed("test-close-%s"));
+        try {
+            Future<?> closeFuture = closeExecutor.submit(() -> {
+                prefetchingOrcDataSource.close();
+                return null;
+            });
+            // the data source is not closed under the running read
+            Thread.sleep(100);
+            assertFalse(closeFuture.isDone());
+            assertFalse(blockingOrcDataSource.isClosed());
+
+            blockingOrcDataSource.unblock();
+            closeFuture.get();
+            assertTrue(blockingOrcDataSource.isClosed());
+        }
+        finally {
+            closeExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIntegration()
+            throws IOException
+    {
+        DataSize dataSize = new DataSize(1, MEGABYTE);
+        TestingOrcDataSource orcDataSource = new TestingOrcDataSource(new FileOrcDataSource(tempFile.getFile(), dataSize, dataSize, dataSize, true));
+        OrcReader orcReader = new OrcReader(
+                orcDataSource,
+                ORC,
+                new StorageOrcFileTailSource(),
+                new StorageStripeMetadataSource(),
+                NOOP_ORC_AGGREGATED_MEMORY_CONTEXT,
+                OrcReaderOptions.builder()
+                        .withMaxMergeDistance(dataSize)
+                        // disable the tiny stripe cache, which reads the stripes together
+                        .withTinyStripeThreshold(new DataSize(1, BYTE))
+                        .withMaxBlockSize(dataSize)
+                        .withStripePrefetchExecutor(Optional.of(executor))
+                        .build(),
+                false,
+                NO_ENCRYPTION,
+                DwrfKeyProvider.EMPTY,
+                new RuntimeStats());
+        assertEquals(orcReader.getFooter().getStripes().size(), STRIPE_COUNT);
+
+        TestingHiveOrcAggregatedMemoryContext systemMemoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        long expected = 0;
+        try (OrcBatchRecordReader recordReader = orcReader.createBatchRecordReader(
+                ImmutableMap.of(0, BIGINT),
+                OrcPredicate.TRUE,
+                HIVE_STORAGE_TIME_ZONE,
+                systemMemoryContext,
+                INITIAL_BATCH_SIZE)) {
+            while (true) {
+                getFutureValue(recordReader.isBlocked());
+                int batchSize = recordReader.nextBatch();
+                if (batchSize <= 0) {
+                    break;
+                }
+                Block block = recordReader.readBlock(0);
+                for (int position = 0; position < block.getPositionCount(); position++) {
+                    assertEquals(BIGINT.getLong(block, position), expected);
+                    expected++;
+                }
+            }
+        }
+        assertEquals(expected, STRIPE_COUNT * ROWS_PER_STRIPE);
+    }
+
+    /**
+     * Blocks reads at or after the offset until {@link #unblock()} is called.
+     */
+    private static class BlockingOrcDataSource
+            implements OrcDataSource
+    {
+        private final long blockedOffset;
+        private final CountDownLatch readBlocked = new CountDownLatch(1);
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+        private volatile boolean closed;
+
+        public BlockingOrcDataSource(long blockedOffset)
+        {
+            this.blockedOffset = blockedOffset;
+        }
+
+        public void awaitBlockedRead()
+                throws InterruptedException
+        {
+            readBlocked.await();
+        }
+
+        public void unblock()
+        {
+            unblocked.countDown();
+        }
+
+        public boolean isClosed()
+        {
+            return closed;
+        }
+
+        @Override
+        public OrcDataSourceId getId()
+        {
+            return new OrcDataSourceId("blocking");
+        }
+
+        @Override
+        public long getReadBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getSize()
+        {
+            return 1000;
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+                throws IOException
+        {
+            readFully(position, buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            if (position >= blockedOffset) {
+                readBlocked.countDown();
+                try {
+                    unblocked.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+
+        @Override
+        public <K> Map<K, OrcDataSourceInput> readFully(Map<K, DiskRange> diskRanges)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -41,17 +41,17 @@ class TestingOrcDataSource
         return delegate.getId();
     }
 
-    public int getReadCount()
+    public synchronized int getReadCount()
     {
         return readCount;
     }
 
-    public List<DiskRange> getLastReadRanges()
+    public synchronized List<DiskRange> getLastReadRanges()
     {
         return lastReadRanges;
     }
 
-    public List<DiskRange> getReadRanges()
+    public synchronized List<DiskRange> getReadRanges()
     {
         return ImmutableList.copyOf(readRanges);
     }
@@ -78,9 +78,7 @@ class TestingOrcDataSource
     public void readFully(long position, byte[] buffer)
             throws IOException
     {
-        readCount++;
-        lastReadRanges = ImmutableList.of(new DiskRange(position, buffer.length));
-        readRanges.addAll(lastReadRanges);
+        recordRead(ImmutableList.of(new DiskRange(position, buffer.length)));
         delegate.readFully(position, buffer);
     }
 
@@ -88,9 +86,7 @@ class TestingOrcDataSource
     public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException
     {
-        readCount++;
-        lastReadRanges = ImmutableList.of(new DiskRange(position, bufferLength));
-        readRanges.addAll(lastReadRanges);
+        recordRead(ImmutableList.of(new DiskRange(position, bufferLength)));
         delegate.readFully(position, buffer, bufferOffset, bufferLength);
     }
 
@@ -98,9 +94,15 @@ class TestingOrcDataSource
     public <K> Map<K, OrcDataSourceInput> readFully(Map<K, DiskRange> diskRanges)
             throws IOException
     {
-        readCount += diskRanges.size();
-        lastReadRanges = ImmutableList.copyOf(diskRanges.values());
-        readRanges.addAll(lastReadRanges);
+        recordRead(ImmutableList.copyOf(diskRanges.values()));
         return delegate.readFully(diskRanges);
     }
+
+    // reads may come from a prefetching thread
+    private synchronized void recordRead(List<DiskRange> ranges)
+    {
+        readCount += ranges.size();
+        lastReadRanges = ranges;
+        readRanges.addAll(ranges);
+    }
 }
@@ -210,7 +210,12 @@ public class BenchmarkLongBitPacker
         private final long[] buffer = new long[256];
         private final LongBitPacker packer = new LongBitPacker();
 
-        @Param({"1", "2", "4", "8", "16", "24", "32", "40", "48", "56", "64"})
+        @Param({
+                "1", "2", "3", "4", "5", "6", "7", "8",
+                "9", "10", "11", "12", "13", "14", "15", "16",
+                "17", "18", "19", "20", "21", "22", "23", "24",
+                "26", "28", "30", "32", "40", "48", "56", "57",
+                "60", "61", "62", "63", "64"})
         private int bits;
 
         private BasicSliceInput input;
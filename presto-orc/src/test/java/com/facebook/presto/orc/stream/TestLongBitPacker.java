@@ -39,6 +39,16 @@ public class TestLongBitPacker
         }
     }
 
+    @Test
+    public void testMaxRunLength()
+            throws Throwable
+    {
+        LongBitPacker packer = new LongBitPacker();
+        for (int length = 505; length <= 512; length++) {
+            assertUnpacking(packer, length);
+        }
+    }
+
     private static void assertUnpacking(LongBitPacker packer, int length)
             throws IOException
     {
@@ -13,14 +13,17 @@
  */
 package com.facebook.presto.parquet;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import static java.util.Objects.requireNonNull;
 
 public abstract class AbstractParquetDataSource
         implements ParquetDataSource
 {
     private final ParquetDataSourceId id;
-    private long readTimeNanos;
-    private long readBytes;
+    // reads can be issued concurrently by a CoalescedReadPlanner
+    private final AtomicLong readTimeNanos = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
 
     public AbstractParquetDataSource(ParquetDataSourceId id)
     {
@@ -36,13 +39,13 @@ public abstract class AbstractParquetDataSource
     @Override
     public final long getReadBytes()
     {
-        return readBytes;
+        return readBytes.get();
     }
 
     @Override
     public long getReadTimeNanos()
     {
-        return readTimeNanos;
+        return readTimeNanos.get();
     }
 
     @Override
@@ -54,13 +57,13 @@ public abstract class AbstractParquetDataSource
     @Override
     public final void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
-        readBytes += bufferLength;
+        readBytes.addAndGet(bufferLength);
 
         long start = System.nanoTime();
         readInternal(position, buffer, bufferOffset, bufferLength);
         long currentReadTimeNanos = System.nanoTime() - start;
 
-        readTimeNanos += currentReadTimeNanos;
+        readTimeNanos.addAndGet(currentReadTimeNanos);
     }
 
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength);
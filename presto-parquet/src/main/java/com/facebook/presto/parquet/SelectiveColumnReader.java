@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet;
+
+import com.facebook.presto.parquet.reader.ColumnChunk;
+
+/**
+ * A column reader that can decode a subset of the positions of the next batch,
+ * skipping the values of all other positions in the decoders.
+ */
+public interface SelectiveColumnReader
+        extends ColumnReader
+{
+    /**
+     * Reads the values at the given positions of the batch prepared by {@link #prepareNextRead(int)}.
+     * Positions are relative to the start of the batch and sorted in increasing order.
+     * The returned block has {@code positionCount} positions.
+     */
+    ColumnChunk readNext(int[] positions, int positionCount);
+}
@@ -16,11 +16,11 @@ package com.facebook.presto.parquet.batchreader;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.IntArrayBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
-import com.facebook.presto.parquet.ColumnReader;
 import com.facebook.presto.parquet.DataPage;
 import com.facebook.presto.parquet.DictionaryPage;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.SelectiveColumnReader;
 import com.facebook.presto.parquet.batchreader.decoders.Decoders.FlatDecoders;
 import com.facebook.presto.parquet.batchreader.decoders.FlatDefinitionLevelDecoder;
 import com.facebook.presto.parquet.batchreader.decoders.ValuesDecoder.Int32ValuesDecoder;
@@ -43,7 +43,7 @@ import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class Int32FlatBatchReader
-        implements ColumnReader
+        implements SelectiveColumnReader
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(Int32FlatBatchReader.class).instanceSize();
 
@@ -113,6 +113,23 @@ public class Int32FlatBatchReader
         return columnChunk;
     }
 
+    @Override
+    public ColumnChunk readNext(int[] positions, int positionCount)
+    {
+        ColumnChunk columnChunk = null;
+        try {
+            seek();
+            columnChunk = readSelectedPositions(positions, positionCount);
+        }
+        catch (IOException exception) {
+            throw new PrestoException(PARQUET_IO_READ_ERROR, "Error reading Parquet column " + columnDescriptor, exception);
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+        return columnChunk;
+    }
+
     @Override
     public long getRetainedSizeInBytes()
     {
@@ -225,6 +242,111 @@ public class Int32FlatBatchReader
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
+    private ColumnChunk readSelectedPositions(int[] positions, int positionCount)
+            throws IOException
+    {
+        int[] values = new int[positionCount];
+        boolean[] isNull = new boolean[positionCount];
+        boolean[] batchIsNull = field.isRequired() ? null : new boolean[nextBatchSize];
+
+        int nullCount = 0;
+        int outputIndex = 0;
+        int batchOffset = 0;
+        int remainingInBatch = nextBatchSize;
+        while (remainingInBatch > 0) {
+            if (remainingCountInPage == 0) {
+                if (!readNextPage()) {
+                    break;
+                }
+            }
+
+            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkEnd = batchOffset + chunkSize;
+            if (batchIsNull != null) {
+                definitionLevelDecoder.readNext(batchIsNull, batchOffset, chunkSize);
+            }
+
+            int nextUnreadPosition = batchOffset;
+            while (outputIndex < positionCount && positions[outputIndex] < chunkEnd) {
+                int runStart = positions[outputIndex];
+                skipValues(batchIsNull, nextUnreadPosition, runStart);
+
+                // read consecutive selected positions with a single decoder call
+                int runLength = 1;
+                while (outputIndex + runLength < positionCount && positions[outputIndex + runLength] == runStart + runLength && runStart + runLength < chunkEnd) {
+                    runLength++;
+                }
+
+                if (batchIsNull == null) {
+                    valuesDecoder.readNext(values, outputIndex, runLength);
+                }
+                else {
+                    int nonNullCount = 0;
+                    for (int i = 0; i < runLength; i++) {
+                        if (batchIsNull[runStart + i]) {
+                            isNull[outputIndex + i] = true;
+                            nullCount++;
+                        }
+                        else {
+                            nonNullCount++;
+                        }
+                    }
+
+                    if (nonNullCount > 0) {
+                        valuesDecoder.readNext(values, outputIndex, nonNullCount);
+
+                        int valueDestinationIndex = outputIndex + runLength - 1;
+                        int valueSourceIndex = outputIndex + nonNullCount - 1;
+                        while (valueDestinationIndex >= outputIndex) {
+                            if (!isNull[valueDestinationIndex]) {
+                                values[valueDestinationIndex] = values[valueSourceIndex];
+                                valueSourceIndex--;
+                            }
+                            valueDestinationIndex--;
+                        }
+                    }
+                }
+
+                nextUnreadPosition = runStart + runLength;
+                outputIndex += runLength;
+            }
+            skipValues(batchIsNull, nextUnreadPosition, chunkEnd);
+
+            batchOffset = chunkEnd;
+            remainingInBatch -= chunkSize;
+            remainingCountInPage -= chunkSize;
+        }
+
+        if (remainingInBatch != 0) {
+            throw new ParquetDecodingException(format("Corrupted Parquet file: extra %d values to be consumed when scanning current batch", remainingInBatch));
+        }
+
+        if (positionCount > 0 && nullCount == positionCount) {
+            Block block = RunLengthEncodedBlock.create(field.getType(), null, positionCount);
+            return new ColumnChunk(block, new int[0], new int[0]);
+        }
+
+        Block block = new IntArrayBlock(positionCount, nullCount == 0 ? Optional.empty() : Optional.of(isNull), values);
+        return new ColumnChunk(block, new int[0], new int[0]);
+    }
+
+    private void skipValues(boolean[] batchIsNull, int fromPosition, int toPosition)
+            throws IOException
+    {
+        int skipSize = toPosition - fromPosition;
+        if (batchIsNull != null) {
+            skipSize = 0;
+            for (int position = fromPosition; position < toPosition; position++) {
+                if (!batchIsNull[position]) {
+                    skipSize++;
+                }
+            }
+        }
+        if (skipSize > 0) {
+            valuesDecoder.skip(skipSize);
+        }
+    }
+
     private void seek()
             throws IOException
     {
@@ -18,15 +18,16 @@ import org.apache.parquet.column.values.bitpacking.Packer;
 import org.apache.parquet.io.ParquetDecodingException;
 import org.openjdk.jol.info.ClassLayout;
 
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import static com.facebook.presto.parquet.batchreader.decoders.rle.BaseRLEBitPackedDecoder.Mode.PACKED;
 import static com.facebook.presto.parquet.batchreader.decoders.rle.BaseRLEBitPackedDecoder.Mode.RLE;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.io.ByteStreams.readFully;
 import static io.airlift.slice.SizeOf.sizeOf;
-import static java.lang.Math.ceil;
+import static java.lang.Math.min;
 import static org.apache.parquet.bytes.BytesUtils.readIntLittleEndianPaddedOnBitWidth;
 import static org.apache.parquet.bytes.BytesUtils.readUnsignedVarInt;
 
@@ -44,6 +45,8 @@ public abstract class BaseRLEBitPackedDecoder
     protected int currentValue;
     protected int[] currentBuffer;
 
+    private byte[] packedBuffer = new byte[0];
+
     public BaseRLEBitPackedDecoder(int valueCount, int bitWidth, InputStream inputStream)
     {
         checkArgument(bitWidth >= 0 && bitWidth <= 32, "bitWidth must be >= 0 and <= 32");
@@ -76,7 +79,7 @@ public abstract class BaseRLEBitPackedDecoder
 
     public long getRetainedSizeInBytes()
     {
-        return INSTANCE_SIZE + sizeOf(currentBuffer);
+        return INSTANCE_SIZE + sizeOf(currentBuffer) + sizeOf(packedBuffer);
     }
 
     protected boolean decode()
@@ -103,16 +106,25 @@ public abstract class BaseRLEBitPackedDecoder
                 int numGroups = header >>> 1;
                 currentCount = numGroups * 8;
                 currentBuffer = new int[currentCount];
-                byte[] bytes = new byte[numGroups * bitWidth];
-                int bytesToRead = (int) ceil((double) (currentCount * bitWidth) / 8.0D);
-                bytesToRead = Math.min(bytesToRead, inputStream.available());
-                DataInputStream dataInputStream = new DataInputStream(inputStream);
-                dataInputStream.readFully(bytes, 0, bytesToRead);
-                int valueIndex = 0;
+                int packedBytes = numGroups * bitWidth;
+                if (packedBuffer.length < packedBytes) {
+                    packedBuffer = new byte[packedBytes];
+                }
+                int bytesToRead = min(packedBytes, inputStream.available());
+                readFully(inputStream, packedBuffer, 0, bytesToRead);
+                // the last run may be truncated, pad it with zeros rather than with the previous run
+                Arrays.fill(packedBuffer, bytesToRead, packedBytes, (byte) 0);
 
-                for (int byteIndex = 0; valueIndex < currentCount; byteIndex += bitWidth) {
-                    packer.unpack8Values(bytes, byteIndex, currentBuffer, valueIndex);
-                    valueIndex += 8;
+                // 32 values take exactly 4 * bitWidth bytes, unpack them with the wider routine first
+                int valueIndex = 0;
+                int byteIndex = 0;
+                for (; valueIndex + 32 <= currentCount; valueIndex += 32) {
+                    packer.unpack32Values(packedBuffer, byteIndex, currentBuffer, valueIndex);
+                    byteIndex += 4 * bitWidth;
+                }
+                for (; valueIndex < currentCount; valueIndex += 8) {
+                    packer.unpack8Values(packedBuffer, byteIndex, currentBuffer, valueIndex);
+                    byteIndex += bitWidth;
                 }
                 return true;
             default:
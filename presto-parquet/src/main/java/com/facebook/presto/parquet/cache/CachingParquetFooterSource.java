@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.cache;
+
+import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.google.common.cache.Cache;
+import io.airlift.slice.Slice;
+import org.apache.parquet.crypto.InternalFileDecryptor;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.facebook.presto.parquet.cache.MetadataReader.parseFooter;
+import static com.facebook.presto.parquet.cache.MetadataReader.readFooter;
+import static com.facebook.presto.parquet.cache.MetadataReader.readFooterSlice;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the raw footers of Parquet files instead of their parsed metadata, and parses a
+ * footer on every access. The cached entries are plain bytes, so they can be kept compactly in serialized form.
+ */
+public class CachingParquetFooterSource
+        implements ParquetMetadataSource
+{
+    private final Cache<ParquetDataSourceId, CacheableFooter> cache;
+
+    public CachingParquetFooterSource(Cache<ParquetDataSourceId, CacheableFooter> cache)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    @Override
+    public ParquetFileMetadata getParquetMetadata(
+            ParquetDataSource parquetDataSource,
+            long fileSize,
+            boolean cacheable,
+            long modificationTime,
+            Optional<InternalFileDecryptor> fileDecryptor,
+            boolean readMaskedValue)
+            throws IOException
+    {
+        if (!cacheable) {
+            return readFooter(parquetDataSource, fileSize, modificationTime, fileDecryptor, readMaskedValue);
+        }
+
+        CacheableFooter footer = cache.getIfPresent(parquetDataSource.getId());
+        if (footer == null || footer.getModificationTime() != modificationTime) {
+            if (footer != null) {
+                cache.invalidate(parquetDataSource.getId()); // stale entry
+            }
+            footer = new CacheableFooter(readFooterSlice(parquetDataSource, fileSize), modificationTime);
+            cache.put(parquetDataSource.getId(), footer);
+        }
+        return parseFooter(footer.getFooterSlice(), modificationTime, fileDecryptor, parquetDataSource.getId(), readMaskedValue);
+    }
+
+    public static class CacheableFooter
+    {
+        private final Slice footerSlice;
+        private final long modificationTime;
+
+        public CacheableFooter(Slice footerSlice, long modificationTime)
+        {
+            this.footerSlice = requireNonNull(footerSlice, "footerSlice is null");
+            this.modificationTime = modificationTime;
+        }
+
+        public Slice getFooterSlice()
+        {
+            return footerSlice;
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.cache;
+
+import com.facebook.presto.common.io.DecompressedDataCache;
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.PageId;
+import com.google.common.cache.Cache;
+import io.airlift.slice.Slice;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static com.facebook.presto.parquet.ParquetCompressionUtils.decompress;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+
+/**
+ * Caches decompressed Parquet pages. A page is identified by the offset of its column chunk in
+ * the file and by its position in the chunk.
+ */
+public class DecompressedPageCache
+        extends DecompressedDataCache<PageId>
+{
+    public static final int DICTIONARY_PAGE_ORDINAL = -1;
+
+    public DecompressedPageCache(Cache<PageId, CachedData> cache)
+    {
+        super(cache);
+    }
+
+    public ColumnChunkPages getColumnChunkPages(ParquetDataSourceId dataSourceId, long modificationTime, long columnChunkOffset)
+    {
+        return new ColumnChunkPages(dataSourceId, modificationTime, columnChunkOffset);
+    }
+
+    public final class ColumnChunkPages
+    {
+        private final ParquetDataSourceId dataSourceId;
+        private final long modificationTime;
+        private final long columnChunkOffset;
+
+        private ColumnChunkPages(ParquetDataSourceId dataSourceId, long modificationTime, long columnChunkOffset)
+        {
+            this.dataSourceId = requireNonNull(dataSourceId, "dataSourceId is null");
+            this.modificationTime = modificationTime;
+            this.columnChunkOffset = columnChunkOffset;
+        }
+
+        /**
+         * Decompresses the page at the given position of the column chunk, or returns the cached copy.
+         * Dictionary pages use {@link #DICTIONARY_PAGE_ORDINAL}.
+         */
+        public Slice decompressPage(int pageOrdinal, CompressionCodecName codec, Slice input, int uncompressedSize)
+                throws IOException
+        {
+            if (codec == UNCOMPRESSED) {
+                return decompress(codec, input, uncompressedSize);
+            }
+
+            PageId pageId = new PageId(dataSourceId, columnChunkOffset, pageOrdinal);
+            Slice page = get(pageId, modificationTime);
+            if (page != null) {
+                return page;
+            }
+
+            Slice decompressed = decompress(codec, input, uncompressedSize);
+            put(pageId, decompressed, modificationTime);
+            return decompressed;
+        }
+    }
+
+    public static class PageId
+    {
+        private final ParquetDataSourceId dataSourceId;
+        private final long columnChunkOffset;
+        private final int pageOrdinal;
+
+        public PageId(ParquetDataSourceId dataSourceId, long columnChunkOffset, int pageOrdinal)
+        {
+            this.dataSourceId = requireNonNull(dataSourceId, "dataSourceId is null");
+            this.columnChunkOffset = columnChunkOffset;
+            this.pageOrdinal = pageOrdinal;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PageId other = (PageId) o;
+            return columnChunkOffset == other.columnChunkOffset &&
+                    pageOrdinal == other.pageOrdinal &&
+                    Objects.equals(dataSourceId, other.dataSourceId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(dataSourceId, columnChunkOffset, pageOrdinal);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("dataSourceId", dataSourceId)
+                    .add("columnChunkOffset", columnChunkOffset)
+                    .add("pageOrdinal", pageOrdinal)
+                    .toString();
+        }
+    }
+}
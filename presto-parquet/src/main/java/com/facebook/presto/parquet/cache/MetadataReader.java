@@ -110,6 +110,16 @@ public final class MetadataReader
 
     public static ParquetFileMetadata readFooter(ParquetDataSource parquetDataSource, long fileSize, long modificationTime, Optional<InternalFileDecryptor> fileDecryptor, boolean readMaskedValue)
             throws IOException
+    {
+        return parseFooter(readFooterSlice(parquetDataSource, fileSize), modificationTime, fileDecryptor, parquetDataSource.getId(), readMaskedValue);
+    }
+
+    /**
+     * Reads the footer of a Parquet file without parsing it: the file metadata, followed by
+     * its length and the magic number, as laid out at the end of the file.
+     */
+    public static Slice readFooterSlice(ParquetDataSource parquetDataSource, long fileSize)
+            throws IOException
     {
         // Parquet File Layout: https://github.com/apache/parquet-format/blob/master/Encryption.md
         validateParquet(fileSize >= MAGIC.length() + POST_SCRIPT_SIZE, "%s is not a valid Parquet File", parquetDataSource.getId());
@@ -123,7 +133,6 @@ public final class MetadataReader
         if (!MAGIC.equals(magic) && !EMAGIC.equals(magic)) {
             throw new ParquetCorruptionException(format("Not valid Parquet file: %s expected magic number: %s or %s, but got: %s", parquetDataSource.getId(), Arrays.toString(MAGIC.getBytes()), Arrays.toString(EMAGIC.getBytes()), Arrays.toString(magic.getBytes())));
         }
-        boolean encryptedFooterMode = EMAGIC.equals(magic);
 
         int metadataLength = tailSlice.getInt(tailSlice.length() - POST_SCRIPT_SIZE);
         int completeFooterSize = metadataLength + POST_SCRIPT_SIZE;
@@ -139,7 +148,20 @@ public final class MetadataReader
             tailSlice = wrappedBuffer(footerBuffer, 0, footerBuffer.length);
         }
 
-        return readParquetMetadata(tailSlice.slice(tailSlice.length() - completeFooterSize, metadataLength).getInput(), metadataLength, modificationTime, fileDecryptor, encryptedFooterMode, parquetDataSource.getId(), readMaskedValue);
+        return tailSlice.slice(tailSlice.length() - completeFooterSize, completeFooterSize);
+    }
+
+    /**
+     * Parses a footer returned by {@link #readFooterSlice}.
+     */
+    public static ParquetFileMetadata parseFooter(Slice footerSlice, long modificationTime, Optional<InternalFileDecryptor> fileDecryptor, ParquetDataSourceId id, boolean readMaskedValue)
+            throws IOException
+    {
+        validateParquet(footerSlice.length() >= POST_SCRIPT_SIZE, "Corrupted Parquet file: %s footer is too short", id);
+        boolean encryptedFooterMode = EMAGIC.equals(footerSlice.slice(footerSlice.length() - MAGIC.length(), MAGIC.length()));
+        int metadataLength = footerSlice.getInt(footerSlice.length() - POST_SCRIPT_SIZE);
+        validateParquet(metadataLength + POST_SCRIPT_SIZE == footerSlice.length(), "Corrupted Parquet file: %s metadata length %s does not match its footer", id, metadataLength);
+        return readParquetMetadata(footerSlice.slice(0, metadataLength).getInput(), metadataLength, modificationTime, fileDecryptor, encryptedFooterMode, id, readMaskedValue);
     }
 
     private static ParquetFileMetadata readParquetMetadata(BasicSliceInput input, int metadataLength, long modificationTime, Optional<InternalFileDecryptor> fileDecryptor, boolean encryptedFooterMode, ParquetDataSourceId id, boolean readMaskedValue)
@@ -257,6 +279,13 @@ public final class MetadataReader
                     ColumnChunkMetaData column = buildColumnChunkMetaData(metaData, columnPath, messageType.getType(columnPath.toArray()).asPrimitiveType());
                     column.setColumnIndexReference(toColumnIndexReference(columnChunk));
                     column.setOffsetIndexReference(toOffsetIndexReference(columnChunk));
+                    // Bloom filters of encrypted columns are encrypted as well, so they are only exposed for plaintext columns
+                    if (cryptoMetaData == null && metaData.isSetBloom_filter_offset()) {
+                        column.setBloomFilterOffset(metaData.getBloom_filter_offset());
+                        if (metaData.isSetBloom_filter_length()) {
+                            column.setBloomFilterLength(metaData.getBloom_filter_length());
+                        }
+                    }
                     blockMetaData.addColumn(column);
                 }
                 blockMetaData.setPath(filePath);
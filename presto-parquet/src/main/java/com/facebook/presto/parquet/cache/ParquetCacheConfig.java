@@ -28,6 +28,9 @@ public class ParquetCacheConfig
     private boolean metadataCacheEnabled;
     private DataSize metadataCacheSize = new DataSize(0, BYTE);
     private Duration metadataCacheTtlSinceLastAccess = new Duration(0, SECONDS);
+    private boolean decompressedPageCacheEnabled;
+    private DataSize decompressedPageCacheSize = new DataSize(0, BYTE);
+    private Duration decompressedPageCacheTtlSinceLastAccess = new Duration(0, SECONDS);
 
     public boolean isMetadataCacheEnabled()
     {
@@ -69,4 +72,45 @@ public class ParquetCacheConfig
         this.metadataCacheTtlSinceLastAccess = metadataCacheTtlSinceLastAccess;
         return this;
     }
+
+    public boolean isDecompressedPageCacheEnabled()
+    {
+        return decompressedPageCacheEnabled;
+    }
+
+    @Config("parquet.decompressed-page-cache-enabled")
+    @ConfigDescription("Enable cache for decompressed parquet pages shared across queries")
+    public ParquetCacheConfig setDecompressedPageCacheEnabled(boolean decompressedPageCacheEnabled)
+    {
+        this.decompressedPageCacheEnabled = decompressedPageCacheEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getDecompressedPageCacheSize()
+    {
+        return decompressedPageCacheSize;
+    }
+
+    @Config("parquet.decompressed-page-cache-size")
+    @ConfigDescription("Size of the decompressed parquet page cache")
+    public ParquetCacheConfig setDecompressedPageCacheSize(DataSize decompressedPageCacheSize)
+    {
+        this.decompressedPageCacheSize = decompressedPageCacheSize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getDecompressedPageCacheTtlSinceLastAccess()
+    {
+        return decompressedPageCacheTtlSinceLastAccess;
+    }
+
+    @Config("parquet.decompressed-page-cache-ttl-since-last-access")
+    @ConfigDescription("Time-to-live for decompressed parquet page cache entry after last access")
+    public ParquetCacheConfig setDecompressedPageCacheTtlSinceLastAccess(Duration decompressedPageCacheTtlSinceLastAccess)
+    {
+        this.decompressedPageCacheTtlSinceLastAccess = decompressedPageCacheTtlSinceLastAccess;
+        return this;
+    }
 }
@@ -17,6 +17,7 @@ import com.facebook.presto.parquet.ParquetDataSourceId;
 import com.facebook.presto.spi.WarningCollector;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 
 import java.util.Map;
@@ -43,6 +44,12 @@ public interface Predicate
         {
             return true;
         }
+
+        @Override
+        public boolean matches(ColumnDescriptor column, BloomFilter bloomFilter)
+        {
+            return true;
+        }
     };
 
     /**
@@ -73,4 +80,14 @@ public interface Predicate
      * @param columnIndexStore column index (statistics) store
      */
     boolean matches(long numberOfRows, Optional<ColumnIndexStore> columnIndexStore);
+
+    /**
+     * Should the Parquet Reader process a file section based on the bloom filter of a single column.
+     * A bloom filter can only prove that a value is absent, so this returns false only when none of
+     * the values accepted by the predicate on that column can be present in the section.
+     *
+     * @param column the column the bloom filter belongs to
+     * @param bloomFilter the column chunk bloom filter
+     */
+    boolean matches(ColumnDescriptor column, BloomFilter bloomFilter);
 }
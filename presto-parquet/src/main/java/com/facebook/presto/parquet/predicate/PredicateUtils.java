@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.predicate;
 
+import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.parquet.DictionaryPage;
@@ -31,7 +32,10 @@ import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.Encoding;
 import org.apache.parquet.column.EncodingStats;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.crypto.HiddenColumnChunkMetaData;
+import org.apache.parquet.format.BloomFilterHeader;
 import org.apache.parquet.format.DictionaryPageHeader;
 import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.PageType;
@@ -55,6 +59,7 @@ import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.parquet.ParquetCompressionUtils.decompress;
 import static com.facebook.presto.parquet.ParquetTypeUtils.getParquetEncoding;
+import static com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate.getBloomFilterValues;
 import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.lang.Math.toIntExact;
@@ -64,6 +69,9 @@ import static org.apache.parquet.column.Encoding.RLE;
 
 public final class PredicateUtils
 {
+    // Thrift-encoded bloom filter headers are a handful of bytes, this leaves plenty of headroom
+    private static final int MAX_BLOOM_FILTER_HEADER_SIZE = 64;
+
     private PredicateUtils()
     {
     }
@@ -117,6 +125,29 @@ public final class PredicateUtils
             Optional<ColumnIndexStore> columnIndexStore,
             boolean readColumnIndex,
             Optional<WarningCollector> warningCollector)
+    {
+        return predicateMatches(
+                parquetPredicate,
+                block,
+                dataSource,
+                descriptorsByPath,
+                parquetTupleDomain,
+                columnIndexStore,
+                readColumnIndex,
+                false,
+                warningCollector);
+    }
+
+    public static boolean predicateMatches(
+            Predicate parquetPredicate,
+            BlockMetaData block,
+            ParquetDataSource dataSource,
+            Map<List<String>, RichColumnDescriptor> descriptorsByPath,
+            TupleDomain<ColumnDescriptor> parquetTupleDomain,
+            Optional<ColumnIndexStore> columnIndexStore,
+            boolean readColumnIndex,
+            boolean readBloomFilter,
+            Optional<WarningCollector> warningCollector)
     {
         Map<ColumnDescriptor, Statistics<?>> columnStatistics = getStatistics(block, descriptorsByPath);
         if (!parquetPredicate.matches(block.getRowCount(), columnStatistics, dataSource.getId(), warningCollector)) {
@@ -128,7 +159,12 @@ public final class PredicateUtils
             return false;
         }
 
-        return dictionaryPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain);
+        if (!dictionaryPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain)) {
+            return false;
+        }
+
+        // Bloom filters need an extra read per column, so they are only consulted once everything cheaper failed to eliminate the block.
+        return !readBloomFilter || bloomFilterPredicatesMatch(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain);
     }
 
     private static Map<ColumnDescriptor, Statistics<?>> getStatistics(BlockMetaData blockMetadata, Map<List<String>, RichColumnDescriptor> descriptorsByPath)
@@ -164,6 +200,70 @@ public final class PredicateUtils
         return true;
     }
 
+    private static boolean bloomFilterPredicatesMatch(Predicate parquetPredicate, BlockMetaData blockMetadata, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
+            if (!HiddenColumnChunkMetaData.isHiddenColumn(columnMetaData) && columnMetaData.getBloomFilterOffset() >= 0) {
+                RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+                if (descriptor != null && isBloomFilterPredicate(descriptor, parquetTupleDomain)) {
+                    Optional<BloomFilter> bloomFilter = readBloomFilter(dataSource, columnMetaData);
+                    //  Early abort, predicate already filters block so no more bloom filters need be read
+                    if (bloomFilter.isPresent() && !parquetPredicate.matches(descriptor, bloomFilter.get())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Optional<BloomFilter> readBloomFilter(ParquetDataSource dataSource, ColumnChunkMetaData columnMetaData)
+    {
+        try {
+            long offset = columnMetaData.getBloomFilterOffset();
+            // Writers before parquet-format 2.10 do not record the length, in which case the header is read on its own first
+            int length = columnMetaData.getBloomFilterLength();
+            byte[] buffer = new byte[length > 0 ? length : MAX_BLOOM_FILTER_HEADER_SIZE];
+            dataSource.readFully(offset, buffer);
+
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(buffer);
+            BloomFilterHeader header = Util.readBloomFilterHeader(inputStream);
+            if (!header.getAlgorithm().isSetBLOCK() || !header.getHash().isSetXXHASH() || !header.getCompression().isSetUNCOMPRESSED()) {
+                return Optional.empty();
+            }
+
+            int headerSize = buffer.length - inputStream.available();
+            int bitsetSize = header.getNumBytes();
+            if (bitsetSize <= 0 || bitsetSize > BlockSplitBloomFilter.UPPER_BOUND_BYTES) {
+                return Optional.empty();
+            }
+
+            byte[] bitset;
+            if (length > 0) {
+                if (headerSize + bitsetSize > length) {
+                    return Optional.empty();
+                }
+                bitset = Arrays.copyOfRange(buffer, headerSize, headerSize + bitsetSize);
+            }
+            else {
+                bitset = new byte[bitsetSize];
+                dataSource.readFully(offset + headerSize, bitset);
+            }
+            return Optional.of(new BlockSplitBloomFilter(bitset));
+        }
+        catch (IOException | RuntimeException ignored) {
+            // a bloom filter only prunes, so a failed read or a malformed filter skips the check
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isBloomFilterPredicate(ColumnDescriptor columnDescriptor, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        verify(parquetTupleDomain.getDomains().isPresent(), "parquetTupleDomain is empty");
+        Domain domain = parquetTupleDomain.getDomains().get().get(columnDescriptor);
+        return domain != null && getBloomFilterValues(domain).isPresent();
+    }
+
     private static Optional<DictionaryPage> readDictionaryPage(byte[] data, CompressionCodecName codecName)
     {
         try {
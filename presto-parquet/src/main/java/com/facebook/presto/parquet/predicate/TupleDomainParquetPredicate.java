@@ -31,6 +31,7 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
@@ -48,6 +49,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.Function;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -58,11 +60,13 @@ import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.RealType.REAL;
 import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.common.type.Varchars.isVarcharType;
 import static com.facebook.presto.parquet.ParquetWarningCode.PARQUET_FILE_STATISTICS_CORRUPTION;
 import static com.facebook.presto.parquet.predicate.PredicateUtils.isStatisticsOverflow;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Objects.requireNonNull;
@@ -393,6 +397,72 @@ public class TupleDomainParquetPredicate
         return true;
     }
 
+    @Override
+    public boolean matches(ColumnDescriptor column, BloomFilter bloomFilter)
+    {
+        requireNonNull(bloomFilter, "bloomFilter is null");
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+        if (effectivePredicateDomain == null) {
+            return true;
+        }
+
+        Optional<List<Object>> values = getBloomFilterValues(effectivePredicateDomain);
+        if (!values.isPresent()) {
+            return true;
+        }
+
+        PrimitiveTypeName physicalType = column.getPrimitiveType().getPrimitiveTypeName();
+        for (Object value : values.get()) {
+            OptionalLong hash = getBloomFilterHash(bloomFilter, physicalType, effectivePredicateDomain.getType(), value);
+            if (!hash.isPresent() || bloomFilter.findHash(hash.getAsLong())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the values a bloom filter would have to be probed with to decide whether a column chunk
+     * can match the domain, or empty if the domain is not a null-rejecting set of discrete values.
+     */
+    public static Optional<List<Object>> getBloomFilterValues(Domain domain)
+    {
+        if (domain.isNullAllowed() || domain.isNone() || !domain.getType().isOrderable()) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<Object> values = ImmutableList.builder();
+        for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+            if (!range.isSingleValue()) {
+                return Optional.empty();
+            }
+            values.add(range.getSingleValue());
+        }
+        return Optional.of(values.build());
+    }
+
+    private static OptionalLong getBloomFilterHash(BloomFilter bloomFilter, PrimitiveTypeName physicalType, Type type, Object value)
+    {
+        // Floating point types are left out on purpose: 0.0 and -0.0 compare equal but hash differently
+        if (physicalType == INT32 && (type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE))) {
+            return OptionalLong.of(bloomFilter.hash(toIntExact((long) value)));
+        }
+        if (physicalType == INT64 && type.equals(BIGINT)) {
+            return OptionalLong.of(bloomFilter.hash((long) value));
+        }
+        if (physicalType == BINARY && (isVarcharType(type) || type.equals(VARBINARY))) {
+            return OptionalLong.of(bloomFilter.hash(Binary.fromConstantByteArray(((Slice) value).getBytes())));
+        }
+        return OptionalLong.empty();
+    }
+
     @VisibleForTesting
     public Domain getDomain(Type type, long rowCount, ColumnIndex columnIndex, RichColumnDescriptor descriptor)
     {
@@ -0,0 +1,358 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.Slice;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.presto.parquet.ParquetErrorCode.PARQUET_IO_READ_ERROR;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Plans the reads of all column chunks needed from a row group at once. Chunks that lie within
+ * {@code maxMergeDistance} of each other are merged into one request of at most {@code maxMergedReadSize}
+ * bytes, and every chunk is served as a view over the buffer of the request that covers it.
+ * <p>
+ * Without an executor a merged request is issued the first time one of its chunks is needed, so columns
+ * that are never read (e.g. lazy blocks that are not loaded) are not fetched unless they share a request
+ * with a column that is. With an executor all merged requests of a row group are issued concurrently as
+ * soon as the row group is planned.
+ */
+public class CoalescedReadPlanner
+        implements Closeable
+{
+    private final ParquetDataSource dataSource;
+    private final long maxMergeDistance;
+    private final long maxMergedReadSize;
+    private final Optional<Executor> executor;
+    private final LocalMemoryContext memoryContext;
+
+    private Map<ColumnPath, ChunkReference> chunks = ImmutableMap.of();
+    private List<MergedRead> mergedReads = ImmutableList.of();
+
+    public CoalescedReadPlanner(ParquetDataSource dataSource, long maxMergeDistance, long maxMergedReadSize, Optional<Executor> executor, LocalMemoryContext memoryContext)
+    {
+        checkArgument(maxMergeDistance >= 0, "maxMergeDistance is negative");
+        checkArgument(maxMergedReadSize > 0, "maxMergedReadSize must be positive");
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.maxMergeDistance = maxMergeDistance;
+        this.maxMergedReadSize = maxMergedReadSize;
+        this.executor = requireNonNull(executor, "executor is null");
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+    }
+
+    /**
+     * Replaces the current plan with one covering the given column chunks. Chunks larger than
+     * {@code maxMergedReadSize} are left out and must be streamed by the caller.
+     */
+    public void plan(Map<ColumnPath, ReadRange> columnChunks)
+    {
+        release();
+
+        ImmutableMap.Builder<ColumnPath, ReadRange> plannedChunks = ImmutableMap.builder();
+        for (Entry<ColumnPath, ReadRange> entry : columnChunks.entrySet()) {
+            if (entry.getValue().getLength() > 0 && entry.getValue().getLength() <= maxMergedReadSize) {
+                plannedChunks.put(entry);
+            }
+        }
+        Map<ColumnPath, ReadRange> ranges = plannedChunks.build();
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        ImmutableList.Builder<MergedRead> reads = ImmutableList.builder();
+        ImmutableMap.Builder<ColumnPath, ChunkReference> references = ImmutableMap.builder();
+        for (ReadRange mergedRange : mergeRanges(ranges.values(), maxMergeDistance, maxMergedReadSize)) {
+            MergedRead read = new MergedRead(mergedRange);
+            reads.add(read);
+            for (Entry<ColumnPath, ReadRange> entry : ranges.entrySet()) {
+                if (mergedRange.contains(entry.getValue())) {
+                    references.put(entry.getKey(), new ChunkReference(read, entry.getValue()));
+                }
+            }
+        }
+        mergedReads = reads.build();
+        chunks = references.build();
+
+        if (executor.isPresent()) {
+            memoryContext.setBytes(mergedReads.stream().mapToLong(read -> read.getRange().getLength()).sum());
+            mergedReads.forEach(read -> read.start(executor.get()));
+        }
+    }
+
+    /**
+     * Returns the bytes of the column chunk, or empty if the chunk is not part of the current plan.
+     */
+    public Optional<Slice> getChunk(ColumnPath path)
+    {
+        ChunkReference reference = chunks.get(path);
+        if (reference == null) {
+            return Optional.empty();
+        }
+
+        MergedRead read = reference.getMergedRead();
+        if (!read.isStarted()) {
+            memoryContext.setBytes(memoryContext.getBytes() + read.getRange().getLength());
+            read.start(directExecutor());
+        }
+        Slice buffer = read.getBuffer();
+        ReadRange range = reference.getRange();
+        return Optional.of(buffer.slice(toIntExact(range.getOffset() - read.getRange().getOffset()), range.getLength()));
+    }
+
+    @Override
+    public void close()
+    {
+        release();
+        memoryContext.close();
+    }
+
+    private void release()
+    {
+        // slices handed out by getChunk keep their buffers reachable until the column readers let go of them,
+        // but reads still in flight must finish before their bytes stop being accounted for
+        mergedReads.forEach(MergedRead::cancel);
+        mergedReads.forEach(MergedRead::awaitCompletion);
+        mergedReads = ImmutableList.of();
+        chunks = ImmutableMap.of();
+        memoryContext.setBytes(0);
+    }
+
+    /**
+     * Merge ranges that are closer than {@code maxMergeDistance}, as long as the merged range
+     * does not exceed {@code maxMergedReadSize}.
+     */
+    @VisibleForTesting
+    static List<ReadRange> mergeRanges(Collection<ReadRange> ranges, long maxMergeDistance, long maxMergedReadSize)
+    {
+        List<ReadRange> sortedRanges = new ArrayList<>(ranges);
+        sortedRanges.sort(comparingLong(ReadRange::getOffset));
+
+        ImmutableList.Builder<ReadRange> result = ImmutableList.builder();
+        ReadRange last = sortedRanges.get(0);
+        for (int i = 1; i < sortedRanges.size(); i++) {
+            ReadRange current = sortedRanges.get(i);
+            ReadRange merged = last.span(current);
+            if (merged.getLength() <= maxMergedReadSize && last.getEnd() + maxMergeDistance >= current.getOffset()) {
+                last = merged;
+            }
+            else {
+                result.add(last);
+                last = current;
+            }
+        }
+        result.add(last);
+        return result.build();
+    }
+
+    public static final class ReadRange
+    {
+        private final long offset;
+        private final int length;
+
+        public ReadRange(long offset, int length)
+        {
+            checkArgument(offset >= 0, "offset is negative");
+            checkArgument(length >= 0, "length is negative");
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        public long getEnd()
+        {
+            return offset + length;
+        }
+
+        public boolean contains(ReadRange range)
+        {
+            return offset <= range.getOffset() && range.getEnd() <= getEnd();
+        }
+
+        public ReadRange span(ReadRange range)
+        {
+            long start = Math.min(offset, range.getOffset());
+            long end = Math.max(getEnd(), range.getEnd());
+            return new ReadRange(start, toIntExact(end - start));
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            ReadRange other = (ReadRange) obj;
+            return offset == other.offset && length == other.length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(offset, length);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("offset", offset)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+
+    private final class MergedRead
+    {
+        private final ReadRange range;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final SettableFuture<Slice> buffer = SettableFuture.create();
+        private boolean started;
+
+        private MergedRead(ReadRange range)
+        {
+            this.range = requireNonNull(range, "range is null");
+        }
+
+        public ReadRange getRange()
+        {
+            return range;
+        }
+
+        public boolean isStarted()
+        {
+            return started;
+        }
+
+        public void start(Executor executor)
+        {
+            started = true;
+            executor.execute(this::read);
+        }
+
+        public Slice getBuffer()
+        {
+            // a read still queued on the executor is done by the calling thread instead of waiting for a free thread
+            read();
+            return getFutureValue(buffer);
+        }
+
+        /**
+         * Keeps the read from running if it has not started yet.
+         */
+        public void cancel()
+        {
+            if (claimed.compareAndSet(false, true)) {
+                buffer.cancel(false);
+            }
+        }
+
+        /**
+         * Waits until the read is no longer filling its buffer, so that its memory can be released.
+         */
+        public void awaitCompletion()
+        {
+            try {
+                buffer.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            catch (ExecutionException | CancellationException ignored) {
+                // a failed or cancelled read does not touch its buffer anymore
+            }
+        }
+
+        private void read()
+        {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                byte[] data = new byte[range.getLength()];
+                dataSource.readFully(range.getOffset(), data);
+                buffer.set(wrappedBuffer(data));
+            }
+            catch (PrestoException e) {
+                buffer.setException(e);
+            }
+            catch (RuntimeException e) {
+                buffer.setException(new PrestoException(PARQUET_IO_READ_ERROR, format("Error reading from %s at position %s", dataSource.getId(), range.getOffset()), e));
+            }
+        }
+    }
+
+    private static final class ChunkReference
+    {
+        private final MergedRead mergedRead;
+        private final ReadRange range;
+
+        private ChunkReference(MergedRead mergedRead, ReadRange range)
+        {
+            this.mergedRead = requireNonNull(mergedRead, "mergedRead is null");
+            this.range = requireNonNull(range, "range is null");
+        }
+
+        public MergedRead getMergedRead()
+        {
+            return mergedRead;
+        }
+
+        public ReadRange getRange()
+        {
+            return range;
+        }
+    }
+}
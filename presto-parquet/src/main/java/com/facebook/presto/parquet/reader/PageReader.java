@@ -17,6 +17,7 @@ import com.facebook.presto.parquet.DataPage;
 import com.facebook.presto.parquet.DataPageV1;
 import com.facebook.presto.parquet.DataPageV2;
 import com.facebook.presto.parquet.DictionaryPage;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.ColumnChunkPages;
 import io.airlift.slice.Slice;
 import org.apache.parquet.crypto.AesCipher;
 import org.apache.parquet.crypto.ModuleCipherFactory;
@@ -30,9 +31,11 @@ import java.util.Iterator;
 import java.util.Optional;
 
 import static com.facebook.presto.parquet.ParquetCompressionUtils.decompress;
+import static com.facebook.presto.parquet.cache.DecompressedPageCache.DICTIONARY_PAGE_ORDINAL;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
 
 public class PageReader
 {
@@ -44,6 +47,7 @@ public class PageReader
     private final DictionaryPage compressedDictionaryPage;
     private final OffsetIndex offsetIndex;
     private final Optional<BlockCipher.Decryptor> blockDecryptor;
+    private final Optional<ColumnChunkPages> decompressedPages;
 
     private int pageIndex;
     private byte[] dataPageAdditionalAuthenticationData;
@@ -58,6 +62,24 @@ public class PageReader
             byte[] fileAdditionalAuthenticationData,
             int rowGroupOrdinal,
             int columnOrdinal)
+    {
+        this(codec, dataPageIterator, valueCountInColumnChunk, compressedDictionaryPage, offsetIndex, blockDecryptor, fileAdditionalAuthenticationData, rowGroupOrdinal, columnOrdinal, Optional.empty());
+    }
+
+    /**
+     * @param decompressedPages when present, pages are decompressed through this cache. The pages of the
+     * column chunk must be read in order and without gaps, so that the page ordinals match the chunk.
+     */
+    public PageReader(CompressionCodecName codec,
+            Iterator<DataPage> dataPageIterator,
+            long valueCountInColumnChunk,
+            DictionaryPage compressedDictionaryPage,
+            OffsetIndex offsetIndex,
+            Optional<BlockCipher.Decryptor> blockDecryptor,
+            byte[] fileAdditionalAuthenticationData,
+            int rowGroupOrdinal,
+            int columnOrdinal,
+            Optional<ColumnChunkPages> decompressedPages)
     {
         this.codec = codec;
         this.dataPageIterator = dataPageIterator;
@@ -66,6 +88,7 @@ public class PageReader
         this.offsetIndex = offsetIndex;
         this.pageIndex = 0;
         this.blockDecryptor = blockDecryptor;
+        this.decompressedPages = requireNonNull(decompressedPages, "decompressedPages is null");
 
         if (blockDecryptor.isPresent()) {
             dataPageAdditionalAuthenticationData = AesCipher.createModuleAAD(fileAdditionalAuthenticationData, ModuleCipherFactory.ModuleType.DataPage, rowGroupOrdinal, columnOrdinal, 0);
@@ -94,11 +117,12 @@ public class PageReader
         DataPage compressedPage = dataPageIterator.next();
         try {
             Slice slice = decryptSliceIfNeeded(compressedPage.getSlice(), dataPageAdditionalAuthenticationData);
+            int pageOrdinal = pageIndex;
             long firstRowIndex = getFirstRowIndex(pageIndex, offsetIndex);
             pageIndex = pageIndex + 1;
             if (compressedPage instanceof DataPageV1) {
                 DataPageV1 dataPageV1 = (DataPageV1) compressedPage;
-                slice = decompress(codec, slice, dataPageV1.getUncompressedSize());
+                slice = decompressPage(pageOrdinal, slice, dataPageV1.getUncompressedSize());
                 return new DataPageV1(
                         slice,
                         dataPageV1.getValueCount(),
@@ -117,7 +141,7 @@ public class PageReader
                 int uncompressedSize = toIntExact(dataPageV2.getUncompressedSize()
                         - dataPageV2.getDefinitionLevels().length()
                         - dataPageV2.getRepetitionLevels().length());
-                slice = decompress(codec, slice, uncompressedSize);
+                slice = decompressPage(pageOrdinal, slice, uncompressedSize);
                 return new DataPageV2(
                         dataPageV2.getRowCount(),
                         dataPageV2.getNullCount(),
@@ -145,7 +169,7 @@ public class PageReader
         try {
             Slice slice = decryptSliceIfNeeded(compressedDictionaryPage.getSlice(), dictionaryPageAdditionalAuthenticationData);
             return new DictionaryPage(
-                    decompress(codec, slice, compressedDictionaryPage.getUncompressedSize()),
+                    decompressPage(DICTIONARY_PAGE_ORDINAL, slice, compressedDictionaryPage.getUncompressedSize()),
                     compressedDictionaryPage.getDictionarySize(),
                     compressedDictionaryPage.getEncoding());
         }
@@ -162,6 +186,15 @@ public class PageReader
                 sizeOf(dictionaryPageAdditionalAuthenticationData);
     }
 
+    private Slice decompressPage(int pageOrdinal, Slice slice, int uncompressedSize)
+            throws IOException
+    {
+        if (decompressedPages.isPresent()) {
+            return decompressedPages.get().decompressPage(pageOrdinal, codec, slice, uncompressedSize);
+        }
+        return decompress(codec, slice, uncompressedSize);
+    }
+
     // additional authenticated data for AES cipher
     private Slice decryptSliceIfNeeded(Slice slice, byte[] additionalAuthenticationData)
             throws IOException
@@ -19,6 +19,7 @@ import com.facebook.presto.parquet.DataPageV1;
 import com.facebook.presto.parquet.DataPageV2;
 import com.facebook.presto.parquet.DictionaryPage;
 import com.facebook.presto.parquet.ParquetCorruptionException;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.ColumnChunkPages;
 import com.facebook.presto.parquet.cache.MetadataReader;
 import io.airlift.slice.Slice;
 import org.apache.parquet.column.Encoding;
@@ -89,6 +90,16 @@ public class ParquetColumnChunk
             int rowGroupOrdinal,
             int columnOrdinal)
             throws IOException
+    {
+        return buildPageReader(fileDecryptor, rowGroupOrdinal, columnOrdinal, Optional.empty());
+    }
+
+    public PageReader buildPageReader(
+            Optional<InternalFileDecryptor> fileDecryptor,
+            int rowGroupOrdinal,
+            int columnOrdinal,
+            Optional<ColumnChunkPages> decompressedPages)
+            throws IOException
     {
         byte[] dataPageHeaderAdditionalAuthenticationData = null;
         BlockCipher.Decryptor headerBlockDecryptor = null;
@@ -123,7 +134,7 @@ public class ParquetColumnChunk
 
         long totalValueCount = descriptor.getColumnChunkMetaData().getValueCount();
         return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), dataPageIterator, totalValueCount,
-                dictionaryPage, offsetIndex, dataDecryptor, fileAdditionalAuthenticationData, rowGroupOrdinal, columnOrdinal);
+                dictionaryPage, offsetIndex, dataDecryptor, fileAdditionalAuthenticationData, rowGroupOrdinal, columnOrdinal, decompressedPages);
     }
 
     @Override
@@ -36,9 +36,15 @@ import com.facebook.presto.parquet.ParquetDataSource;
 import com.facebook.presto.parquet.ParquetResultVerifierUtils;
 import com.facebook.presto.parquet.PrimitiveField;
 import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.SelectiveColumnReader;
+import com.facebook.presto.parquet.cache.DecompressedPageCache;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.ColumnChunkPages;
 import com.facebook.presto.parquet.predicate.Predicate;
 import com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate;
+import com.facebook.presto.parquet.reader.CoalescedReadPlanner.ReadRange;
 import com.facebook.presto.parquet.reader.ColumnIndexFilterUtils.OffsetRange;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
 import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
 import it.unimi.dsi.fastutil.booleans.BooleanList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
@@ -71,6 +77,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -118,6 +125,9 @@ public class ParquetReader
     private final List<RowRanges> blockRowRanges;
     private final Map<ColumnPath, ColumnDescriptor> paths = new HashMap<>();
     private final boolean columnIndexFilterEnabled;
+    private final Optional<CoalescedReadPlanner> readPlanner;
+    private final Optional<DecompressedPageCache> decompressedPageCache;
+    private final long fileModificationTime;
     private BlockMetaData currentBlockMetadata;
     /**
      * Index in the Parquet file of the first row of the current group
@@ -147,6 +157,86 @@ public class ParquetReader
             List<ColumnIndexStore> blockIndexStores,
             boolean columnIndexFilterEnabled,
             Optional<InternalFileDecryptor> fileDecryptor)
+    {
+        this(
+                messageColumnIO,
+                blocks,
+                firstRowsOfBlocks,
+                dataSource,
+                systemMemoryContext,
+                maxReadBlockSize,
+                batchReadEnabled,
+                enableVerification,
+                parquetPredicate,
+                blockIndexStores,
+                columnIndexFilterEnabled,
+                fileDecryptor,
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    public ParquetReader(
+            MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            Optional<List<Long>> firstRowsOfBlocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxReadBlockSize,
+            boolean batchReadEnabled,
+            boolean enableVerification,
+            Predicate parquetPredicate,
+            List<ColumnIndexStore> blockIndexStores,
+            boolean columnIndexFilterEnabled,
+            Optional<InternalFileDecryptor> fileDecryptor,
+            Optional<DataSize> maxReadMergeDistance,
+            Optional<Executor> readExecutor)
+    {
+        this(
+                messageColumnIO,
+                blocks,
+                firstRowsOfBlocks,
+                dataSource,
+                systemMemoryContext,
+                maxReadBlockSize,
+                batchReadEnabled,
+                enableVerification,
+                parquetPredicate,
+                blockIndexStores,
+                columnIndexFilterEnabled,
+                fileDecryptor,
+                maxReadMergeDistance,
+                readExecutor,
+                Optional.empty(),
+                0);
+    }
+
+    /**
+     * @param maxReadMergeDistance when present, the column chunks of each row group that are at most
+     * {@code maxReadBlockSize} large are fetched with coalesced reads, merging chunks that are at most
+     * this far apart
+     * @param readExecutor when present, the coalesced reads of a row group are issued concurrently
+     * on this executor as soon as the reader moves to the row group
+     * @param decompressedPageCache when present, the decompressed pages of unencrypted column chunks
+     * that are read in full are shared through this cache
+     * @param fileModificationTime modification time of the file, used to invalidate stale cached pages
+     */
+    public ParquetReader(
+            MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            Optional<List<Long>> firstRowsOfBlocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxReadBlockSize,
+            boolean batchReadEnabled,
+            boolean enableVerification,
+            Predicate parquetPredicate,
+            List<ColumnIndexStore> blockIndexStores,
+            boolean columnIndexFilterEnabled,
+            Optional<InternalFileDecryptor> fileDecryptor,
+            Optional<DataSize> maxReadMergeDistance,
+            Optional<Executor> readExecutor,
+            Optional<DecompressedPageCache> decompressedPageCache,
+            long fileModificationTime)
     {
         this.blocks = blocks;
         this.firstRowsOfBlocks = requireNonNull(firstRowsOfBlocks, "firstRowsOfBlocks is null");
@@ -183,12 +273,23 @@ public class ParquetReader
         this.columnIndexFilterEnabled = columnIndexFilterEnabled;
         requireNonNull(fileDecryptor, "fileDecryptor is null");
         this.fileDecryptor = fileDecryptor;
+        requireNonNull(readExecutor, "readExecutor is null");
+        this.readPlanner = requireNonNull(maxReadMergeDistance, "maxReadMergeDistance is null")
+                .map(distance -> new CoalescedReadPlanner(
+                        dataSource,
+                        distance.toBytes(),
+                        maxReadBlockBytes,
+                        readExecutor,
+                        systemMemoryContext.newLocalMemoryContext("CoalescedReadPlanner")));
+        this.decompressedPageCache = requireNonNull(decompressedPageCache, "decompressedPageCache is null");
+        this.fileModificationTime = fileModificationTime;
     }
 
     @Override
     public void close()
             throws IOException
     {
+        readPlanner.ifPresent(CoalescedReadPlanner::close);
         dataSource.close();
         parquetReaderMemoryContext.close();
         systemMemoryContext.close();
@@ -263,10 +364,23 @@ public class ParquetReader
 
         nextRowInGroup = 0L;
         currentGroupRowCount = currentBlockMetadata.getRowCount();
+        readPlanner.ifPresent(this::planColumnChunkReads);
         initializeColumnReaders();
         return true;
     }
 
+    private void planColumnChunkReads(CoalescedReadPlanner planner)
+    {
+        ImmutableMap.Builder<ColumnPath, ReadRange> columnChunks = ImmutableMap.builder();
+        for (ColumnChunkMetaData metadata : currentBlockMetadata.getColumns()) {
+            // chunks filtered through the column index only need some of their pages, so they keep reading those directly
+            if (!HiddenColumnChunkMetaData.isHiddenColumn(metadata) && paths.containsKey(metadata.getPath()) && !shouldUseColumnIndex(metadata.getPath())) {
+                columnChunks.put(metadata.getPath(), new ReadRange(metadata.getStartingPos(), toIntExact(metadata.getTotalSize())));
+            }
+        }
+        planner.plan(columnChunks.build());
+    }
+
     private ColumnChunk readArray(GroupField field)
             throws IOException
     {
@@ -332,81 +446,101 @@ public class ParquetReader
         int fieldId = field.getId();
         ColumnReader columnReader = columnReaders[fieldId];
         if (!columnReader.isInitialized()) {
-            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData columnChunkMetaData = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = columnChunkMetaData.getStartingPos();
-            int columnChunkSize = toIntExact(columnChunkMetaData.getTotalSize());
-
-            if (shouldUseColumnIndex(columnChunkMetaData.getPath())) {
-                OffsetIndex offsetIndex = blockIndexStores.get(currentBlock).getOffsetIndex(columnChunkMetaData.getPath());
-                OffsetIndex filteredOffsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex, currentGroupRowRanges, blocks.get(currentBlock).getRowCount());
-                List<OffsetRange> offsetRanges = ColumnIndexFilterUtils.calculateOffsetRanges(filteredOffsetIndex, columnChunkMetaData, offsetIndex.getOffset(0), startingPosition);
-                List<OffsetRange> consecutiveRanges = concatRanges(offsetRanges);
-                int consecutiveRangesSize = consecutiveRanges.stream().mapToInt(range -> (int) range.getLength()).sum();
-                PageReader pageReader = createPageReader(
+            initializeColumnReader(field, columnReader);
+        }
+
+        ColumnChunk columnChunk = columnReader.readNext();
+        columnChunk = typeCoercion(columnChunk, field.getDescriptor().getPrimitiveType().getPrimitiveTypeName(), field.getType());
+
+        if (enableVerification) {
+            ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
+            ColumnChunk expected = verificationColumnReader.readNext();
+            ParquetResultVerifierUtils.verifyColumnChunks(columnChunk, expected, columnDescriptor.getPath().length > 1, field, dataSource.getId());
+        }
+
+        // update max size per primitive column chunk
+        updateMaxBytesPerCell(fieldId, columnChunk.getBlock().getSizeInBytes() / batchSize);
+        return columnChunk;
+    }
+
+    private void initializeColumnReader(PrimitiveField field, ColumnReader columnReader)
+            throws IOException
+    {
+        ColumnDescriptor columnDescriptor = field.getDescriptor();
+        validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
+        ColumnChunkMetaData columnChunkMetaData = getColumnChunkMetaData(columnDescriptor);
+        long startingPosition = columnChunkMetaData.getStartingPos();
+        int columnChunkSize = toIntExact(columnChunkMetaData.getTotalSize());
+
+        if (shouldUseColumnIndex(columnChunkMetaData.getPath())) {
+            OffsetIndex offsetIndex = blockIndexStores.get(currentBlock).getOffsetIndex(columnChunkMetaData.getPath());
+            OffsetIndex filteredOffsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex, currentGroupRowRanges, blocks.get(currentBlock).getRowCount());
+            List<OffsetRange> offsetRanges = ColumnIndexFilterUtils.calculateOffsetRanges(filteredOffsetIndex, columnChunkMetaData, offsetIndex.getOffset(0), startingPosition);
+            List<OffsetRange> consecutiveRanges = concatRanges(offsetRanges);
+            int consecutiveRangesSize = consecutiveRanges.stream().mapToInt(range -> (int) range.getLength()).sum();
+            PageReader pageReader = createPageReader(
+                    dataSourceAsInputStream(startingPosition, consecutiveRanges),
+                    consecutiveRangesSize,
+                    columnChunkMetaData,
+                    columnDescriptor,
+                    Optional.of(filteredOffsetIndex),
+                    pageReaderMemoryContext);
+
+            columnReader.init(pageReader, field, currentGroupRowRanges);
+
+            if (enableVerification) {
+                ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
+                PageReader pageReaderVerification = createPageReader(
                         dataSourceAsInputStream(startingPosition, consecutiveRanges),
                         consecutiveRangesSize,
                         columnChunkMetaData,
                         columnDescriptor,
                         Optional.of(filteredOffsetIndex),
-                        pageReaderMemoryContext);
-
-                columnReader.init(pageReader, field, currentGroupRowRanges);
-
-                if (enableVerification) {
-                    ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
-                    PageReader pageReaderVerification = createPageReader(
-                            dataSourceAsInputStream(startingPosition, consecutiveRanges),
-                            consecutiveRangesSize,
-                            columnChunkMetaData,
-                            columnDescriptor,
-                            Optional.of(filteredOffsetIndex),
-                            verificationPageReaderMemoryContext);
-                    verificationColumnReader.init(pageReaderVerification, field, currentGroupRowRanges);
-                }
+                        verificationPageReaderMemoryContext);
+                verificationColumnReader.init(pageReaderVerification, field, currentGroupRowRanges);
             }
-            else {
-                PageReader pageReader = createPageReader(
-                        dataSourceAsInputStream(startingPosition, columnChunkSize),
+        }
+        else {
+            Optional<Slice> columnChunkData = readPlanner.flatMap(planner -> planner.getChunk(columnChunkMetaData.getPath()));
+            PageReader pageReader = createPageReader(
+                    columnChunkAsInputStream(columnChunkData, startingPosition, columnChunkSize),
+                    columnChunkSize,
+                    columnChunkMetaData,
+                    columnDescriptor,
+                    Optional.empty(),
+                    pageReaderMemoryContext);
+            columnReader.init(pageReader, field, null);
+
+            if (enableVerification) {
+                ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
+                PageReader pageReaderVerification = createPageReader(
+                        columnChunkAsInputStream(columnChunkData, startingPosition, columnChunkSize),
                         columnChunkSize,
                         columnChunkMetaData,
                         columnDescriptor,
                         Optional.empty(),
-                        pageReaderMemoryContext);
-                columnReader.init(pageReader, field, null);
-
-                if (enableVerification) {
-                    ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
-                    PageReader pageReaderVerification = createPageReader(
-                            dataSourceAsInputStream(startingPosition, columnChunkSize),
-                            columnChunkSize,
-                            columnChunkMetaData,
-                            columnDescriptor,
-                            Optional.empty(),
-                            verificationPageReaderMemoryContext);
-                    verificationColumnReader.init(pageReaderVerification, field, null);
-                }
+                        verificationPageReaderMemoryContext);
+                verificationColumnReader.init(pageReaderVerification, field, null);
             }
         }
+    }
 
-        ColumnChunk columnChunk = columnReader.readNext();
-        columnChunk = typeCoercion(columnChunk, field.getDescriptor().getPrimitiveType().getPrimitiveTypeName(), field.getType());
-
-        if (enableVerification) {
-            ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
-            ColumnChunk expected = verificationColumnReader.readNext();
-            ParquetResultVerifierUtils.verifyColumnChunks(columnChunk, expected, columnDescriptor.getPath().length > 1, field, dataSource.getId());
-        }
-
-        // update max size per primitive column chunk
-        long bytesPerCell = columnChunk.getBlock().getSizeInBytes() / batchSize;
+    private void updateMaxBytesPerCell(int fieldId, long bytesPerCell)
+    {
         if (maxBytesPerCell[fieldId] < bytesPerCell) {
             // update batch size
             maxCombinedBytesPerRow = maxCombinedBytesPerRow - maxBytesPerCell[fieldId] + bytesPerCell;
             maxBatchSize = toIntExact(min(maxBatchSize, max(1, maxReadBlockBytes / maxCombinedBytesPerRow)));
             maxBytesPerCell[fieldId] = bytesPerCell;
         }
-        return columnChunk;
+    }
+
+    private InputStream columnChunkAsInputStream(Optional<Slice> columnChunkData, long startingPosition, int columnChunkSize)
+    {
+        if (columnChunkData.isPresent()) {
+            return columnChunkData.get().getInput();
+        }
+        return dataSourceAsInputStream(startingPosition, columnChunkSize);
     }
 
     private InputStream dataSourceAsInputStream(long startingPosition, List<OffsetRange> offsetRanges)
@@ -487,14 +621,17 @@ public class ParquetReader
                 new ParquetColumnChunk.ColumnChunkBufferedInputStream(requireNonNull(inputStream), min(columnChunkSize, (int) maxReadBlockBytes)),
                 offsetIndex,
                 memoryContext);
-        return createPageReaderInternal(columnDescriptor, columnChunk, memoryContext);
+        // page ordinals only identify cached pages when the whole column chunk is read
+        Optional<ColumnChunkPages> decompressedPages = offsetIndex.isPresent() ? Optional.empty() : decompressedPageCache.map(
+                cache -> cache.getColumnChunkPages(dataSource.getId(), fileModificationTime, columnChunkMetaData.getStartingPos()));
+        return createPageReaderInternal(columnDescriptor, columnChunk, decompressedPages);
     }
 
-    private PageReader createPageReaderInternal(ColumnDescriptor columnDescriptor, ParquetColumnChunk columnChunk, LocalMemoryContext memoryContext)
+    private PageReader createPageReaderInternal(ColumnDescriptor columnDescriptor, ParquetColumnChunk columnChunk, Optional<ColumnChunkPages> decompressedPages)
             throws IOException
     {
         if (!isEncryptedColumn(fileDecryptor, columnDescriptor)) {
-            return columnChunk.buildPageReader(Optional.empty(), -1, -1);
+            return columnChunk.buildPageReader(Optional.empty(), -1, -1, decompressedPages);
         }
 
         int columnOrdinal = fileDecryptor.get().getColumnSetup(ColumnPath.get(columnChunk.getDescriptor().getColumnDescriptor().getPath())).getOrdinal();
@@ -536,6 +673,38 @@ public class ParquetReader
         return readColumnChunk(field).getBlock();
     }
 
+    /**
+     * Reads the given positions of the current batch for the field. Positions are relative
+     * to the start of the batch and sorted in increasing order. Flat primitive columns whose
+     * reader supports it skip the values of the other positions while decoding; all other
+     * columns are decoded in full and the selected positions are returned as a view.
+     */
+    public Block readBlock(Field field, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (positionCount == batchSize) {
+            return readBlock(field);
+        }
+
+        if (field instanceof PrimitiveField && !enableVerification && columnReaders[field.getId()] instanceof SelectiveColumnReader) {
+            PrimitiveField primitiveField = (PrimitiveField) field;
+            SelectiveColumnReader columnReader = (SelectiveColumnReader) columnReaders[field.getId()];
+            if (!columnReader.isInitialized()) {
+                initializeColumnReader(primitiveField, columnReader);
+            }
+
+            ColumnChunk columnChunk = columnReader.readNext(positions, positionCount);
+            columnChunk = typeCoercion(columnChunk, primitiveField.getDescriptor().getPrimitiveType().getPrimitiveTypeName(), field.getType());
+            if (positionCount > 0) {
+                updateMaxBytesPerCell(field.getId(), columnChunk.getBlock().getSizeInBytes() / positionCount);
+            }
+            parquetReaderMemoryContext.setBytes(getRetainedSizeInBytes());
+            return columnChunk.getBlock();
+        }
+
+        return readBlock(field).getPositions(positions, 0, positionCount);
+    }
+
     private ColumnChunk readColumnChunk(Field field)
             throws IOException
     {
@@ -15,6 +15,7 @@ package com.facebook.presto.parquet.writer;
 
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.parquet.writer.ColumnWriter.BufferData;
 import com.google.common.collect.ImmutableList;
@@ -41,7 +42,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
+import static com.facebook.presto.common.util.ParallelTasks.runAll;
 import static com.facebook.presto.parquet.writer.ParquetDataOutput.createDataOutput;
 import static com.facebook.presto.parquet.writer.ParquetWriterOptions.DEFAULT_MAX_PAGE_SIZE;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -178,10 +182,25 @@ public class ParquetWriter
             throws IOException
     {
         long bufferedBytes = 0;
-        for (int channel = 0; channel < page.getChannelCount(); channel++) {
-            ColumnWriter writer = columnWriters.get(channel);
-            writer.writeBlock(new ColumnChunk(page.getBlock(channel)));
-            bufferedBytes += writer.getBufferedBytes();
+        Optional<Executor> columnWriterExecutor = writerOption.getColumnWriterExecutor();
+        if (columnWriterExecutor.isPresent() && page.getChannelCount() > 1) {
+            // lazy blocks must be loaded on the calling thread
+            Block[] blocks = new Block[page.getChannelCount()];
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                blocks[channel] = page.getBlock(channel).getLoadedBlock();
+            }
+            runAll(columnWriterExecutor.get(), columnWriters.size(), channel -> {
+                columnWriters.get(channel).writeBlock(new ColumnChunk(blocks[channel]));
+                return null;
+            }, IOException.class);
+            bufferedBytes = getBufferedBytes();
+        }
+        else {
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                ColumnWriter writer = columnWriters.get(channel);
+                writer.writeBlock(new ColumnChunk(page.getBlock(channel)));
+                bufferedBytes += writer.getBufferedBytes();
+            }
         }
         rows += page.getPositionCount();
 
@@ -226,8 +245,16 @@ public class ParquetWriter
 
         // get all data in buffer
         ImmutableList.Builder<BufferData> builder = ImmutableList.builder();
-        for (ColumnWriter columnWriter : columnWriters) {
-            columnWriter.getBuffer().forEach(builder::add);
+        Optional<Executor> columnWriterExecutor = writerOption.getColumnWriterExecutor();
+        if (columnWriterExecutor.isPresent() && columnWriters.size() > 1) {
+            // the last page and the dictionary of each column chunk are encoded and compressed here
+            runAll(columnWriterExecutor.get(), columnWriters.size(), channel -> columnWriters.get(channel).getBuffer(), IOException.class)
+                    .forEach(builder::addAll);
+        }
+        else {
+            for (ColumnWriter columnWriter : columnWriters) {
+                columnWriter.getBuffer().forEach(builder::add);
+            }
         }
         List<BufferData> bufferDataList = builder.build();
 
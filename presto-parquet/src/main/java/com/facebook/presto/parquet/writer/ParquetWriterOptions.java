@@ -16,6 +16,9 @@ package com.facebook.presto.parquet.writer;
 import com.facebook.airlift.units.DataSize;
 import org.apache.parquet.column.ParquetProperties.WriterVersion;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -34,13 +37,15 @@ public class ParquetWriterOptions
     private final int maxPageSize;
     private final int maxDictionaryPageSize;
     private final WriterVersion writerVersion;
+    private final Optional<Executor> columnWriterExecutor;
 
-    private ParquetWriterOptions(DataSize maxRowGroupSize, DataSize maxPageSize, DataSize maxDictionaryPageSize, WriterVersion writerVersion)
+    private ParquetWriterOptions(DataSize maxRowGroupSize, DataSize maxPageSize, DataSize maxDictionaryPageSize, WriterVersion writerVersion, Optional<Executor> columnWriterExecutor)
     {
         this.maxRowGroupSize = toIntExact(requireNonNull(maxRowGroupSize, "maxRowGroupSize is null").toBytes());
         this.maxPageSize = toIntExact(requireNonNull(maxPageSize, "maxPageSize is null").toBytes());
         this.maxDictionaryPageSize = toIntExact(requireNonNull(maxDictionaryPageSize, "maxDictionaryPageSize is null").toBytes());
         this.writerVersion = requireNonNull(writerVersion, "writerVersion is null");
+        this.columnWriterExecutor = requireNonNull(columnWriterExecutor, "columnWriterExecutor is null");
     }
 
     public int getMaxRowGroupSize()
@@ -63,6 +68,15 @@ public class ParquetWriterOptions
         return writerVersion;
     }
 
+    /**
+     * Executor on which the column chunks of a row group are encoded and compressed in parallel.
+     * When empty, all columns are written on the calling thread.
+     */
+    public Optional<Executor> getColumnWriterExecutor()
+    {
+        return columnWriterExecutor;
+    }
+
     public static class Builder
     {
         private DataSize maxBlockSize = DEFAULT_MAX_ROW_GROUP_SIZE;
@@ -70,6 +84,7 @@ public class ParquetWriterOptions
         // By default, we set maxDictionaryPageSize to the same default value as maxPageSize, to keep consistent with parquet-mr.
         private DataSize maxDictionaryPageSize = DEFAULT_MAX_PAGE_SIZE;
         private WriterVersion writerVersion = DEFAULT_WRITER_VERSION;
+        private Optional<Executor> columnWriterExecutor = Optional.empty();
 
         public Builder setMaxBlockSize(DataSize maxBlockSize)
         {
@@ -95,9 +110,15 @@ public class ParquetWriterOptions
             return this;
         }
 
+        public Builder setColumnWriterExecutor(Optional<Executor> columnWriterExecutor)
+        {
+            this.columnWriterExecutor = columnWriterExecutor;
+            return this;
+        }
+
         public ParquetWriterOptions build()
         {
-            return new ParquetWriterOptions(maxBlockSize, maxPageSize, maxDictionaryPageSize, writerVersion);
+            return new ParquetWriterOptions(maxBlockSize, maxPageSize, maxDictionaryPageSize, writerVersion, columnWriterExecutor);
         }
     }
 }
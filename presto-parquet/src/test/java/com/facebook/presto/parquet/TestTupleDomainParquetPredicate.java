@@ -25,6 +25,7 @@ import com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate;
 import com.facebook.presto.spi.PrestoWarning;
 import com.facebook.presto.testing.TestingWarningCollector;
 import com.facebook.presto.testing.TestingWarningCollectorConfig;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
@@ -36,6 +37,9 @@ import org.apache.parquet.column.statistics.FloatStatistics;
 import org.apache.parquet.column.statistics.IntStatistics;
 import org.apache.parquet.column.statistics.LongStatistics;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.PrimitiveType;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -394,6 +398,39 @@ public class TestTupleDomainParquetPredicate
         assertTrue(parquetPredicate.matches(new DictionaryDescriptor(column, Optional.of(page))));
     }
 
+    @Test
+    public void testBigintMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, new PrimitiveType(REQUIRED, INT64, 0, ""), 0, 0),
+                new PrimitiveType(REQUIRED, INT64, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(42L));
+        bloomFilter.insertHash(bloomFilter.hash(100L));
+
+        assertTrue(bloomFilterPredicate(column, Domain.singleValue(BIGINT, 42L)).matches(column, bloomFilter));
+        assertTrue(bloomFilterPredicate(column, Domain.multipleValues(BIGINT, ImmutableList.of(7L, 100L))).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.singleValue(BIGINT, 43L)).matches(column, bloomFilter));
+        assertFalse(bloomFilterPredicate(column, Domain.multipleValues(BIGINT, ImmutableList.of(7L, 8L))).matches(column, bloomFilter));
+
+        // ranges and nullable domains cannot be answered by a bloom filter
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 43L, true, 99L, true)), false)).matches(column, bloomFilter));
+        assertTrue(bloomFilterPredicate(column, Domain.create(ValueSet.of(BIGINT, 43L), true)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testVarcharMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, new PrimitiveType(OPTIONAL, BINARY, 0, ""), 0, 0),
+                new PrimitiveType(OPTIONAL, BINARY, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(Binary.fromString("apple")));
+
+        assertTrue(new TupleDomainParquetPredicate(getEffectivePredicate(column, createVarcharType(255), utf8Slice("apple")), singletonList(column)).matches(column, bloomFilter));
+        assertFalse(new TupleDomainParquetPredicate(getEffectivePredicate(column, createVarcharType(255), utf8Slice("banana")), singletonList(column)).matches(column, bloomFilter));
+    }
+
     @Test
     public void testGetRange()
     {
@@ -408,6 +445,11 @@ public class TestTupleDomainParquetPredicate
         assertEquals(range3.getHigh().getValue(), 2.0);
     }
 
+    private TupleDomainParquetPredicate bloomFilterPredicate(RichColumnDescriptor column, Domain domain)
+    {
+        return new TupleDomainParquetPredicate(withColumnDomains(singletonMap(column, domain)), singletonList(column));
+    }
+
     private TupleDomain<ColumnDescriptor> getEffectivePredicate(RichColumnDescriptor column, VarcharType type, Slice value)
     {
         ColumnDescriptor predicateColumn = new ColumnDescriptor(column.getPath(), column.getType(), 0, 0);
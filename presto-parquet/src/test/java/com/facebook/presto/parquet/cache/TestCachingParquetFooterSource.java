@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.cache;
+
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.CachingParquetFooterSource.CacheableFooter;
+import com.facebook.presto.parquet.reader.EncryptDecryptUtil;
+import com.facebook.presto.parquet.reader.MockParquetDataSource;
+import com.facebook.presto.parquet.reader.TestFile;
+import com.facebook.presto.parquet.reader.TestFileBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.crypto.InternalFileDecryptor;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.parquet.cache.MetadataReader.parseFooter;
+import static com.facebook.presto.parquet.cache.MetadataReader.readFooter;
+import static com.facebook.presto.parquet.cache.MetadataReader.readFooterSlice;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestCachingParquetFooterSource
+{
+    private static final MessageType SCHEMA = new MessageType("schema",
+            new PrimitiveType(OPTIONAL, INT64, "id"),
+            new PrimitiveType(OPTIONAL, INT32, "bal"),
+            new PrimitiveType(REQUIRED, BINARY, "name"),
+            new PrimitiveType(OPTIONAL, BINARY, "gender"));
+
+    private final Configuration conf = new Configuration(false);
+
+    @Test
+    public void testCachedFooter()
+            throws IOException
+    {
+        TestFile file = new TestFileBuilder(conf, SCHEMA)
+                .withNumRecord(1000)
+                .withPageSize(1000)
+                .build();
+        Cache<ParquetDataSourceId, CacheableFooter> cache = CacheBuilder.newBuilder().build();
+        CachingParquetFooterSource footerSource = new CachingParquetFooterSource(cache);
+
+        try (MockParquetDataSource dataSource = openDataSource(file)) {
+            ParquetFileMetadata first = footerSource.getParquetMetadata(dataSource, file.getFileSize(), true, 1, Optional.empty(), false);
+            long readBytes = dataSource.getReadBytes();
+            CacheableFooter footer = cache.getIfPresent(dataSource.getId());
+            assertEquals(footer.getModificationTime(), 1);
+
+            // a hit parses the cached footer without touching the file
+            ParquetFileMetadata second = footerSource.getParquetMetadata(dataSource, file.getFileSize(), true, 1, Optional.empty(), false);
+            assertEquals(dataSource.getReadBytes(), readBytes);
+            assertSame(cache.getIfPresent(dataSource.getId()), footer);
+            assertEquals(second.getModificationTime(), 1);
+            assertEquals(second.getMetadataSize(), first.getMetadataSize());
+            assertMetadataEquals(second.getParquetMetadata(), first.getParquetMetadata());
+        }
+    }
+
+    @Test
+    public void testModificationTimeInvalidation()
+            throws IOException
+    {
+        TestFile file = new TestFileBuilder(conf, SCHEMA)
+                .withNumRecord(1000)
+                .withPageSize(1000)
+                .build();
+        Cache<ParquetDataSourceId, CacheableFooter> cache = CacheBuilder.newBuilder().build();
+        CachingParquetFooterSource footerSource = new CachingParquetFooterSource(cache);
+
+        try (MockParquetDataSource dataSource = openDataSource(file)) {
+            footerSource.getParquetMetadata(dataSource, file.getFileSize(), true, 1, Optional.empty(), false);
+            long readBytes = dataSource.getReadBytes();
+            CacheableFooter staleFooter = cache.getIfPresent(dataSource.getId());
+
+            // a changed modification time replaces the entry with a footer read from the file
+            ParquetFileMetadata metadata = footerSource.getParquetMetadata(dataSource, file.getFileSize(), true, 2, Optional.empty(), false);
+            assertEquals(dataSource.getReadBytes(), 2 * readBytes);
+            assertEquals(metadata.getModificationTime(), 2);
+            CacheableFooter footer = cache.getIfPresent(dataSource.getId());
+            assertNotEquals(footer, staleFooter);
+            assertEquals(footer.getModificationTime(), 2);
+            assertEquals(cache.size(), 1);
+
+            // non-cacheable reads neither use nor update the cache
+            footerSource.getParquetMetadata(dataSource, file.getFileSize(), false, 3, Optional.empty(), false);
+            assertSame(cache.getIfPresent(dataSource.getId()), footer);
+        }
+    }
+
+    @Test
+    public void testEncryptedFooter()
+            throws IOException
+    {
+        TestFile file = new TestFileBuilder(conf, SCHEMA)
+                .withEncryptColumns(new String[] {"name", "gender"})
+                .withNumRecord(1000)
+                .withCodec("GZIP")
+                .withPageSize(1000)
+                .withFooterEncryption()
+                .build();
+
+        try (MockParquetDataSource dataSource = openDataSource(file)) {
+            ParquetFileMetadata expected = readFooter(dataSource, file.getFileSize(), 1, createFileDecryptor(), false);
+            ParquetFileMetadata actual = parseFooter(readFooterSlice(dataSource, file.getFileSize()), 1, createFileDecryptor(), dataSource.getId(), false);
+            assertEquals(actual.getMetadataSize(), expected.getMetadataSize());
+            assertEquals(actual.getModificationTime(), expected.getModificationTime());
+            assertMetadataEquals(actual.getParquetMetadata(), expected.getParquetMetadata());
+        }
+    }
+
+    private MockParquetDataSource openDataSource(TestFile file)
+            throws IOException
+    {
+        Path path = new Path(file.getFileName());
+        return new MockParquetDataSource(new ParquetDataSourceId(path.toString()), path.getFileSystem(conf).open(path));
+    }
+
+    private static Optional<InternalFileDecryptor> createFileDecryptor()
+    {
+        return Optional.of(new InternalFileDecryptor(EncryptDecryptUtil.getFileDecryptionProperties()));
+    }
+
+    private static void assertMetadataEquals(ParquetMetadata actual, ParquetMetadata expected)
+    {
+        assertEquals(actual.getFileMetaData().getSchema(), expected.getFileMetaData().getSchema());
+        assertEquals(actual.getFileMetaData().getKeyValueMetaData(), expected.getFileMetaData().getKeyValueMetaData());
+        List<BlockMetaData> actualBlocks = actual.getBlocks();
+        List<BlockMetaData> expectedBlocks = expected.getBlocks();
+        assertEquals(actualBlocks.size(), expectedBlocks.size());
+        for (int i = 0; i < actualBlocks.size(); i++) {
+            assertEquals(actualBlocks.get(i).getRowCount(), expectedBlocks.get(i).getRowCount());
+            assertEquals(actualBlocks.get(i).getTotalByteSize(), expectedBlocks.get(i).getTotalByteSize());
+            List<ColumnChunkMetaData> actualColumns = actualBlocks.get(i).getColumns();
+            List<ColumnChunkMetaData> expectedColumns = expectedBlocks.get(i).getColumns();
+            assertEquals(actualColumns.size(), expectedColumns.size());
+            for (int j = 0; j < actualColumns.size(); j++) {
+                assertEquals(actualColumns.get(j).getPath(), expectedColumns.get(j).getPath());
+                assertEquals(actualColumns.get(j).getStartingPos(), expectedColumns.get(j).getStartingPos());
+                assertEquals(actualColumns.get(j).getTotalSize(), expectedColumns.get(j).getTotalSize());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.cache;
+
+import com.facebook.presto.common.io.DecompressedDataCache.CachedData;
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.ColumnChunkPages;
+import com.facebook.presto.parquet.cache.DecompressedPageCache.PageId;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.parquet.cache.DecompressedPageCache.DICTIONARY_PAGE_ORDINAL;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDecompressedPageCache
+{
+    private static final ParquetDataSourceId DATA_SOURCE_ID = new ParquetDataSourceId("test.parquet");
+    private static final int PAGE_SIZE = 10_000;
+
+    @Test
+    public void testHitAndMiss()
+            throws Exception
+    {
+        Cache<PageId, CachedData> cache = CacheBuilder.newBuilder().build();
+        DecompressedPageCache pageCache = new DecompressedPageCache(cache);
+        ColumnChunkPages pages = pageCache.getColumnChunkPages(DATA_SOURCE_ID, 1, 4);
+
+        byte[] page = testPage(1);
+        Slice compressed = compress(page);
+        Slice decompressed = pages.decompressPage(0, SNAPPY, compressed, page.length);
+        assertEquals(decompressed, wrappedBuffer(page));
+        assertEquals(pageCache.getMissBytes(), page.length);
+        assertEquals(pageCache.getHitBytes(), 0);
+
+        // the same page of another column chunk is a different entry
+        ColumnChunkPages otherPages = pageCache.getColumnChunkPages(DATA_SOURCE_ID, 1, 1000);
+        assertEquals(otherPages.decompressPage(0, SNAPPY, compress(testPage(2)), PAGE_SIZE), wrappedBuffer(testPage(2)));
+        assertEquals(pageCache.getMissBytes(), 2L * PAGE_SIZE);
+
+        // a later scan of the column chunk gets the cached page back
+        assertSame(pageCache.getColumnChunkPages(DATA_SOURCE_ID, 1, 4).decompressPage(0, SNAPPY, compressed, page.length), decompressed);
+        assertEquals(pageCache.getHitBytes(), PAGE_SIZE);
+
+        // dictionary pages are cached under their own ordinal
+        pages.decompressPage(DICTIONARY_PAGE_ORDINAL, SNAPPY, compress(testPage(3)), PAGE_SIZE);
+        assertEquals(cache.size(), 3);
+    }
+
+    @Test
+    public void testModificationTimeChange()
+            throws Exception
+    {
+        Cache<PageId, CachedData> cache = CacheBuilder.newBuilder().build();
+        DecompressedPageCache pageCache = new DecompressedPageCache(cache);
+
+        byte[] oldPage = testPage(1);
+        Slice oldDecompressed = pageCache.getColumnChunkPages(DATA_SOURCE_ID, 1, 4).decompressPage(0, SNAPPY, compress(oldPage), PAGE_SIZE);
+
+        // the file was rewritten, so the cached page of the old version must not be returned
+        byte[] newPage = testPage(2);
+        Slice newDecompressed = pageCache.getColumnChunkPages(DATA_SOURCE_ID, 2, 4).decompressPage(0, SNAPPY, compress(newPage), PAGE_SIZE);
+        assertNotSame(newDecompressed, oldDecompressed);
+        assertEquals(newDecompressed, wrappedBuffer(newPage));
+        assertEquals(pageCache.getHitBytes(), 0);
+        assertEquals(pageCache.getMissBytes(), 2L * PAGE_SIZE);
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testWeightEviction()
+            throws Exception
+    {
+        long maxWeight = 3L * wrappedBuffer(new byte[PAGE_SIZE]).getRetainedSize();
+        Cache<PageId, CachedData> cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maxWeight)
+                .weigher((PageId id, CachedData page) -> toIntExact(page.getSlice().getRetainedSize()))
+                .build();
+        DecompressedPageCache pageCache = new DecompressedPageCache(cache);
+        ColumnChunkPages pages = pageCache.getColumnChunkPages(DATA_SOURCE_ID, 1, 4);
+
+        for (int ordinal = 0; ordinal < 10; ordinal++) {
+            assertEquals(pages.decompressPage(ordinal, SNAPPY, compress(testPage(ordinal)), PAGE_SIZE), wrappedBuffer(testPage(ordinal)));
+        }
+        assertEquals(cache.size(), 3);
+
+        // the oldest pages were evicted and are decompressed again
+        assertEquals(pages.decompressPage(0, SNAPPY, compress(testPage(0)), PAGE_SIZE), wrappedBuffer(testPage(0)));
+        assertEquals(pageCache.getHitBytes(), 0);
+        assertEquals(pageCache.getMissBytes(), 11L * PAGE_SIZE);
+        assertTrue(cache.asMap().values().stream().mapToLong(page -> page.getSlice().getRetainedSize()).sum() <= maxWeight);
+    }
+
+    @Test
+    public void testUncompressedPagesAreNotCached()
+            throws Exception
+    {
+        Cache<PageId, CachedData> cache = CacheBuilder.newBuilder().build();
+        DecompressedPageCache pageCache = new DecompressedPageCache(cache);
+
+        Slice page = wrappedBuffer(testPage(1));
+        assertSame(pageCache.getColumnChunkPages(DATA_SOURCE_ID, 1, 4).decompressPage(0, UNCOMPRESSED, page, PAGE_SIZE), page);
+        assertEquals(cache.size(), 0);
+        assertEquals(pageCache.getMissBytes(), 0);
+    }
+
+    private static byte[] testPage(int seed)
+    {
+        byte[] page = new byte[PAGE_SIZE];
+        Arrays.fill(page, (byte) seed);
+        for (int i = 0; i < page.length; i += 7) {
+            page[i] = (byte) (i * seed);
+        }
+        return page;
+    }
+
+    private static Slice compress(byte[] data)
+    {
+        SnappyCompressor compressor = new SnappyCompressor();
+        byte[] compressed = new byte[compressor.maxCompressedLength(data.length)];
+        int length = compressor.compress(data, 0, data.length, compressed, 0, compressed.length);
+        return wrappedBuffer(compressed, 0, length);
+    }
+}
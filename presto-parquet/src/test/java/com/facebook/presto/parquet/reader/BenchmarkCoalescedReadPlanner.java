@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.parquet.reader.CoalescedReadPlanner.ReadRange;
+import com.google.common.collect.ImmutableMap;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Reads every column chunk of a simulated row group from a data source with a fixed per-request latency,
+ * once with a request per chunk and once through the {@link CoalescedReadPlanner}.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2000, timeUnit = MILLISECONDS)
+@Measurement(iterations = 5, time = 2000, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkCoalescedReadPlanner
+{
+    private static final int COLUMN_CHUNK_SIZE = 64 * 1024;
+    private static final long MAX_MERGED_READ_SIZE = 1024 * 1024;
+
+    @Param({"2"})
+    private long latencyMillis;
+
+    @Param({"8", "32"})
+    private int columnCount;
+
+    @Param({"0", "4096"})
+    private int gapBetweenChunks;
+
+    private TestingParquetDataSource dataSource;
+    private Map<ColumnPath, ReadRange> columnChunks;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup()
+    {
+        ImmutableMap.Builder<ColumnPath, ReadRange> chunks = ImmutableMap.builder();
+        long offset = 0;
+        for (int column = 0; column < columnCount; column++) {
+            chunks.put(ColumnPath.get("column_" + column), new ReadRange(offset, COLUMN_CHUNK_SIZE));
+            offset += COLUMN_CHUNK_SIZE + gapBetweenChunks;
+        }
+        columnChunks = chunks.build();
+        dataSource = new TestingParquetDataSource(new byte[(int) offset], latencyMillis);
+        executor = newFixedThreadPool(8, daemonThreadsNamed("benchmark-coalesced-reads-%s"));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long readPerColumnChunk()
+    {
+        long checksum = 0;
+        for (ReadRange range : columnChunks.values()) {
+            byte[] buffer = new byte[range.getLength()];
+            dataSource.readFully(range.getOffset(), buffer);
+            checksum += buffer[0];
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long readCoalesced()
+    {
+        return readThroughPlanner(Optional.empty());
+    }
+
+    @Benchmark
+    public long readCoalescedConcurrently()
+    {
+        return readThroughPlanner(Optional.of(executor));
+    }
+
+    private long readThroughPlanner(Optional<Executor> readExecutor)
+    {
+        long checksum = 0;
+        try (CoalescedReadPlanner planner = new CoalescedReadPlanner(
+                dataSource,
+                1024 * 1024,
+                MAX_MERGED_READ_SIZE,
+                readExecutor,
+                newSimpleAggregatedMemoryContext().newLocalMemoryContext("benchmark"))) {
+            planner.plan(columnChunks);
+            for (ColumnPath path : columnChunks.keySet()) {
+                checksum += planner.getChunk(path).get().getByte(0);
+            }
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkCoalescedReadPlanner.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
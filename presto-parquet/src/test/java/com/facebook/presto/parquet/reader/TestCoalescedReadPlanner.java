@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.parquet.reader.CoalescedReadPlanner.ReadRange;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetErrorCode.PARQUET_IO_READ_ERROR;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCoalescedReadPlanner
+{
+    private static final ColumnPath COLUMN_A = ColumnPath.get("a");
+    private static final ColumnPath COLUMN_B = ColumnPath.get("b");
+    private static final ColumnPath COLUMN_C = ColumnPath.get("c");
+    private static final ColumnPath COLUMN_D = ColumnPath.get("d");
+
+    @Test
+    public void testMergeRanges()
+    {
+        // adjacent and close ranges are merged, far apart ones are not
+        assertEquals(
+                CoalescedReadPlanner.mergeRanges(ImmutableList.of(new ReadRange(100, 10), new ReadRange(0, 50), new ReadRange(50, 20)), 10, 1000),
+                ImmutableList.of(new ReadRange(0, 70), new ReadRange(100, 10)));
+        assertEquals(
+                CoalescedReadPlanner.mergeRanges(ImmutableList.of(new ReadRange(0, 50), new ReadRange(60, 10), new ReadRange(100, 10)), 30, 1000),
+                ImmutableList.of(new ReadRange(0, 110)));
+
+        // merged ranges never exceed the maximum read size
+        assertEquals(
+                CoalescedReadPlanner.mergeRanges(ImmutableList.of(new ReadRange(0, 50), new ReadRange(50, 50), new ReadRange(100, 50)), 0, 100),
+                ImmutableList.of(new ReadRange(0, 100), new ReadRange(100, 50)));
+    }
+
+    @Test
+    public void testLazyCoalescedReads()
+    {
+        byte[] data = testData(1000);
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(data, 0);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        CoalescedReadPlanner planner = new CoalescedReadPlanner(dataSource, 10, 300, Optional.empty(), memoryContext);
+
+        Map<ColumnPath, ReadRange> chunks = ImmutableMap.of(
+                COLUMN_A, new ReadRange(0, 100),
+                COLUMN_B, new ReadRange(105, 100),
+                COLUMN_C, new ReadRange(600, 100),
+                COLUMN_D, new ReadRange(0, 500));
+        planner.plan(chunks);
+
+        // nothing is read until a chunk is requested
+        assertEquals(dataSource.getReadCount(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+
+        assertChunk(planner.getChunk(COLUMN_B), data, chunks.get(COLUMN_B));
+        assertEquals(dataSource.getReadCount(), 1);
+        assertEquals(memoryContext.getBytes(), 205);
+
+        // the neighbouring chunk was fetched by the same request
+        assertChunk(planner.getChunk(COLUMN_A), data, chunks.get(COLUMN_A));
+        assertEquals(dataSource.getReadCount(), 1);
+
+        assertChunk(planner.getChunk(COLUMN_C), data, chunks.get(COLUMN_C));
+        assertEquals(dataSource.getReadCount(), 2);
+        assertEquals(memoryContext.getBytes(), 305);
+
+        // chunks larger than the maximum read size are left to the caller
+        assertFalse(planner.getChunk(COLUMN_D).isPresent());
+
+        planner.plan(ImmutableMap.of());
+        assertEquals(memoryContext.getBytes(), 0);
+        assertFalse(planner.getChunk(COLUMN_A).isPresent());
+        planner.close();
+    }
+
+    @Test
+    public void testConcurrentCoalescedReads()
+    {
+        byte[] data = testData(1000);
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(data, 10);
+        ExecutorService executor = newFixedThreadPool(4, daemonThreadsNamed("test-coalesced-reads-%s"));
+        try {
+            LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+            CoalescedReadPlanner planner = new CoalescedReadPlanner(dataSource, 0, 1000, Optional.of(executor), memoryContext);
+
+            Map<ColumnPath, ReadRange> chunks = ImmutableMap.of(
+                    COLUMN_A, new ReadRange(0, 100),
+                    COLUMN_B, new ReadRange(300, 100),
+                    COLUMN_C, new ReadRange(600, 100));
+            planner.plan(chunks);
+            assertEquals(memoryContext.getBytes(), 300);
+
+            for (Map.Entry<ColumnPath, ReadRange> entry : chunks.entrySet()) {
+                assertChunk(planner.getChunk(entry.getKey()), data, entry.getValue());
+            }
+            assertEquals(dataSource.getReadCount(), 3);
+            assertEquals(dataSource.getReadBytes(), 300);
+            planner.close();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReleaseWaitsForRunningReads()
+            throws Exception
+    {
+        byte[] data = testData(1000);
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(data, 200);
+        ExecutorService executor = newFixedThreadPool(1, daemonThreadsNamed("test-coalesced-reads-%s"));
+        try {
+            LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+            CoalescedReadPlanner planner = new CoalescedReadPlanner(dataSource, 0, 1000, Optional.of(executor), memoryContext);
+            planner.plan(ImmutableMap.of(
+                    COLUMN_A, new ReadRange(0, 100),
+                    COLUMN_B, new ReadRange(300, 100)));
+            while (dataSource.getActiveReads() == 0) {
+                MILLISECONDS.sleep(1);
+            }
+
+            // the running read finishes before its memory is released, the queued one never starts
+            planner.close();
+            assertEquals(dataSource.getActiveReads(), 0);
+            assertEquals(memoryContext.getBytes(), 0);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, SECONDS));
+            assertEquals(dataSource.getReadCount(), 1);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReadFailure()
+    {
+        ParquetDataSource dataSource = new TestingParquetDataSource(testData(100), 0)
+        {
+            @Override
+            protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            {
+                throw new UncheckedIOException(new IOException("test failure"));
+            }
+        };
+        CoalescedReadPlanner planner = new CoalescedReadPlanner(dataSource, 0, 1000, Optional.empty(), newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        planner.plan(ImmutableMap.of(COLUMN_A, new ReadRange(0, 10)));
+        assertThatThrownBy(() -> planner.getChunk(COLUMN_A))
+                .isInstanceOfSatisfying(PrestoException.class, e -> assertEquals(e.getErrorCode(), PARQUET_IO_READ_ERROR.toErrorCode()))
+                .hasMessage("Error reading from testing at position 0")
+                .hasCauseInstanceOf(UncheckedIOException.class);
+        planner.close();
+    }
+
+    private static void assertChunk(Optional<Slice> chunk, byte[] data, ReadRange range)
+    {
+        assertEquals(chunk.get(), wrappedBuffer(data, (int) range.getOffset(), range.getLength()));
+    }
+
+    private static byte[] testData(int size)
+    {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+}
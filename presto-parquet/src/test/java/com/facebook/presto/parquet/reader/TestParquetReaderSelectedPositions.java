@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.FileParquetDataSource;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.google.common.collect.ImmutableList;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ColumnIOConverter;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.parquet.writer.TestParquetWriter.createParquetWriter;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.util.UUID.randomUUID;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestParquetReaderSelectedPositions
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, INTEGER, VARCHAR);
+    private static final int ROW_COUNT = 5000;
+
+    private File temporaryDirectory;
+    private File parquetFile;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        temporaryDirectory = createTempDir();
+        parquetFile = new File(temporaryDirectory, randomUUID().toString());
+        ParquetWriterOptions parquetWriterOptions = ParquetWriterOptions.builder()
+                .setMaxPageSize(DataSize.succinctBytes(1000))
+                .setMaxBlockSize(DataSize.succinctBytes(20000))
+                .setMaxDictionaryPageSize(DataSize.succinctBytes(1000))
+                .build();
+        try (ParquetWriter parquetWriter = createParquetWriter(parquetFile, TYPES, ImmutableList.of("c_bigint", "c_integer", "c_varchar"), parquetWriterOptions, CompressionCodecName.UNCOMPRESSED)) {
+            PageBuilder pageBuilder = new PageBuilder(ROW_COUNT, TYPES);
+            for (int row = 0; row < ROW_COUNT; row++) {
+                BlockBuilder bigintBuilder = pageBuilder.getBlockBuilder(0);
+                if (row % 7 == 0) {
+                    bigintBuilder.appendNull();
+                }
+                else {
+                    // low cardinality values are dictionary encoded, the rest fall back to plain encoding
+                    BIGINT.writeLong(bigintBuilder, row < ROW_COUNT / 2 ? row % 10 : row);
+                }
+                INTEGER.writeLong(pageBuilder.getBlockBuilder(1), row);
+                VARCHAR.writeString(pageBuilder.getBlockBuilder(2), "value_" + row);
+                pageBuilder.declarePosition();
+            }
+            parquetWriter.write(pageBuilder.build());
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadSelectedPositions()
+            throws Exception
+    {
+        // every third position, plus runs of consecutive positions
+        assertSelectedPositionsMatch(position -> position % 3 == 0 || position % 50 < 10);
+        assertSelectedPositionsMatch(position -> position % 2 == 1);
+        assertSelectedPositionsMatch(position -> position == 0);
+        assertSelectedPositionsMatch(position -> false);
+    }
+
+    private void assertSelectedPositionsMatch(IntPredicate selector)
+            throws Exception
+    {
+        try (ParquetReader fullReader = createReader();
+                ParquetReader selectiveReader = createReader()) {
+            List<Field> fields = getFields();
+            while (true) {
+                int batchSize = fullReader.nextBatch();
+                assertEquals(selectiveReader.nextBatch(), batchSize);
+                if (batchSize <= 0) {
+                    break;
+                }
+
+                int[] positions = new int[batchSize];
+                int positionCount = 0;
+                for (int position = 0; position < batchSize; position++) {
+                    if (selector.test(position)) {
+                        positions[positionCount] = position;
+                        positionCount++;
+                    }
+                }
+
+                for (int channel = 0; channel < fields.size(); channel++) {
+                    Block expected = fullReader.readBlock(fields.get(channel)).getPositions(positions, 0, positionCount);
+                    Block actual = selectiveReader.readBlock(fields.get(channel), positions, positionCount);
+                    assertBlockEquals(TYPES.get(channel), actual, expected);
+                }
+            }
+        }
+    }
+
+    private static void assertBlockEquals(Type type, Block actual, Block expected)
+    {
+        assertEquals(actual.getPositionCount(), expected.getPositionCount());
+        for (int position = 0; position < actual.getPositionCount(); position++) {
+            assertEquals(type.getObjectValue(null, actual, position), type.getObjectValue(null, expected, position));
+        }
+    }
+
+    private ParquetReader createReader()
+            throws Exception
+    {
+        FileParquetDataSource dataSource = new FileParquetDataSource(parquetFile);
+        ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource, parquetFile.length(), Optional.empty(), false).getParquetMetadata();
+        MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(schema, schema);
+        return new ParquetReader(messageColumnIO, parquetMetadata.getBlocks(), Optional.empty(), dataSource, newSimpleAggregatedMemoryContext(), new DataSize(16, MEGABYTE), true, false, null, null, false, Optional.empty());
+    }
+
+    private List<Field> getFields()
+            throws Exception
+    {
+        try (FileParquetDataSource dataSource = new FileParquetDataSource(parquetFile)) {
+            ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource, parquetFile.length(), Optional.empty(), false).getParquetMetadata();
+            MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+            MessageColumnIO messageColumnIO = getColumnIO(schema, schema);
+            ImmutableList.Builder<Field> fields = ImmutableList.builder();
+            for (int channel = 0; channel < TYPES.size(); channel++) {
+                fields.add(ColumnIOConverter.constructField(TYPES.get(channel), messageColumnIO.getChild(channel)).get());
+            }
+            return fields.build();
+        }
+    }
+}
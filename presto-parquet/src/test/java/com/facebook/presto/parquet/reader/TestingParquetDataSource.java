@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.NotSupportedException;
+import com.facebook.presto.parquet.AbstractParquetDataSource;
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * In-memory data source that charges a fixed latency per request, to mimic an object store.
+ */
+public class TestingParquetDataSource
+        extends AbstractParquetDataSource
+{
+    private final byte[] data;
+    private final long latencyMillis;
+    private final AtomicInteger readCount = new AtomicInteger();
+    private final AtomicInteger activeReads = new AtomicInteger();
+
+    public TestingParquetDataSource(byte[] data, long latencyMillis)
+    {
+        super(new ParquetDataSourceId("testing"));
+        this.data = requireNonNull(data, "data is null");
+        this.latencyMillis = latencyMillis;
+    }
+
+    public int getReadCount()
+    {
+        return readCount.get();
+    }
+
+    public int getActiveReads()
+    {
+        return activeReads.get();
+    }
+
+    @Override
+    protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+    {
+        readCount.incrementAndGet();
+        activeReads.incrementAndGet();
+        try {
+            if (latencyMillis > 0) {
+                MILLISECONDS.sleep(latencyMillis);
+            }
+            System.arraycopy(data, (int) position, buffer, bufferOffset, bufferLength);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        finally {
+            activeReads.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Optional<ColumnIndex> readColumnIndex(ColumnChunkMetaData column)
+    {
+        throw new NotSupportedException("Not supported");
+    }
+
+    @Override
+    public Optional<OffsetIndex> readOffsetIndex(ColumnChunkMetaData column)
+    {
+        throw new NotSupportedException("Not supported");
+    }
+}
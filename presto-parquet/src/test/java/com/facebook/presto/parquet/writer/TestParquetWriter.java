@@ -14,6 +14,7 @@
 package com.facebook.presto.parquet.writer;
 
 import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.DecimalType;
@@ -43,6 +44,7 @@ import java.nio.file.Files;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.common.block.MethodHandleUtil.nativeValueGetter;
@@ -63,6 +65,7 @@ import static com.google.common.io.Files.createTempDir;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -178,6 +181,65 @@ public class TestParquetWriter
         }
     }
 
+    @Test
+    public void testParallelColumnWriters()
+            throws Exception
+    {
+        temporaryDirectory = createTempDir();
+        File serialFile = new File(temporaryDirectory, randomUUID().toString());
+        File parallelFile = new File(temporaryDirectory, randomUUID().toString());
+        ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
+        ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
+        for (int column = 0; column < 20; column++) {
+            typesBuilder.add(column % 2 == 0 ? BIGINT : VARCHAR);
+            namesBuilder.add("col_" + column);
+        }
+        List<Type> types = typesBuilder.build();
+        List<String> names = namesBuilder.build();
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        Random rand = new Random(42);
+        for (int pageIdx = 0; pageIdx < 20; pageIdx++) {
+            PageBuilder pageBuilder = new PageBuilder(1000, types);
+            for (int rowIdx = 0; rowIdx < 1000; rowIdx++) {
+                for (int column = 0; column < types.size(); column++) {
+                    if (column % 2 == 0) {
+                        BIGINT.writeLong(pageBuilder.getBlockBuilder(column), rand.nextInt(1000));
+                    }
+                    else {
+                        VARCHAR.writeString(pageBuilder.getBlockBuilder(column), "value_" + rand.nextInt(100000));
+                    }
+                }
+                pageBuilder.declarePosition();
+            }
+            pages.add(pageBuilder.build());
+        }
+
+        ParquetWriterOptions.Builder options = ParquetWriterOptions.builder()
+                .setMaxPageSize(DataSize.succinctBytes(10_000))
+                .setMaxBlockSize(DataSize.succinctBytes(200_000));
+        try (ParquetWriter parquetWriter = createParquetWriter(serialFile, types, names, options.build(), CompressionCodecName.SNAPPY)) {
+            for (Page page : pages.build()) {
+                parquetWriter.write(page);
+            }
+        }
+
+        ExecutorService executor = newFixedThreadPool(4);
+        try {
+            options.setColumnWriterExecutor(Optional.of(executor));
+            try (ParquetWriter parquetWriter = createParquetWriter(parallelFile, types, names, options.build(), CompressionCodecName.SNAPPY)) {
+                for (Page page : pages.build()) {
+                    parquetWriter.write(page);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Files.readAllBytes(parallelFile.toPath()), Files.readAllBytes(serialFile.toPath()));
+    }
+
     @DataProvider(name = "testMetadataCreation")
     public static Object[][] types()
     {
@@ -28,6 +28,8 @@ import com.facebook.presto.memory.QueryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.memory.context.MemoryTrackingContext;
 import com.facebook.presto.operator.DriverContext;
+import com.facebook.presto.operator.HashAggregationOperator;
+import com.facebook.presto.operator.HashBuilderOperator;
 import com.facebook.presto.operator.OperatorContext;
 import com.facebook.presto.operator.PipelineContext;
 import com.facebook.presto.operator.TaskContext;
@@ -69,6 +71,7 @@ import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.RuntimeMetricName.MEMORY_REVOKING_REQUESTED_BYTES;
 import static com.facebook.presto.execution.SqlTask.createSqlTask;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
 import static com.facebook.presto.execution.TaskTestUtils.PLAN_FRAGMENT;
@@ -82,6 +85,7 @@ import static com.facebook.presto.execution.buffer.OutputBuffers.createInitialEm
 import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
 import static com.facebook.presto.sql.analyzer.FeaturesConfig.TaskSpillingStrategy.ORDER_BY_CREATE_TIME;
 import static com.facebook.presto.sql.analyzer.FeaturesConfig.TaskSpillingStrategy.ORDER_BY_REVOCABLE_BYTES;
+import static com.facebook.presto.sql.analyzer.FeaturesConfig.TaskSpillingStrategy.ORDER_BY_SPILL_COST;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
@@ -368,6 +372,50 @@ public class TestMemoryRevokingScheduler
         }
     }
 
+    @Test
+    public void testOperatorRevokingOrderForSpillCost()
+            throws Exception
+    {
+        SqlTask sqlTask1 = newSqlTask(new QueryId("query"), memoryPool);
+        TestOperatorContext operatorContext1 = createTestingOperatorContexts(sqlTask1, "operator1", HashAggregationOperator.class.getSimpleName());
+
+        SqlTask sqlTask2 = newSqlTask(new QueryId("query"), memoryPool);
+        TestOperatorContext operatorContext2 = createTestingOperatorContexts(sqlTask2, "operator2", HashBuilderOperator.class.getSimpleName());
+
+        allOperatorContexts = ImmutableSet.of(operatorContext1, operatorContext2);
+        List<SqlTask> tasks = ImmutableList.of(sqlTask1, sqlTask2);
+        MemoryRevokingScheduler scheduler = new MemoryRevokingScheduler(
+                singletonList(memoryPool),
+                () -> tasks,
+                queryContexts::get,
+                1.0,
+                1.0,
+                ORDER_BY_SPILL_COST,
+                false);
+        try {
+            scheduler.start();
+
+            // Waiting for all existing tasks in scheduler's memoryRevocationExecutor to complete
+            scheduler.awaitAsynchronousCallbacksRun();
+            assertMemoryRevokingNotRequested();
+
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            // Hold the revocation executor until both reservations are done, so that a single revocation sees both operators
+            scheduler.submitAsynchronousCallable(() -> future.get());
+            operatorContext1.localRevocableMemoryContext().setBytes(12);
+            operatorContext2.localRevocableMemoryContext().setBytes(11);
+            future.complete(null);
+
+            scheduler.awaitAsynchronousCallbacksRun();
+            assertMemoryRevokingRequestedFor(operatorContext1, operatorContext2);
+            assertEquals(TestOperatorContext.firstOperator, "operator2"); // spilling a join build is cheaper than spilling an aggregation, even though it holds less memory
+            assertEquals(operatorContext2.getRuntimeStats().getMetric(MEMORY_REVOKING_REQUESTED_BYTES).getSum(), 11);
+        }
+        finally {
+            scheduler.stop();
+        }
+    }
+
     @Test
     public void testTaskThresholdRevokingScheduler()
             throws Exception
@@ -706,6 +754,11 @@ public class TestMemoryRevokingScheduler
     }
 
     private TestOperatorContext createTestingOperatorContexts(SqlTask sqlTask, String operatorName)
+    {
+        return createTestingOperatorContexts(sqlTask, operatorName, "na");
+    }
+
+    private TestOperatorContext createTestingOperatorContexts(SqlTask sqlTask, String operatorName, String operatorType)
     {
         // update task to update underlying taskHolderReference with taskExecution + create a new taskContext
         sqlTask.updateTask(TEST_SESSION,
@@ -721,7 +774,7 @@ public class TestMemoryRevokingScheduler
         TestOperatorContext testOperatorContext = new TestOperatorContext(
                 1,
                 new PlanNodeId("na"),
-                "na",
+                operatorType,
                 driverContext,
                 singleThreadedExecutor,
                 driverContext.getDriverMemoryContext().newMemoryTrackingContext(),